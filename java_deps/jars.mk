@@ -92,3 +92,10 @@ TRUTH_SOURCE_JAR = truth-1.1.2-sources.jar
 
 JSPECIFY_JAR = jspecify-1.0.0.jar
 JSPECIFY_SOURCE_JAR = jspecify-1.0.0-sources.jar
+
+# JMH benchmark harness, and the jars jmh-core needs at runtime.
+JMH_JARS = \
+    jmh-core-1.37.jar \
+    jmh-generator-annprocess-1.37.jar \
+    jopt-simple-5.0.4.jar \
+    commons-math3-3.6.1.jar
@@ -121,6 +121,16 @@ __attribute__((always_inline)) inline id _Nullable IOSObjectArray_Get(
   return ALWAYS_RETAINED_AUTORELEASED_RETURN_VALUE(array->buffer_[index]);
 }
 
+/**
+ * Gets element at a specified index without checking the index. Only for
+ * indexes the translator has proven to be within the array's bounds.
+ * @return the element at index.
+ */
+__attribute__((always_inline)) inline id _Nullable IOSObjectArray_GetUnchecked(
+    __unsafe_unretained IOSObjectArray *_Nonnull array, int32_t index) {
+  return ALWAYS_RETAINED_AUTORELEASED_RETURN_VALUE(array->buffer_[index]);
+}
+
 /**
  * Sets element at a specified index, functional equivalent to replaceObjectAtIndex:withObject:.
  * @throws IndexOutOfBoundsException
@@ -155,6 +165,11 @@ __attribute__((always_inline)) inline JreArrayRef IOSObjectArray_GetRef(
   IOSArray_checkIndex(array->size_, index);
   return (JreArrayRef){.arr = array, .pValue = &array->buffer_[index]};
 }
+// Same as IOSObjectArray_GetRef(), for indexes the translator has proven to be in bounds.
+__attribute__((always_inline)) inline JreArrayRef IOSObjectArray_GetRefUnchecked(
+    __unsafe_unretained IOSObjectArray *_Nonnull array, int32_t index) {
+  return (JreArrayRef){.arr = array, .pValue = &array->buffer_[index]};
+}
 FOUNDATION_EXPORT id _Nullable IOSObjectArray_SetRef(JreArrayRef ref, id _Nullable value);
 
 NS_ASSUME_NONNULL_END
@@ -23,6 +23,7 @@
 @class IOSClass;
 @class JavaLangRefWeakReference;
 @protocol JavaLangIterable;
+@protocol JavaUtilList;
 
 #ifndef __has_feature
 #define __has_feature(x) 0  // Compatibility with non-clang compilers.
@@ -158,12 +159,19 @@ void JreVolatileRetainedWithRelease(id parent, volatile_id *pVar);
 void JreStrictFieldRetainedWithRelease(id parent, id *pVar);
 
 NSString *JreStrcat(const char *types, ...);
+NSString *JreStrcatStrings(int32_t count, ...);
 
 bool JreAnnotationEquals(id a1, id a2);
 int32_t JreAnnotationHashCode(id a);
 
+void JreMonitorEnter(id obj);
+void JreMonitorExit(id obj);
+
 NSUInteger JreDefaultFastEnumeration(
     id<JavaLangIterable> obj, NSFastEnumerationState *state, id __unsafe_unretained *stackbuf);
+NSUInteger JreIndexedFastEnumeration(
+    id<JavaUtilList> list, int32_t *modCount, NSFastEnumerationState *state,
+    id __unsafe_unretained *stackbuf);
 
 CF_EXTERN_C_END
 
@@ -29,11 +29,14 @@
 #import "java/lang/ArithmeticException.h"
 #import "java/lang/AssertionError.h"
 #import "java/lang/ClassCastException.h"
+#import "java/lang/IllegalMonitorStateException.h"
 #import "java/lang/Iterable.h"
 #import "java/lang/NullPointerException.h"
 #import "java/lang/Throwable.h"
+#import "java/util/List.h"
 #import "java/util/logging/Level.h"
 #import "java/util/logging/Logger.h"
+#import "objc-sync.h"
 #import "objc/runtime.h"
 #import "os/lock.h"
 
@@ -278,6 +281,51 @@ jint JreIndexOfStr(NSString *str, NSString **values, jint size) {
   return -1;
 }
 
+// Returns the same value as Java's String.hashCode() for str.
+static uint32_t JavaStringHash(NSString *str) {
+  CFStringRef cfStr = (__bridge CFStringRef)str;
+  CFIndex length = CFStringGetLength(cfStr);
+  uint32_t hash = 0;
+  const UniChar *chars = CFStringGetCharactersPtr(cfStr);
+  if (chars) {
+    for (CFIndex i = 0; i < length; i++) {
+      hash = 31 * hash + chars[i];
+    }
+  } else {
+    CFStringInlineBuffer buffer;
+    CFStringInitInlineBuffer(cfStr, &buffer, CFRangeMake(0, length));
+    for (CFIndex i = 0; i < length; i++) {
+      hash = 31 * hash + CFStringGetCharacterFromInlineBuffer(&buffer, i);
+    }
+  }
+  return hash;
+}
+
+jint JreStringSwitchIndex(NSString *str, const uint32_t *hashes, NSString * const *values,
+                          jint size, jint nullIndex) {
+  if (!str) {
+    return nullIndex;
+  }
+  uint32_t hash = JavaStringHash(str);
+  // Find the first entry with a matching hash, then compare the (usually one) case with it.
+  jint low = 0;
+  jint high = size;
+  while (low < high) {
+    jint mid = (low + high) >> 1;
+    if (hashes[mid] < hash) {
+      low = mid + 1;
+    } else {
+      high = mid;
+    }
+  }
+  for (; low < size && hashes[low] == hash; low++) {
+    if ([str isEqualToString:values[low]]) {
+      return low;
+    }
+  }
+  return -1;
+}
+
 // Counts the number of object types in a string concatenation.
 static NSUInteger CountObjectArgs(const char *types) {
   NSUInteger numObjs = 0;
@@ -399,6 +447,27 @@ NSString *JreStrcat(const char *types, ...) {
   return JreStringBuilder_toStringAndDealloc(&sb);
 }
 
+// Concatenates count NSString arguments. Unlike JreStrcat(), there's no type string to parse.
+NSString *JreStrcatStrings(jint count, ...) {
+  NSString *strs[count];
+  jint capacity = 0;
+  va_list va;
+  va_start(va, count);
+  for (jint i = 0; i < count; i++) {
+    NSString *str = va_arg(va, NSString *);
+    strs[i] = str;
+    capacity += str ? (jint)CFStringGetLength((CFStringRef)str) : 4;
+  }
+  va_end(va);
+
+  JreStringBuilder sb;
+  JreStringBuilder_initWithCapacity(&sb, capacity);
+  for (jint i = 0; i < count; i++) {
+    JreStringBuilder_appendString(&sb, strs[i]);
+  }
+  return JreStringBuilder_toStringAndDealloc(&sb);
+}
+
 id JreStrAppendInner(id lhs, const char *types, va_list va) {
   va_list va_capacity;
   va_copy(va_capacity, va);
@@ -484,6 +553,18 @@ FOUNDATION_EXPORT NSString *JreEnumConstantName(IOSClass *enumClass, jint ordina
   }
 }
 
+// Enters obj's monitor, which is shared with @synchronized and Object.wait()
+// and notify(). Unlike @synchronized, a nil object throws NullPointerException.
+void JreMonitorEnter(__unsafe_unretained id obj) {
+  objc_sync_enter(nil_chk(obj));
+}
+
+void JreMonitorExit(__unsafe_unretained id obj) {
+  if (objc_sync_exit(obj) == OBJC_SYNC_NOT_OWNING_THREAD_ERROR) {
+    @throw create_JavaLangIllegalMonitorStateException_init(); // NOLINT
+  }
+}
+
 NSUInteger JreDefaultFastEnumeration(
     __unsafe_unretained id<JavaLangIterable> obj, NSFastEnumerationState *state,
     __unsafe_unretained id *stackbuf) {
@@ -511,3 +592,31 @@ NSUInteger JreDefaultFastEnumeration(
   }
   return objCount;
 }
+
+// Enumerates a list whose iterator visits its elements with get(int). Like the
+// list's iterator, each element is read only once the loop body has run for the
+// previous one, so the body sees the effects of its own set() calls and nothing
+// is read after a break. The list's modCount is used as the mutations pointer,
+// so a structural change made within the loop is reported before the next
+// element is read.
+NSUInteger JreIndexedFastEnumeration(
+    __unsafe_unretained id<JavaUtilList> list, int32_t *modCount, NSFastEnumerationState *state,
+    __unsafe_unretained id *stackbuf) {
+  SEL getSel = sel_registerName("getWithInt:");
+  if (state->state == 0) {
+    state->state = 1;
+    state->mutationsPtr = (unsigned long *) modCount;
+    state->extra[0] = 0;
+    state->extra[1] = (unsigned long) [(id) list methodForSelector:getSel];
+  }
+  id (*getImpl)(id, SEL, jint) = (id (*)(id, SEL, jint)) state->extra[1];
+  jint index = (jint) state->extra[0];
+  NSUInteger objCount = 0;
+  state->itemsPtr = stackbuf;
+  if (index < [list size]) {
+    *stackbuf++ = getImpl(list, getSel, index++);
+    objCount++;
+  }
+  state->extra[0] = (unsigned long) index;
+  return objCount;
+}
@@ -116,6 +116,15 @@ typedef struct J2ObjcResourceDefinition {
   section("__DATA,__j2objcresource"))) = { QUOTE(BUF), BUF, LEN, HASH };
 
 FOUNDATION_EXPORT int32_t JreIndexOfStr(NSString *str, NSString **values, int32_t size);
+
+/*!
+ * Returns the index of str in a string switch's case tables, nullIndex if str
+ * is nil, or -1 if no case matches. hashes holds the Java hash code of each
+ * case in ascending order, and values holds the cases in the same order.
+ */
+FOUNDATION_EXPORT int32_t JreStringSwitchIndex(
+    NSString *str, const uint32_t *hashes, NSString * const *values, int32_t size,
+    int32_t nullIndex);
 FOUNDATION_EXPORT NSString *JreEnumConstantName(IOSClass *enumClass, int32_t ordinal);
 
 /*!
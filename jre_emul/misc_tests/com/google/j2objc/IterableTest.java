@@ -15,7 +15,14 @@
 package com.google.j2objc;
 
 import com.google.j2objc.annotations.LoopTranslation;
+import com.google.j2objc.annotations.LoopTranslation.LoopStyle;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
 import junit.framework.TestCase;
 
 /**
@@ -50,4 +57,121 @@ public class IterableTest extends TestCase {
       // expected
     }
   }
+
+  // Enumerated by index, since it inherits AbstractList's iterator.
+  private static class RecordingList extends AbstractList<Integer> {
+    private final Integer[] elements;
+    private final List<Integer> reads = new ArrayList<>();
+    private final int failingIndex;
+
+    RecordingList(int failingIndex, Integer... elements) {
+      this.elements = elements;
+      this.failingIndex = failingIndex;
+    }
+
+    @Override
+    public Integer get(int index) {
+      reads.add(index);
+      if (index == failingIndex) {
+        throw new IllegalStateException();
+      }
+      return elements[index];
+    }
+
+    @Override
+    public Integer set(int index, Integer element) {
+      Integer old = elements[index];
+      elements[index] = element;
+      return old;
+    }
+
+    @Override
+    public int size() {
+      return elements.length;
+    }
+  }
+
+  public void testIndexedListFastEnumerationReadsEachElementWhenReached() {
+    RecordingList list = new RecordingList(-1, 1, 2, 3, 4);
+    List<Integer> seen = new ArrayList<>();
+    for (@LoopTranslation(LoopStyle.FAST_ENUMERATION) Integer i : list) {
+      seen.add(i);
+      if (i == 1) {
+        list.set(1, 20);
+      } else if (i == 20) {
+        break;
+      }
+    }
+    // The element set by the body is seen, and nothing is read after the break.
+    assertEquals(Arrays.asList(1, 20), seen);
+    assertEquals(Arrays.asList(0, 1), list.reads);
+  }
+
+  public void testIndexedListFastEnumerationThrowsWhenElementReached() {
+    RecordingList list = new RecordingList(1, 1, 2, 3);
+    List<Integer> seen = new ArrayList<>();
+    try {
+      for (@LoopTranslation(LoopStyle.FAST_ENUMERATION) Integer i : list) {
+        seen.add(i);
+      }
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    assertEquals(Arrays.asList(1), seen);
+    assertEquals(Arrays.asList(0, 1), list.reads);
+  }
+
+  // Iterated with an indexed loop, since it's final, RandomAccess and inherits AbstractList's
+  // iterator.
+  private static final class IndexedList extends AbstractList<Integer> implements RandomAccess {
+    private final List<Integer> elements;
+
+    IndexedList(Integer... elements) {
+      this.elements = new ArrayList<>(Arrays.asList(elements));
+    }
+
+    @Override
+    public Integer get(int index) {
+      return elements.get(index);
+    }
+
+    @Override
+    public Integer remove(int index) {
+      modCount++;
+      return elements.remove(index);
+    }
+
+    @Override
+    public int size() {
+      return elements.size();
+    }
+  }
+
+  public void testIndexedListLoopRemovingSecondToLastElement() {
+    IndexedList list = new IndexedList(1, 2, 3);
+    List<Integer> seen = new ArrayList<>();
+    for (Integer i : list) {
+      seen.add(i);
+      if (i == 2) {
+        list.remove(1);
+      }
+    }
+    // As with the list's iterator, the loop ends without reading the last element.
+    assertEquals(Arrays.asList(1, 2), seen);
+  }
+
+  public void testIndexedListLoopRemovingLastElement() {
+    IndexedList list = new IndexedList(1, 2, 3);
+    try {
+      for (Integer i : list) {
+        if (i == 3) {
+          list.remove(2);
+        }
+      }
+      fail("Expected ConcurrentModificationException");
+    } catch (ConcurrentModificationException e) {
+      // expected
+    }
+  }
 }
@@ -0,0 +1,146 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.benchmark;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Resources;
+import com.google.devtools.j2objc.J2ObjC;
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.util.ErrorUtil;
+import com.google.devtools.j2objc.util.FileUtil;
+import com.google.devtools.j2objc.util.Parser;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The fixed set of Java sources the translator benchmarks run on. The sources
+ * are checked in as resources so results stay comparable between changes; they
+ * are extracted to a temporary directory, which is deleted by {@link #close}.
+ *
+ * The corpus covers the kinds of code whose translation cost differs most:
+ * array-heavy numeric loops, string switches and concatenation, collections
+ * with boxing, lambdas and synchronization, and class hierarchies.
+ */
+public final class BenchmarkCorpus implements Closeable {
+
+  private static final String RESOURCE_DIR = "com/google/devtools/j2objc/benchmark/corpus/";
+
+  public static final ImmutableList<String> SOURCES = ImmutableList.of(
+      RESOURCE_DIR + "Base64Codec.java",
+      RESOURCE_DIR + "EventBus.java",
+      RESOURCE_DIR + "LruCache.java",
+      RESOURCE_DIR + "MessageParser.java",
+      RESOURCE_DIR + "Shapes.java");
+
+  static {
+    // Benchmarks shouldn't print translator diagnostics on every iteration.
+    ErrorUtil.setTestMode();
+  }
+
+  private final File tempDir;
+  private final File sourceDir;
+  private final List<String> sourceFiles = new ArrayList<>();
+  // Parsers stay open while their units are in use, since javac may still load classes.
+  private final List<Parser> parsers = new ArrayList<>();
+
+  private BenchmarkCorpus(File tempDir) {
+    this.tempDir = tempDir;
+    this.sourceDir = new File(tempDir, "src");
+  }
+
+  /**
+   * Extracts the corpus sources to a new temporary directory.
+   */
+  public static BenchmarkCorpus extract() throws IOException {
+    BenchmarkCorpus corpus = new BenchmarkCorpus(FileUtil.createTempDir("j2objc-benchmark"));
+    for (String source : SOURCES) {
+      File file = new File(corpus.sourceDir, source);
+      Files.createDirectories(file.getParentFile().toPath());
+      Files.write(file.toPath(), Resources.toByteArray(Resources.getResource(source)));
+      corpus.sourceFiles.add(file.getPath());
+    }
+    return corpus;
+  }
+
+  /**
+   * Returns the paths of the extracted source files.
+   */
+  public List<String> sourceFiles() {
+    return sourceFiles;
+  }
+
+  /**
+   * Returns a new output directory for a translation run.
+   */
+  public File newOutputDir() throws IOException {
+    return Files.createTempDirectory(tempDir.toPath(), "out").toFile();
+  }
+
+  /**
+   * Returns options for translating the corpus, with any additional flags.
+   */
+  public Options newOptions(String... flags) throws IOException {
+    List<String> args = new ArrayList<>(Arrays.asList(
+        "-d", newOutputDir().getPath(),
+        "-sourcepath", sourceDir.getPath(),
+        "-q",
+        "-encoding", "UTF-8"));
+    args.addAll(Arrays.asList(flags));
+    Options options = new Options();
+    options.load(args.toArray(new String[0]));
+    return options;
+  }
+
+  /**
+   * Parses the corpus in a single javac task and returns its converted
+   * compilation units, before any translation passes have run. The parser is
+   * closed with the corpus.
+   */
+  public List<CompilationUnit> parse(Options options) {
+    List<CompilationUnit> units = new ArrayList<>();
+    Parser parser = J2ObjC.createParser(options);
+    parsers.add(parser);
+    parser.parseFiles(sourceFiles, (path, unit) -> units.add(unit), options.getSourceVersion());
+    checkNoErrors();
+    return units;
+  }
+
+  /**
+   * Fails the benchmark if translation reported errors, since the timings of
+   * a failed translation aren't meaningful.
+   */
+  public static void checkNoErrors() {
+    if (ErrorUtil.errorCount() > 0) {
+      String messages = String.join("\n", ErrorUtil.getErrorMessages());
+      ErrorUtil.reset();
+      throw new IllegalStateException("translation of the benchmark corpus failed:\n" + messages);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (Parser parser : parsers) {
+      parser.close();
+    }
+    parsers.clear();
+    FileUtil.deleteTempDir(tempDir);
+  }
+}
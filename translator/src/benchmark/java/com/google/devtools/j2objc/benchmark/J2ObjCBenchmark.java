@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.benchmark;
+
+import com.google.devtools.j2objc.J2ObjC;
+import com.google.devtools.j2objc.Options;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures an end-to-end {@link J2ObjC#run} of the benchmark corpus, from
+ * reading the sources to writing the .h and .m files.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class J2ObjCBenchmark {
+
+  /** Additional translator flags, separated by spaces. */
+  @Param({"", "-j 4"})
+  public String flags;
+
+  private BenchmarkCorpus corpus;
+  private Options options;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    corpus = BenchmarkCorpus.extract();
+  }
+
+  // Options hold per-run state, such as the header map, so each run gets its own.
+  @Setup(Level.Invocation)
+  public void loadOptions() throws IOException {
+    options = flags.isEmpty() ? corpus.newOptions() : corpus.newOptions(flags.split(" "));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    corpus.close();
+  }
+
+  @Benchmark
+  public void run() {
+    J2ObjC.run(corpus.sourceFiles(), options);
+    BenchmarkCorpus.checkNoErrors();
+  }
+}
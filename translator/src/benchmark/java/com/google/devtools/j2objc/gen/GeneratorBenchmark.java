@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.gen;
+
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.ast.AbstractTypeDeclaration;
+import com.google.devtools.j2objc.ast.Block;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.FunctionDeclaration;
+import com.google.devtools.j2objc.ast.MethodDeclaration;
+import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.benchmark.BenchmarkCorpus;
+import com.google.devtools.j2objc.pipeline.TranslationProcessor;
+import com.google.devtools.j2objc.util.TimeTracker;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures Objective-C source generation from translated trees. The corpus is
+ * translated once; the generators don't modify the tree, so every invocation
+ * generates from the same units.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeneratorBenchmark {
+
+  private BenchmarkCorpus corpus;
+  private List<CompilationUnit> units;
+  private final List<AbstractTypeDeclaration> types = new ArrayList<>();
+  private final List<Block> bodies = new ArrayList<>();
+
+  @Setup
+  public void setUp() throws IOException {
+    corpus = BenchmarkCorpus.extract();
+    Options options = corpus.newOptions();
+    units = corpus.parse(options);
+    for (CompilationUnit unit : units) {
+      TranslationProcessor.applyMutations(
+          unit, null, options.externalAnnotations(), TimeTracker.noop());
+      types.addAll(unit.getTypes());
+      unit.accept(new TreeVisitor() {
+        @Override
+        public boolean visit(MethodDeclaration node) {
+          if (node.getBody() != null) {
+            bodies.add(node.getBody());
+          }
+          return false;
+        }
+
+        @Override
+        public boolean visit(FunctionDeclaration node) {
+          if (node.getBody() != null) {
+            bodies.add(node.getBody());
+          }
+          return false;
+        }
+      });
+    }
+    BenchmarkCorpus.checkNoErrors();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    corpus.close();
+  }
+
+  @Benchmark
+  public void statementGenerator(Blackhole blackhole) {
+    for (Block body : bodies) {
+      blackhole.consume(StatementGenerator.generate(body, 1));
+    }
+  }
+
+  @Benchmark
+  public void typeDeclarationGenerator(Blackhole blackhole) {
+    for (AbstractTypeDeclaration type : types) {
+      SourceBuilder builder = new SourceBuilder(false);
+      TypeDeclarationGenerator.generate(builder, type);
+      blackhole.consume(builder.toString());
+    }
+  }
+
+  /**
+   * All of a unit's generated header and implementation code, as done for
+   * each unit before its output files are written.
+   */
+  @Benchmark
+  public void generateTypes(Blackhole blackhole) {
+    for (CompilationUnit unit : units) {
+      blackhole.consume(GenerationUnit.generateTypes(unit));
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.javac;
+
+import com.google.devtools.j2objc.J2ObjC;
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.benchmark.BenchmarkCorpus;
+import com.sun.source.tree.CompilationUnitTree;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link TreeConverter#convertCompilationUnit} on the benchmark
+ * corpus. javac parses and attributes the corpus once, so only the conversion
+ * of javac's trees into j2objc's AST is timed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TreeConverterBenchmark {
+
+  private BenchmarkCorpus corpus;
+  private JavacParser parser;
+  private Options options;
+  private JavacEnvironment env;
+  private List<CompilationUnitTree> javacUnits;
+
+  @Setup
+  public void setUp() throws IOException {
+    corpus = BenchmarkCorpus.extract();
+    options = corpus.newOptions();
+    parser = (JavacParser) J2ObjC.createParser(options);
+    List<File> files = new ArrayList<>();
+    for (String path : corpus.sourceFiles()) {
+      files.add(new File(path));
+    }
+    env = parser.createEnvironment(files, null, false);
+    javacUnits = new ArrayList<>();
+    for (CompilationUnitTree unit : env.task().parse()) {
+      javacUnits.add(unit);
+    }
+    env.task().analyze();
+    for (Diagnostic<? extends JavaFileObject> diagnostic : env.diagnostics().getDiagnostics()) {
+      if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+        throw new IllegalStateException(diagnostic.toString());
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    parser.close();
+    corpus.close();
+  }
+
+  @Benchmark
+  public void convertCompilationUnit(Blackhole blackhole) {
+    for (CompilationUnitTree javacUnit : javacUnits) {
+      blackhole.consume(TreeConverter.convertCompilationUnit(options, env, javacUnit));
+    }
+  }
+}
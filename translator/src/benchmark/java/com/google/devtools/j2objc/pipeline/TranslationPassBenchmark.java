@@ -0,0 +1,282 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.pipeline;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.benchmark.BenchmarkCorpus;
+import com.google.devtools.j2objc.translate.AbstractMethodRewriter;
+import com.google.devtools.j2objc.translate.AnnotationRewriter;
+import com.google.devtools.j2objc.translate.ArrayRewriter;
+import com.google.devtools.j2objc.translate.Autoboxer;
+import com.google.devtools.j2objc.translate.BoxingEliminator;
+import com.google.devtools.j2objc.translate.CastResolver;
+import com.google.devtools.j2objc.translate.ComplexExpressionExtractor;
+import com.google.devtools.j2objc.translate.ConstantBranchPruner;
+import com.google.devtools.j2objc.translate.DefaultMethodShimGenerator;
+import com.google.devtools.j2objc.translate.DestructorGenerator;
+import com.google.devtools.j2objc.translate.EnhancedForRewriter;
+import com.google.devtools.j2objc.translate.EnumRewriter;
+import com.google.devtools.j2objc.translate.ExternalAnnotationInjector;
+import com.google.devtools.j2objc.translate.Functionizer;
+import com.google.devtools.j2objc.translate.GwtConverter;
+import com.google.devtools.j2objc.translate.InitializationNormalizer;
+import com.google.devtools.j2objc.translate.InnerClassExtractor;
+import com.google.devtools.j2objc.translate.JavaCloneWriter;
+import com.google.devtools.j2objc.translate.JavaToIOSMethodTranslator;
+import com.google.devtools.j2objc.translate.LabelRewriter;
+import com.google.devtools.j2objc.translate.LambdaRewriter;
+import com.google.devtools.j2objc.translate.LambdaTypeElementAdder;
+import com.google.devtools.j2objc.translate.MetadataWriter;
+import com.google.devtools.j2objc.translate.NilCheckResolver;
+import com.google.devtools.j2objc.translate.NumberMethodRewriter;
+import com.google.devtools.j2objc.translate.ObjectiveCAdapterMethodAnnotation;
+import com.google.devtools.j2objc.translate.ObjectiveCNativeProtocolAnnotation;
+import com.google.devtools.j2objc.translate.OcniExtractor;
+import com.google.devtools.j2objc.translate.OperatorRewriter;
+import com.google.devtools.j2objc.translate.OuterReferenceResolver;
+import com.google.devtools.j2objc.translate.PackageInfoRewriter;
+import com.google.devtools.j2objc.translate.PrivateDeclarationResolver;
+import com.google.devtools.j2objc.translate.RecordExpander;
+import com.google.devtools.j2objc.translate.Rewriter;
+import com.google.devtools.j2objc.translate.SerializationStripper;
+import com.google.devtools.j2objc.translate.StaticVarRewriter;
+import com.google.devtools.j2objc.translate.SuperMethodInvocationRewriter;
+import com.google.devtools.j2objc.translate.SwitchRewriter;
+import com.google.devtools.j2objc.translate.UnsequencedExpressionRewriter;
+import com.google.devtools.j2objc.translate.VarargsRewriter;
+import com.google.devtools.j2objc.translate.VariableRenamer;
+import com.google.devtools.j2objc.util.TimeTracker;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures each pass of {@link TranslationProcessor#applyMutations} on its own.
+ *
+ * The corpus is translated once with a ticker that snapshots every unit before
+ * the selected pass runs, so each invocation runs just that pass on a fresh
+ * copy of the tree it would see in a real translation. Copying the snapshots
+ * isn't included in the measured time.
+ *
+ * Run a single pass with "-p pass=Autoboxer", or a whole translation with
+ * "-p pass=applyMutations".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TranslationPassBenchmark {
+
+  private static final String ALL_PASSES = "applyMutations";
+
+  // The passes that applyMutations runs with default options, by the name each is ticked with.
+  // Keep in sync with TranslationProcessor.applyMutations.
+  private static final ImmutableMap<String, Consumer<CompilationUnit>> PASSES =
+      ImmutableMap.<String, Consumer<CompilationUnit>>builder()
+          .put("LambdaTypeElementAdder", unit -> new LambdaTypeElementAdder(unit).run())
+          .put("ExternalAnnotationInjector",
+              unit -> new ExternalAnnotationInjector(
+                  unit, unit.getEnv().options().externalAnnotations()).run())
+          .put("OuterReferenceResolver", unit -> new OuterReferenceResolver(unit).run())
+          .put("RecordExpander", unit -> new RecordExpander(unit).run())
+          .put("GwtConverter", unit -> new GwtConverter(unit).run())
+          .put("SerializationStripper", unit -> new SerializationStripper(unit).run())
+          .put("NumberMethodRewriter", unit -> new NumberMethodRewriter(unit).run())
+          .put("ConstantBranchPruner", unit -> new ConstantBranchPruner(unit).run())
+          .put("Rewriter", unit -> new Rewriter(unit).run())
+          .put("AbstractMethodRewriter", unit -> new AbstractMethodRewriter(unit, null).run())
+          .put("VariableRenamer", unit -> new VariableRenamer(unit).run())
+          .put("EnhancedForRewriter", unit -> new EnhancedForRewriter(unit).run())
+          .put("LambdaRewriter", unit -> new LambdaRewriter(unit).run())
+          .put("Autoboxer", unit -> new Autoboxer(unit).run())
+          .put("BoxingEliminator", unit -> new BoxingEliminator(unit).run())
+          .put("InnerClassExtractor", unit -> new InnerClassExtractor(unit).run())
+          .put("DefaultMethodShimGenerator",
+              unit -> new DefaultMethodShimGenerator(unit, null).run())
+          .put("InitializationNormalizer", unit -> new InitializationNormalizer(unit).run())
+          .put("NilCheckResolver", unit -> new NilCheckResolver(unit).run())
+          .put("UnsequencedExpressionRewriter",
+              unit -> new UnsequencedExpressionRewriter(unit).run())
+          .put("LabelRewriter", unit -> unit.accept(new LabelRewriter()))
+          .put("VarargsRewriter", unit -> new VarargsRewriter(unit).run())
+          .put("JavaCloneWriter", unit -> new JavaCloneWriter(unit).run())
+          .put("OcniExtractor", unit -> new OcniExtractor(unit, null).run())
+          .put("PackageInfoRewriter", PackageInfoRewriter::run)
+          .put("AnnotationRewriter", unit -> new AnnotationRewriter(unit).run())
+          .put("EnumRewriter", unit -> new EnumRewriter(unit).run())
+          .put("DestructorGenerator", unit -> new DestructorGenerator(unit).run())
+          .put("MetadataWriter", unit -> new MetadataWriter(unit, null).run())
+          .put("JavaToIOSMethodTranslator", unit -> new JavaToIOSMethodTranslator(unit).run())
+          .put("Functionizer", unit -> new Functionizer(unit).run())
+          .put("SuperMethodInvocationRewriter",
+              unit -> new SuperMethodInvocationRewriter(unit).run())
+          .put("OperatorRewriter", unit -> new OperatorRewriter(unit).run())
+          .put("StaticVarRewriter", unit -> new StaticVarRewriter(unit).run())
+          .put("ArrayRewriter", unit -> new ArrayRewriter(unit).run())
+          .put("SwitchRewriter", unit -> new SwitchRewriter(unit).run())
+          .put("ComplexExpressionExtractor", unit -> unit.accept(new ComplexExpressionExtractor()))
+          .put("CastResolver", unit -> new CastResolver(unit).run())
+          .put("PrivateDeclarationResolver", unit -> new PrivateDeclarationResolver(unit).run())
+          .put("ObjectiveCNativeProtocolAnnotation",
+              unit -> new ObjectiveCNativeProtocolAnnotation(unit).run())
+          .put("ObjectiveCAdapterMethodAnnotation",
+              unit -> new ObjectiveCAdapterMethodAnnotation(unit).run())
+          .put(ALL_PASSES, unit -> TranslationProcessor.applyMutations(
+              unit, null, unit.getEnv().options().externalAnnotations(), TimeTracker.noop()))
+          .buildOrThrow();
+
+  @Param({
+    "applyMutations",
+    "LambdaTypeElementAdder",
+    "ExternalAnnotationInjector",
+    "OuterReferenceResolver",
+    "RecordExpander",
+    "GwtConverter",
+    "SerializationStripper",
+    "NumberMethodRewriter",
+    "ConstantBranchPruner",
+    "Rewriter",
+    "AbstractMethodRewriter",
+    "VariableRenamer",
+    "EnhancedForRewriter",
+    "LambdaRewriter",
+    "Autoboxer",
+    "BoxingEliminator",
+    "InnerClassExtractor",
+    "DefaultMethodShimGenerator",
+    "InitializationNormalizer",
+    "NilCheckResolver",
+    "UnsequencedExpressionRewriter",
+    "LabelRewriter",
+    "VarargsRewriter",
+    "JavaCloneWriter",
+    "OcniExtractor",
+    "PackageInfoRewriter",
+    "AnnotationRewriter",
+    "EnumRewriter",
+    "DestructorGenerator",
+    "MetadataWriter",
+    "JavaToIOSMethodTranslator",
+    "Functionizer",
+    "SuperMethodInvocationRewriter",
+    "OperatorRewriter",
+    "StaticVarRewriter",
+    "ArrayRewriter",
+    "SwitchRewriter",
+    "ComplexExpressionExtractor",
+    "CastResolver",
+    "PrivateDeclarationResolver",
+    "ObjectiveCNativeProtocolAnnotation",
+    "ObjectiveCAdapterMethodAnnotation",
+  })
+  public String pass;
+
+  private BenchmarkCorpus corpus;
+  private Consumer<CompilationUnit> passRunner;
+  private final List<CompilationUnit> snapshots = new ArrayList<>();
+  private final List<CompilationUnit> units = new ArrayList<>();
+
+  /**
+   * Copies a unit after every pass, keeping the copy made just before the
+   * target pass ran.
+   */
+  private static class SnapshotTicker extends TimeTracker {
+    private final CompilationUnit unit;
+    private final String target;
+    private CompilationUnit lastCopy;
+    private CompilationUnit snapshot;
+
+    SnapshotTicker(CompilationUnit unit, String target) {
+      this.unit = unit;
+      this.target = target;
+    }
+
+    @Override
+    public void push() {
+      lastCopy = unit.copy();
+    }
+
+    @Override
+    public void tick(String event) {
+      if (event.equals(target)) {
+        snapshot = lastCopy;
+      }
+      lastCopy = unit.copy();
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    passRunner = PASSES.get(pass);
+    if (passRunner == null) {
+      throw new IllegalArgumentException("unknown pass: " + pass);
+    }
+    corpus = BenchmarkCorpus.extract();
+    Options options = corpus.newOptions();
+    for (CompilationUnit unit : corpus.parse(options)) {
+      if (pass.equals(ALL_PASSES)) {
+        snapshots.add(unit);
+        continue;
+      }
+      SnapshotTicker ticker = new SnapshotTicker(unit, pass);
+      TranslationProcessor.applyMutations(unit, null, options.externalAnnotations(), ticker);
+      if (ticker.snapshot == null) {
+        throw new IllegalStateException(pass + " wasn't run by applyMutations");
+      }
+      snapshots.add(ticker.snapshot);
+    }
+    BenchmarkCorpus.checkNoErrors();
+  }
+
+  @Setup(Level.Invocation)
+  public void copySnapshots() {
+    units.clear();
+    for (CompilationUnit snapshot : snapshots) {
+      units.add(snapshot.copy());
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    corpus.close();
+  }
+
+  @Benchmark
+  public List<CompilationUnit> runPass() {
+    for (CompilationUnit unit : units) {
+      passRunner.accept(unit);
+    }
+    return units;
+  }
+}
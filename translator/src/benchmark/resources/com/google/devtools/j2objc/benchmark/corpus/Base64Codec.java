@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.benchmark.corpus;
+
+/**
+ * Array-heavy numeric code: encoding loops, bit manipulation and checksums.
+ */
+public final class Base64Codec {
+
+  private static final char[] ALPHABET =
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+  private static final int[] DECODE_TABLE = new int[128];
+
+  static {
+    for (int i = 0; i < DECODE_TABLE.length; i++) {
+      DECODE_TABLE[i] = -1;
+    }
+    for (int i = 0; i < ALPHABET.length; i++) {
+      DECODE_TABLE[ALPHABET[i]] = i;
+    }
+  }
+
+  private Base64Codec() {}
+
+  public static String encode(byte[] data) {
+    StringBuilder sb = new StringBuilder((data.length + 2) / 3 * 4);
+    int i = 0;
+    for (; i + 2 < data.length; i += 3) {
+      int n = ((data[i] & 0xff) << 16) | ((data[i + 1] & 0xff) << 8) | (data[i + 2] & 0xff);
+      sb.append(ALPHABET[(n >>> 18) & 0x3f]);
+      sb.append(ALPHABET[(n >>> 12) & 0x3f]);
+      sb.append(ALPHABET[(n >>> 6) & 0x3f]);
+      sb.append(ALPHABET[n & 0x3f]);
+    }
+    int remaining = data.length - i;
+    if (remaining == 1) {
+      int n = (data[i] & 0xff) << 16;
+      sb.append(ALPHABET[(n >>> 18) & 0x3f]).append(ALPHABET[(n >>> 12) & 0x3f]).append("==");
+    } else if (remaining == 2) {
+      int n = ((data[i] & 0xff) << 16) | ((data[i + 1] & 0xff) << 8);
+      sb.append(ALPHABET[(n >>> 18) & 0x3f])
+          .append(ALPHABET[(n >>> 12) & 0x3f])
+          .append(ALPHABET[(n >>> 6) & 0x3f])
+          .append('=');
+    }
+    return sb.toString();
+  }
+
+  public static byte[] decode(String s) {
+    int padding = s.endsWith("==") ? 2 : s.endsWith("=") ? 1 : 0;
+    byte[] out = new byte[s.length() / 4 * 3 - padding];
+    int o = 0;
+    for (int i = 0; i < s.length(); i += 4) {
+      int n = 0;
+      for (int j = 0; j < 4; j++) {
+        char c = s.charAt(i + j);
+        int value = c == '=' ? 0 : DECODE_TABLE[c];
+        if (value < 0) {
+          throw new IllegalArgumentException("Illegal character: " + c + " at " + (i + j));
+        }
+        n = (n << 6) | value;
+      }
+      for (int shift = 16; shift >= 0 && o < out.length; shift -= 8) {
+        out[o++] = (byte) (n >>> shift);
+      }
+    }
+    return out;
+  }
+
+  public static int crc32(byte[] data, int offset, int length) {
+    int crc = 0xffffffff;
+    for (int i = offset; i < offset + length; i++) {
+      crc ^= data[i] & 0xff;
+      for (int k = 0; k < 8; k++) {
+        crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0xedb88320 : crc >>> 1;
+      }
+    }
+    return ~crc;
+  }
+
+  public static long sum(int[] values) {
+    long total = 0;
+    for (int i = 0; i < values.length; i++) {
+      total += values[i];
+    }
+    return total;
+  }
+
+  public static void normalize(float[] pixels, float mean, float stddev) {
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = (pixels[i] - mean) / stddev;
+    }
+  }
+
+  public static int[][] transpose(int[][] matrix) {
+    int rows = matrix.length;
+    int cols = rows > 0 ? matrix[0].length : 0;
+    int[][] result = new int[cols][rows];
+    for (int r = 0; r < rows; r++) {
+      for (int c = 0; c < cols; c++) {
+        result[c][r] = matrix[r][c];
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.benchmark.corpus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Concurrency-heavy code: synchronization, lambdas, method references and inner classes.
+ */
+public class EventBus<E> {
+
+  /** Receives events posted to the bus. */
+  public interface Subscriber<E> {
+    void onEvent(E event);
+
+    default int priority() {
+      return 0;
+    }
+  }
+
+  private final Map<Class<?>, List<Subscriber<? super E>>> subscribers = new HashMap<>();
+  private final List<Consumer<Throwable>> errorHandlers = new CopyOnWriteArrayList<>();
+  private final AtomicInteger posted = new AtomicInteger();
+  private final Object lock = new Object();
+  private int dispatchDepth;
+
+  public synchronized void register(Class<?> type, Subscriber<? super E> subscriber) {
+    List<Subscriber<? super E>> list = subscribers.get(type);
+    if (list == null) {
+      list = new ArrayList<>();
+      subscribers.put(type, list);
+    }
+    list.add(subscriber);
+    Collections.sort(list, Comparator.comparingInt(Subscriber::priority));
+  }
+
+  public void onError(Consumer<Throwable> handler) {
+    errorHandlers.add(handler);
+  }
+
+  public int post(E event) {
+    List<Subscriber<? super E>> targets;
+    synchronized (this) {
+      List<Subscriber<? super E>> list = subscribers.get(event.getClass());
+      if (list == null) {
+        return 0;
+      }
+      targets = new ArrayList<>(list);
+    }
+    int delivered = 0;
+    synchronized (lock) {
+      dispatchDepth++;
+    }
+    try {
+      for (Subscriber<? super E> subscriber : targets) {
+        try {
+          subscriber.onEvent(event);
+          delivered++;
+        } catch (RuntimeException e) {
+          errorHandlers.forEach(h -> h.accept(e));
+        }
+      }
+    } finally {
+      synchronized (lock) {
+        dispatchDepth--;
+        lock.notifyAll();
+      }
+    }
+    posted.incrementAndGet();
+    return delivered;
+  }
+
+  public void awaitIdle() throws InterruptedException {
+    synchronized (lock) {
+      while (dispatchDepth > 0) {
+        lock.wait();
+      }
+    }
+  }
+
+  public Subscriber<E> filtered(Predicate<? super E> filter, Subscriber<? super E> delegate) {
+    return new Subscriber<E>() {
+      @Override
+      public void onEvent(E event) {
+        if (filter.test(event)) {
+          delegate.onEvent(event);
+        }
+      }
+
+      @Override
+      public int priority() {
+        return delegate.priority() + 1;
+      }
+    };
+  }
+
+  public List<String> describeSubscribers() {
+    synchronized (this) {
+      return subscribers.entrySet().stream()
+          .filter(e -> !e.getValue().isEmpty())
+          .map(e -> e.getKey().getSimpleName() + "=" + e.getValue().size())
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  public int postedCount() {
+    return posted.get();
+  }
+
+  /** Counts events by type. */
+  public class Counter implements Subscriber<E> {
+    private final Map<String, Integer> counts = new HashMap<>();
+
+    @Override
+    public void onEvent(E event) {
+      String key = event.getClass().getName();
+      Integer count = counts.get(key);
+      counts.put(key, count == null ? 1 : count + 1);
+    }
+
+    public int total() {
+      int total = 0;
+      for (Integer count : counts.values()) {
+        total += count;
+      }
+      return total + postedCount() * 0;
+    }
+  }
+}
@@ -0,0 +1,226 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.benchmark.corpus;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Collection code: a generic hash table with a linked access order, iterators and boxing.
+ */
+public class LruCache<K, V> extends AbstractMap<K, V> {
+
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final float LOAD_FACTOR = 0.75f;
+
+  static final class Node<K, V> implements Map.Entry<K, V> {
+    final int hash;
+    final K key;
+    V value;
+    Node<K, V> next;
+    Node<K, V> before;
+    Node<K, V> after;
+
+    Node(int hash, K key, V value, Node<K, V> next) {
+      this.hash = hash;
+      this.key = key;
+      this.value = value;
+      this.next = next;
+    }
+
+    @Override
+    public K getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      return value;
+    }
+
+    @Override
+    public V setValue(V value) {
+      V old = this.value;
+      this.value = value;
+      return old;
+    }
+  }
+
+  private Node<K, V>[] table;
+  private final Node<K, V> header = new Node<>(0, null, null, null);
+  private final int maxSize;
+  private int size;
+  private int modCount;
+  private long hits;
+  private long misses;
+
+  @SuppressWarnings("unchecked")
+  public LruCache(int maxSize) {
+    this.maxSize = maxSize;
+    table = (Node<K, V>[]) new Node<?, ?>[DEFAULT_CAPACITY];
+    header.before = header.after = header;
+  }
+
+  private static int hash(Object key) {
+    int h = key == null ? 0 : key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  @Override
+  public V get(Object key) {
+    int h = hash(key);
+    for (Node<K, V> e = table[h & (table.length - 1)]; e != null; e = e.next) {
+      if (e.hash == h && (e.key == key || (key != null && key.equals(e.key)))) {
+        moveToFront(e);
+        hits++;
+        return e.value;
+      }
+    }
+    misses++;
+    return null;
+  }
+
+  @Override
+  public V put(K key, V value) {
+    int h = hash(key);
+    int index = h & (table.length - 1);
+    for (Node<K, V> e = table[index]; e != null; e = e.next) {
+      if (e.hash == h && (e.key == key || (key != null && key.equals(e.key)))) {
+        moveToFront(e);
+        return e.setValue(value);
+      }
+    }
+    Node<K, V> node = new Node<>(h, key, value, table[index]);
+    table[index] = node;
+    linkFirst(node);
+    modCount++;
+    if (++size > table.length * LOAD_FACTOR) {
+      resize();
+    }
+    if (size > maxSize) {
+      remove(header.before.key);
+    }
+    return null;
+  }
+
+  @Override
+  public V remove(Object key) {
+    int h = hash(key);
+    int index = h & (table.length - 1);
+    Node<K, V> prev = null;
+    for (Node<K, V> e = table[index]; e != null; prev = e, e = e.next) {
+      if (e.hash == h && (e.key == key || (key != null && key.equals(e.key)))) {
+        if (prev == null) {
+          table[index] = e.next;
+        } else {
+          prev.next = e.next;
+        }
+        e.before.after = e.after;
+        e.after.before = e.before;
+        size--;
+        modCount++;
+        return e.value;
+      }
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void resize() {
+    Node<K, V>[] old = table;
+    table = (Node<K, V>[]) new Node<?, ?>[old.length * 2];
+    for (Node<K, V> head : old) {
+      while (head != null) {
+        Node<K, V> next = head.next;
+        int index = head.hash & (table.length - 1);
+        head.next = table[index];
+        table[index] = head;
+        head = next;
+      }
+    }
+  }
+
+  private void linkFirst(Node<K, V> node) {
+    node.after = header.after;
+    node.before = header;
+    header.after.before = node;
+    header.after = node;
+  }
+
+  private void moveToFront(Node<K, V> node) {
+    node.before.after = node.after;
+    node.after.before = node.before;
+    linkFirst(node);
+  }
+
+  public double hitRate() {
+    long total = hits + misses;
+    return total == 0 ? 0.0 : (double) hits / total;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    return new AbstractSet<Map.Entry<K, V>>() {
+      @Override
+      public Iterator<Map.Entry<K, V>> iterator() {
+        return new Iterator<Map.Entry<K, V>>() {
+          private Node<K, V> next = header.after;
+          private final int expectedModCount = modCount;
+
+          @Override
+          public boolean hasNext() {
+            return next != header;
+          }
+
+          @Override
+          public Map.Entry<K, V> next() {
+            if (modCount != expectedModCount) {
+              throw new IllegalStateException();
+            }
+            if (next == header) {
+              throw new NoSuchElementException();
+            }
+            Node<K, V> result = next;
+            next = next.after;
+            return result;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  public static LruCache<String, Integer> wordCounts(String text, int maxSize) {
+    LruCache<String, Integer> counts = new LruCache<>(maxSize);
+    for (String word : text.split("\\s+")) {
+      Integer count = counts.get(word);
+      counts.put(word, count == null ? 1 : count + 1);
+    }
+    return counts;
+  }
+}
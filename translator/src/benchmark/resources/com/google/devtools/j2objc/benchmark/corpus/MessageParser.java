@@ -0,0 +1,175 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.benchmark.corpus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Protocol parsing code: string switches, string building, enums and exceptions.
+ */
+public class MessageParser {
+
+  /** The kind of a parsed message. */
+  public enum Kind {
+    REQUEST("req"),
+    RESPONSE("resp"),
+    EVENT("evt"),
+    HEARTBEAT("hb");
+
+    private final String tag;
+
+    Kind(String tag) {
+      this.tag = tag;
+    }
+
+    public String tag() {
+      return tag;
+    }
+  }
+
+  /** A parsed message. */
+  public static class Message {
+    final Kind kind;
+    final String id;
+    final Map<String, String> headers = new HashMap<>();
+    String body;
+
+    Message(Kind kind, String id) {
+      this.kind = kind;
+      this.id = id;
+    }
+
+    @Override
+    public String toString() {
+      return kind.tag() + ":" + id + " " + headers + (body != null ? " [" + body.length() + "]" : "");
+    }
+  }
+
+  /** Thrown for malformed input. */
+  public static class ParseException extends Exception {
+    public ParseException(String message, int line) {
+      super("line " + line + ": " + message);
+    }
+  }
+
+  private int maxHeaders = 64;
+  private int linesRead;
+
+  public List<Message> parseAll(String input) throws ParseException {
+    List<Message> messages = new ArrayList<>();
+    Message current = null;
+    StringBuilder body = null;
+    for (String line : input.split("\n")) {
+      linesRead++;
+      if (body != null) {
+        if (line.equals(".")) {
+          current.body = body.toString();
+          body = null;
+        } else {
+          body.append(line).append('\n');
+        }
+        continue;
+      }
+      int colon = line.indexOf(':');
+      String tag = colon >= 0 ? line.substring(0, colon) : line;
+      String value = colon >= 0 ? line.substring(colon + 1).trim() : "";
+      switch (tag) {
+        case "req":
+          current = new Message(Kind.REQUEST, value);
+          messages.add(current);
+          break;
+        case "resp":
+          current = new Message(Kind.RESPONSE, value);
+          messages.add(current);
+          break;
+        case "evt":
+          current = new Message(Kind.EVENT, value);
+          messages.add(current);
+          break;
+        case "hb":
+          messages.add(new Message(Kind.HEARTBEAT, value));
+          current = null;
+          break;
+        case "body":
+          if (current == null) {
+            throw new ParseException("body without message", linesRead);
+          }
+          body = new StringBuilder();
+          break;
+        case "":
+          break;
+        default:
+          if (current == null) {
+            throw new ParseException("header without message: " + tag, linesRead);
+          }
+          if (current.headers.size() >= maxHeaders) {
+            throw new ParseException("too many headers", linesRead);
+          }
+          current.headers.put(tag, value);
+      }
+    }
+    return messages;
+  }
+
+  public static int priority(Message message) {
+    switch (message.kind) {
+      case HEARTBEAT:
+        return 0;
+      case EVENT:
+        return 1;
+      case RESPONSE:
+        return 2;
+      default:
+        return 3;
+    }
+  }
+
+  public static String escape(String s) {
+    StringBuilder sb = null;
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      String replacement;
+      switch (c) {
+        case '\n': replacement = "\\n"; break;
+        case '\t': replacement = "\\t"; break;
+        case '"': replacement = "\\\""; break;
+        case '\\': replacement = "\\\\"; break;
+        default: replacement = null;
+      }
+      if (replacement != null) {
+        if (sb == null) {
+          sb = new StringBuilder(s.length() + 16);
+          sb.append(s, 0, i);
+        }
+        sb.append(replacement);
+      } else if (sb != null) {
+        sb.append(c);
+      }
+    }
+    return sb != null ? sb.toString() : s;
+  }
+
+  public String describe(Message message) {
+    String result = "message";
+    result += " kind=" + message.kind;
+    result += " id=" + message.id;
+    result += " headers=" + message.headers.size();
+    result += " lines=" + linesRead;
+    return result;
+  }
+}
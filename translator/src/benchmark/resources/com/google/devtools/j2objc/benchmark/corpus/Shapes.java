@@ -0,0 +1,178 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.benchmark.corpus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Object-oriented code: class hierarchies, interfaces with default methods, static state and
+ * virtual dispatch.
+ */
+public class Shapes {
+
+  /** A two-dimensional shape. */
+  public interface Shape extends Comparable<Shape> {
+    double area();
+
+    double perimeter();
+
+    default String describe() {
+      return getClass().getSimpleName() + "(area=" + area() + ", perimeter=" + perimeter() + ")";
+    }
+
+    @Override
+    default int compareTo(Shape other) {
+      return Double.compare(area(), other.area());
+    }
+  }
+
+  /** Base class that counts instances. */
+  public abstract static class AbstractShape implements Shape {
+    static int created;
+    protected final String name;
+
+    protected AbstractShape(String name) {
+      this.name = name;
+      created++;
+    }
+
+    @Override
+    public String toString() {
+      return name + ": " + describe();
+    }
+  }
+
+  /** A circle. */
+  public static final class Circle extends AbstractShape {
+    private final double radius;
+
+    public Circle(double radius) {
+      super("circle");
+      this.radius = radius;
+    }
+
+    @Override
+    public double area() {
+      return Math.PI * radius * radius;
+    }
+
+    @Override
+    public double perimeter() {
+      return 2 * Math.PI * radius;
+    }
+  }
+
+  /** A rectangle. */
+  public static class Rectangle extends AbstractShape {
+    protected final double width;
+    protected final double height;
+
+    public Rectangle(double width, double height) {
+      this("rectangle", width, height);
+    }
+
+    protected Rectangle(String name, double width, double height) {
+      super(name);
+      this.width = width;
+      this.height = height;
+    }
+
+    @Override
+    public double area() {
+      return width * height;
+    }
+
+    @Override
+    public double perimeter() {
+      return 2 * (width + height);
+    }
+  }
+
+  /** A square. */
+  public static class Square extends Rectangle {
+    public Square(double side) {
+      super("square", side, side);
+    }
+  }
+
+  /** A polygon with arbitrary vertices. */
+  public static class Polygon extends AbstractShape {
+    private final double[] xs;
+    private final double[] ys;
+
+    public Polygon(double[] xs, double[] ys) {
+      super("polygon");
+      if (xs.length != ys.length || xs.length < 3) {
+        throw new IllegalArgumentException("need at least three vertices");
+      }
+      this.xs = Arrays.copyOf(xs, xs.length);
+      this.ys = Arrays.copyOf(ys, ys.length);
+    }
+
+    @Override
+    public double area() {
+      double sum = 0;
+      for (int i = 0; i < xs.length; i++) {
+        int j = (i + 1) % xs.length;
+        sum += xs[i] * ys[j] - xs[j] * ys[i];
+      }
+      return Math.abs(sum) / 2;
+    }
+
+    @Override
+    public double perimeter() {
+      double sum = 0;
+      for (int i = 0; i < xs.length; i++) {
+        int j = (i + 1) % xs.length;
+        sum += Math.hypot(xs[j] - xs[i], ys[j] - ys[i]);
+      }
+      return sum;
+    }
+  }
+
+  public static double totalArea(List<? extends Shape> shapes) {
+    double total = 0;
+    for (Shape shape : shapes) {
+      total += shape.area();
+    }
+    return total;
+  }
+
+  public static Shape largest(Shape... shapes) {
+    Shape largest = null;
+    for (Shape shape : shapes) {
+      if (largest == null || shape.compareTo(largest) > 0) {
+        largest = shape;
+      }
+    }
+    return largest;
+  }
+
+  public static List<Shape> sample() {
+    List<Shape> shapes = new ArrayList<>();
+    shapes.add(new Circle(1.5));
+    shapes.add(new Rectangle(2, 3));
+    shapes.add(new Square(4));
+    shapes.add(new Polygon(new double[] {0, 4, 4, 0}, new double[] {0, 0, 3, 3}));
+    shapes.sort(null);
+    return shapes;
+  }
+
+  public static int createdCount() {
+    return AbstractShape.created;
+  }
+}
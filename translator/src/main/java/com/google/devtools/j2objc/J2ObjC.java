@@ -31,6 +31,7 @@ import com.google.devtools.j2objc.util.ProGuardUsageParser;
 import com.google.devtools.j2objc.util.UnicodeUtils;
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
@@ -139,6 +140,18 @@ public class J2ObjC {
           ErrorUtil.error(e.getMessage());
         }
       }
+      try {
+        options.fileUtil().closeJarIndex();
+      } catch (IOException e) {
+        ErrorUtil.error(e.getMessage());
+      }
+      if (options.translationProfile() != null) {
+        try {
+          options.translationProfile().write(options.profileFile());
+        } catch (IOException e) {
+          ErrorUtil.error(e.getMessage());
+        }
+      }
       Set<String> tempDirs = options.fileUtil().getTempDirs();
       for (String dir : tempDirs) {
         FileUtil.deleteTempDir(new File(dir));
@@ -150,7 +163,8 @@ public class J2ObjC {
 
   /**
    * Entry point for tool.
-   * Initializes {@link Options}, calls {@link #run}, and exits.
+   * Initializes {@link Options}, calls {@link #run}, and exits. With the
+   * --persistent_worker flag, runs as a {@link PersistentWorker} instead.
    *
    * @param args command-line arguments: flags and source file names
    */
@@ -158,6 +172,15 @@ public class J2ObjC {
     if (args.length == 0) {
       Options.help(true);
     }
+    if (Arrays.asList(args).contains(PersistentWorker.PERSISTENT_WORKER_FLAG)) {
+      try {
+        new PersistentWorker(Arrays.asList(args)).run(System.in, System.out);
+      } catch (IOException e) {
+        ErrorUtil.error(e.getMessage());
+        System.exit(1);
+      }
+      System.exit(0);
+    }
     long startTime = System.currentTimeMillis();
 
     List<String> files = null;
@@ -26,6 +26,7 @@ import com.google.common.collect.Sets;
 import com.google.common.io.Files;
 import com.google.common.io.Resources;
 import com.google.devtools.j2objc.gen.GenerationUnit;
+import com.google.devtools.j2objc.util.CodeReferenceMap;
 import com.google.devtools.j2objc.util.ErrorUtil;
 import com.google.devtools.j2objc.util.ExternalAnnotations;
 import com.google.devtools.j2objc.util.FileUtil;
@@ -34,7 +35,9 @@ import com.google.devtools.j2objc.util.Mappings;
 import com.google.devtools.j2objc.util.NameTable;
 import com.google.devtools.j2objc.util.PackageInfoLookup;
 import com.google.devtools.j2objc.util.PackagePrefixes;
+import com.google.devtools.j2objc.util.ProGuardUsageParser;
 import com.google.devtools.j2objc.util.SourceVersion;
+import com.google.devtools.j2objc.util.TranslationProfile;
 import com.google.devtools.j2objc.util.Version;
 import java.io.File;
 import java.io.FileFilter;
@@ -85,6 +88,9 @@ public class Options {
           MetadataSupport.FULL, MetadataSupport.ENUM_CONSTANTS, MetadataSupport.NAME_MAPPING);
   private boolean emitWrapperMethods = true;
   private boolean extractUnsequencedModifications = true;
+  private boolean eliminateBoxing = true;
+  private boolean monitorLocks = false;
+  private boolean interproceduralNilChecks = false;
   private boolean docCommentsEnabled = false;
   private boolean staticAccessorMethods = false;
   private boolean classProperties = false;
@@ -115,6 +121,13 @@ public class Options {
   private boolean linkProtocols = false;
   private boolean addTextSegmentAttribute = false;
   private boolean suppressHeaderClangTidyWarnings = false;
+  private int translationThreads = 1;
+  private File translationCacheDir = null;
+  private boolean streamTranslation = false;
+  private int batchPartitionMemory = 0;
+  private File buildClosureGraphFile = null;
+  private File profileFile = null;
+  private TranslationProfile translationProfile = null;
 
   private Mappings mappings = new Mappings();
   private FileUtil fileUtil = new FileUtil();
@@ -122,10 +135,13 @@ public class Options {
   private PackagePrefixes packagePrefixes = new PackagePrefixes(packageInfoLookup);
   private final ExternalAnnotations externalAnnotations = new ExternalAnnotations();
   private final List<String> entryClasses = new ArrayList<>();
+  // The flags (and their values) that can affect the translated output.
+  private final List<String> translationArgs = new ArrayList<>();
 
   private SourceVersion sourceVersion = null;
 
   private File proGuardUsageFile = null;
+  private CodeReferenceMap finalMethodsMap = null;
 
   private static final String FILE_HEADER;
   private static final String FILE_HEADER_KEY = "file-header";
@@ -158,6 +174,12 @@ public class Options {
   );
   private static final String BATCH_PROCESSING_MAX_FLAG = "--batch-translate-max=";
 
+  // Flags that don't affect the contents of translated files.
+  private static final ImmutableSet<String> NON_TRANSLATION_FLAGS = ImmutableSet.of(
+      "-d", "-j", "-l", "--list", "-t", "-v", "--verbose", "-Xprint-args",
+      "--translation-cache", "-Xbatch-partition-memory", "-Xbuild-closure-graph",
+      "-Xprofile", "-Xskip-unchanged-outputs", "-Xstream-translation");
+
   /**
    * Types of memory management to be used by translated code.
    */
@@ -339,6 +361,7 @@ public class Options {
 
     private final List<String> sourceFiles = new ArrayList<>();
     private boolean printArgs = false;
+    private String lastArgValue = null;
 
     private void processArgs(String[] args) throws IOException {
       Iterator<String> iter = Arrays.asList(args).iterator();
@@ -365,11 +388,24 @@ public class Options {
       if (!args.hasNext()) {
         usage(arg + " requires an argument");
       }
-      return args.next();
+      lastArgValue = args.next();
+      return lastArgValue;
     }
 
     private void processArg(Iterator<String> args) throws IOException {
       String arg = args.next();
+      lastArgValue = null;
+      processArg(arg, args);
+      if (arg.startsWith("-") && !arg.startsWith(TIMING_INFO_ARG)
+          && !NON_TRANSLATION_FLAGS.contains(arg)) {
+        translationArgs.add(arg);
+        if (lastArgValue != null) {
+          translationArgs.add(lastArgValue);
+        }
+      }
+    }
+
+    private void processArg(String arg, Iterator<String> args) throws IOException {
       if (arg.isEmpty()) {
         return;
       } else if (arg.startsWith("@")) {
@@ -391,6 +427,9 @@ public class Options {
         headerMap.setOutputMappingFile(new File(getArgValue(args, arg)));
       } else if (arg.equals("--dead-code-report")) {
         addDeadCodeReport(getArgValue(args, arg));
+      } else if (arg.equals("--final-methods-report")) {
+        finalMethodsMap = ProGuardUsageParser.parse(
+            Files.asCharSource(new File(getArgValue(args, arg)), UTF_8));
       } else if (arg.equals("--prefix")) {
         addPrefixOption(getArgValue(args, arg));
       } else if (arg.equals("--prefixes")) {
@@ -563,6 +602,8 @@ public class Options {
         extractUnsequencedModifications = true;
       } else if (arg.equals("--no-extract-unsequenced")) {
         extractUnsequencedModifications = false;
+      } else if (arg.equals("--no-boxing-elimination")) {
+        eliminateBoxing = false;
       } else if (arg.equals("--doc-comments")) {
         docCommentsEnabled = true;
       } else if (arg.equals("--no-doc-comments")) {
@@ -607,6 +648,40 @@ public class Options {
         emitKytheMappings = true;
       } else if (arg.equals("-Xno-source-headers")) {
         emitSourceHeaders = false;
+      } else if (arg.equals("-j")) {
+        String s = getArgValue(args, arg);
+        try {
+          translationThreads = Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+          usage("invalid -j argument: " + s);
+        }
+        if (translationThreads < 1) {
+          usage("invalid -j argument: " + s);
+        }
+      } else if (arg.equals("-Xbatch-partition-memory")) {
+        String s = getArgValue(args, arg);
+        try {
+          batchPartitionMemory = Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+          usage("invalid -Xbatch-partition-memory argument: " + s);
+        }
+        if (batchPartitionMemory < 1) {
+          usage("invalid -Xbatch-partition-memory argument: " + s);
+        }
+      } else if (arg.equals("-Xbuild-closure-graph")) {
+        buildClosureGraphFile = new File(getArgValue(args, arg));
+      } else if (arg.equals("-Xprofile")) {
+        setProfileFile(new File(getArgValue(args, arg)));
+      } else if (arg.equals("-Xmonitor-locks")) {
+        monitorLocks = true;
+      } else if (arg.equals("-Xinterprocedural-nil-checks")) {
+        interproceduralNilChecks = true;
+      } else if (arg.equals("-Xskip-unchanged-outputs")) {
+        fileUtil.setSkipUnchangedOutputs(true);
+      } else if (arg.equals("-Xstream-translation")) {
+        streamTranslation = true;
+      } else if (arg.equals("--translation-cache")) {
+        translationCacheDir = new File(getArgValue(args, arg));
       } else if (arg.equals("-Xprint-args")) {
         printArgs = true;
       } else if (arg.equals("-Xseparate-headers")) {
@@ -1010,6 +1085,19 @@ public class Options {
     Files.asCharSink(proGuardUsageFile, UTF_8, APPEND).write(newReport);
   }
 
+  /**
+   * Returns the methods that no class in the program overrides, as reported by the
+   * tree shaker, or null if no report was specified.
+   */
+  public CodeReferenceMap getFinalMethodsMap() {
+    return finalMethodsMap;
+  }
+
+  @VisibleForTesting
+  public void setFinalMethodsMap(CodeReferenceMap map) {
+    finalMethodsMap = map;
+  }
+
   public List<String> getBootClasspath() {
     return getPathArgument(bootclasspath, false, false);
   }
@@ -1134,6 +1222,33 @@ public class Options {
     extractUnsequencedModifications = true;
   }
 
+  public boolean eliminateBoxing() {
+    return eliminateBoxing;
+  }
+
+  @VisibleForTesting
+  public void setEliminateBoxing(boolean b) {
+    eliminateBoxing = b;
+  }
+
+  public boolean monitorLocks() {
+    return monitorLocks;
+  }
+
+  @VisibleForTesting
+  public void setMonitorLocks(boolean b) {
+    monitorLocks = b;
+  }
+
+  public boolean interproceduralNilChecks() {
+    return interproceduralNilChecks;
+  }
+
+  @VisibleForTesting
+  public void setInterproceduralNilChecks(boolean b) {
+    interproceduralNilChecks = b;
+  }
+
 
   public SourceVersion getSourceVersion(){
     return sourceVersion;
@@ -1351,6 +1466,87 @@ public class Options {
     return suppressHeaderClangTidyWarnings;
   }
 
+  public int translationThreads() {
+    return translationThreads;
+  }
+
+  @VisibleForTesting
+  public void setTranslationThreads(int n) {
+    translationThreads = n;
+  }
+
+  public boolean streamTranslation() {
+    return streamTranslation;
+  }
+
+  @VisibleForTesting
+  public void setStreamTranslation(boolean b) {
+    streamTranslation = b;
+  }
+
+  /**
+   * Returns the estimated memory limit of each javac task in megabytes, or zero
+   * if each batch is parsed by a single task.
+   */
+  public int batchPartitionMemory() {
+    return batchPartitionMemory;
+  }
+
+  @VisibleForTesting
+  public void setBatchPartitionMemory(int megabytes) {
+    batchPartitionMemory = megabytes;
+  }
+
+  /**
+   * Returns the file to write the --build-closure dependency graph to, or null.
+   */
+  public File buildClosureGraphFile() {
+    return buildClosureGraphFile;
+  }
+
+  @VisibleForTesting
+  public void setBuildClosureGraphFile(File file) {
+    buildClosureGraphFile = file;
+  }
+
+  /**
+   * Returns the file to write the translation profile to, or null.
+   */
+  public File profileFile() {
+    return profileFile;
+  }
+
+  /**
+   * Returns the profile that passes and javac stages are recorded in, or null
+   * if profiling is disabled.
+   */
+  public TranslationProfile translationProfile() {
+    return translationProfile;
+  }
+
+  @VisibleForTesting
+  public void setProfileFile(File file) {
+    profileFile = file;
+    translationProfile = file != null ? new TranslationProfile() : null;
+  }
+
+  public File translationCacheDir() {
+    return translationCacheDir;
+  }
+
+  @VisibleForTesting
+  public void setTranslationCacheDir(File dir) {
+    translationCacheDir = dir;
+  }
+
+  /**
+   * Returns the flags and flag values that can affect the translated output, in the order they
+   * were specified. Source files, entry classes, and flags like -d are excluded.
+   */
+  public List<String> translationArgs() {
+    return translationArgs;
+  }
+
   public boolean addTextSegmentAttribute() {
     return addTextSegmentAttribute;
   }
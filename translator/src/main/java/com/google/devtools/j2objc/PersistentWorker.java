@@ -0,0 +1,395 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.devtools.j2objc.file.JarIndex;
+import com.google.devtools.j2objc.util.ErrorUtil;
+import com.google.devtools.j2objc.util.ExternalAnnotations;
+import com.google.devtools.j2objc.util.NameTable;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the translator as a Bazel persistent worker, using the JSON worker
+ * protocol. Each WorkRequest read from stdin is translated as if its arguments
+ * were passed to {@link J2ObjC#main}, and a WorkResponse with the exit code and
+ * the translator's output is written to stdout.
+ *
+ * <p>Requests share the JVM's loaded classes and JIT-compiled code, the JRE
+ * mappings, and a {@link JarIndex} of the jars on the source and class paths,
+ * so each request avoids the translator's startup costs.
+ */
+public class PersistentWorker {
+
+  public static final String PERSISTENT_WORKER_FLAG = "--persistent_worker";
+
+  private final List<String> startupArgs;
+  private final JarIndex jarIndex = new JarIndex();
+
+  /**
+   * @param startupArgs the worker's command-line arguments, which are added to
+   *     the arguments of every request
+   */
+  public PersistentWorker(List<String> startupArgs) {
+    this.startupArgs = new ArrayList<>(startupArgs);
+    this.startupArgs.remove(PERSISTENT_WORKER_FLAG);
+  }
+
+  /**
+   * Processes requests until the input is closed.
+   */
+  public void run(InputStream in, PrintStream out) throws IOException {
+    Reader reader = new BufferedReader(new InputStreamReader(in, UTF_8));
+    try {
+      while (true) {
+        Object request = new JsonReader(reader).readValue();
+        if (request == null) {
+          break;
+        }
+        if (!(request instanceof Map)) {
+          throw new IOException("invalid work request: " + request);
+        }
+        Map<?, ?> fields = (Map<?, ?>) request;
+        List<String> args = new ArrayList<>(startupArgs);
+        Object arguments = fields.get("arguments");
+        if (arguments instanceof List) {
+          for (Object arg : (List<?>) arguments) {
+            args.add(String.valueOf(arg));
+          }
+        }
+        Object requestId = fields.get("requestId");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int exitCode;
+        try (PrintStream outputStream = new PrintStream(output, true, "UTF-8")) {
+          exitCode = processRequest(args, outputStream);
+        }
+        StringBuilder response = new StringBuilder("{\"exitCode\":").append(exitCode);
+        response.append(",\"output\":");
+        appendJsonString(response, output.toString("UTF-8"));
+        if (requestId instanceof Number) {
+          response.append(",\"requestId\":").append(((Number) requestId).longValue());
+        }
+        response.append("}");
+        out.println(response);
+        out.flush();
+      }
+    } finally {
+      jarIndex.close();
+    }
+  }
+
+  /**
+   * Translates one request, returning its exit code. All console output is
+   * written to the specified stream, since stdout is used for responses.
+   */
+  @VisibleForTesting
+  int processRequest(List<String> args, PrintStream output) {
+    PrintStream stdout = System.out;
+    PrintStream stderr = System.err;
+    PrintStream errorStream = ErrorUtil.setErrorStream(output);
+    System.setOut(output);
+    System.setErr(output);
+    ErrorUtil.reset();
+    NameTable.resetReservedNames();
+    ExternalAnnotations.reset();
+    try {
+      // Jars that changed during an earlier request are no longer read.
+      jarIndex.closeReplacedJars();
+      Options options = new Options();
+      options.fileUtil().setJarIndex(jarIndex);
+      List<String> files = options.load(args.toArray(new String[0]));
+      if (files.isEmpty()) {
+        ErrorUtil.error("no source files");
+        return 1;
+      }
+      J2ObjC.run(files, options);
+      int errors = ErrorUtil.errorCount();
+      if (options.treatWarningsAsErrors()) {
+        errors += ErrorUtil.warningCount();
+      }
+      return errors;
+    } catch (IOException e) {
+      ErrorUtil.error(e.getMessage());
+      return 1;
+    } catch (RuntimeException | Error e) {
+      // Report the failure, but keep the worker running for the next request.
+      e.printStackTrace(output);
+      return 1;
+    } finally {
+      System.setOut(stdout);
+      System.setErr(stderr);
+      ErrorUtil.setErrorStream(errorStream);
+    }
+  }
+
+  private static void appendJsonString(StringBuilder sb, String s) {
+    sb.append('"');
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\r':
+          sb.append("\\r");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        default:
+          if (c < ' ') {
+            sb.append(String.format("\\u%04x", (int) c));
+          } else {
+            sb.append(c);
+          }
+      }
+    }
+    sb.append('"');
+  }
+
+  /**
+   * A minimal reader for the JSON values in work requests. Objects are read as
+   * maps, arrays as lists, and numbers as longs or doubles. An object field
+   * whose value is null is left out of its map, as if it were absent; null
+   * isn't accepted anywhere else.
+   */
+  private static class JsonReader {
+    private static final Object NULL = new Object();
+
+    private final Reader reader;
+    private int peeked = -2;
+
+    JsonReader(Reader reader) {
+      this.reader = reader;
+    }
+
+    /**
+     * Returns the next value, or null at the end of the input.
+     */
+    Object readValue() throws IOException {
+      Object value = readValueOrNull();
+      if (value == NULL) {
+        throw new IOException("unexpected null in work request");
+      }
+      return value;
+    }
+
+    // Returns NULL for a JSON null.
+    private Object readValueOrNull() throws IOException {
+      int c = nextNonWhitespace();
+      if (c == -1) {
+        return null;
+      }
+      switch (c) {
+        case '{':
+          return readObject();
+        case '[':
+          return readArray();
+        case '"':
+          return readString();
+        case 't':
+          expect("rue");
+          return Boolean.TRUE;
+        case 'f':
+          expect("alse");
+          return Boolean.FALSE;
+        case 'n':
+          expect("ull");
+          return NULL;
+        default:
+          if (c == '-' || (c >= '0' && c <= '9')) {
+            return readNumber((char) c);
+          }
+          throw new IOException("unexpected character in work request: " + (char) c);
+      }
+    }
+
+    private Map<String, Object> readObject() throws IOException {
+      Map<String, Object> map = new LinkedHashMap<>();
+      int c = nextNonWhitespace();
+      if (c == '}') {
+        return map;
+      }
+      while (true) {
+        if (c != '"') {
+          throw new IOException("expected a field name in work request");
+        }
+        String key = readString();
+        if (nextNonWhitespace() != ':') {
+          throw new IOException("expected ':' in work request");
+        }
+        Object value = readValueOrNull();
+        if (value == null) {
+          throw new IOException("unexpected end of work request");
+        }
+        if (value != NULL) {
+          map.put(key, value);
+        }
+        c = nextNonWhitespace();
+        if (c == '}') {
+          return map;
+        }
+        if (c != ',') {
+          throw new IOException("expected ',' or '}' in work request");
+        }
+        c = nextNonWhitespace();
+      }
+    }
+
+    private List<Object> readArray() throws IOException {
+      List<Object> list = new ArrayList<>();
+      int c = nextNonWhitespace();
+      if (c == ']') {
+        return list;
+      }
+      pushBack(c);
+      while (true) {
+        list.add(readRequiredValue());
+        c = nextNonWhitespace();
+        if (c == ']') {
+          return list;
+        }
+        if (c != ',') {
+          throw new IOException("expected ',' or ']' in work request");
+        }
+      }
+    }
+
+    private Object readRequiredValue() throws IOException {
+      Object value = readValue();
+      if (value == null) {
+        throw new IOException("unexpected end of work request");
+      }
+      return value;
+    }
+
+    private String readString() throws IOException {
+      StringBuilder sb = new StringBuilder();
+      while (true) {
+        int c = read();
+        if (c == -1) {
+          throw new IOException("unterminated string in work request");
+        }
+        if (c == '"') {
+          return sb.toString();
+        }
+        if (c == '\\') {
+          c = read();
+          switch (c) {
+            case 'b':
+              sb.append('\b');
+              break;
+            case 'f':
+              sb.append('\f');
+              break;
+            case 'n':
+              sb.append('\n');
+              break;
+            case 'r':
+              sb.append('\r');
+              break;
+            case 't':
+              sb.append('\t');
+              break;
+            case 'u':
+              char[] hex = new char[4];
+              for (int i = 0; i < 4; i++) {
+                hex[i] = (char) read();
+              }
+              try {
+                sb.append((char) Integer.parseInt(new String(hex), 16));
+              } catch (NumberFormatException e) {
+                throw new IOException("invalid escape in work request: \\u" + new String(hex));
+              }
+              break;
+            case -1:
+              throw new IOException("unterminated string in work request");
+            default:
+              sb.append((char) c);
+          }
+        } else {
+          sb.append((char) c);
+        }
+      }
+    }
+
+    private Object readNumber(char first) throws IOException {
+      StringBuilder sb = new StringBuilder().append(first);
+      while (true) {
+        int c = read();
+        if ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+          sb.append((char) c);
+        } else {
+          pushBack(c);
+          break;
+        }
+      }
+      String s = sb.toString();
+      try {
+        return s.matches("-?\\d+") ? (Object) Long.parseLong(s) : (Object) Double.parseDouble(s);
+      } catch (NumberFormatException e) {
+        throw new IOException("invalid number in work request: " + s);
+      }
+    }
+
+    private void expect(String rest) throws IOException {
+      for (int i = 0; i < rest.length(); i++) {
+        if (read() != rest.charAt(i)) {
+          throw new IOException("invalid literal in work request");
+        }
+      }
+    }
+
+    private int nextNonWhitespace() throws IOException {
+      int c;
+      do {
+        c = read();
+      } while (c == ' ' || c == '\t' || c == '\n' || c == '\r');
+      return c;
+    }
+
+    private int read() throws IOException {
+      if (peeked != -2) {
+        int c = peeked;
+        peeked = -2;
+        return c;
+      }
+      return reader.read();
+    }
+
+    private void pushBack(int c) {
+      peeked = c;
+    }
+  }
+}
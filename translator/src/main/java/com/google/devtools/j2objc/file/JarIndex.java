@@ -0,0 +1,166 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.file;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+/**
+ * A thread-safe index of the jar files on the source and class paths. Each jar
+ * is opened once and kept open, and its central directory serves as the map
+ * from entry names to entries, so lookups don't reopen or rescan the jar.
+ * A jar is reopened if it changes on disk.
+ */
+public class JarIndex implements Closeable {
+
+  private final Map<String, IndexedJar> jars = new ConcurrentHashMap<>();
+  // Jars that changed on disk, which are kept open for any streams reading them.
+  private final List<JarFile> replacedJars = new ArrayList<>();
+  private final AtomicInteger hits = new AtomicInteger();
+  private final AtomicInteger misses = new AtomicInteger();
+
+  /**
+   * Returns the open jar file at the specified path. The returned jar is shared,
+   * so callers must not close it.
+   */
+  public JarFile getJar(String path) throws IOException {
+    return getIndexedJar(path).jarFile;
+  }
+
+  /**
+   * Returns true if the jar at the specified path has an entry with this name.
+   */
+  public boolean contains(String jarPath, String entryName) throws IOException {
+    return getJar(jarPath).getEntry(entryName) != null;
+  }
+
+  /**
+   * Returns a stream for a jar entry. Closing the stream doesn't close the jar.
+   */
+  public InputStream getInputStream(String jarPath, String entryName) throws IOException {
+    JarFile jarFile = getJar(jarPath);
+    ZipEntry entry = jarFile.getEntry(entryName);
+    if (entry == null) {
+      throw new FileNotFoundException(jarPath + "!" + entryName);
+    }
+    return jarFile.getInputStream(entry);
+  }
+
+  /**
+   * Returns the number of lookups that used an already open jar.
+   */
+  public int hitCount() {
+    return hits.get();
+  }
+
+  /**
+   * Returns the number of times a jar was opened.
+   */
+  public int missCount() {
+    return misses.get();
+  }
+
+  private IndexedJar getIndexedJar(String path) throws IOException {
+    File file = new File(path);
+    IndexedJar jar = jars.get(path);
+    if (jar != null && jar.isCurrent(file)) {
+      hits.incrementAndGet();
+      return jar;
+    }
+    synchronized (this) {
+      // Check again, in case another thread opened it.
+      jar = jars.get(path);
+      if (jar != null && jar.isCurrent(file)) {
+        hits.incrementAndGet();
+        return jar;
+      }
+      misses.incrementAndGet();
+      IndexedJar newJar = new IndexedJar(file);
+      if (jar != null) {
+        replacedJars.add(jar.jarFile);
+      }
+      jars.put(path, newJar);
+      return newJar;
+    }
+  }
+
+  /**
+   * Closes the jars that were replaced because they changed on disk. Only call this when no
+   * streams from them are being read, such as between the requests of a persistent worker.
+   */
+  public synchronized void closeReplacedJars() throws IOException {
+    List<JarFile> openJars = new ArrayList<>(replacedJars);
+    replacedJars.clear();
+    closeAll(openJars);
+  }
+
+  /**
+   * Returns the number of replaced jars that are still open.
+   */
+  public synchronized int replacedJarCount() {
+    return replacedJars.size();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    List<JarFile> openJars = new ArrayList<>(replacedJars);
+    for (IndexedJar jar : jars.values()) {
+      openJars.add(jar.jarFile);
+    }
+    jars.clear();
+    replacedJars.clear();
+    closeAll(openJars);
+  }
+
+  private static void closeAll(List<JarFile> openJars) throws IOException {
+    IOException exception = null;
+    for (JarFile jarFile : openJars) {
+      try {
+        jarFile.close();
+      } catch (IOException e) {
+        exception = e;
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  private static class IndexedJar {
+    private final JarFile jarFile;
+    private final long lastModified;
+    private final long length;
+
+    private IndexedJar(File file) throws IOException {
+      lastModified = file.lastModified();
+      length = file.length();
+      jarFile = new JarFile(file);
+    }
+
+    private boolean isCurrent(File file) {
+      return file.lastModified() == lastModified && file.length() == length;
+    }
+  }
+}
@@ -30,6 +30,7 @@ import java.util.zip.ZipEntry;
 public class JarredInputFile implements InputFile {
   private final String jarPath;
   private final String internalPath;
+  private final JarIndex jarIndex;
 
   /**
    * Create a new JarredSourceFile. The file's unit name will be the same as
@@ -38,13 +39,26 @@ public class JarredInputFile implements InputFile {
    * @param internalPath the file's path within the jar
    */
   public JarredInputFile(String jarPath, String internalPath) {
+    this(jarPath, internalPath, null);
+  }
+
+  /**
+   * Create a new JarredSourceFile that reads its jar through a shared index,
+   * rather than opening the jar on each access.
+   * @param jarIndex the index to use, or null to open the jar on each access
+   */
+  public JarredInputFile(String jarPath, String internalPath, JarIndex jarIndex) {
     assert !jarPath.endsWith(".java");
     this.jarPath = jarPath;
     this.internalPath = internalPath;
+    this.jarIndex = jarIndex;
   }
 
   @Override
   public boolean exists() throws IOException {
+    if (jarIndex != null) {
+      return jarIndex.contains(jarPath, internalPath);
+    }
     try (JarFile jarFile = new JarFile(jarPath)) {
       ZipEntry entry = jarFile.getEntry(internalPath);
       return entry != null;
@@ -53,6 +67,9 @@ public class JarredInputFile implements InputFile {
 
   @Override
   public InputStream getInputStream() throws IOException {
+    if (jarIndex != null) {
+      return jarIndex.getInputStream(jarPath, internalPath);
+    }
     final JarFile jarFile = new JarFile(jarPath);
     ZipEntry entry = jarFile.getEntry(internalPath);
     final InputStream entryStream = jarFile.getInputStream(entry);
@@ -26,7 +26,9 @@ import com.google.devtools.j2objc.ast.TreeUtil;
 import com.google.devtools.j2objc.file.InputFile;
 import com.google.devtools.j2objc.util.ElementUtil;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.TreeMap;
 import javax.annotation.Nullable;
 import javax.lang.model.element.VariableElement;
@@ -148,6 +150,13 @@ public class GenerationUnit {
     numUnits++;
   }
 
+  /**
+   * Returns the number of inputs that contribute compilation units to this GenerationUnit.
+   */
+  public int getInputCount() {
+    return numUnits;
+  }
+
   public void addCompilationUnit(CompilationUnit unit) {
     assert state != State.FINISHED : "Adding to a finished GenerationUnit.";
     if (state != State.ACTIVE) {
@@ -181,8 +190,8 @@ public class GenerationUnit {
     addPackageJavadoc(unit, qualifiedMainType);
     addNativeBlocks(unit, qualifiedMainType);
 
+    generatedTypes.putAll(qualifiedMainType, generateTypes(unit));
     for (AbstractTypeDeclaration type : unit.getTypes()) {
-      generatedTypes.put(qualifiedMainType, GeneratedType.fromTypeDeclaration(type));
       if (ElementUtil.isEnum(type.getTypeElement())) {
         hasNullabilityAnnotations = true;
       }
@@ -198,6 +207,18 @@ public class GenerationUnit {
     }
   }
 
+  /**
+   * Generates the source code for each type declared in a compilation unit. The unit's
+   * GenerationUnit isn't modified.
+   */
+  public static List<GeneratedType> generateTypes(CompilationUnit unit) {
+    List<GeneratedType> types = new ArrayList<>();
+    for (AbstractTypeDeclaration type : unit.getTypes()) {
+      types.add(GeneratedType.fromTypeDeclaration(type));
+    }
+    return types;
+  }
+
   // Collect javadoc from the package declarations to display in the header.
   private void addPackageJavadoc(CompilationUnit unit, String qualifiedMainType) {
     Javadoc javadoc = unit.getPackage().getJavadoc();
@@ -248,6 +269,11 @@ public class GenerationUnit {
 
   public void finished() {
     state = State.FINISHED;
+    // Release the generated code, which is no longer needed once the output files are written.
+    javadocBlocks.clear();
+    nativeHeaderBlocks.clear();
+    nativeImplementationBlocks.clear();
+    generatedTypes.clear();
   }
 
   /**
@@ -16,9 +16,9 @@
 
 package com.google.devtools.j2objc.gen;
 
-import com.google.common.io.Files;
 import com.google.devtools.j2objc.types.Import;
 import com.google.devtools.j2objc.util.ErrorUtil;
+import com.google.devtools.j2objc.util.FileUtil;
 import com.google.devtools.j2objc.util.UnicodeUtils;
 import java.io.File;
 import java.io.IOException;
@@ -92,12 +92,6 @@ public abstract class ObjectiveCSourceFileGenerator extends AbstractSourceGenera
   protected void save(String path, File outputDirectory) {
     try {
       File outputFile = new File(outputDirectory, path);
-      File dir = outputFile.getParentFile();
-      if (dir != null && !dir.exists()) {
-        if (!dir.mkdirs()) {
-          ErrorUtil.warning("cannot create output directory: " + outputDirectory);
-        }
-      }
       String source = getBuilder().toString();
 
       // Make sure file ends with a new-line.
@@ -105,7 +99,8 @@ public abstract class ObjectiveCSourceFileGenerator extends AbstractSourceGenera
         source += '\n';
       }
 
-      Files.asCharSink(outputFile, unit.options().fileUtil().getCharset()).write(source);
+      FileUtil fileUtil = unit.options().fileUtil();
+      fileUtil.writeOutputFile(outputFile, source.getBytes(fileUtil.getCharset()));
     } catch (IOException e) {
       ErrorUtil.error(e.getMessage());
     } finally {
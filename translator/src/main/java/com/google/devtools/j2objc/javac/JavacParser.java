@@ -14,6 +14,7 @@
 
 package com.google.devtools.j2objc.javac;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.ast.CompilationUnit;
@@ -25,6 +26,7 @@ import com.google.devtools.j2objc.util.FileUtil;
 import com.google.devtools.j2objc.util.Parser;
 import com.google.devtools.j2objc.util.PathClassLoader;
 import com.google.devtools.j2objc.util.SourceVersion;
+import com.google.devtools.j2objc.util.TranslationProfile;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.util.JavacTask;
 import com.sun.source.util.SourcePositions;
@@ -40,6 +42,8 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.annotation.processing.Processor;
@@ -59,7 +63,9 @@ import javax.tools.ToolProvider;
  */
 public class JavacParser extends Parser {
 
-  private StandardJavaFileManager fileManager;
+  // The file managers of environments whose trees are still in use. Partitions are parsed
+  // concurrently, so each environment gets its own manager and they are all closed together.
+  private final Set<StandardJavaFileManager> fileManagers = ConcurrentHashMap.newKeySet();
 
   public JavacParser(Options options) {
     super(options);
@@ -113,15 +119,22 @@ public class JavacParser extends Parser {
     try {
       JavacEnvironment parserEnv = createEnvironment(path, source);
       JavacTask task = parserEnv.task();
+      TranslationProfile.Stage parseStage = startStage("javac parse", path);
       Iterator<? extends CompilationUnitTree> it = task.parse().iterator();
+      parseStage.end();
       if (!it.hasNext()) {
         processDiagnostics(parserEnv.diagnostics());
         return null;
       }
       CompilationUnitTree unit = it.next();
+      TranslationProfile.Stage analyzeStage = startStage("javac analyze", path);
       task.analyze();
+      analyzeStage.end();
       processDiagnostics(parserEnv.diagnostics());
-      return TreeConverter.convertCompilationUnit(options, parserEnv, unit);
+      TranslationProfile.Stage convertStage = startStage("TreeConverter", path);
+      CompilationUnit result = TreeConverter.convertCompilationUnit(options, parserEnv, unit);
+      convertStage.end(result);
+      return result;
     } catch (IOException e) {
       ErrorUtil.fatalError(e, path);
     }
@@ -130,7 +143,7 @@ public class JavacParser extends Parser {
 
   private StandardJavaFileManager getFileManager(JavaCompiler compiler,
       DiagnosticCollector<JavaFileObject> diagnostics) throws IOException {
-    fileManager =
+    StandardJavaFileManager fileManager =
         compiler.getStandardFileManager(diagnostics, null, options.fileUtil().getCharset());
     addPaths(StandardLocation.CLASS_PATH, classpathEntries, fileManager);
     addPaths(StandardLocation.SOURCE_PATH, sourcepathEntries, fileManager);
@@ -143,6 +156,7 @@ public class JavacParser extends Parser {
         Lists.newArrayList(options.fileUtil().getOutputDirectory()));
     fileManager.setLocation(StandardLocation.SOURCE_OUTPUT,
         Lists.newArrayList(FileUtil.createTempDir("annotations")));
+    fileManagers.add(fileManager);
     return fileManager;
   }
 
@@ -199,17 +213,27 @@ public class JavacParser extends Parser {
     }
     try {
       JavacEnvironment env = createEnvironment(files, null, false);
+      String batchName = paths.size() == 1 ? paths.iterator().next() : paths.size() + " files";
+      TranslationProfile.Stage parseStage = startStage("javac parse", batchName);
       List<CompilationUnitTree> units = new ArrayList<>();
       for (CompilationUnitTree unit : env.task().parse()) {
         units.add(unit);
       }
+      parseStage.end();
+      TranslationProfile.Stage analyzeStage = startStage("javac analyze", batchName);
       env.task().analyze();
+      analyzeStage.end();
       processDiagnostics(env.diagnostics());
 
       if (ErrorUtil.errorCount() == 0) {
-        for (CompilationUnitTree ast : units) {
+        for (int i = 0; i < units.size(); i++) {
+          // Drop this list's reference to each tree once it's converted.
+          CompilationUnitTree ast = units.set(i, null);
+          TranslationProfile.Stage convertStage =
+              startStage("TreeConverter", ast.getSourceFile().getName());
           com.google.devtools.j2objc.ast.CompilationUnit unit = TreeConverter
               .convertCompilationUnit(options, env, ast);
+          convertStage.end(unit);
           processDiagnostics(env.diagnostics());
           handler.handleParsedUnit(unit.getSourceFilePath(), unit);
         }
@@ -219,6 +243,11 @@ public class JavacParser extends Parser {
     }
   }
 
+  private TranslationProfile.Stage startStage(String name, String unitName) {
+    TranslationProfile profile = options.translationProfile();
+    return profile != null ? profile.startStage(name, unitName) : TranslationProfile.Stage.NONE;
+  }
+
   /**
    * To allow Java 9 libraries like GSON to be transpiled using -source 1.8, stub out
    * the module-info source. This creates an empty .o file, like package-info.java
@@ -257,7 +286,8 @@ public class JavacParser extends Parser {
   }
 
   // Creates a javac environment from a collection of files and/or file objects.
-  private JavacEnvironment createEnvironment(List<File> files, List<JavaFileObject> fileObjects,
+  @VisibleForTesting
+  JavacEnvironment createEnvironment(List<File> files, List<JavaFileObject> fileObjects,
       boolean processAnnotations) throws IOException {
     JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
     DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
@@ -288,6 +318,8 @@ public class JavacParser extends Parser {
       JavacTask task = parserEnv.task();
       CompilationUnitTree unit = task.parse().iterator().next();
       processDiagnostics(parserEnv.diagnostics());
+      // The unparsed tree doesn't need the file manager, and a manager per input file adds up.
+      closeFileManager(parserEnv);
       return new JavacParseResult(
           file, source, unit, parserEnv.treeUtilities().getSourcePositions());
     } catch (IOException e) {
@@ -318,6 +350,7 @@ public class JavacParser extends Parser {
         File sourceOutputDirectory =
             env.fileManager().getLocation(StandardLocation.SOURCE_OUTPUT).iterator().next();
         collectGeneratedInputs(sourceOutputDirectory, "", generatedInputs);
+        closeFileManager(env);
         return new JavacProcessingResult(generatedInputs, sourceOutputDirectory);
       } catch (IOException e) {
         ErrorUtil.fatalError(e, "javac file manager error");
@@ -327,15 +360,26 @@ public class JavacParser extends Parser {
     return new JavacProcessingResult(generatedInputs, null);
   }
 
+  private void closeFileManager(JavacEnvironment env) throws IOException {
+    if (fileManagers.remove(env.fileManager())) {
+      env.fileManager().close();
+    }
+  }
+
   @Override
   public void close() throws IOException {
-    if (fileManager != null) {
+    IOException failure = null;
+    for (StandardJavaFileManager fileManager : fileManagers) {
       try {
         fileManager.close();
-      } finally {
-        fileManager = null;
+      } catch (IOException e) {
+        failure = e;
       }
     }
+    fileManagers.clear();
+    if (failure != null) {
+      throw failure;
+    }
   }
 
   private void collectGeneratedInputs(
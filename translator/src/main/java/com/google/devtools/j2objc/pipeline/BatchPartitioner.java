@@ -0,0 +1,278 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.pipeline;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.devtools.j2objc.file.InputFile;
+import com.google.devtools.j2objc.util.FileUtil;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits a batch of source files into partitions that are each parsed by a
+ * separate javac task. Files that reference each other are kept in the same
+ * partition where possible, so that each task resolves most references from its
+ * own sources, and each partition's estimated memory use is kept below a limit.
+ *
+ * <p>References are found with a lexical scan of each source, rather than by
+ * parsing it: files in the same package are clustered together, as are files
+ * that import or use the qualified name of a type declared by another file in
+ * the batch. Files that are missed still translate correctly, since their
+ * source roots are added to the sourcepath, but they are attributed once by
+ * each partition that references them.
+ */
+public class BatchPartitioner {
+
+  // Rough ratio of the memory used by javac's attributed tree and the
+  // converted tree of a source file to the size of that file.
+  @VisibleForTesting
+  static final int BYTES_PER_SOURCE_BYTE = 40;
+
+  private final FileUtil fileUtil;
+  private final long maxPartitionBytes;
+  private final List<SourceInfo> sources = new ArrayList<>();
+  private final Map<String, Integer> typeIndex = new HashMap<>();
+  private final Map<String, Integer> packageIndex = new HashMap<>();
+  private int[] parents;
+
+  public BatchPartitioner(FileUtil fileUtil, long maxPartitionBytes) {
+    this.fileUtil = fileUtil;
+    this.maxPartitionBytes = maxPartitionBytes;
+  }
+
+  /**
+   * Returns the partitions of a batch, in the order of each partition's first
+   * input. Inputs within a partition keep their original order.
+   */
+  public List<List<ProcessingContext>> partition(Iterable<ProcessingContext> inputs) {
+    for (ProcessingContext input : inputs) {
+      sources.add(scan(input));
+    }
+    parents = new int[sources.size()];
+    for (int i = 0; i < parents.length; i++) {
+      parents[i] = i;
+    }
+    for (int i = 0; i < sources.size(); i++) {
+      SourceInfo source = sources.get(i);
+      if (source.typeName != null) {
+        typeIndex.putIfAbsent(source.typeName, i);
+      }
+      Integer samePackage = packageIndex.putIfAbsent(source.packageName, i);
+      if (samePackage != null) {
+        union(i, samePackage);
+      }
+    }
+    for (int i = 0; i < sources.size(); i++) {
+      SourceInfo source = sources.get(i);
+      for (String pkg : source.wildcardImports) {
+        Integer other = packageIndex.get(pkg);
+        if (other != null) {
+          union(i, other);
+        }
+      }
+      for (String name : source.qualifiedNames) {
+        Integer other = findType(name);
+        if (other != null) {
+          union(i, other);
+        }
+      }
+    }
+    return pack(clusters());
+  }
+
+  /**
+   * Returns the source roots of the batch's files, for files whose paths match
+   * their package declarations.
+   */
+  public Set<String> getSourceRoots() {
+    Set<String> roots = new LinkedHashSet<>();
+    for (SourceInfo source : sources) {
+      String path = source.input.getFile().getAbsolutePath();
+      String suffix = File.separator + source.packageName.replace('.', File.separatorChar);
+      String dir = new File(path).getParent();
+      if (dir == null) {
+        continue;
+      }
+      if (source.packageName.isEmpty()) {
+        roots.add(dir);
+      } else if (dir.endsWith(suffix) && dir.length() > suffix.length()) {
+        roots.add(dir.substring(0, dir.length() - suffix.length()));
+      }
+    }
+    return roots;
+  }
+
+  // Returns the index of the source declaring a type, or a type whose member
+  // is referred to by name.
+  private Integer findType(String name) {
+    while (true) {
+      Integer index = typeIndex.get(name);
+      if (index != null) {
+        return index;
+      }
+      int lastDot = name.lastIndexOf('.');
+      if (lastDot < 0) {
+        return null;
+      }
+      name = name.substring(0, lastDot);
+    }
+  }
+
+  private int find(int i) {
+    while (parents[i] != i) {
+      parents[i] = parents[parents[i]];
+      i = parents[i];
+    }
+    return i;
+  }
+
+  private void union(int i, int j) {
+    int rootI = find(i);
+    int rootJ = find(j);
+    // Keep the lower index as the root, so clusters are ordered by their first input.
+    if (rootI < rootJ) {
+      parents[rootJ] = rootI;
+    } else if (rootJ < rootI) {
+      parents[rootI] = rootJ;
+    }
+  }
+
+  private List<Cluster> clusters() {
+    Map<Integer, Cluster> clusters = new LinkedHashMap<>();
+    for (int i = 0; i < sources.size(); i++) {
+      clusters.computeIfAbsent(find(i), k -> new Cluster()).add(i, sources.get(i).estimatedBytes);
+    }
+    return new ArrayList<>(clusters.values());
+  }
+
+  /**
+   * Packs clusters into as few partitions as first-fit allows, largest clusters
+   * first. Clusters over the limit are split, keeping each package's files
+   * together where possible.
+   */
+  private List<List<ProcessingContext>> pack(List<Cluster> clusters) {
+    List<Cluster> pieces = new ArrayList<>();
+    for (Cluster cluster : clusters) {
+      if (cluster.bytes <= maxPartitionBytes) {
+        pieces.add(cluster);
+        continue;
+      }
+      List<Integer> members = new ArrayList<>(cluster.members);
+      members.sort(Comparator.comparing((Integer i) -> sources.get(i).packageName)
+          .thenComparing(i -> i));
+      Cluster piece = new Cluster();
+      for (int i : members) {
+        long bytes = sources.get(i).estimatedBytes;
+        if (!piece.members.isEmpty() && piece.bytes + bytes > maxPartitionBytes) {
+          pieces.add(piece);
+          piece = new Cluster();
+        }
+        piece.add(i, bytes);
+      }
+      pieces.add(piece);
+    }
+
+    // The sort is stable, so equal-sized pieces stay in input order.
+    pieces.sort(Comparator.comparingLong((Cluster c) -> c.bytes).reversed());
+    List<Cluster> partitions = new ArrayList<>();
+    for (Cluster piece : pieces) {
+      Cluster target = null;
+      for (Cluster partition : partitions) {
+        if (partition.bytes + piece.bytes <= maxPartitionBytes) {
+          target = partition;
+          break;
+        }
+      }
+      if (target == null) {
+        target = new Cluster();
+        partitions.add(target);
+      }
+      for (int i : piece.members) {
+        target.add(i, sources.get(i).estimatedBytes);
+      }
+    }
+
+    List<List<Integer>> sortedPartitions = new ArrayList<>();
+    for (Cluster partition : partitions) {
+      List<Integer> members = new ArrayList<>(partition.members);
+      Collections.sort(members);
+      sortedPartitions.add(members);
+    }
+    sortedPartitions.sort(Comparator.comparing((List<Integer> p) -> p.get(0)));
+    List<List<ProcessingContext>> result = new ArrayList<>();
+    for (List<Integer> members : sortedPartitions) {
+      List<ProcessingContext> partition = new ArrayList<>();
+      for (int i : members) {
+        partition.add(sources.get(i).input);
+      }
+      result.add(partition);
+    }
+    return result;
+  }
+
+  private SourceInfo scan(ProcessingContext input) {
+    SourceInfo info = new SourceInfo(input);
+    InputFile file = input.getFile();
+    String source;
+    try {
+      source = fileUtil.readFile(file);
+    } catch (IOException e) {
+      // Leave it in its own partition; javac will report the error.
+      info.estimatedBytes = new File(file.getAbsolutePath()).length() * BYTES_PER_SOURCE_BYTE;
+      return info;
+    }
+    info.estimatedBytes = (long) source.length() * BYTES_PER_SOURCE_BYTE;
+
+    SourceReferences refs = SourceReferences.scan(source);
+    info.packageName = refs.getPackageName();
+    info.qualifiedNames = refs.getQualifiedNames();
+    info.wildcardImports = refs.getWildcardImports();
+    String mainType = FileUtil.getMainTypeName(file);
+    info.typeName = info.packageName.isEmpty() ? mainType : info.packageName + "." + mainType;
+    return info;
+  }
+
+  private static class SourceInfo {
+    private final ProcessingContext input;
+    private String packageName = "";
+    private String typeName;
+    private long estimatedBytes;
+    private Set<String> qualifiedNames = Collections.emptySet();
+    private Set<String> wildcardImports = Collections.emptySet();
+
+    private SourceInfo(ProcessingContext input) {
+      this.input = input;
+    }
+  }
+
+  private static class Cluster {
+    private final List<Integer> members = new ArrayList<>();
+    private long bytes;
+
+    private void add(int i, long estimatedBytes) {
+      members.add(i);
+      bytes += estimatedBytes;
+    }
+  }
+}
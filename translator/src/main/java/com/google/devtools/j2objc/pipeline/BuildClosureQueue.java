@@ -14,14 +14,32 @@
 
 package com.google.devtools.j2objc.pipeline;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import com.google.common.collect.Sets;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.file.InputFile;
 import com.google.devtools.j2objc.util.ErrorUtil;
+import com.google.devtools.j2objc.util.FileUtil;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 /**
@@ -36,6 +54,12 @@ public class BuildClosureQueue {
 
   private final Set<String> queuedNames = Sets.newLinkedHashSet();
 
+  // The first type that referenced each queued name.
+  private final Map<String, String> referrers = new HashMap<>();
+
+  // The closure graph, from each translated type to the translated types it references.
+  private final Map<String, Set<String>> dependencies = new TreeMap<>();
+
   public BuildClosureQueue(Options options) {
     this.options = options;
     queuedNames.addAll(options.entryClasses());
@@ -52,6 +76,10 @@ public class BuildClosureQueue {
       processedNames.add(name);
       InputFile file = getFileForName(name);
       if (file != null) {
+        String from = referrers.remove(name);
+        if (from != null) {
+          addEdge(from, name);
+        }
         return file;
       }
     }
@@ -68,6 +96,17 @@ public class BuildClosureQueue {
     }
   }
 
+  /**
+   * Adds a name to the queue, recording the type that referenced it for the
+   * closure graph.
+   */
+  public void addDependency(String from, String name) {
+    if (!processedNames.contains(name)) {
+      queuedNames.add(name);
+      referrers.putIfAbsent(name, from);
+    }
+  }
+
   /**
    * Adds the name of a file that has been processed to ensure that this name is
    * not searched for in the future.
@@ -77,14 +116,216 @@ public class BuildClosureQueue {
     queuedNames.remove(name);
   }
 
-  private InputFile getFileForName(String name) {
-    InputFile inputFile = null;
+  /**
+   * Finds the source files that the specified files and the entry classes
+   * transitively depend on, so that the closure can be translated in one batch
+   * rather than in a batch per level of dependencies. Dependencies are found
+   * from the imports and type names in each source, with each level of the
+   * closure scanned on up to {@code nThreads} threads.
+   *
+   * <p>The types of the returned files are marked as processed. Dependencies
+   * that the scan misses, such as types only referenced through inherited
+   * members, are still queued when the translated units are checked.
+   *
+   * @return the files to translate, not including the specified files
+   */
+  public List<InputFile> expandClosure(List<InputFile> files, int nThreads) {
+    Map<String, Optional<InputFile>> sourceFiles = new ConcurrentHashMap<>();
+    List<InputFile> closure = new ArrayList<>();
+    List<InputFile> level = new ArrayList<>(files);
+    for (Iterator<String> iter = queuedNames.iterator(); iter.hasNext(); ) {
+      String name = iter.next();
+      iter.remove();
+      processedNames.add(name);
+      InputFile file = getFileForName(name);
+      if (file != null) {
+        closure.add(file);
+        level.add(file);
+      }
+    }
+
+    ExecutorService executor = nThreads > 1
+        ? Executors.newFixedThreadPool(
+            nThreads,
+            new ThreadFactoryBuilder()
+                .setNameFormat("j2objc-closure-%d")
+                .setDaemon(true)
+                .build())
+        : null;
     try {
-      inputFile = options.fileUtil().findTypeOnSourcePath(name);
+      while (!level.isEmpty()) {
+        List<ScannedFile> scannedFiles = scanFiles(level, sourceFiles, executor);
+        for (ScannedFile scanned : scannedFiles) {
+          addProcessedName(scanned.typeName);
+          dependencies.computeIfAbsent(scanned.typeName, k -> new TreeSet<>());
+        }
+        level = new ArrayList<>();
+        for (ScannedFile scanned : scannedFiles) {
+          for (Map.Entry<String, InputFile> entry : scanned.references.entrySet()) {
+            String name = entry.getKey();
+            addEdge(scanned.typeName, name);
+            if (processedNames.add(name)) {
+              queuedNames.remove(name);
+              closure.add(entry.getValue());
+              level.add(entry.getValue());
+            }
+          }
+        }
+      }
+    } finally {
+      if (executor != null) {
+        executor.shutdown();
+      }
+    }
+    return closure;
+  }
+
+  /**
+   * Writes the closure graph in Graphviz dot format, with an edge from each
+   * translated type to the translated types it references.
+   */
+  public void writeGraph(File file) throws IOException {
+    StringBuilder sb = new StringBuilder("digraph closure {\n");
+    for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+      if (entry.getValue().isEmpty()) {
+        sb.append(String.format("  \"%s\";\n", entry.getKey()));
+      }
+      for (String name : entry.getValue()) {
+        sb.append(String.format("  \"%s\" -> \"%s\";\n", entry.getKey(), name));
+      }
+    }
+    sb.append("}\n");
+    Files.createParentDirs(file);
+    Files.asCharSink(file, UTF_8).write(sb);
+  }
+
+  private void addEdge(String from, String to) {
+    if (!from.equals(to)) {
+      dependencies.computeIfAbsent(from, k -> new TreeSet<>()).add(to);
+    }
+  }
+
+  private List<ScannedFile> scanFiles(List<InputFile> files,
+      Map<String, Optional<InputFile>> sourceFiles, ExecutorService executor) {
+    List<ScannedFile> scannedFiles = new ArrayList<>();
+    if (executor == null) {
+      for (InputFile file : files) {
+        scannedFiles.add(scanFile(file, sourceFiles));
+      }
+      return scannedFiles;
+    }
+    List<Future<ScannedFile>> futures = new ArrayList<>();
+    for (InputFile file : files) {
+      futures.add(executor.submit(() -> scanFile(file, sourceFiles)));
+    }
+    for (int i = 0; i < futures.size(); i++) {
+      try {
+        scannedFiles.add(futures.get(i).get());
+      } catch (ExecutionException e) {
+        ErrorUtil.fatalError(e.getCause(), files.get(i).getOriginalLocation());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        ErrorUtil.fatalError(e, files.get(i).getOriginalLocation());
+      }
+    }
+    return scannedFiles;
+  }
+
+  /**
+   * Scans a source file for the types it references that have sources to
+   * translate. May be called concurrently.
+   */
+  private ScannedFile scanFile(InputFile file, Map<String, Optional<InputFile>> sourceFiles) {
+    SourceReferences refs;
+    try {
+      refs = SourceReferences.scan(options.fileUtil().readFile(file));
     } catch (IOException e) {
-      ErrorUtil.warning(e.getMessage());
+      // Reported when the file is parsed.
+      refs = SourceReferences.scan("");
+    }
+    String pkg = refs.getPackageName();
+    String mainType = FileUtil.getMainTypeName(file);
+    ScannedFile scanned = new ScannedFile(pkg.isEmpty() ? mainType : pkg + "." + mainType);
+    // Simple names are resolved as javac does: single-type imports hide types
+    // in the same package, which hide types from wildcard imports.
+    for (String name : refs.getUsedImports()) {
+      String typeName = topLevelTypeName(name);
+      if (typeName != null) {
+        scanned.addReference(typeName, sourceFiles);
+      }
+    }
+    for (String name : refs.getQualifiedNames()) {
+      String typeName = topLevelTypeName(name);
+      if (typeName != null) {
+        scanned.addReference(typeName, sourceFiles);
+      }
+    }
+    for (String name : refs.getSimpleNames()) {
+      if (refs.isImported(name)) {
+        continue;
+      }
+      if (scanned.addReference(pkg.isEmpty() ? name : pkg + "." + name, sourceFiles)) {
+        continue;
+      }
+      for (String wildcardImport : refs.getWildcardImports()) {
+        if (scanned.addReference(wildcardImport + "." + name, sourceFiles)) {
+          break;
+        }
+      }
     }
+    return scanned;
+  }
+
+  /**
+   * Returns the top-level type of a qualified name that follows naming
+   * conventions, like "a.b.C" for "a.b.C.Inner.method", or null if the name
+   * doesn't start with a package.
+   */
+  private static String topLevelTypeName(String name) {
+    int start = 0;
+    while (start < name.length()) {
+      int end = name.indexOf('.', start);
+      if (end < 0) {
+        end = name.length();
+      }
+      if (end > start && Character.isUpperCase(name.charAt(start))) {
+        return start > 0 ? name.substring(0, end) : null;
+      }
+      start = end + 1;
+    }
+    return null;
+  }
+
+  private class ScannedFile {
+    private final String typeName;
+    private final Map<String, InputFile> references = new LinkedHashMap<>();
 
+    private ScannedFile(String typeName) {
+      this.typeName = typeName;
+    }
+
+    /**
+     * Adds a reference if the type has a source file to translate, and returns
+     * whether the type exists on the sourcepath.
+     */
+    private boolean addReference(String name, Map<String, Optional<InputFile>> sourceFiles) {
+      Optional<InputFile> file = sourceFiles.get(name);
+      if (file == null) {
+        file = Optional.ofNullable(findSourceFile(name));
+        sourceFiles.putIfAbsent(name, file);
+      }
+      if (!file.isPresent()) {
+        return false;
+      }
+      if (needsTranslation(name, file.get())) {
+        references.put(name, file.get());
+      }
+      return true;
+    }
+  }
+
+  private InputFile getFileForName(String name) {
+    InputFile inputFile = findSourceFile(name);
     if (inputFile == null) {
       // Check if class exists on classpath.
       if (findClassFile(name)) {
@@ -92,16 +333,24 @@ public class BuildClosureQueue {
       }
       return null;
     }
+    return needsTranslation(name, inputFile) ? inputFile : null;
+  }
 
-    // Check if the source file is older than the generated header file.
-    File headerSource = new File(
-        options.fileUtil().getHeaderOutputDirectory(),
-        name.replace('.', File.separatorChar) + ".h");
-    if (headerSource.exists() && inputFile.lastModified() < headerSource.lastModified()) {
+  private InputFile findSourceFile(String name) {
+    try {
+      return options.fileUtil().findTypeOnSourcePath(name);
+    } catch (IOException e) {
+      ErrorUtil.warning(e.getMessage());
       return null;
     }
+  }
 
-    return inputFile;
+  // Check if the source file is older than the generated header file.
+  private boolean needsTranslation(String name, InputFile inputFile) {
+    File headerSource = new File(
+        options.fileUtil().getHeaderOutputDirectory(),
+        name.replace('.', File.separatorChar) + ".h");
+    return !headerSource.exists() || inputFile.lastModified() >= headerSource.lastModified();
   }
 
   private boolean findClassFile(String name) {
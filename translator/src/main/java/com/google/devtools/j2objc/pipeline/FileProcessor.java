@@ -16,6 +16,7 @@ package com.google.devtools.j2objc.pipeline;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.ast.CompilationUnit;
 import com.google.devtools.j2objc.file.InputFile;
@@ -24,11 +25,21 @@ import com.google.devtools.j2objc.util.FileUtil;
 import com.google.devtools.j2objc.util.Parser;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 /**
@@ -43,8 +54,9 @@ abstract class FileProcessor {
   private final Parser parser;
   protected final BuildClosureQueue closureQueue;
   protected final Options options;
-  private final Set<ProcessingContext> batchInputs = new HashSet<>();
+  private final Set<ProcessingContext> batchInputs = new LinkedHashSet<>();
   private final Set<ProcessingContext> outputs = new HashSet<>();
+  private final Set<String> partitionSourceRoots = new HashSet<>();
 
   public FileProcessor(Parser parser) {
     this.parser = Preconditions.checkNotNull(parser);
@@ -61,8 +73,19 @@ abstract class FileProcessor {
   }
 
   public void processInputs(Iterable<ProcessingContext> inputs) {
+    List<InputFile> closureRoots = new ArrayList<>();
     for (ProcessingContext input : inputs) {
       processInput(input);
+      if (closureQueue != null && isBatchable(input.getFile())) {
+        closureRoots.add(input.getFile());
+      }
+    }
+    if (closureQueue != null) {
+      // Add the closure found by scanning sources to the first batch.
+      int nThreads = options.translationThreads();
+      for (InputFile file : closureQueue.expandClosure(closureRoots, nThreads)) {
+        processInput(ProcessingContext.fromFile(file, options));
+      }
     }
     processBatch();
     processBuildClosureDependencies();
@@ -82,6 +105,14 @@ abstract class FileProcessor {
         }
         processInput(ProcessingContext.fromFile(file, options));
       }
+      File graphFile = options.buildClosureGraphFile();
+      if (graphFile != null) {
+        try {
+          closureQueue.writeGraph(graphFile);
+        } catch (IOException e) {
+          ErrorUtil.error("cannot write " + graphFile + ": " + e.getMessage());
+        }
+      }
     }
   }
 
@@ -117,12 +148,9 @@ abstract class FileProcessor {
       return;
     }
 
-    List<String> paths = Lists.newArrayListWithCapacity(batchInputs.size());
     final Map<String, ProcessingContext> inputMap = new CanonicalPathMap(batchInputs.size());
     for (ProcessingContext input : batchInputs) {
-      String path = input.getFile().getAbsolutePath();
-      paths.add(path);
-      inputMap.put(path, input);
+      inputMap.put(input.getFile().getAbsolutePath(), input);
     }
 
     Parser.Handler handler = new Parser.Handler() {
@@ -133,8 +161,15 @@ abstract class FileProcessor {
         batchInputs.remove(input);
       }
     };
-    logger.finest("Processing batch of size " + batchInputs.size());
-    parser.parseFiles(paths, handler, options.getSourceVersion());
+    List<List<ProcessingContext>> partitions = partitionBatch();
+    int nThreads = Math.min(options.translationThreads(), partitions.size());
+    if (nThreads > 1) {
+      parsePartitions(partitions, nThreads, handler);
+    } else {
+      for (List<ProcessingContext> partition : partitions) {
+        parsePartition(partition, handler);
+      }
+    }
 
     // Any remaining files in batchFiles has some kind of error.
     for (ProcessingContext input : batchInputs) {
@@ -144,6 +179,84 @@ abstract class FileProcessor {
     batchInputs.clear();
   }
 
+  /**
+   * Splits the batch into dependency clusters when -Xbatch-partition-memory is
+   * set, otherwise returns the whole batch as one partition.
+   */
+  private List<List<ProcessingContext>> partitionBatch() {
+    if (options.batchPartitionMemory() == 0) {
+      return Collections.singletonList(new ArrayList<>(batchInputs));
+    }
+    BatchPartitioner partitioner = new BatchPartitioner(
+        options.fileUtil(), options.batchPartitionMemory() * 1024L * 1024L);
+    List<List<ProcessingContext>> partitions = partitioner.partition(batchInputs);
+    if (partitions.size() > 1) {
+      // Types in other partitions are resolved from their sources.
+      for (String root : partitioner.getSourceRoots()) {
+        if (!options.fileUtil().getSourcePathEntries().contains(root)
+            && partitionSourceRoots.add(root)) {
+          parser.addSourcepathEntry(root);
+        }
+      }
+    }
+    logger.finest("Partitioned batch of size " + batchInputs.size() + " into "
+        + partitions.size() + " javac tasks");
+    return partitions;
+  }
+
+  private void parsePartition(List<ProcessingContext> partition, Parser.Handler handler) {
+    List<String> paths = Lists.newArrayListWithCapacity(partition.size());
+    for (ProcessingContext input : partition) {
+      paths.add(input.getFile().getAbsolutePath());
+    }
+    logger.finest("Processing batch of size " + paths.size());
+    parser.parseFiles(paths, handler, options.getSourceVersion());
+  }
+
+  /**
+   * Parses partitions concurrently, each with its own javac task. The parsed
+   * units are passed to the handler on this thread in partition order, so the
+   * results don't depend on which task finishes first. At most nThreads
+   * partitions are parsed or waiting to be handled at once, so their units
+   * don't all stay in memory.
+   */
+  private void parsePartitions(
+      List<List<ProcessingContext>> partitions, int nThreads, Parser.Handler handler) {
+    ExecutorService executor = Executors.newFixedThreadPool(
+        nThreads,
+        new ThreadFactoryBuilder()
+            .setNameFormat("j2objc-parse-%d")
+            .setDaemon(true)
+            .build());
+    try {
+      Deque<Future<Map<String, CompilationUnit>>> results = new ArrayDeque<>();
+      int nSubmitted = 0;
+      for (int i = 0; i < partitions.size(); i++) {
+        while (nSubmitted < Math.min(partitions.size(), i + nThreads)) {
+          List<ProcessingContext> partition = partitions.get(nSubmitted++);
+          results.add(executor.submit(() -> {
+            Map<String, CompilationUnit> units = new LinkedHashMap<>();
+            parsePartition(partition, units::put);
+            return units;
+          }));
+        }
+        Future<Map<String, CompilationUnit>> result = results.remove();
+        try {
+          for (Map.Entry<String, CompilationUnit> entry : result.get().entrySet()) {
+            handler.handleParsedUnit(entry.getKey(), entry.getValue());
+          }
+        } catch (ExecutionException e) {
+          ErrorUtil.fatalError(e.getCause(), partitions.get(i).get(0).getOriginalSourcePath());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          ErrorUtil.fatalError(e, partitions.get(i).get(0).getOriginalSourcePath());
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   private void processCompiledSource(ProcessingContext input,
       com.google.devtools.j2objc.ast.CompilationUnit unit) {
     InputFile file = input.getFile();
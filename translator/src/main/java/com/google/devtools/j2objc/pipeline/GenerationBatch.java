@@ -137,36 +137,33 @@ public class GenerationBatch {
       combinedUnit = GenerationUnit.newCombinedJarUnit(filename, options);
     }
     try {
-      ZipFile zfile = new ZipFile(f);
-      try {
-        boolean containsJavaFile = false;
-        Enumeration<? extends ZipEntry> enumerator = zfile.entries();
-        File tempDir = FileUtil.createTempDir(J2OBJC_TEMP_DIR_PREFIX);
-        String tempDirPath = tempDir.getAbsolutePath();
-        options.fileUtil().addTempDir(tempDirPath);
-        options.fileUtil().appendSourcePath(tempDirPath);
-
-        while (enumerator.hasMoreElements()) {
-          ZipEntry entry = enumerator.nextElement();
-          String internalPath = entry.getName();
-          if (internalPath.endsWith(".java")
-              || (options.translateClassfiles() && internalPath.endsWith(".class"))) {
-            // Extract JAR file to a temporary directory
-            File outputFile = options.fileUtil().extractZipEntry(tempDir, zfile, entry);
-            InputFile newFile = new RegularInputFile(outputFile.getAbsolutePath(), internalPath);
-            if (combinedUnit != null) {
-              inputs.add(new ProcessingContext(newFile, combinedUnit));
-            } else {
-              addExtractedJarSource(newFile, filename, internalPath);
-            }
-            containsJavaFile = true;
+      // The jar is shared with source path lookups, so it isn't closed here.
+      ZipFile zfile = options.fileUtil().getJarIndex().getJar(f.getPath());
+      boolean containsJavaFile = false;
+      Enumeration<? extends ZipEntry> enumerator = zfile.entries();
+      File tempDir = FileUtil.createTempDir(J2OBJC_TEMP_DIR_PREFIX);
+      String tempDirPath = tempDir.getAbsolutePath();
+      options.fileUtil().addTempDir(tempDirPath);
+      options.fileUtil().appendSourcePath(tempDirPath);
+
+      while (enumerator.hasMoreElements()) {
+        ZipEntry entry = enumerator.nextElement();
+        String internalPath = entry.getName();
+        if (internalPath.endsWith(".java")
+            || (options.translateClassfiles() && internalPath.endsWith(".class"))) {
+          // Extract JAR file to a temporary directory
+          File outputFile = options.fileUtil().extractZipEntry(tempDir, zfile, entry);
+          InputFile newFile = new RegularInputFile(outputFile.getAbsolutePath(), internalPath);
+          if (combinedUnit != null) {
+            inputs.add(new ProcessingContext(newFile, combinedUnit));
+          } else {
+            addExtractedJarSource(newFile, filename, internalPath);
           }
+          containsJavaFile = true;
         }
-        if (!options.translateClassfiles() && !containsJavaFile && !options.ignoreJarWarnings()) {
-          ErrorUtil.warning(filename + " does not contain any Java source files.");
-        }
-      } finally {
-        zfile.close();  // Also closes input stream.
+      }
+      if (!options.translateClassfiles() && !containsJavaFile && !options.ignoreJarWarnings()) {
+        ErrorUtil.warning(filename + " does not contain any Java source files.");
       }
     } catch (ZipException e) { // Also catches JarExceptions
       logger.fine(e.getMessage());
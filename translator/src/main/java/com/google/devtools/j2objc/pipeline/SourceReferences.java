@@ -0,0 +1,182 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.pipeline;
+
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
+import java.io.IOException;
+import java.io.StreamTokenizer;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The names a Java source file may use to refer to other types, found with a
+ * lexical scan instead of a parse. The scan is cheap but approximate: it can't
+ * tell a type name from a variable or method name, so callers look the names
+ * up and ignore those that don't resolve.
+ */
+class SourceReferences {
+
+  private String packageName = "";
+  private final Set<String> qualifiedNames = new LinkedHashSet<>();
+  private final Set<String> simpleNames = new LinkedHashSet<>();
+  private final Set<String> wildcardImports = new LinkedHashSet<>();
+  // The single-type and single static imports, by the simple name they declare.
+  private final SetMultimap<String, String> singleImports = LinkedHashMultimap.create();
+  // The first identifier of each name outside the package and import declarations.
+  private final Set<String> identifiers = new HashSet<>();
+
+  private SourceReferences() {}
+
+  /**
+   * Returns the declared package, or an empty string for the default package.
+   */
+  String getPackageName() {
+    return packageName;
+  }
+
+  /**
+   * Returns the dotted names in the source, which include any qualified type
+   * names, as well as field and method accesses. Single imports aren't
+   * included; see {@link #getUsedImports}.
+   */
+  Set<String> getQualifiedNames() {
+    return Collections.unmodifiableSet(qualifiedNames);
+  }
+
+  /**
+   * Returns the capitalized identifiers in the source, which may be type names
+   * from a single-type import, its own package or a wildcard import.
+   */
+  Set<String> getSimpleNames() {
+    return Collections.unmodifiableSet(simpleNames);
+  }
+
+  /**
+   * Returns the package or type names of the source's wildcard imports.
+   */
+  Set<String> getWildcardImports() {
+    return Collections.unmodifiableSet(wildcardImports);
+  }
+
+  /**
+   * Returns the qualified names of the single-type and single static imports
+   * whose simple names appear in the source. Unused imports aren't returned.
+   */
+  Set<String> getUsedImports() {
+    Set<String> usedImports = new LinkedHashSet<>();
+    for (String name : singleImports.keySet()) {
+      if (identifiers.contains(name)) {
+        usedImports.addAll(singleImports.get(name));
+      }
+    }
+    return usedImports;
+  }
+
+  /**
+   * Returns whether a single import declares this simple name, which then
+   * hides types of the same name in the source's package and wildcard imports.
+   */
+  boolean isImported(String simpleName) {
+    return singleImports.containsKey(simpleName);
+  }
+
+  static SourceReferences scan(String source) {
+    SourceReferences refs = new SourceReferences();
+    StreamTokenizer tokenizer = new StreamTokenizer(new StringReader(source));
+    tokenizer.resetSyntax();
+    tokenizer.wordChars('a', 'z');
+    tokenizer.wordChars('A', 'Z');
+    tokenizer.wordChars('0', '9');
+    tokenizer.wordChars('_', '_');
+    tokenizer.wordChars('$', '$');
+    tokenizer.wordChars('.', '.');
+    tokenizer.wordChars(128, Character.MAX_VALUE);
+    tokenizer.whitespaceChars(0, ' ');
+    tokenizer.quoteChar('"');
+    tokenizer.quoteChar('\'');
+    tokenizer.slashSlashComments(true);
+    tokenizer.slashStarComments(true);
+    try {
+      String previous = null;
+      boolean inImport = false;
+      // The name of the current import declaration.
+      String importName = null;
+      while (tokenizer.nextToken() != StreamTokenizer.TT_EOF) {
+        if (tokenizer.ttype == StreamTokenizer.TT_WORD) {
+          String word = tokenizer.sval;
+          if ("package".equals(previous) && refs.packageName.isEmpty()) {
+            refs.packageName = word;
+          } else if (inImport) {
+            if (!"static".equals(word)) {
+              importName = word;
+            }
+          } else if ("import".equals(word)) {
+            inImport = true;
+          } else {
+            refs.addName(word);
+          }
+          previous = word;
+        } else {
+          if (importName != null) {
+            if (tokenizer.ttype == '*' && importName.endsWith(".")) {
+              // A wildcard import's name is scanned with its trailing dot. Its
+              // name is still added, since the members of an imported type
+              // can't be told apart from other names.
+              String name = importName.substring(0, importName.length() - 1);
+              refs.wildcardImports.add(name);
+              refs.addQualifiedName(name);
+            } else if (tokenizer.ttype == ';' && !importName.endsWith(".")) {
+              refs.singleImports.put(
+                  importName.substring(importName.lastIndexOf('.') + 1), importName);
+            }
+            importName = null;
+          }
+          if (tokenizer.ttype == ';') {
+            inImport = false;
+          }
+          previous = null;
+        }
+      }
+    } catch (IOException e) {
+      throw new AssertionError("Exception reading string: " + e);
+    }
+    return refs;
+  }
+
+  private void addName(String word) {
+    int dot = word.indexOf('.');
+    if (dot > 0) {
+      qualifiedNames.add(word);
+    }
+    // The first part of a name like "Foo.bar" may be a type.
+    String first = dot > 0 ? word.substring(0, dot) : word;
+    if (dot != 0) {
+      identifiers.add(first);
+      if (Character.isUpperCase(first.charAt(0))) {
+        simpleNames.add(first);
+      }
+    }
+  }
+
+  private void addQualifiedName(String name) {
+    if (name.indexOf('.') > 0) {
+      qualifiedNames.add(name);
+    }
+  }
+}
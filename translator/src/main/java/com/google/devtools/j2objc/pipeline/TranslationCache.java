@@ -0,0 +1,329 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.pipeline;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.ast.AbstractTypeDeclaration;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.MethodInvocation;
+import com.google.devtools.j2objc.ast.TreeNode;
+import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.ast.Type;
+import com.google.devtools.j2objc.util.ElementUtil;
+import com.google.devtools.j2objc.util.ErrorUtil;
+import com.google.devtools.j2objc.util.FileUtil;
+import com.google.devtools.j2objc.util.TypeUtil;
+import com.google.devtools.j2objc.util.Version;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * An on-disk cache of translated header and implementation files. Entries are
+ * keyed by a hash of the translator version, the translation flags, the
+ * source file, and the signatures of all types the source references, so an
+ * entry is only reused when none of those inputs changed.
+ *
+ * <p>Only units that translate into a single .h/.m pair are cached.
+ */
+class TranslationCache {
+
+  // Flags whose values are files that affect translation.
+  private static final ImmutableSet<String> FILE_FLAGS = ImmutableSet.of(
+      "--mapping", "--header-mapping", "--prefixes", "--reserved-names",
+      "--dead-code-report", "--final-methods-report", "-external-annotation-file");
+
+  private final File cacheDir;
+  private final Options options;
+  private final HashCode optionsHash;
+  private final AtomicInteger hits = new AtomicInteger();
+  private final AtomicInteger misses = new AtomicInteger();
+
+  private TranslationCache(File cacheDir, Options options) {
+    this.cacheDir = cacheDir;
+    this.options = options;
+    this.optionsHash = hashOptions(options);
+  }
+
+  /**
+   * Returns a cache for the specified options, or null if caching is not enabled or not
+   * supported by the requested output style.
+   */
+  static TranslationCache create(Options options) {
+    File dir = options.translationCacheDir();
+    if (dir == null) {
+      return null;
+    }
+    if (options.buildClosure()
+        || options.globalCombinedOutput() != null
+        || options.generateSeparateHeaders()
+        || !options.generateSegmentedHeaders()
+        || options.getHeaderMap().includeGeneratedSources()
+        || options.getHeaderMap().combineSourceJars()
+        || options.emitKytheMappings()
+        || options.linkSourcePathHeaders()
+        || options.dumpAST()) {
+      ErrorUtil.warning("--translation-cache is not supported with the specified flags, ignored");
+      return null;
+    }
+    return new TranslationCache(dir, options);
+  }
+
+  /**
+   * Returns the key for a converted compilation unit. Must be called before the unit is mutated,
+   * since its references are used to find the dependency signatures.
+   */
+  String getKey(String sourcePath, CompilationUnit unit) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putBytes(optionsHash.asBytes());
+    putString(hasher, sourcePath);
+    putString(hasher, options.getHeaderMap().getOutputPath(unit));
+    putString(hasher, unit.getSource());
+    // Sort the referenced types, so the key doesn't depend on visiting order.
+    TreeMap<String, TypeElement> referencedTypes = new TreeMap<>();
+    for (TypeElement type : findReferencedTypes(unit)) {
+      referencedTypes.put(ElementUtil.getQualifiedName(type), type);
+    }
+    for (TypeElement type : referencedTypes.values()) {
+      hashTypeSignature(hasher, type);
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Copies a cached translation to the output directories. Returns false if there is no entry
+   * for this key.
+   */
+  boolean restore(String key, String outputPath) {
+    File cachedHeader = getCacheFile(key, headerSuffix());
+    File cachedSource = getCacheFile(key, sourceSuffix());
+    if (!cachedHeader.exists() || !cachedSource.exists()) {
+      misses.incrementAndGet();
+      return false;
+    }
+    try {
+      FileUtil fileUtil = options.fileUtil();
+      fileUtil.writeOutputFile(getHeaderFile(outputPath), Files.toByteArray(cachedHeader));
+      fileUtil.writeOutputFile(getSourceFile(outputPath), Files.toByteArray(cachedSource));
+    } catch (IOException e) {
+      // Fall back to translating the source.
+      ErrorUtil.warning("cannot read translation cache entry " + key + ": " + e.getMessage());
+      misses.incrementAndGet();
+      return false;
+    }
+    hits.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Adds the generated files for a unit to the cache. Write failures are reported as warnings,
+   * since the translation itself succeeded.
+   */
+  void store(String key, String outputPath) {
+    try {
+      copy(getHeaderFile(outputPath), getCacheFile(key, headerSuffix()));
+      copy(getSourceFile(outputPath), getCacheFile(key, sourceSuffix()));
+    } catch (IOException e) {
+      ErrorUtil.warning("cannot write translation cache entry " + key + ": " + e.getMessage());
+    }
+  }
+
+  int hitCount() {
+    return hits.get();
+  }
+
+  int missCount() {
+    return misses.get();
+  }
+
+  private String headerSuffix() {
+    return options.getLanguage().headerSuffix();
+  }
+
+  private String sourceSuffix() {
+    return options.getLanguage().suffix();
+  }
+
+  private File getHeaderFile(String outputPath) {
+    return new File(options.fileUtil().getHeaderOutputDirectory(), outputPath + headerSuffix());
+  }
+
+  private File getSourceFile(String outputPath) {
+    return new File(options.fileUtil().getOutputDirectory(), outputPath + sourceSuffix());
+  }
+
+  private File getCacheFile(String key, String suffix) {
+    // Shard entries by their first byte to keep directories small.
+    return new File(new File(cacheDir, key.substring(0, 2)), key + suffix);
+  }
+
+  /**
+   * Copies a file by writing a temporary sibling of the destination, then renaming it, so that
+   * concurrent readers never see a partially written file.
+   */
+  private static void copy(File from, File to) throws IOException {
+    Files.createParentDirs(to);
+    File tmp = File.createTempFile(to.getName(), ".tmp", to.getParentFile());
+    try {
+      Files.copy(from, tmp);
+      java.nio.file.Files.move(tmp.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      tmp.delete();
+    }
+  }
+
+  private static HashCode hashOptions(Options options) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    putString(hasher, Version.jarVersion(Options.class));
+    List<String> args = options.translationArgs();
+    for (int i = 0; i < args.size(); i++) {
+      String arg = args.get(i);
+      putString(hasher, arg);
+      if (FILE_FLAGS.contains(arg) && i + 1 < args.size()) {
+        for (String path : args.get(i + 1).split(",")) {
+          File f = new File(path);
+          if (f.isFile()) {
+            try {
+              hasher.putBytes(Files.asByteSource(f).hash(Hashing.sha256()).asBytes());
+            } catch (IOException e) {
+              ErrorUtil.warning("cannot read " + path + ": " + e.getMessage());
+            }
+          }
+        }
+      }
+    }
+    return hasher.hash();
+  }
+
+  private static void putString(Hasher hasher, String s) {
+    hasher.putInt(s.length()).putString(s, UTF_8);
+  }
+
+  /**
+   * Returns the types referenced by a unit, plus all of their supertypes, since inherited members
+   * affect how a type is translated.
+   */
+  private static Set<TypeElement> findReferencedTypes(CompilationUnit unit) {
+    Set<TypeElement> types = new LinkedHashSet<>();
+    unit.accept(new TreeVisitor() {
+      @Override
+      public boolean preVisit(TreeNode node) {
+        if (node instanceof Expression) {
+          addType(((Expression) node).getTypeMirror());
+        } else if (node instanceof Type) {
+          addType(((Type) node).getTypeMirror());
+        } else if (node instanceof AbstractTypeDeclaration) {
+          types.add(((AbstractTypeDeclaration) node).getTypeElement());
+        }
+        if (node instanceof MethodInvocation) {
+          ExecutableElement method = ((MethodInvocation) node).getExecutableElement();
+          if (method != null) {
+            types.add(ElementUtil.getDeclaringClass(method));
+          }
+        }
+        return true;
+      }
+
+      private void addType(TypeMirror t) {
+        TypeElement type = t != null ? TypeUtil.asTypeElement(t) : null;
+        if (type != null) {
+          types.add(type);
+        }
+      }
+    });
+    Deque<TypeElement> worklist = new ArrayDeque<>(types);
+    while (!worklist.isEmpty()) {
+      TypeElement type = worklist.pop();
+      List<TypeElement> supertypes = new ArrayList<>(ElementUtil.getInterfaces(type));
+      TypeElement superclass = ElementUtil.getSuperclass(type);
+      if (superclass != null) {
+        supertypes.add(superclass);
+      }
+      for (TypeElement supertype : supertypes) {
+        if (types.add(supertype)) {
+          worklist.push(supertype);
+        }
+      }
+      Element enclosing = type.getEnclosingElement();
+      if (enclosing instanceof TypeElement && types.add((TypeElement) enclosing)) {
+        worklist.push((TypeElement) enclosing);
+      }
+    }
+    return types;
+  }
+
+  /**
+   * Adds the parts of a type's declaration that can affect how references to it are translated:
+   * its modifiers, annotations, supertypes and member declarations, and its package's
+   * annotations. Method bodies and field initializers (other than constants) are excluded.
+   */
+  private static void hashTypeSignature(Hasher hasher, TypeElement type) {
+    putString(hasher, ElementUtil.getQualifiedName(type));
+    putString(hasher, type.getKind().name());
+    putString(hasher, type.getModifiers().toString());
+    hashAnnotations(hasher, type);
+    putString(hasher, type.getTypeParameters().toString());
+    putString(hasher, String.valueOf(type.getSuperclass()));
+    putString(hasher, type.getInterfaces().toString());
+    PackageElement pkg = ElementUtil.getPackage(type);
+    if (pkg != null) {
+      hashAnnotations(hasher, pkg);
+    }
+    for (Element member : type.getEnclosedElements()) {
+      putString(hasher, member.getKind().name());
+      putString(hasher, member.getSimpleName().toString());
+      putString(hasher, member.getModifiers().toString());
+      putString(hasher, member.asType().toString());
+      hashAnnotations(hasher, member);
+      if (member instanceof VariableElement) {
+        putString(hasher, String.valueOf(((VariableElement) member).getConstantValue()));
+      } else if (member instanceof ExecutableElement) {
+        for (VariableElement param : ((ExecutableElement) member).getParameters()) {
+          hashAnnotations(hasher, param);
+        }
+      }
+    }
+  }
+
+  private static void hashAnnotations(Hasher hasher, Element element) {
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      putString(hasher, annotation.toString());
+    }
+  }
+}
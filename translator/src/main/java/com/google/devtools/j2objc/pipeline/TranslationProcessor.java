@@ -16,8 +16,10 @@ package com.google.devtools.j2objc.pipeline;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.devtools.j2objc.ast.CompilationUnit;
 import com.google.devtools.j2objc.ast.DebugASTDump;
+import com.google.devtools.j2objc.file.JarIndex;
 import com.google.devtools.j2objc.gen.GenerationUnit;
 import com.google.devtools.j2objc.gen.ObjectiveCHeaderGenerator;
 import com.google.devtools.j2objc.gen.ObjectiveCImplementationGenerator;
@@ -27,6 +29,7 @@ import com.google.devtools.j2objc.translate.AbstractMethodRewriter;
 import com.google.devtools.j2objc.translate.AnnotationRewriter;
 import com.google.devtools.j2objc.translate.ArrayRewriter;
 import com.google.devtools.j2objc.translate.Autoboxer;
+import com.google.devtools.j2objc.translate.BoxingEliminator;
 import com.google.devtools.j2objc.translate.CastResolver;
 import com.google.devtools.j2objc.translate.ComplexExpressionExtractor;
 import com.google.devtools.j2objc.translate.ConstantBranchPruner;
@@ -47,6 +50,7 @@ import com.google.devtools.j2objc.translate.LambdaRewriter;
 import com.google.devtools.j2objc.translate.LambdaTypeElementAdder;
 import com.google.devtools.j2objc.translate.LogSiteInjector;
 import com.google.devtools.j2objc.translate.MetadataWriter;
+import com.google.devtools.j2objc.translate.MonitorRewriter;
 import com.google.devtools.j2objc.translate.NilCheckResolver;
 import com.google.devtools.j2objc.translate.NumberMethodRewriter;
 import com.google.devtools.j2objc.translate.ObjectiveCAdapterMethodAnnotation;
@@ -71,15 +75,24 @@ import com.google.devtools.j2objc.types.ImplementationImportCollector;
 import com.google.devtools.j2objc.types.Import;
 import com.google.devtools.j2objc.util.CodeReferenceMap;
 import com.google.devtools.j2objc.util.ErrorUtil;
+import com.google.devtools.j2objc.util.FileUtil;
 import com.google.devtools.j2objc.util.ExternalAnnotations;
 import com.google.devtools.j2objc.util.Parser;
 import com.google.devtools.j2objc.util.TimeTracker;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -94,12 +107,42 @@ public class TranslationProcessor extends FileProcessor {
   private static final Logger logger = Logger.getLogger(TranslationProcessor.class.getName());
 
   private final CodeReferenceMap deadCodeMap;
-  private final List<GenerationUnit> outputs = new ArrayList<>();
   private int processedCount = 0;
 
+  // Compilation units that were converted but whose output files haven't been written, and the
+  // most that were held at once. Used to verify that -Xstream-translation bounds memory use.
+  // Only j2objc's units are counted: javac's trees and symbols for a batch are held until its
+  // task ends, however early the outputs are written.
+  private final AtomicInteger retainedUnits = new AtomicInteger();
+  private final AtomicInteger peakRetainedUnits = new AtomicInteger();
+  private final Map<String, Set<String>> headerIncludesMap = new ConcurrentHashMap<>();
+
+  // Non-null when writing output files with more than one thread (-j).
+  private final ExecutorService executor;
+
+  // Non-null when translating with --translation-cache.
+  private final TranslationCache translationCache;
+  // The cache keys of units that need to be generated.
+  private final Map<GenerationUnit, String> cacheKeys = new HashMap<>();
+
+  // Units whose output files were already written, either because they were restored from the
+  // translation cache or because they were streamed.
+  private final Set<GenerationUnit> writtenUnits = new HashSet<>();
+
   public TranslationProcessor(Parser parser, CodeReferenceMap deadCodeMap) {
     super(parser);
     this.deadCodeMap = deadCodeMap;
+    this.translationCache = TranslationCache.create(options);
+    int nThreads = options.translationThreads();
+    this.executor =
+        nThreads > 1
+            ? Executors.newFixedThreadPool(
+                nThreads,
+                new ThreadFactoryBuilder()
+                    .setNameFormat("j2objc-translate-%d")
+                    .setDaemon(true)
+                    .build())
+            : null;
   }
 
   @Override
@@ -108,34 +151,106 @@ public class TranslationProcessor extends FileProcessor {
     if (logger.isLoggable(Level.INFO)) {
       System.out.println("translating " + unitName);
     }
-    TimeTracker ticker = TimeTracker.getTicker(unitName, options.timingLevel());
+    TimeTracker ticker = options.translationProfile() != null
+        ? options.translationProfile().newTicker(
+            unitName, unit, TimeTracker.getTicker(unitName, options.timingLevel()))
+        : TimeTracker.getTicker(unitName, options.timingLevel());
     if (options.dumpAST()) {
       // Dump compilation unit to an .ast output file instead of translating.
       DebugASTDump.dumpUnit(unit);
+    } else if (translationCache != null && restoreFromCache(input, unit)) {
+      ticker.tick("Restored from translation cache");
+      ticker.printResults(System.out);
     } else {
+      // The tree mutations and type generation stay on this thread, even with -j: they use
+      // javac's Types and Elements and the NameTable and TypeUtil caches, which aren't
+      // thread-safe. Only writing the generated types to files runs on worker threads.
+      retainUnit();
       applyMutations(unit, deadCodeMap, options.externalAnnotations(), ticker);
       ticker.tick("Tree mutations");
       ticker.printResults(System.out);
 
       GenerationUnit genUnit = input.getGenerationUnit();
       genUnit.addCompilationUnit(unit);
-      outputs.add(genUnit);
+      streamOutput(genUnit);
 
       // Add out-of-date dependencies to translation list.
       if (closureQueue != null) {
-        checkDependencies(unit);
+        checkDependencies(input, unit);
       }
     }
     processedCount++;
   }
 
+  private void retainUnit() {
+    peakRetainedUnits.accumulateAndGet(retainedUnits.incrementAndGet(), Math::max);
+  }
+
+  /**
+   * With -Xstream-translation, writes a GenerationUnit's output files as soon as all its
+   * compilation units are added, so it can be released instead of held until processOutputs.
+   * This doesn't stream javac's work: parseFiles analyzes the whole batch, or partition with
+   * -Xbatch-partition-memory, before the first unit is handled.
+   */
+  private void streamOutput(GenerationUnit genUnit) {
+    if (options.streamTranslation() && genUnit.isFullyParsed()) {
+      generateAndCache(genUnit);
+      writtenUnits.add(genUnit);
+    }
+  }
+
+  private boolean restoreFromCache(ProcessingContext input, CompilationUnit unit) {
+    GenerationUnit genUnit = input.getGenerationUnit();
+    String key = translationCache.getKey(input.getOriginalSourcePath(), unit);
+    if (translationCache.restore(key, options.getHeaderMap().getOutputPath(unit))) {
+      writtenUnits.add(genUnit);
+      return true;
+    }
+    cacheKeys.put(genUnit, key);
+    return false;
+  }
+
   @Override
   protected void processOutputs(Iterable<ProcessingContext> outputs) {
-    HashMap<String, Set<String>> headerIncludesMap = new HashMap<>();
+    if (executor != null) {
+      processOutputsInParallel(outputs);
+      return;
+    }
     for (ProcessingContext output : outputs) {
-      generateObjectiveCSource(output.getGenerationUnit(), headerIncludesMap);
+      // Several inputs may share a GenerationUnit, which must only be generated once.
+      GenerationUnit unit = output.getGenerationUnit();
+      if (writtenUnits.add(unit)) {
+        generateAndCache(unit);
+      }
+    }
+    checkNoIncludeCycles(new TreeMap<>(headerIncludesMap));
+  }
+
+  private void processOutputsInParallel(Iterable<ProcessingContext> outputs) {
+    // Several inputs may share a GenerationUnit, which must only be generated once.
+    Map<GenerationUnit, Future<?>> results = new LinkedHashMap<>();
+    try {
+      for (ProcessingContext output : outputs) {
+        GenerationUnit unit = output.getGenerationUnit();
+        if (!writtenUnits.contains(unit) && !results.containsKey(unit)) {
+          results.put(unit, executor.submit(() -> generateAndCache(unit)));
+        }
+      }
+      for (Map.Entry<GenerationUnit, Future<?>> entry : results.entrySet()) {
+        try {
+          entry.getValue().get();
+        } catch (ExecutionException e) {
+          ErrorUtil.fatalError(e.getCause(), entry.getKey().getSourceName());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          ErrorUtil.fatalError(e, entry.getKey().getSourceName());
+        }
+      }
+    } finally {
+      executor.shutdown();
     }
-    checkNoIncludeCycles(headerIncludesMap);
+    // Sort the headers so a reported cycle doesn't depend on which thread finished first.
+    checkNoIncludeCycles(new TreeMap<>(headerIncludesMap));
   }
 
   /**
@@ -223,6 +338,12 @@ public class TranslationProcessor extends FileProcessor {
     new Autoboxer(unit).run();
     ticker.tick("Autoboxer");
 
+    // After: Autoboxer - Removes boxing that doesn't escape the method.
+    if (unit.getEnv().options().eliminateBoxing()) {
+      new BoxingEliminator(unit).run();
+      ticker.tick("BoxingEliminator");
+    }
+
     new InnerClassExtractor(unit).run();
     ticker.tick("InnerClassExtractor");
 
@@ -331,6 +452,13 @@ public class TranslationProcessor extends FileProcessor {
     new CastResolver(unit).run();
     ticker.tick("CastResolver");
 
+    // After: CastResolver - Checks the lowered form of synchronized bodies, to
+    //   find the ones that can't throw.
+    if (unit.getEnv().options().monitorLocks()) {
+      new MonitorRewriter(unit).run();
+      ticker.tick("MonitorRewriter");
+    }
+
     // After: InnerClassExtractor, Functionizer - Expects all types to be
     //   top-level and functionizing to have occurred.
     new PrivateDeclarationResolver(unit).run();
@@ -358,6 +486,28 @@ public class TranslationProcessor extends FileProcessor {
     ticker.pop();
   }
 
+  private void generateAndCache(GenerationUnit unit) {
+    generateObjectiveCSource(unit, headerIncludesMap);
+    retainedUnits.addAndGet(-unit.getInputCount());
+    String key = cacheKeys.get(unit);
+    // Don't cache output that may be incomplete.
+    if (key != null && ErrorUtil.errorCount() == 0) {
+      translationCache.store(key, unit.getOutputPath());
+    }
+  }
+
+  /**
+   * Returns the largest number of compilation units that were converted but not yet written.
+   */
+  public int getPeakRetainedUnits() {
+    return peakRetainedUnits.get();
+  }
+
+  @VisibleForTesting
+  TranslationCache getTranslationCache() {
+    return translationCache;
+  }
+
   @VisibleForTesting
   public static void generateObjectiveCSource(
       GenerationUnit unit, Map<String, Set<String>> headerIncludesMap) {
@@ -406,10 +556,28 @@ public class TranslationProcessor extends FileProcessor {
           "Translated %d %s: %d errors, %d warnings",
           nFiles, nFiles == 1 ? "file" : "files", ErrorUtil.errorCount(),
           ErrorUtil.warningCount()));
+      if (options.streamTranslation()) {
+        System.out.println("Peak retained units: " + getPeakRetainedUnits());
+      }
+      if (translationCache != null) {
+        System.out.println(String.format("Translation cache: %d hits, %d misses",
+            translationCache.hitCount(), translationCache.missCount()));
+      }
+      FileUtil fileUtil = options.fileUtil();
+      if (fileUtil.unchangedOutputCount() > 0) {
+        System.out.println(String.format("Output files: %d written, %d unchanged",
+            fileUtil.writtenOutputCount(), fileUtil.unchangedOutputCount()));
+      }
+      JarIndex jarIndex = fileUtil.getJarIndex();
+      if (jarIndex.missCount() > 0) {
+        System.out.println(String.format("Jar index: %d hits, %d jars opened",
+            jarIndex.hitCount(), jarIndex.missCount()));
+      }
     }
   }
 
-  private void checkDependencies(CompilationUnit unit) {
+  private void checkDependencies(ProcessingContext input, CompilationUnit unit) {
+    String from = FileUtil.getQualifiedMainTypeName(input.getFile(), unit);
     HeaderImportCollector hdrCollector =
         new HeaderImportCollector(unit, HeaderImportCollector.Filter.INCLUDE_ALL);
     hdrCollector.run();
@@ -421,7 +589,7 @@ public class TranslationProcessor extends FileProcessor {
     for (Import imp : imports) {
       String qualifiedName = imp.getJavaQualifiedName();
       if (qualifiedName != null) {
-        closureQueue.addName(qualifiedName);
+        closureQueue.addDependency(from, qualifiedName);
       }
     }
   }
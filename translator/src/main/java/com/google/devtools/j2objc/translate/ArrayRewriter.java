@@ -18,47 +18,81 @@ import com.google.devtools.j2objc.ast.ArrayAccess;
 import com.google.devtools.j2objc.ast.ArrayCreation;
 import com.google.devtools.j2objc.ast.ArrayInitializer;
 import com.google.devtools.j2objc.ast.Assignment;
+import com.google.devtools.j2objc.ast.BodyDeclaration;
 import com.google.devtools.j2objc.ast.CompilationUnit;
 import com.google.devtools.j2objc.ast.Expression;
 import com.google.devtools.j2objc.ast.FieldAccess;
+import com.google.devtools.j2objc.ast.ForStatement;
 import com.google.devtools.j2objc.ast.FunctionInvocation;
+import com.google.devtools.j2objc.ast.InfixExpression;
 import com.google.devtools.j2objc.ast.InstanceofExpression;
 import com.google.devtools.j2objc.ast.MethodInvocation;
 import com.google.devtools.j2objc.ast.NumberLiteral;
+import com.google.devtools.j2objc.ast.ParenthesizedExpression;
+import com.google.devtools.j2objc.ast.PostfixExpression;
 import com.google.devtools.j2objc.ast.PrefixExpression;
 import com.google.devtools.j2objc.ast.QualifiedName;
 import com.google.devtools.j2objc.ast.SimpleName;
+import com.google.devtools.j2objc.ast.TreeNode;
 import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TreeVisitor;
 import com.google.devtools.j2objc.ast.TypeLiteral;
 import com.google.devtools.j2objc.ast.UnitTreeVisitor;
+import com.google.devtools.j2objc.ast.VariableDeclarationExpression;
+import com.google.devtools.j2objc.ast.VariableDeclarationFragment;
 import com.google.devtools.j2objc.types.ExecutablePair;
 import com.google.devtools.j2objc.types.FunctionElement;
 import com.google.devtools.j2objc.types.GeneratedExecutableElement;
 import com.google.devtools.j2objc.types.GeneratedVariableElement;
 import com.google.devtools.j2objc.types.PointerType;
 import com.google.devtools.j2objc.util.ElementUtil;
+import com.google.devtools.j2objc.util.TranslationProfile;
 import com.google.devtools.j2objc.util.TranslationUtil;
 import com.google.devtools.j2objc.util.TypeUtil;
 import com.google.devtools.j2objc.util.UnicodeUtils;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 
 /**
  * Rewrites array creation into a method invocation on an IOSArray class.
  *
+ * <p>Array accesses become calls to the IOSArray accessor functions, which check the index. The
+ * check is left out for accesses in a canonical counting loop, such as
+ * {@code for (int i = 0; i < a.length; i++) ... a[i] ...}, or the same loop with the array's
+ * length cached in a local variable, when neither the index nor the array variable is assigned
+ * in the loop. The loop condition then proves the index is within the array's bounds.
+ *
  * @author Keith Stanger
  */
 public class ArrayRewriter extends UnitTreeVisitor {
 
+  // Maps the index variables of the loops being visited to the arrays they are known to be
+  // within the bounds of.
+  private final Map<VariableElement, VariableElement> inBoundsIndexes = new HashMap<>();
+  private int boundsCheckCount = 0;
+  private int removedBoundsCheckCount = 0;
+
   public ArrayRewriter(CompilationUnit unit) {
     super(unit);
   }
 
+  @Override
+  public void endVisit(CompilationUnit node) {
+    TranslationProfile profile = options.translationProfile();
+    if (profile != null) {
+      profile.count("ArrayRewriter.boundsChecks", boundsCheckCount);
+      profile.count("ArrayRewriter.boundsChecksRemoved", removedBoundsCheckCount);
+    }
+  }
+
   @Override
   public void endVisit(ArrayCreation node) {
     node.replaceWith(createInvocation(node));
@@ -245,6 +279,186 @@ public class ArrayRewriter extends UnitTreeVisitor {
     return true;
   }
 
+  @Override
+  public boolean visit(ForStatement node) {
+    VariableElement index = getLoopIndex(node);
+    VariableElement array = index != null ? getLoopArray(node, index) : null;
+    if (array != null) {
+      inBoundsIndexes.put(index, array);
+    }
+    return true;
+  }
+
+  @Override
+  public void endVisit(ForStatement node) {
+    for (Expression initializer : node.getInitializers()) {
+      if (initializer instanceof VariableDeclarationExpression) {
+        for (VariableDeclarationFragment fragment :
+             ((VariableDeclarationExpression) initializer).getFragments()) {
+          inBoundsIndexes.remove(fragment.getVariableElement());
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the loop's index variable if it's an int declared by the loop with a non-negative
+   * initial value, the loop's only updater increments it, and the loop doesn't assign it
+   * anywhere else. Its value is then never less than zero in the loop body.
+   */
+  private VariableElement getLoopIndex(ForStatement node) {
+    List<Expression> updaters = node.getUpdaters();
+    if (updaters.size() != 1 || node.getInitializers().size() != 1
+        || !(node.getInitializer(0) instanceof VariableDeclarationExpression)) {
+      return null;
+    }
+    VariableElement index = getIncrementedVariable(updaters.get(0));
+    if (index == null || index.asType().getKind() != TypeKind.INT) {
+      return null;
+    }
+    VariableDeclarationFragment fragment = findFragment(node.getInitializer(0), index);
+    if (fragment == null || !(fragment.getInitializer() instanceof NumberLiteral)
+        || ((NumberLiteral) fragment.getInitializer()).getValue().longValue() < 0) {
+      return null;
+    }
+    Expression condition = node.getExpression();
+    if (condition == null || isAssignedIn(condition, index)
+        || isAssignedIn(node.getBody(), index)) {
+      return null;
+    }
+    return index;
+  }
+
+  private static VariableElement getIncrementedVariable(Expression updater) {
+    Expression operand = null;
+    if (updater instanceof PostfixExpression) {
+      PostfixExpression postfix = (PostfixExpression) updater;
+      if (postfix.getOperator() == PostfixExpression.Operator.INCREMENT) {
+        operand = postfix.getOperand();
+      }
+    } else if (updater instanceof PrefixExpression) {
+      PrefixExpression prefix = (PrefixExpression) updater;
+      if (prefix.getOperator() == PrefixExpression.Operator.INCREMENT) {
+        operand = prefix.getOperand();
+      }
+    }
+    return operand instanceof SimpleName ? TreeUtil.getVariableElement(operand) : null;
+  }
+
+  /**
+   * Returns the array whose bounds the loop's index stays within: the loop condition must be
+   * {@code index < array.length}, or {@code index < length} where {@code length} is a local
+   * variable set to {@code array.length} that is never reassigned. The array variable mustn't be
+   * assigned while its length is relied on.
+   */
+  private VariableElement getLoopArray(ForStatement node, VariableElement index) {
+    Expression condition = TreeUtil.trimParentheses(node.getExpression());
+    if (!(condition instanceof InfixExpression)) {
+      return null;
+    }
+    InfixExpression infix = (InfixExpression) condition;
+    List<Expression> operands = infix.getOperands();
+    if (infix.getOperator() != InfixExpression.Operator.LESS || operands.size() != 2
+        || !index.equals(getLocalVariable(operands.get(0)))) {
+      return null;
+    }
+    Expression bound = operands.get(1);
+    VariableElement array = getLengthArray(bound);
+    if (array != null) {
+      return isAssignedIn(node, array) ? null : array;
+    }
+    VariableElement length = getLocalVariable(bound);
+    if (length == null) {
+      return null;
+    }
+    VariableDeclarationFragment fragment = findFragment(node.getInitializer(0), length);
+    // A length cached before the loop is only valid if neither variable is ever reassigned.
+    TreeNode scope = node;
+    if (fragment == null) {
+      scope = TreeUtil.getNearestAncestorWithType(BodyDeclaration.class, node);
+      fragment = findFragment(scope, length);
+    }
+    if (fragment == null || isAssignedIn(scope, length)) {
+      return null;
+    }
+    array = getLengthArray(fragment.getInitializer());
+    return array == null || isAssignedIn(scope, array) ? null : array;
+  }
+
+  // Returns the array variable of an "array.length" expression.
+  private static VariableElement getLengthArray(Expression node) {
+    node = TreeUtil.trimParentheses(node);
+    Expression array;
+    SimpleName name;
+    if (node instanceof QualifiedName) {
+      array = ((QualifiedName) node).getQualifier();
+      name = ((QualifiedName) node).getName();
+    } else if (node instanceof FieldAccess) {
+      array = ((FieldAccess) node).getExpression();
+      name = ((FieldAccess) node).getName();
+    } else {
+      return null;
+    }
+    if (!name.getIdentifier().equals("length") || !TypeUtil.isArray(array.getTypeMirror())) {
+      return null;
+    }
+    return getLocalVariable(array);
+  }
+
+  // Returns the local variable or parameter a possibly nil-checked expression refers to.
+  private static VariableElement getLocalVariable(Expression node) {
+    while (true) {
+      if (node instanceof ParenthesizedExpression) {
+        node = ((ParenthesizedExpression) node).getExpression();
+      } else if (node instanceof FunctionInvocation
+          && ((FunctionInvocation) node).getName().equals("nil_chk")) {
+        node = ((FunctionInvocation) node).getArgument(0);
+      } else {
+        break;
+      }
+    }
+    if (!(node instanceof SimpleName)) {
+      return null;
+    }
+    VariableElement var = TreeUtil.getVariableElement(node);
+    return var != null && (ElementUtil.isLocalVariable(var) || ElementUtil.isParameter(var))
+        ? var : null;
+  }
+
+  private static VariableDeclarationFragment findFragment(TreeNode scope, VariableElement var) {
+    VariableDeclarationFragment[] result = new VariableDeclarationFragment[1];
+    scope.accept(new TreeVisitor() {
+      @Override
+      public boolean visit(VariableDeclarationFragment node) {
+        if (node.getVariableElement().equals(var)) {
+          result[0] = node;
+        }
+        return true;
+      }
+    });
+    return result[0];
+  }
+
+  private static boolean isAssignedIn(TreeNode scope, VariableElement var) {
+    boolean[] result = new boolean[1];
+    scope.accept(new TreeVisitor() {
+      @Override
+      public boolean visit(SimpleName node) {
+        if (var.equals(node.getElement()) && TranslationUtil.isAssigned(node)) {
+          result[0] = true;
+        }
+        return true;
+      }
+    });
+    return result[0];
+  }
+
+  private boolean isInBounds(ArrayAccess node) {
+    VariableElement index = getLocalVariable(node.getIndex());
+    return index != null && inBoundsIndexes.containsKey(index)
+        && inBoundsIndexes.get(index).equals(getLocalVariable(node.getArray()));
+  }
+
   @Override
   public void endVisit(ArrayAccess node) {
     TypeMirror componentType = node.getTypeMirror();
@@ -265,6 +479,11 @@ public class ArrayRewriter extends UnitTreeVisitor {
       funcName += "Ref";
       returnType = declaredReturnType = new PointerType(componentType);
     }
+    boundsCheckCount++;
+    if (isInBounds(arrayAccessNode)) {
+      removedBoundsCheckCount++;
+      funcName += "Unchecked";
+    }
     FunctionElement element = new FunctionElement(funcName, declaredReturnType, iosArrayElement)
         .addParameters(iosArrayElement.asType(), typeUtil.getInt());
     FunctionInvocation invocation = new FunctionInvocation(element, returnType);
@@ -192,7 +192,7 @@ public class Autoboxer extends UnitTreeVisitor {
     node.replaceWith(invocation);
   }
 
-  private static String getAssignFunctionName(Assignment.Operator op) {
+  static String getAssignFunctionName(Assignment.Operator op) {
     switch (op) {
       case PLUS_ASSIGN:
         return "PlusAssign";
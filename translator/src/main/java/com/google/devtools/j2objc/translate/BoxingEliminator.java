@@ -0,0 +1,319 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.ast.Assignment;
+import com.google.devtools.j2objc.ast.CastExpression;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.ExpressionStatement;
+import com.google.devtools.j2objc.ast.ForStatement;
+import com.google.devtools.j2objc.ast.FunctionInvocation;
+import com.google.devtools.j2objc.ast.MethodInvocation;
+import com.google.devtools.j2objc.ast.ParenthesizedExpression;
+import com.google.devtools.j2objc.ast.PostfixExpression;
+import com.google.devtools.j2objc.ast.PrefixExpression;
+import com.google.devtools.j2objc.ast.SimpleName;
+import com.google.devtools.j2objc.ast.TreeNode;
+import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.ast.UnitTreeVisitor;
+import com.google.devtools.j2objc.ast.VariableDeclarationFragment;
+import com.google.devtools.j2objc.ast.VariableDeclarationStatement;
+import com.google.devtools.j2objc.types.GeneratedVariableElement;
+import com.google.devtools.j2objc.util.ElementUtil;
+import com.google.devtools.j2objc.util.TranslationProfile;
+import java.util.ArrayList;
+import java.util.List;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Removes boxing that the Autoboxer added where the boxed value never leaves the method:
+ * a box that is immediately unboxed becomes the primitive value, and a boxed local variable
+ * that is only ever assigned boxed primitives and read as a primitive becomes a primitive
+ * variable.
+ */
+public class BoxingEliminator extends UnitTreeVisitor {
+
+  private int roundTripCount = 0;
+  private int unboxedLocalCount = 0;
+
+  public BoxingEliminator(CompilationUnit unit) {
+    super(unit);
+  }
+
+  @Override
+  public void endVisit(CompilationUnit node) {
+    TranslationProfile profile = options.translationProfile();
+    if (profile != null) {
+      profile.count("BoxingEliminator.roundTripsRemoved", roundTripCount);
+      profile.count("BoxingEliminator.localsUnboxed", unboxedLocalCount);
+    }
+  }
+
+  /**
+   * Returns the primitive value of a "Wrapper.valueOf(value)" invocation, or null if the
+   * expression isn't one.
+   */
+  private Expression getBoxedValue(Expression expr) {
+    expr = TreeUtil.trimParentheses(expr);
+    if (!(expr instanceof MethodInvocation)) {
+      return null;
+    }
+    MethodInvocation invocation = (MethodInvocation) expr;
+    ExecutableElement method = invocation.getExecutableElement();
+    TypeElement declaringClass = ElementUtil.getDeclaringClass(method);
+    if (!ElementUtil.getName(method).equals("valueOf") || !ElementUtil.isStatic(method)
+        || !typeUtil.isBoxedType(declaringClass.asType())
+        || method.getParameters().size() != 1) {
+      return null;
+    }
+    TypeMirror paramType = method.getParameters().get(0).asType();
+    TypeMirror primitiveType = typeUtil.unboxedType(declaringClass.asType());
+    return paramType.getKind() == primitiveType.getKind() ? invocation.getArguments().get(0) : null;
+  }
+
+  /**
+   * Returns whether the node is a call to one of a wrapper's value methods, such as
+   * intValue(), with the specified receiver.
+   */
+  private boolean isUnboxing(TreeNode node, Expression receiver) {
+    if (!(node instanceof MethodInvocation)) {
+      return false;
+    }
+    MethodInvocation invocation = (MethodInvocation) node;
+    ExecutableElement method = invocation.getExecutableElement();
+    return invocation.getExpression() == receiver
+        && typeUtil.isBoxedType(receiver.getTypeMirror())
+        && method.getParameters().isEmpty()
+        && ElementUtil.getName(method).endsWith("Value")
+        && method.getReturnType().getKind().isPrimitive();
+  }
+
+  // Converts a primitive value to the specified primitive type, as an operand of any operator.
+  private static Expression convert(Expression value, TypeMirror type) {
+    value = TreeUtil.remove(value);
+    if (!(value instanceof SimpleName || value instanceof MethodInvocation
+          || value instanceof FunctionInvocation || value instanceof ParenthesizedExpression)) {
+      value = ParenthesizedExpression.parenthesize(value);
+    }
+    if (value.getTypeMirror().getKind() != type.getKind()) {
+      value = new CastExpression(type, value);
+    }
+    return value;
+  }
+
+  @Override
+  public void endVisit(MethodInvocation node) {
+    Expression receiver = node.getExpression();
+    if (receiver == null || !isUnboxing(node, receiver)) {
+      return;
+    }
+    Expression value = getBoxedValue(receiver);
+    if (value != null) {
+      node.replaceWith(convert(value, node.getTypeMirror()));
+      roundTripCount++;
+    }
+  }
+
+  @Override
+  public boolean visit(VariableDeclarationStatement node) {
+    List<VariableDeclarationFragment> fragments = node.getFragments();
+    if (fragments.size() == 1) {
+      maybeUnboxLocal(node, fragments.get(0));
+    }
+    return true;
+  }
+
+  /**
+   * Converts a boxed local variable into a primitive if it can never be null and its value never
+   * escapes: it must only be assigned boxed primitives, and only used to get its primitive value.
+   */
+  private void maybeUnboxLocal(VariableDeclarationStatement stmt,
+      VariableDeclarationFragment fragment) {
+    VariableElement var = fragment.getVariableElement();
+    TypeMirror type = var.asType();
+    if (!ElementUtil.isLocalVariable(var) || !typeUtil.isBoxedType(type)) {
+      return;
+    }
+    Expression initializer = fragment.getInitializer();
+    if (initializer != null && getBoxedValue(initializer) == null) {
+      return;
+    }
+    List<SimpleName> uses = findUses(stmt.getParent(), var);
+    TypeElement declaringType = TreeUtil.getEnclosingTypeElement(stmt);
+    for (SimpleName use : uses) {
+      // Uses in a nested class capture the boxed value.
+      if (!declaringType.equals(TreeUtil.getEnclosingTypeElement(use)) || !canUnbox(use)) {
+        return;
+      }
+    }
+
+    TypeMirror primitiveType = typeUtil.unboxedType(type);
+    GeneratedVariableElement newVar = GeneratedVariableElement.newLocalVar(
+        ElementUtil.getName(var), primitiveType, var.getEnclosingElement());
+    fragment.setVariableElement(newVar);
+    if (initializer != null) {
+      initializer.replaceWith(convert(getBoxedValue(initializer), primitiveType));
+    }
+    for (SimpleName use : uses) {
+      unbox(use, newVar);
+    }
+    unboxedLocalCount++;
+  }
+
+  private static List<SimpleName> findUses(TreeNode scope, VariableElement var) {
+    List<SimpleName> uses = new ArrayList<>();
+    scope.accept(new TreeVisitor() {
+      @Override
+      public boolean visit(SimpleName node) {
+        if (var.equals(node.getElement())) {
+          uses.add(node);
+        }
+        return true;
+      }
+    });
+    return uses;
+  }
+
+  // Returns the outermost parentheses around an expression, or the expression itself.
+  private static Expression trimParentsParentheses(Expression node) {
+    while (node.getParent() instanceof ParenthesizedExpression) {
+      node = (Expression) node.getParent();
+    }
+    return node;
+  }
+
+  private boolean canUnbox(SimpleName use) {
+    Expression node = trimParentsParentheses(use);
+    TreeNode parent = node.getParent();
+    if (isUnboxing(parent, node)) {
+      return true;
+    }
+    if (parent instanceof Assignment) {
+      Assignment assignment = (Assignment) parent;
+      return assignment.getLeftHandSide() == node
+          && assignment.getOperator() == Assignment.Operator.ASSIGN
+          && getBoxedValue(assignment.getRightHandSide()) != null
+          // The assignment's value is boxed, so it must not be used.
+          && isDiscarded(assignment);
+    }
+    BoxedOperation operation = BoxedOperation.of(parent);
+    return operation != null && operation.isSupported() && node == operation.address.getOperand()
+        && (isDiscarded(operation.invocation)
+            || isUnboxing(operation.invocation.getParent(), operation.invocation));
+  }
+
+  private static boolean isDiscarded(Expression expr) {
+    TreeNode parent = expr.getParent();
+    return parent instanceof ExpressionStatement
+        || (parent instanceof ForStatement && ((ForStatement) parent).getUpdaters().contains(expr));
+  }
+
+  private void unbox(SimpleName use, VariableElement newVar) {
+    Expression node = trimParentsParentheses(use);
+    TreeNode parent = node.getParent();
+    SimpleName newName = new SimpleName(newVar);
+    if (isUnboxing(parent, node)) {
+      Expression invocation = (Expression) parent;
+      invocation.replaceWith(convert(newName, invocation.getTypeMirror()));
+    } else if (parent instanceof Assignment) {
+      Assignment assignment = (Assignment) parent;
+      node.replaceWith(newName);
+      Expression rhs = assignment.getRightHandSide();
+      rhs.replaceWith(convert(getBoxedValue(rhs), newVar.asType()));
+    } else {
+      BoxedOperation operation = BoxedOperation.of(parent);
+      Expression primitiveOperation = operation.toPrimitive(newVar);
+      FunctionInvocation invocation = operation.invocation;
+      TreeNode invocationParent = invocation.getParent();
+      if (isUnboxing(invocationParent, invocation)) {
+        Expression unboxing = (Expression) invocationParent;
+        unboxing.replaceWith(convert(primitiveOperation, unboxing.getTypeMirror()));
+      } else {
+        invocation.replaceWith(primitiveOperation);
+      }
+    }
+  }
+
+  /**
+   * An increment, decrement or compound assignment of a boxed variable, which the Autoboxer
+   * translates into a "JreBoxed" function that takes the variable's address.
+   */
+  private static class BoxedOperation {
+
+    private static final String PREFIX = "JreBoxed";
+
+    private final FunctionInvocation invocation;
+    private final PrefixExpression address;
+    private final String operation;
+
+    private BoxedOperation(FunctionInvocation invocation, PrefixExpression address,
+        String operation) {
+      this.invocation = invocation;
+      this.address = address;
+      this.operation = operation;
+    }
+
+    static BoxedOperation of(TreeNode node) {
+      if (!(node instanceof PrefixExpression)
+          || ((PrefixExpression) node).getOperator() != PrefixExpression.Operator.ADDRESS_OF
+          || !(node.getParent() instanceof FunctionInvocation)) {
+        return null;
+      }
+      FunctionInvocation invocation = (FunctionInvocation) node.getParent();
+      String name = invocation.getName();
+      if (!name.startsWith(PREFIX) || invocation.getArgument(0) != node) {
+        return null;
+      }
+      return new BoxedOperation(
+          invocation, (PrefixExpression) node, name.substring(PREFIX.length()));
+    }
+
+    private Assignment.Operator getAssignmentOperator() {
+      for (Assignment.Operator op : Assignment.Operator.values()) {
+        if (op != Assignment.Operator.ASSIGN
+            && operation.startsWith(Autoboxer.getAssignFunctionName(op))) {
+          return op;
+        }
+      }
+      return null;
+    }
+
+    boolean isSupported() {
+      return operation.startsWith("PreIncr") || operation.startsWith("PreDecr")
+          || operation.startsWith("PostIncr") || operation.startsWith("PostDecr")
+          || getAssignmentOperator() != null;
+    }
+
+    Expression toPrimitive(VariableElement var) {
+      TypeMirror type = var.asType();
+      if (operation.startsWith("PreIncr")) {
+        return new PrefixExpression(type, PrefixExpression.Operator.INCREMENT, new SimpleName(var));
+      } else if (operation.startsWith("PreDecr")) {
+        return new PrefixExpression(type, PrefixExpression.Operator.DECREMENT, new SimpleName(var));
+      } else if (operation.startsWith("PostIncr")) {
+        return new PostfixExpression(var, PostfixExpression.Operator.INCREMENT);
+      } else if (operation.startsWith("PostDecr")) {
+        return new PostfixExpression(var, PostfixExpression.Operator.DECREMENT);
+      }
+      return new Assignment(new SimpleName(var), TreeUtil.remove(invocation.getArgument(1)))
+          .setOperator(getAssignmentOperator());
+    }
+  }
+}
@@ -15,11 +15,14 @@
 package com.google.devtools.j2objc.translate;
 
 import com.google.devtools.j2objc.ast.Block;
+import com.google.devtools.j2objc.ast.ClassInstanceCreation;
 import com.google.devtools.j2objc.ast.CompilationUnit;
 import com.google.devtools.j2objc.ast.EnhancedForStatement;
 import com.google.devtools.j2objc.ast.Expression;
 import com.google.devtools.j2objc.ast.FieldAccess;
+import com.google.devtools.j2objc.ast.ForStatement;
 import com.google.devtools.j2objc.ast.FunctionInvocation;
+import com.google.devtools.j2objc.ast.IfStatement;
 import com.google.devtools.j2objc.ast.InfixExpression;
 import com.google.devtools.j2objc.ast.LabeledStatement;
 import com.google.devtools.j2objc.ast.MethodInvocation;
@@ -28,8 +31,12 @@ import com.google.devtools.j2objc.ast.PrefixExpression;
 import com.google.devtools.j2objc.ast.SimpleName;
 import com.google.devtools.j2objc.ast.SingleVariableDeclaration;
 import com.google.devtools.j2objc.ast.Statement;
+import com.google.devtools.j2objc.ast.ThrowStatement;
 import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.Type;
 import com.google.devtools.j2objc.ast.UnitTreeVisitor;
+import com.google.devtools.j2objc.ast.VariableDeclarationExpression;
+import com.google.devtools.j2objc.ast.VariableDeclarationFragment;
 import com.google.devtools.j2objc.ast.VariableDeclarationStatement;
 import com.google.devtools.j2objc.ast.WhileStatement;
 import com.google.devtools.j2objc.types.ExecutablePair;
@@ -37,12 +44,14 @@ import com.google.devtools.j2objc.types.FunctionElement;
 import com.google.devtools.j2objc.types.GeneratedVariableElement;
 import com.google.devtools.j2objc.types.PointerType;
 import com.google.devtools.j2objc.util.ElementUtil;
+import com.google.devtools.j2objc.util.TranslationUtil;
 import com.google.devtools.j2objc.util.TypeUtil;
 import com.google.j2objc.annotations.AutoreleasePool;
 import com.google.j2objc.annotations.LoopTranslation;
 import com.google.j2objc.annotations.LoopTranslation.LoopStyle;
 import java.util.List;
 import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
@@ -75,6 +84,8 @@ public class EnhancedForRewriter extends UnitTreeVisitor {
       handleArrayIteration(node);
     } else if (emitJavaIteratorLoop(loopVariable)) {
       convertToJavaIteratorLoop(node);
+    } else if (isIndexedList(expressionType, loopVariable)) {
+      handleIndexedListIteration(node);
     } else if (loopVariable.asType().getKind().isPrimitive()) {
       boxLoopVariable(node, expressionType, loopVariable);
     } else {
@@ -147,6 +158,89 @@ public class EnhancedForRewriter extends UnitTreeVisitor {
     replaceLoop(node, block, loop);
   }
 
+  /**
+   * Returns true if the loop is over a final RandomAccess list that inherits AbstractList's
+   * iterator and no loop style was requested. The type must be final, since a subclass could
+   * override iterator() with a different traversal.
+   */
+  private boolean isIndexedList(TypeMirror type, VariableElement loopVariable) {
+    if (!TypeUtil.isDeclaredType(type)
+        || ElementUtil.getAnnotation(loopVariable, LoopTranslation.class) != null) {
+      return false;
+    }
+    TypeElement element = TypeUtil.asTypeElement(type);
+    return ElementUtil.isFinal(element)
+        && typeUtil.findSupertype(type, "java.util.RandomAccess") != null
+        && TranslationUtil.iteratesByIndex(element);
+  }
+
+  /**
+   * Lowers the loop to one that snapshots the list's modCount and reads each element with
+   * get(int). Like AbstractList's iterator, the loop calls size() before each element and
+   * continues while the index differs from it, and a change to modCount made by the loop body
+   * throws ConcurrentModificationException before the next element is read. So removing the
+   * second-to-last element ends the loop, and removing the last one throws.
+   */
+  private void handleIndexedListIteration(EnhancedForStatement node) {
+    Expression expression = node.getExpression();
+    TypeMirror expressionType = expression.getTypeMirror();
+    VariableElement loopVariable = node.getParameter().getVariableElement();
+    DeclaredType listType = typeUtil.findSupertype(expressionType, "java.util.List");
+    ExecutablePair sizeMethod = typeUtil.findMethod(listType, "size");
+    ExecutablePair getMethod = typeUtil.findMethod(listType, "get", "int");
+    VariableElement modCountField = ElementUtil.findField(
+        typeUtil.resolveJavaType("java.util.AbstractList"), "modCount");
+    TypeElement exceptionType =
+        typeUtil.resolveJavaType("java.util.ConcurrentModificationException");
+    ExecutableElement exceptionConstructor = ElementUtil.findConstructor(exceptionType);
+    assert sizeMethod != null && getMethod != null && modCountField != null
+        && exceptionConstructor != null;
+
+    TypeMirror intType = typeUtil.getInt();
+    VariableElement listVariable = GeneratedVariableElement.newLocalVar(
+        "l__", expressionType, null);
+    VariableElement modCountVariable = GeneratedVariableElement.newLocalVar("m__", intType, null);
+    VariableElement indexVariable = GeneratedVariableElement.newLocalVar("i__", intType, null);
+
+    VariableDeclarationStatement listDecl =
+        new VariableDeclarationStatement(listVariable, TreeUtil.remove(expression));
+    VariableDeclarationStatement modCountDecl = new VariableDeclarationStatement(
+        modCountVariable, new FieldAccess(modCountField, new SimpleName(listVariable)));
+
+    Block newLoopBody = makeBlock(TreeUtil.remove(node.getBody()));
+    IfStatement modCountCheck = new IfStatement()
+        .setExpression(new InfixExpression(
+            typeUtil.getBoolean(), InfixExpression.Operator.NOT_EQUALS,
+            new FieldAccess(modCountField, new SimpleName(listVariable)),
+            new SimpleName(modCountVariable)))
+        .setThenStatement(new ThrowStatement(new ClassInstanceCreation(
+            new ExecutablePair(exceptionConstructor), exceptionType.asType())));
+    Expression loopVariableValue =
+        new MethodInvocation(getMethod, new SimpleName(listVariable))
+            .addArgument(new SimpleName(indexVariable));
+    newLoopBody.addStatement(0, new VariableDeclarationStatement(loopVariable, loopVariableValue));
+    newLoopBody.addStatement(0, modCountCheck);
+
+    ForStatement loop = new ForStatement()
+        .addInitializer(new VariableDeclarationExpression()
+            .setType(Type.newType(intType))
+            .addFragment(new VariableDeclarationFragment(
+                indexVariable, TreeUtil.newLiteral(0, typeUtil))))
+        .setExpression(new InfixExpression(
+            typeUtil.getBoolean(), InfixExpression.Operator.NOT_EQUALS,
+            new SimpleName(indexVariable),
+            new MethodInvocation(sizeMethod, new SimpleName(listVariable))))
+        .addUpdater(new PostfixExpression(indexVariable, PostfixExpression.Operator.INCREMENT))
+        .setBody(newLoopBody);
+
+    Block block = new Block();
+    List<Statement> stmts = block.getStatements();
+    stmts.add(listDecl);
+    stmts.add(modCountDecl);
+    stmts.add(loop);
+    replaceLoop(node, block, loop);
+  }
+
   private boolean emitJavaIteratorLoop(VariableElement loopVariable) {
     AnnotationMirror loopTranslation =
         ElementUtil.getAnnotation(loopVariable, LoopTranslation.class);
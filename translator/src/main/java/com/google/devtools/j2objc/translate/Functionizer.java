@@ -49,6 +49,7 @@ import com.google.devtools.j2objc.types.FunctionElement;
 import com.google.devtools.j2objc.types.GeneratedExecutableElement;
 import com.google.devtools.j2objc.types.GeneratedVariableElement;
 import com.google.devtools.j2objc.util.CaptureInfo;
+import com.google.devtools.j2objc.util.CodeReferenceMap;
 import com.google.devtools.j2objc.util.ElementUtil;
 import com.google.devtools.j2objc.util.NameTable;
 import com.google.devtools.j2objc.util.TypeUtil;
@@ -70,17 +71,22 @@ import javax.lang.model.type.TypeMirror;
  * just targets private methods, but will be expanded to include final methods that don't override
  * superclass methods.
  *
+ * <p>When the tree shaker reports which methods no class in the program overrides, those methods
+ * are functionized too, and calls to them from any compilation unit invoke the function directly.
+ *
  * @author Tom Ball
  */
 @SuppressWarnings("UngroupedOverloads")
 public class Functionizer extends UnitTreeVisitor {
 
   private final CaptureInfo captureInfo;
+  private final CodeReferenceMap finalMethodsMap;
   private Set<ExecutableElement> functionizableMethods;
 
   public Functionizer(CompilationUnit unit) {
     super(unit);
     captureInfo = unit.getEnv().captureInfo();
+    finalMethodsMap = options.getFinalMethodsMap();
   }
 
   @Override
@@ -174,13 +180,15 @@ public class Functionizer extends UnitTreeVisitor {
   }
 
   private static boolean isFunctionizingCandidate(MethodDeclaration node) {
-    ExecutableElement method = node.getExecutableElement();
-    int modifiers = node.getModifiers();
+    return !Modifier.isAbstract(node.getModifiers()) && node.hasDeclaration()
+        && isFunctionizingCandidate(node.getExecutableElement());
+  }
 
+  private static boolean isFunctionizingCandidate(ExecutableElement method) {
     // Default methods, static methods and constructors are always functionized. We only care about
     // regular instance methods.
     if (!ElementUtil.isInstanceMethod(method) || ElementUtil.isDefault(method)
-        || Modifier.isAbstract(modifiers) || !node.hasDeclaration()) {
+        || ElementUtil.isAbstract(method)) {
       return false;
     }
 
@@ -194,6 +202,18 @@ public class Functionizer extends UnitTreeVisitor {
     return true;
   }
 
+  /**
+   * Returns true if the tree shaker reported that no class in the program overrides the method.
+   * The method is functionized in its own compilation unit whether or not that unit calls it, so
+   * that other units can call the public function.
+   */
+  private boolean isWholeProgramFinal(ExecutableElement method) {
+    return finalMethodsMap != null
+        && isFunctionizingCandidate(method)
+        && !ElementUtil.isPrivateInnerType(ElementUtil.getDeclaringClass(method))
+        && finalMethodsMap.containsMethod(method, typeUtil);
+  }
+
   private FunctionElement newFunctionElement(ExecutableElement method) {
     TypeElement declaringClass = ElementUtil.getDeclaringClass(method);
     FunctionElement element = new FunctionElement(
@@ -249,7 +269,8 @@ public class Functionizer extends UnitTreeVisitor {
   public void endVisit(MethodInvocation node) {
     ExecutableElement method = node.getExecutableElement();
     if (ElementUtil.isStatic(method) || ElementUtil.isPrivate(method)
-        || (functionizableMethods.contains(method) && ElementUtil.isFinal(method))) {
+        || (functionizableMethods.contains(method) && ElementUtil.isFinal(method))
+        || isWholeProgramFinal(method)) {
       functionizeInvocation(node, method, node.getExpression(), node.getArguments());
     }
   }
@@ -258,7 +279,8 @@ public class Functionizer extends UnitTreeVisitor {
   public void endVisit(SuperMethodInvocation node) {
     ExecutableElement method = node.getExecutableElement();
     if (ElementUtil.isStatic(method) || ElementUtil.isPrivate(method)
-        || functionizableMethods.contains(method) || ElementUtil.isDefault(method)) {
+        || functionizableMethods.contains(method) || ElementUtil.isDefault(method)
+        || isWholeProgramFinal(method)) {
       functionizeInvocation(node, method, node.getReceiver(), node.getArguments());
     }
   }
@@ -343,7 +365,7 @@ public class Functionizer extends UnitTreeVisitor {
     boolean isPrivate = ElementUtil.isPrivate(element);
     List<BodyDeclaration> declarationList = TreeUtil.asDeclarationSublist(node);
     if (!isInstanceMethod || isDefaultMethod || Modifier.isNative(node.getModifiers())
-        || isPrivate || functionizableMethods.contains(element)) {
+        || isPrivate || functionizableMethods.contains(element) || isWholeProgramFinal(element)) {
       TypeElement declaringClass = ElementUtil.getDeclaringClass(element);
       boolean isEnumConstructor = isConstructor && ElementUtil.isEnum(declaringClass);
       if (isConstructor) {
@@ -430,7 +452,8 @@ public class Functionizer extends UnitTreeVisitor {
     TreeUtil.copyList(method.getParameters(), function.getParameters());
 
     function.setModifiers(method.getModifiers() & Modifier.STATIC);
-    if (ElementUtil.isPrivate(elem) || (isInstanceMethod && !ElementUtil.isDefault(elem))) {
+    if (ElementUtil.isPrivate(elem)
+        || (isInstanceMethod && !ElementUtil.isDefault(elem) && !isWholeProgramFinal(elem))) {
       function.addModifiers(Modifier.PRIVATE);
     } else {
       function.addModifiers(Modifier.PUBLIC);
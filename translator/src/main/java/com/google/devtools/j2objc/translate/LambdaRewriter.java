@@ -14,26 +14,35 @@
 
 package com.google.devtools.j2objc.translate;
 
+import com.google.common.collect.Lists;
+import com.google.devtools.j2objc.ast.AbstractTypeDeclaration;
 import com.google.devtools.j2objc.ast.ArrayCreation;
+import com.google.devtools.j2objc.ast.Assignment;
 import com.google.devtools.j2objc.ast.Block;
 import com.google.devtools.j2objc.ast.CastExpression;
 import com.google.devtools.j2objc.ast.ClassInstanceCreation;
 import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.ConditionalExpression;
 import com.google.devtools.j2objc.ast.CreationReference;
+import com.google.devtools.j2objc.ast.EnumDeclaration;
 import com.google.devtools.j2objc.ast.Expression;
 import com.google.devtools.j2objc.ast.ExpressionMethodReference;
 import com.google.devtools.j2objc.ast.ExpressionStatement;
 import com.google.devtools.j2objc.ast.FieldDeclaration;
 import com.google.devtools.j2objc.ast.FunctionalExpression;
+import com.google.devtools.j2objc.ast.InfixExpression;
 import com.google.devtools.j2objc.ast.LambdaExpression;
 import com.google.devtools.j2objc.ast.MethodDeclaration;
 import com.google.devtools.j2objc.ast.MethodInvocation;
+import com.google.devtools.j2objc.ast.NullLiteral;
+import com.google.devtools.j2objc.ast.ParenthesizedExpression;
 import com.google.devtools.j2objc.ast.ReturnStatement;
 import com.google.devtools.j2objc.ast.SimpleName;
 import com.google.devtools.j2objc.ast.SingleVariableDeclaration;
 import com.google.devtools.j2objc.ast.SuperConstructorInvocation;
 import com.google.devtools.j2objc.ast.SuperMethodInvocation;
 import com.google.devtools.j2objc.ast.SuperMethodReference;
+import com.google.devtools.j2objc.ast.ThisExpression;
 import com.google.devtools.j2objc.ast.TreeNode;
 import com.google.devtools.j2objc.ast.TreeUtil;
 import com.google.devtools.j2objc.ast.TypeDeclaration;
@@ -54,6 +63,7 @@ import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 
 /**
@@ -130,16 +140,68 @@ public class LambdaRewriter extends UnitTreeVisitor {
     }
 
     private void replaceNode() {
-      if (captureInfo.isCapturing(lambdaType)) {
-        node.replaceWith(creation);
-      } else {
+      if (!captureInfo.isCapturing(lambdaType)) {
         // For non-capturing lambdas, create a static final instance.
         VariableElement instanceVar = GeneratedVariableElement.newField(
             "instance", lambdaType.asType(), lambdaType)
             .addModifiers(Modifier.STATIC, Modifier.FINAL);
         typeDecl.addBodyDeclaration(new FieldDeclaration(instanceVar, creation));
         node.replaceWith(new SimpleName(instanceVar));
+      } else if (capturesOnlyEnumThis()) {
+        // Cache the instance in a field of the enum constant. The cached instance and the enum
+        // constant reference each other, which is only safe because enum constants are never
+        // deallocated. The field is volatile so that racing threads can't see a partially
+        // assigned or released instance.
+        AbstractTypeDeclaration enumDecl = TreeUtil.getEnclosingType(node);
+        TypeMirror type = node.getTypeMirror();
+        VariableElement cacheVar = GeneratedVariableElement.newField(
+            "cache" + ElementUtil.getName(lambdaType), type, enumDecl.getTypeElement())
+            .addModifiers(Modifier.PRIVATE, Modifier.VOLATILE);
+        enumDecl.addBodyDeclaration(new FieldDeclaration(cacheVar, null));
+        node.replaceWith(new ConditionalExpression()
+            .setTypeMirror(type)
+            .setExpression(new InfixExpression(
+                typeUtil.getBoolean(), InfixExpression.Operator.NOT_EQUALS,
+                new SimpleName(cacheVar), new NullLiteral(typeUtil.getNull())))
+            .setThenExpression(new SimpleName(cacheVar))
+            .setElseExpression(ParenthesizedExpression.parenthesize(
+                new Assignment(new SimpleName(cacheVar), creation))));
+      } else {
+        node.replaceWith(creation);
+      }
+    }
+
+    /**
+     * Returns true if the only value captured is the "this" of the enum whose instance code
+     * directly contains the functional expression.
+     */
+    private boolean capturesOnlyEnumThis() {
+      AbstractTypeDeclaration enclosingType = TreeUtil.getEnclosingType(node);
+      if (!(enclosingType instanceof EnumDeclaration)
+          || node.getTypeMirror().getKind() != TypeKind.DECLARED) {
+        return false;
+      }
+      // Within another lambda, "this" is the enclosing lambda's instance.
+      for (TreeNode n = node.getParent(); n != enclosingType; n = n.getParent()) {
+        if (n instanceof FunctionalExpression) {
+          return false;
+        }
+      }
+      List<VariableElement> fields = Lists.newArrayList(captureInfo.getCaptureFields(lambdaType));
+      if (fields.size() != 1) {
+        return false;
+      }
+      VariableElement field = fields.get(0);
+      if (field == captureInfo.getOuterField(lambdaType)) {
+        return creation.getExpression() == null
+            && ElementUtil.getDeclaringClass(lambdaType) == enclosingType.getTypeElement();
+      }
+      if (field == captureInfo.getReceiverField(lambdaType)) {
+        Expression receiver = ((ExpressionMethodReference) node).getExpression();
+        return receiver instanceof ThisExpression
+            && ((ThisExpression) receiver).getQualifier() == null;
       }
+      return false;
     }
 
     private void setImplementationBody(TreeNode body) {
@@ -0,0 +1,209 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.devtools.j2objc.ast.Block;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.ExpressionStatement;
+import com.google.devtools.j2objc.ast.FunctionDeclaration;
+import com.google.devtools.j2objc.ast.FunctionInvocation;
+import com.google.devtools.j2objc.ast.MethodDeclaration;
+import com.google.devtools.j2objc.ast.ReturnStatement;
+import com.google.devtools.j2objc.ast.SimpleName;
+import com.google.devtools.j2objc.ast.Statement;
+import com.google.devtools.j2objc.ast.SynchronizedStatement;
+import com.google.devtools.j2objc.ast.TreeNode;
+import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.ast.TryStatement;
+import com.google.devtools.j2objc.ast.UnitTreeVisitor;
+import com.google.devtools.j2objc.ast.VariableDeclarationStatement;
+import com.google.devtools.j2objc.types.FunctionElement;
+import com.google.devtools.j2objc.types.GeneratedVariableElement;
+import com.google.devtools.j2objc.util.TranslationProfile;
+import com.google.devtools.j2objc.util.TypeUtil;
+import java.util.List;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Replaces synchronized statements, including the ones OcniExtractor adds for synchronized
+ * methods, with JreMonitorEnter() and JreMonitorExit() calls. A @synchronized block always
+ * releases its lock from an exception handler; here the exit is only put in a @finally block
+ * when the body can throw or leave the block early. The runtime functions use the same
+ * monitors as @synchronized and Object.wait() and notify().
+ */
+public class MonitorRewriter extends UnitTreeVisitor {
+
+  // Runtime functions that can't throw: field stores and loads, and operators.
+  private static final ImmutableSet<String> NON_THROWING_FUNCTIONS = ImmutableSet.of(
+      "JreStrongAssign", "JreStrongAssignAndConsume", "JreRetainedLocalValue",
+      "JreObjectEqualsEquals", "JreStringEqualsEquals");
+  private static final ImmutableSet<String> NON_THROWING_FUNCTION_PREFIXES = ImmutableSet.of(
+      "JreLoadVolatile", "JreAssignVolatile", "JreVolatileStrongAssign", "JreLShift",
+      "JreRShift", "JreURShift");
+
+  private int monitorCount = 0;
+  private int handlersRemovedCount = 0;
+
+  public MonitorRewriter(CompilationUnit unit) {
+    super(unit);
+  }
+
+  @Override
+  public void endVisit(CompilationUnit node) {
+    TranslationProfile profile = options.translationProfile();
+    if (profile != null) {
+      profile.count("MonitorRewriter.monitors", monitorCount);
+      profile.count("MonitorRewriter.handlersRemoved", handlersRemovedCount);
+    }
+  }
+
+  @Override
+  public void endVisit(SynchronizedStatement node) {
+    Expression lock = node.getExpression();
+    Block body = node.getBody();
+    VariableElement lockVar =
+        GeneratedVariableElement.newLocalVar("sync__", lock.getTypeMirror(), null);
+    Block block = new Block();
+    List<Statement> stmts = block.getStatements();
+    stmts.add(new VariableDeclarationStatement(lockVar, TreeUtil.remove(lock)));
+    stmts.add(newMonitorCall("JreMonitorEnter", lockVar));
+    monitorCount++;
+
+    ReturnStatement finalReturn = getFinalReturn(body);
+    TypeMirror returnType = finalReturn != null ? getReturnType(node) : null;
+    if (!body.hasAutoreleasePool() && canComplete(body, finalReturn)
+        && (finalReturn == null || returnType != null)) {
+      TreeUtil.moveList(body.getStatements(), stmts);
+      if (finalReturn == null) {
+        stmts.add(newMonitorCall("JreMonitorExit", lockVar));
+      } else {
+        // Exit the monitor after evaluating the returned value.
+        stmts.remove(finalReturn);
+        Expression value = finalReturn.getExpression();
+        VariableElement resultVar = null;
+        if (value != null) {
+          resultVar = GeneratedVariableElement.newLocalVar("ret__", returnType, null);
+          stmts.add(new VariableDeclarationStatement(resultVar, TreeUtil.remove(value)));
+        }
+        stmts.add(newMonitorCall("JreMonitorExit", lockVar));
+        stmts.add(resultVar != null
+            ? new ReturnStatement(new SimpleName(resultVar)) : new ReturnStatement());
+      }
+      handlersRemovedCount++;
+    } else {
+      stmts.add(new TryStatement()
+          .setBody(TreeUtil.remove(body))
+          .setFinally(new Block().addStatement(newMonitorCall("JreMonitorExit", lockVar))));
+    }
+    node.replaceWith(block);
+  }
+
+  private Statement newMonitorCall(String name, VariableElement lockVar) {
+    TypeMirror voidType = typeUtil.getVoid();
+    FunctionElement element =
+        new FunctionElement(name, voidType, null).addParameters(TypeUtil.ID_TYPE);
+    FunctionInvocation invocation = new FunctionInvocation(element, voidType);
+    invocation.addArgument(new SimpleName(lockVar));
+    return new ExpressionStatement(invocation);
+  }
+
+  private static ReturnStatement getFinalReturn(Block body) {
+    List<Statement> stmts = body.getStatements();
+    Statement last = stmts.isEmpty() ? null : stmts.get(stmts.size() - 1);
+    return last instanceof ReturnStatement ? (ReturnStatement) last : null;
+  }
+
+  private static TypeMirror getReturnType(TreeNode node) {
+    for (TreeNode n = node.getParent(); n != null; n = n.getParent()) {
+      if (n instanceof MethodDeclaration) {
+        return ((MethodDeclaration) n).getReturnTypeMirror();
+      }
+      if (n instanceof FunctionDeclaration) {
+        return ((FunctionDeclaration) n).getReturnType().getTypeMirror();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns true if the body can't throw, and can only leave the block by completing or by its
+   * final return statement. This is a conservative check of the lowered tree: any message send,
+   * and any function call other than the runtime's field access and operator functions, is
+   * assumed to throw, as are nil_chk() and checked array access.
+   */
+  private static boolean canComplete(Block body, ReturnStatement finalReturn) {
+    boolean[] result = { true };
+    body.accept(new TreeVisitor() {
+      @Override
+      public boolean preVisit(TreeNode node) {
+        if (result[0] && !isNonThrowing(node, finalReturn)) {
+          result[0] = false;
+        }
+        return result[0];
+      }
+    });
+    return result[0];
+  }
+
+  private static boolean isNonThrowing(TreeNode node, ReturnStatement finalReturn) {
+    switch (node.getKind()) {
+      case ASSIGNMENT:
+      case BOOLEAN_LITERAL:
+      case CAST_EXPRESSION:
+      case CHARACTER_LITERAL:
+      case CONDITIONAL_EXPRESSION:
+      case EMPTY_STATEMENT:
+      case EXPRESSION_STATEMENT:
+      case FIELD_ACCESS:
+      case IF_STATEMENT:
+      case INFIX_EXPRESSION:
+      case NULL_LITERAL:
+      case NUMBER_LITERAL:
+      case PARENTHESIZED_EXPRESSION:
+      case POSTFIX_EXPRESSION:
+      case PREFIX_EXPRESSION:
+      case PRIMITIVE_TYPE:
+      case QUALIFIED_NAME:
+      case SIMPLE_NAME:
+      case SIMPLE_TYPE:
+      case STRING_LITERAL:
+      case THIS_EXPRESSION:
+      case VARIABLE_DECLARATION_FRAGMENT:
+      case VARIABLE_DECLARATION_STATEMENT:
+        return true;
+      case BLOCK:
+        return !((Block) node).hasAutoreleasePool();
+      case RETURN_STATEMENT:
+        return node == finalReturn;
+      case FUNCTION_INVOCATION:
+        String name = ((FunctionInvocation) node).getName();
+        if (NON_THROWING_FUNCTIONS.contains(name)) {
+          return true;
+        }
+        for (String prefix : NON_THROWING_FUNCTION_PREFIXES) {
+          if (name.startsWith(prefix)) {
+            return true;
+          }
+        }
+        return false;
+      default:
+        return false;
+    }
+  }
+}
@@ -46,6 +46,7 @@ import com.google.devtools.j2objc.ast.NullLiteral;
 import com.google.devtools.j2objc.ast.ParenthesizedExpression;
 import com.google.devtools.j2objc.ast.RecordDeclaration;
 import com.google.devtools.j2objc.ast.ReturnStatement;
+import com.google.devtools.j2objc.ast.SingleVariableDeclaration;
 import com.google.devtools.j2objc.ast.Statement;
 import com.google.devtools.j2objc.ast.SuperConstructorInvocation;
 import com.google.devtools.j2objc.ast.SuperMethodInvocation;
@@ -56,12 +57,14 @@ import com.google.devtools.j2objc.ast.ThrowStatement;
 import com.google.devtools.j2objc.ast.TreeNode;
 import com.google.devtools.j2objc.ast.TreeUtil;
 import com.google.devtools.j2objc.ast.TryStatement;
+import com.google.devtools.j2objc.ast.TreeVisitor;
 import com.google.devtools.j2objc.ast.TypeDeclaration;
 import com.google.devtools.j2objc.ast.UnitTreeVisitor;
 import com.google.devtools.j2objc.ast.VariableDeclarationFragment;
 import com.google.devtools.j2objc.ast.WhileStatement;
 import com.google.devtools.j2objc.types.FunctionElement;
 import com.google.devtools.j2objc.util.ElementUtil;
+import com.google.devtools.j2objc.util.TranslationProfile;
 import com.google.devtools.j2objc.util.TypeUtil;
 import java.util.Collections;
 import java.util.HashMap;
@@ -104,6 +107,16 @@ public class NilCheckResolver extends UnitTreeVisitor {
 
   private static final Set<VariableElement> EMPTY_VARS = Collections.emptySet();
 
+  // With -Xinterprocedural-nil-checks: the current method's parameters that are declared
+  // non-null, this unit's method declarations, and which of the methods never return null.
+  private final Set<VariableElement> nonnullParams = new HashSet<>();
+  private final Map<ExecutableElement, MethodDeclaration> unitMethods = new HashMap<>();
+  private final Map<ExecutableElement, Boolean> nonnullReturns = new HashMap<>();
+
+  // Sets rather than counts, since loop bodies are visited more than once.
+  private final Set<Expression> nilChecks = new HashSet<>();
+  private final Set<Expression> removedNilChecks = new HashSet<>();
+
   public NilCheckResolver(CompilationUnit unit) {
     super(unit);
   }
@@ -338,6 +351,11 @@ public class NilCheckResolver extends UnitTreeVisitor {
   }
 
   private boolean isSafeVar(VariableElement var) {
+    return Boolean.TRUE.equals(lookupVar(var));
+  }
+
+  // Returns whether the variable is known to be safe or unsafe, or null if neither is known.
+  private Boolean lookupVar(VariableElement var) {
     Scope curScope = scope;
     while (curScope != null) {
       Boolean result = curScope.vars.get(var);
@@ -346,7 +364,7 @@ public class NilCheckResolver extends UnitTreeVisitor {
       }
       curScope = curScope.next;
     }
-    return false;
+    return null;
   }
 
   private String getStatementLabel(Statement stmt) {
@@ -389,21 +407,24 @@ public class NilCheckResolver extends UnitTreeVisitor {
   }
 
   private boolean needsNilCheck(Expression e) {
+    return mayBeNull(e) && !isNonnullAcrossCalls(e);
+  }
+
+  // Returns true if the expression may be null, considering only the current method.
+  private boolean mayBeNull(Expression e) {
     VariableElement sym = TreeUtil.getVariableElement(e);
     if (sym != null) {
       return !ElementUtil.isNonnull(sym) && (ElementUtil.isVolatile(sym) || !isSafeVar(sym));
     }
     ExecutableElement method = TreeUtil.getExecutableElement(e);
     if (method != null) {
-      // Check for some common cases where the result is known not to be null.
-      return !ElementUtil.isConstructor(method) && !ElementUtil.getName(method).equals("getClass")
-          && !isBoxingMethod(method);
+      return mayReturnNull(method);
     }
     switch (e.getKind()) {
       case CAST_EXPRESSION:
-        return needsNilCheck(((CastExpression) e).getExpression());
+        return mayBeNull(((CastExpression) e).getExpression());
       case PARENTHESIZED_EXPRESSION:
-        return needsNilCheck(((ParenthesizedExpression) e).getExpression());
+        return mayBeNull(((ParenthesizedExpression) e).getExpression());
       case ARRAY_ACCESS:
       case NULL_LITERAL:
       case PREFIX_EXPRESSION:
@@ -413,10 +434,154 @@ public class NilCheckResolver extends UnitTreeVisitor {
     }
   }
 
+  // Checks for some common cases where the result is known not to be null.
+  private boolean mayReturnNull(ExecutableElement method) {
+    return !ElementUtil.isConstructor(method) && !ElementUtil.getName(method).equals("getClass")
+        && !isBoxingMethod(method);
+  }
+
+  /**
+   * Returns true if the expression is a parameter or method result that nullness annotations,
+   * a @NullMarked scope, or the summary of a called method show is never null.
+   */
+  private boolean isNonnullAcrossCalls(Expression e) {
+    if (!options.interproceduralNilChecks()) {
+      return false;
+    }
+    VariableElement var = TreeUtil.getVariableElement(e);
+    if (var != null) {
+      // A parameter is only trusted until the method assigns a value that may be null to it.
+      return nonnullParams.contains(var) && !ElementUtil.isVolatile(var) && lookupVar(var) == null;
+    }
+    ExecutableElement method = TreeUtil.getExecutableElement(e);
+    if (method != null) {
+      return returnsNonnull(method);
+    }
+    switch (e.getKind()) {
+      case CAST_EXPRESSION:
+        return isNonnullAcrossCalls(((CastExpression) e).getExpression());
+      case PARENTHESIZED_EXPRESSION:
+        return isNonnullAcrossCalls(((ParenthesizedExpression) e).getExpression());
+      default:
+        return false;
+    }
+  }
+
+  private boolean isNonnullParam(VariableElement param, ExecutableElement method) {
+    if (param.asType().getKind().isPrimitive() || ElementUtil.hasNullableAnnotation(param)) {
+      return false;
+    }
+    TypeElement declaringClass = ElementUtil.getDeclaringClass(method);
+    return ElementUtil.isNonnull(
+            param, elementUtil.areParametersNonnullByDefault(declaringClass, options))
+        || (!TypeUtil.isTypeVariable(param.asType()) && isNullMarked(method));
+  }
+
+  private boolean isNullMarked(ExecutableElement method) {
+    return elementUtil.isNullMarked(method, options)
+        || elementUtil.isNullMarked(ElementUtil.getDeclaringClass(method), options);
+  }
+
+  private boolean returnsNonnull(ExecutableElement method) {
+    TypeMirror returnType = method.getReturnType();
+    if (ElementUtil.isConstructor(method) || ElementUtil.hasNullableAnnotation(method)
+        || TypeUtil.isPrimitiveOrVoid(returnType)) {
+      return false;
+    }
+    if (ElementUtil.hasNonnullAnnotation(method)) {
+      return true;
+    }
+    TypeElement declaringClass = ElementUtil.getDeclaringClass(method);
+    String className = ElementUtil.getQualifiedName(declaringClass);
+    // String methods never return null, and StringBuilder and StringBuffer methods that return
+    // their own type return the builder itself.
+    if ((className.equals("java.lang.String") && typeUtil.isString(returnType))
+        || ((className.equals("java.lang.StringBuilder")
+            || className.equals("java.lang.StringBuffer"))
+            && typeUtil.isSameType(returnType, declaringClass.asType()))) {
+      return true;
+    }
+    if (!TypeUtil.isTypeVariable(returnType) && isNullMarked(method)) {
+      return true;
+    }
+    return summarizesNonnull(method);
+  }
+
+  /**
+   * Returns true if the method is declared in this unit, can't be overridden, and each of its
+   * return statements returns a value that is never null.
+   */
+  private boolean summarizesNonnull(ExecutableElement method) {
+    Boolean result = nonnullReturns.get(method);
+    if (result != null) {
+      return result;
+    }
+    MethodDeclaration decl = unitMethods.get(method);
+    TypeElement declaringClass = ElementUtil.getDeclaringClass(method);
+    if (decl == null || decl.getBody() == null
+        || !(ElementUtil.isStatic(method) || ElementUtil.isPrivate(method)
+            || ElementUtil.isFinal(method) || ElementUtil.isFinal(declaringClass))) {
+      return false;
+    }
+    // Recursive calls are assumed to return null while the method is being summarized.
+    nonnullReturns.put(method, false);
+    boolean[] nonnull = { true };
+    decl.getBody().accept(new TreeVisitor() {
+      @Override
+      public boolean preVisit(TreeNode node) {
+        return nonnull[0] && !(node instanceof AbstractTypeDeclaration);
+      }
+
+      @Override
+      public void endVisit(ReturnStatement node) {
+        Expression value = node.getExpression();
+        if (value == null || !isNonnullValue(value)) {
+          nonnull[0] = false;
+        }
+      }
+    });
+    nonnullReturns.put(method, nonnull[0]);
+    return nonnull[0];
+  }
+
+  private boolean isNonnullValue(Expression e) {
+    switch (e.getKind()) {
+      case ARRAY_CREATION:
+      case CLASS_INSTANCE_CREATION:
+      case STRING_LITERAL:
+      case THIS_EXPRESSION:
+      case TYPE_LITERAL:
+        return true;
+      case INFIX_EXPRESSION:
+        // String concatenation.
+        return typeUtil.isString(e.getTypeMirror());
+      case CAST_EXPRESSION:
+        return isNonnullValue(((CastExpression) e).getExpression());
+      case PARENTHESIZED_EXPRESSION:
+        return isNonnullValue(((ParenthesizedExpression) e).getExpression());
+      case CONDITIONAL_EXPRESSION:
+        ConditionalExpression conditional = (ConditionalExpression) e;
+        return isNonnullValue(conditional.getThenExpression())
+            && isNonnullValue(conditional.getElseExpression());
+      case METHOD_INVOCATION:
+        ExecutableElement method = ((MethodInvocation) e).getExecutableElement();
+        return !mayReturnNull(method) || returnsNonnull(method);
+      default:
+        return false;
+    }
+  }
+
   private void addNilCheck(Expression node) {
-    if (!needsNilCheck(node)) {
+    if (!mayBeNull(node)) {
       return;
     }
+    if (isNonnullAcrossCalls(node)) {
+      removedNilChecks.add(node);
+      return;
+    }
+    // A later visit of a loop body can find that the check is needed after all.
+    removedNilChecks.remove(node);
+    nilChecks.add(node);
     VariableElement var = TreeUtil.getVariableElement(node);
     if (var != null) {
       addSafeVar(var);
@@ -497,9 +662,47 @@ public class NilCheckResolver extends UnitTreeVisitor {
     return false;
   }
 
+  @Override
+  public boolean visit(CompilationUnit node) {
+    if (options.interproceduralNilChecks()) {
+      node.accept(new TreeVisitor() {
+        @Override
+        public void endVisit(MethodDeclaration decl) {
+          unitMethods.put(decl.getExecutableElement(), decl);
+        }
+      });
+    }
+    return true;
+  }
+
+  @Override
+  public void endVisit(CompilationUnit node) {
+    TranslationProfile profile = options.translationProfile();
+    if (profile != null) {
+      profile.count("NilCheckResolver.nilChecks", nilChecks.size());
+      profile.count("NilCheckResolver.nilChecksRemoved", removedNilChecks.size());
+      if (!removedNilChecks.isEmpty()) {
+        // Reported per file, to show where the nullness contracts pay off.
+        profile.count(
+            "NilCheckResolver.nilChecksRemoved:" + node.getSourceFilePath(),
+            removedNilChecks.size());
+      }
+    }
+  }
+
   @Override
   public boolean visit(MethodDeclaration node) {
     Block body = node.getBody();
+    nonnullParams.clear();
+    if (options.interproceduralNilChecks()) {
+      ExecutableElement method = node.getExecutableElement();
+      for (SingleVariableDeclaration paramDecl : node.getParameters()) {
+        VariableElement param = paramDecl.getVariableElement();
+        if (isNonnullParam(param, method)) {
+          nonnullParams.add(param);
+        }
+      }
+    }
     if (body != null) {
       pushFirstScope();
       body.accept(this);
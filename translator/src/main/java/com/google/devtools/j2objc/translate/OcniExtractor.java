@@ -37,12 +37,14 @@ import com.google.devtools.j2objc.ast.UnitTreeVisitor;
 import com.google.devtools.j2objc.util.CodeReferenceMap;
 import com.google.devtools.j2objc.util.ElementUtil;
 import com.google.devtools.j2objc.util.ErrorUtil;
+import com.google.devtools.j2objc.util.TranslationUtil;
 import java.lang.reflect.Modifier;
 import java.util.List;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
 
 /**
  * Extracts OCNI code blocks into NativeDeclaration and NativeStatement nodes.
@@ -176,7 +178,8 @@ public class OcniExtractor extends UnitTreeVisitor {
     // implementation. Don't emit this if the entire class is dead. There is
     // no need to check if any Iterable methods are dead, since ProGuard is
     // conservative -- if a class is live and implements Iterable, those
-    // methods are always live.
+    // methods are always live. Lists that iterate with AbstractList's
+    // iterator are enumerated by index instead.
     if (typeUtil.findSupertype(type.asType(), "java.lang.Iterable") != null
         && !methodsPrinted.contains("countByEnumeratingWithState:objects:count:")
         && (deadCodeMap == null || !deadCodeMap.containsClass(type, elementUtil))) {
@@ -186,12 +189,19 @@ public class OcniExtractor extends UnitTreeVisitor {
                   + "objects:(__unsafe_unretained id *)stackbuf count:(NSUInteger)len "
                   + "J2OBJC_TEXT_SEGMENT;"
               : null;
+      String enumeration = "JreDefaultFastEnumeration(self, state, stackbuf)";
+      if (TranslationUtil.iteratesByIndex(type)) {
+        VariableElement modCount = ElementUtil.findField(
+            typeUtil.resolveJavaType("java.util.AbstractList"), "modCount");
+        enumeration = "JreIndexedFastEnumeration(self, &"
+            + nameTable.getVariableShortName(modCount) + ", state, stackbuf)";
+      }
       bodyDeclarations.add(
           NativeDeclaration.newInnerDeclaration(
               declaration,
               "- (NSUInteger)countByEnumeratingWithState:(NSFastEnumerationState *)state "
                   + "objects:(__unsafe_unretained id *)stackbuf count:(NSUInteger)len {\n"
-                  + "  return JreDefaultFastEnumeration(self, state, stackbuf);\n}\n"));
+                  + "  return " + enumeration + ";\n}\n"));
     }
   }
 
@@ -640,23 +640,42 @@ public class OperatorRewriter extends UnitTreeVisitor {
     List<Expression> operands = Lists.newArrayListWithCapacity(childOperands.size());
     TreeUtil.moveList(childOperands, operands);
 
-    operands = coalesceStringLiterals(operands);
+    // No type string is needed when every operand is a string or a foldable constant.
+    boolean allStrings = allStringsOrConstants(operands);
+    operands = coalesceStringLiterals(operands, !allStrings);
     if (operands.size() == 1 && typeUtil.isString(operands.get(0).getTypeMirror())) {
       node.replaceWith(operands.get(0));
       return;
     }
 
     TypeMirror stringType = typeUtil.getJavaString().asType();
-    FunctionElement element = new FunctionElement("JreStrcat", stringType, null)
-        .addParameters(TypeUtil.NATIVE_CHAR_PTR)
-        .setIsVarargs(true);
-    FunctionInvocation invocation = new FunctionInvocation(element, stringType);
-    List<Expression> args = invocation.getArguments();
-    args.add(getStrcatTypesCString(operands));
-    args.addAll(operands);
+    FunctionInvocation invocation;
+    if (allStrings) {
+      FunctionElement element = new FunctionElement("JreStrcatStrings", stringType, null)
+          .addParameters(typeUtil.getInt())
+          .setIsVarargs(true);
+      invocation = new FunctionInvocation(element, stringType);
+      invocation.addArgument(new NumberLiteral(operands.size(), typeUtil));
+    } else {
+      FunctionElement element = new FunctionElement("JreStrcat", stringType, null)
+          .addParameters(TypeUtil.NATIVE_CHAR_PTR)
+          .setIsVarargs(true);
+      invocation = new FunctionInvocation(element, stringType);
+      invocation.addArgument(getStrcatTypesCString(operands));
+    }
+    invocation.getArguments().addAll(operands);
     node.replaceWith(invocation);
   }
 
+  private boolean allStringsOrConstants(List<Expression> operands) {
+    for (Expression operand : operands) {
+      if (!typeUtil.isString(operand.getTypeMirror()) && getLiteralStringValue(operand) == null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private List<Expression> getStringAppendOperands(Assignment node) {
     Expression rhs = node.getRightHandSide();
     if (rhs instanceof InfixExpression && typeUtil.isString(rhs.getTypeMirror())) {
@@ -665,7 +684,7 @@ public class OperatorRewriter extends UnitTreeVisitor {
         List<Expression> operands = infixExpr.getOperands();
         List<Expression> result = Lists.newArrayListWithCapacity(operands.size());
         TreeUtil.moveList(operands, result);
-        return coalesceStringLiterals(result);
+        return coalesceStringLiterals(result, true);
       }
     }
     return Collections.singletonList(TreeUtil.remove(rhs));
@@ -688,7 +707,8 @@ public class OperatorRewriter extends UnitTreeVisitor {
     node.replaceWith(invocation);
   }
 
-  private List<Expression> coalesceStringLiterals(List<Expression> rawOperands) {
+  private List<Expression> coalesceStringLiterals(
+      List<Expression> rawOperands, boolean useCharacterLiterals) {
     List<Expression> operands = Lists.newArrayListWithCapacity(rawOperands.size());
     String currentLiteral = null;
     for (Expression expr : rawOperands) {
@@ -697,22 +717,23 @@ public class OperatorRewriter extends UnitTreeVisitor {
         currentLiteral = currentLiteral == null ? literalValue : currentLiteral + literalValue;
       } else {
         if (currentLiteral != null) {
-          addStringLiteralArgument(operands, currentLiteral);
+          addStringLiteralArgument(operands, currentLiteral, useCharacterLiterals);
           currentLiteral = null;
         }
         operands.add(expr);
       }
     }
     if (currentLiteral != null) {
-      addStringLiteralArgument(operands, currentLiteral);
+      addStringLiteralArgument(operands, currentLiteral, useCharacterLiterals);
     }
     return operands;
   }
 
-  private void addStringLiteralArgument(List<Expression> args, String literal) {
+  private void addStringLiteralArgument(
+      List<Expression> args, String literal, boolean useCharacterLiterals) {
     if (literal.length() == 0) {
       return;  // Skip it.
-    } else if (literal.length() == 1) {
+    } else if (literal.length() == 1 && useCharacterLiterals) {
       args.add(new CharacterLiteral(literal.charAt(0), typeUtil));
     } else {
       args.add(new StringLiteral(literal, typeUtil));
@@ -735,7 +756,12 @@ public class OperatorRewriter extends UnitTreeVisitor {
       case NUMBER_LITERAL:
         return ((NumberLiteral) expr).getValue().toString();
       default:
-        return null;
+        // Fold compile-time constants, such as references to constant fields.
+        Object value = expr.getConstantValue();
+        if (value instanceof String) {
+          return UnicodeUtils.hasValidCppCharacters((String) value) ? (String) value : null;
+        }
+        return value != null ? value.toString() : null;
     }
   }
 
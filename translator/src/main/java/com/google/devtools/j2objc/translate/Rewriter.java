@@ -32,6 +32,7 @@ import com.google.devtools.j2objc.ast.FieldDeclaration;
 import com.google.devtools.j2objc.ast.ForStatement;
 import com.google.devtools.j2objc.ast.IfStatement;
 import com.google.devtools.j2objc.ast.InfixExpression;
+import com.google.devtools.j2objc.ast.LambdaExpression;
 import com.google.devtools.j2objc.ast.MethodDeclaration;
 import com.google.devtools.j2objc.ast.MethodInvocation;
 import com.google.devtools.j2objc.ast.NullLiteral;
@@ -48,6 +49,7 @@ import com.google.devtools.j2objc.ast.ThrowStatement;
 import com.google.devtools.j2objc.ast.TreeNode;
 import com.google.devtools.j2objc.ast.TreeNode.Kind;
 import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TreeVisitor;
 import com.google.devtools.j2objc.ast.TryStatement;
 import com.google.devtools.j2objc.ast.Type;
 import com.google.devtools.j2objc.ast.TypeDeclaration;
@@ -189,6 +191,111 @@ public class Rewriter extends UnitTreeVisitor {
     node.addOperand(0, nonStringExpr);
   }
 
+  @Override
+  public void endVisit(Block node) {
+    if (!isOutsideTryStatement(node)) {
+      return;
+    }
+    List<Statement> stmts = node.getStatements();
+    for (int i = 0; i + 1 < stmts.size(); ) {
+      if (!mergeStringAppends(stmts.get(i), stmts.get(i + 1))) {
+        i++;
+      }
+    }
+  }
+
+  /**
+   * Merges "s += b" into a preceding "s += a" on the same local string variable, giving
+   * "s += a + b", so that a single string is created instead of one for each statement. Returns
+   * true if the second statement was merged and removed.
+   */
+  private boolean mergeStringAppends(Statement first, Statement second) {
+    Assignment firstAppend = getLocalStringAppend(first);
+    Assignment secondAppend = getLocalStringAppend(second);
+    if (firstAppend == null || secondAppend == null) {
+      return false;
+    }
+    VariableElement var = TreeUtil.getVariableElement(firstAppend.getLeftHandSide());
+    Expression secondRhs = secondAppend.getRightHandSide();
+    if (var != TreeUtil.getVariableElement(secondAppend.getLeftHandSide())
+        || references(secondRhs, var)) {
+      return false;
+    }
+    List<Expression> operands = new ArrayList<>();
+    addStringAppendOperands(firstAppend.getRightHandSide(), operands);
+    addStringAppendOperands(secondRhs, operands);
+    // The merged operands must still be a string concatenation, not a numeric addition.
+    if (!typeUtil.isString(operands.get(0).getTypeMirror())
+        && !typeUtil.isString(operands.get(1).getTypeMirror())) {
+      return false;
+    }
+    InfixExpression concat = new InfixExpression(
+        typeUtil.getJavaString().asType(), InfixExpression.Operator.PLUS);
+    for (Expression operand : operands) {
+      concat.addOperand(TreeUtil.remove(operand));
+    }
+    firstAppend.setRightHandSide(concat);
+    second.remove();
+    return true;
+  }
+
+  private Assignment getLocalStringAppend(Statement stmt) {
+    if (!(stmt instanceof ExpressionStatement)) {
+      return null;
+    }
+    Expression expr = ((ExpressionStatement) stmt).getExpression();
+    if (!(expr instanceof Assignment)) {
+      return null;
+    }
+    Assignment assignment = (Assignment) expr;
+    Expression lhs = assignment.getLeftHandSide();
+    if (assignment.getOperator() != Assignment.Operator.PLUS_ASSIGN
+        || !(lhs instanceof SimpleName) || !typeUtil.isString(lhs.getTypeMirror())) {
+      return null;
+    }
+    VariableElement var = TreeUtil.getVariableElement(lhs);
+    return var != null && (ElementUtil.isLocalVariable(var) || ElementUtil.isParameter(var))
+        ? assignment : null;
+  }
+
+  // The operands of a string concatenation can be appended one at a time, since any leading
+  // non-string operands have been grouped into a single operand.
+  private void addStringAppendOperands(Expression rhs, List<Expression> operands) {
+    if (rhs instanceof InfixExpression && typeUtil.isString(rhs.getTypeMirror())
+        && ((InfixExpression) rhs).getOperator() == InfixExpression.Operator.PLUS) {
+      operands.addAll(((InfixExpression) rhs).getOperands());
+    } else {
+      operands.add(rhs);
+    }
+  }
+
+  private static boolean references(Expression expr, VariableElement var) {
+    boolean[] result = { false };
+    expr.accept(new TreeVisitor() {
+      @Override
+      public void endVisit(SimpleName node) {
+        if (node.getElement() == var) {
+          result[0] = true;
+        }
+      }
+    });
+    return result[0];
+  }
+
+  /**
+   * Returns true if no try statement in the enclosing method could observe a local variable
+   * after an exception is thrown by a statement of the block.
+   */
+  private static boolean isOutsideTryStatement(Block node) {
+    for (TreeNode n = node.getParent(); n != null && !(n instanceof BodyDeclaration)
+         && !(n instanceof LambdaExpression); n = n.getParent()) {
+      if (n instanceof TryStatement) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private TypeKind getPrimitiveKind(TypeMirror t) {
     if (t == null) {
       return null;
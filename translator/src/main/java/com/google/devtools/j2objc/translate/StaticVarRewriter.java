@@ -14,23 +14,51 @@
 
 package com.google.devtools.j2objc.translate;
 
+import com.google.devtools.j2objc.ast.AbstractTypeDeclaration;
+import com.google.devtools.j2objc.ast.AssertStatement;
+import com.google.devtools.j2objc.ast.BodyDeclaration;
+import com.google.devtools.j2objc.ast.CatchClause;
 import com.google.devtools.j2objc.ast.CommaExpression;
 import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.ConditionalExpression;
+import com.google.devtools.j2objc.ast.DoStatement;
+import com.google.devtools.j2objc.ast.EnhancedForStatement;
 import com.google.devtools.j2objc.ast.Expression;
 import com.google.devtools.j2objc.ast.FieldAccess;
+import com.google.devtools.j2objc.ast.FieldDeclaration;
+import com.google.devtools.j2objc.ast.ForStatement;
+import com.google.devtools.j2objc.ast.FunctionDeclaration;
+import com.google.devtools.j2objc.ast.IfStatement;
+import com.google.devtools.j2objc.ast.InfixExpression;
+import com.google.devtools.j2objc.ast.Initializer;
+import com.google.devtools.j2objc.ast.LabeledStatement;
+import com.google.devtools.j2objc.ast.LambdaExpression;
+import com.google.devtools.j2objc.ast.MethodDeclaration;
 import com.google.devtools.j2objc.ast.NativeExpression;
 import com.google.devtools.j2objc.ast.Pattern;
 import com.google.devtools.j2objc.ast.PrefixExpression;
 import com.google.devtools.j2objc.ast.QualifiedName;
 import com.google.devtools.j2objc.ast.SimpleName;
+import com.google.devtools.j2objc.ast.Statement;
 import com.google.devtools.j2objc.ast.SwitchCase;
+import com.google.devtools.j2objc.ast.SwitchExpression;
 import com.google.devtools.j2objc.ast.SwitchExpressionCase;
+import com.google.devtools.j2objc.ast.SwitchStatement;
 import com.google.devtools.j2objc.ast.TreeNode;
 import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TryStatement;
 import com.google.devtools.j2objc.ast.UnitTreeVisitor;
+import com.google.devtools.j2objc.ast.WhileStatement;
 import com.google.devtools.j2objc.types.PointerType;
 import com.google.devtools.j2objc.util.ElementUtil;
+import com.google.devtools.j2objc.util.TranslationProfile;
 import com.google.devtools.j2objc.util.TranslationUtil;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.TypeMirror;
@@ -38,29 +66,123 @@ import javax.lang.model.type.TypeMirror;
 /**
  * Converts static variable access to static method calls where necessary.
  *
+ * <p>A static load checks that the variable's class is initialized. The check is left out where
+ * the class must already be initialized: in code of the class itself, in instance code of a
+ * subclass or static code of a subclass that has initialization code, for classes in this unit that have no initialization code, and where a load from the same class
+ * has run on every path to the access. Since initialization never reverts, a class checked before
+ * a loop or conditional is known to be initialized inside it; checks made inside a conditional
+ * part of the code are only relied on within that part.
+ *
  * @author Keith Stanger
  */
 public class StaticVarRewriter extends UnitTreeVisitor {
 
+  // Classes in this unit that don't have initialization code, so never need a check.
+  private final Set<TypeElement> emptyInitTypes = new HashSet<>();
+  // The classes known to be initialized at the current point of the body being visited.
+  private Set<TypeElement> initializedTypes = new HashSet<>();
+  // The classes checked by the statement being visited. They're known to be initialized only
+  // after the statement, because C doesn't sequence the operands of most expressions.
+  private Set<TypeElement> checkedTypes = new HashSet<>();
+  private final Deque<Set<TypeElement>> savedTypes = new ArrayDeque<>();
+  private int checkCount = 0;
+  private int removedCheckCount = 0;
+
   public StaticVarRewriter(CompilationUnit unit) {
     super(unit);
   }
 
-  private boolean needsStaticLoad(TreeNode currentNode, VariableElement var) {
-    if (!ElementUtil.isStatic(var) || ElementUtil.isConstant(var)) {
-      return false;
+  private boolean needsStaticLoad(VariableElement var) {
+    return ElementUtil.isStatic(var) && !ElementUtil.isConstant(var);
+  }
+
+  /**
+   * Returns the classes initialized whenever code in the specified type runs: the type itself,
+   * since its code can only run once it has been initialized, and its superclasses if the code
+   * runs on an instance or the type has initialization code. The runtime initializes the
+   * superclasses before either, but a type's empty initialize function doesn't, so static code
+   * of such a type can run before them.
+   */
+  private Set<TypeElement> getAlwaysInitializedTypes(TypeElement type, boolean isInstanceCode) {
+    Set<TypeElement> types = new HashSet<>();
+    types.add(type);
+    if (isInstanceCode || !emptyInitTypes.contains(type)) {
+      for (type = ElementUtil.getSuperclass(type); type != null;
+          type = ElementUtil.getSuperclass(type)) {
+        types.add(type);
+      }
+    }
+    return types;
+  }
+
+  private static boolean isInstanceCode(TreeNode node) {
+    return (node instanceof MethodDeclaration
+            || node instanceof FunctionDeclaration
+            || node instanceof FieldDeclaration
+            || node instanceof Initializer)
+        && !Modifier.isStatic(((BodyDeclaration) node).getModifiers());
+  }
+
+  private boolean isInitialized(TypeElement type) {
+    return emptyInitTypes.contains(type) || initializedTypes.contains(type);
+  }
+
+  // The checks of a completed statement are known to have run.
+  private void endStatement() {
+    initializedTypes.addAll(checkedTypes);
+    checkedTypes.clear();
+  }
+
+  private void pushState(Set<TypeElement> initialTypes) {
+    savedTypes.push(initializedTypes);
+    savedTypes.push(checkedTypes);
+    initializedTypes = initialTypes;
+    checkedTypes = new HashSet<>();
+  }
+
+  private void popState() {
+    checkedTypes = savedTypes.pop();
+    initializedTypes = savedTypes.pop();
+  }
+
+  /**
+   * Visits code that may not run, or may not run to completion, whenever the code around it does.
+   * The checks it makes aren't relied on after it.
+   */
+  private void visitConditionally(TreeNode node) {
+    if (node == null) {
+      return;
+    }
+    pushState(new HashSet<>(initializedTypes));
+    node.accept(this);
+    popState();
+  }
+
+  private void visitConditionally(List<? extends TreeNode> nodes) {
+    for (TreeNode node : nodes) {
+      visitConditionally(node);
     }
-    TypeElement enclosingType = TreeUtil.getEnclosingTypeElement(currentNode);
-    return enclosingType == null || !enclosingType.equals(ElementUtil.getDeclaringClass(var));
   }
 
   private void rewriteStaticAccess(Expression node) {
     VariableElement var = TreeUtil.getVariableElement(node);
-    if (var == null || !needsStaticLoad(node, var)) {
+    if (var == null || !needsStaticLoad(var)) {
       return;
     }
 
     TypeElement declaringClass = ElementUtil.getDeclaringClass(var);
+    TypeElement enclosingType = TreeUtil.getEnclosingTypeElement(node);
+    if (declaringClass.equals(enclosingType)) {
+      return;
+    }
+    if (enclosingType != null) {
+      checkCount++;
+      if (isInitialized(declaringClass)) {
+        removedCheckCount++;
+        return;
+      }
+      checkedTypes.add(declaringClass);
+    }
     boolean assignable = TranslationUtil.isAssigned(node);
     StringBuilder code = new StringBuilder(
         ElementUtil.isEnumConstant(var) ? "JreLoadEnum" : "JreLoadStatic");
@@ -83,6 +205,177 @@ public class StaticVarRewriter extends UnitTreeVisitor {
     node.replaceWith(newNode);
   }
 
+  @Override
+  public boolean visit(CompilationUnit node) {
+    for (AbstractTypeDeclaration type : node.getTypes()) {
+      if (type.getClassInitStatements().isEmpty()) {
+        emptyInitTypes.add(type.getTypeElement());
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void endVisit(CompilationUnit node) {
+    TranslationProfile profile = options.translationProfile();
+    if (profile != null) {
+      profile.count("StaticVarRewriter.classInitChecks", checkCount);
+      profile.count("StaticVarRewriter.classInitChecksRemoved", removedCheckCount);
+    }
+  }
+
+  @Override
+  public boolean preVisit(TreeNode node) {
+    if (node instanceof BodyDeclaration) {
+      // Each declaration's code runs separately, with only its class known to be initialized.
+      TypeElement type = node instanceof AbstractTypeDeclaration
+          ? ((AbstractTypeDeclaration) node).getTypeElement()
+          : TreeUtil.getEnclosingTypeElement(node);
+      pushState(getAlwaysInitializedTypes(type, isInstanceCode(node)));
+    }
+    return true;
+  }
+
+  @Override
+  public void postVisit(TreeNode node) {
+    if (node instanceof BodyDeclaration) {
+      popState();
+    } else if (node instanceof Statement) {
+      endStatement();
+    }
+  }
+
+  @Override
+  public boolean visit(IfStatement node) {
+    node.getExpression().accept(this);
+    endStatement();
+    visitConditionally(node.getThenStatement());
+    visitConditionally(node.getElseStatement());
+    return false;
+  }
+
+  @Override
+  public boolean visit(WhileStatement node) {
+    // The condition is evaluated at least once, before the body.
+    node.getExpression().accept(this);
+    endStatement();
+    visitConditionally(node.getBody());
+    return false;
+  }
+
+  @Override
+  public boolean visit(DoStatement node) {
+    // The body may break out before the condition, or before a check within the body.
+    visitConditionally(node.getBody());
+    visitConditionally(node.getExpression());
+    return false;
+  }
+
+  @Override
+  public boolean visit(ForStatement node) {
+    for (Expression initializer : node.getInitializers()) {
+      initializer.accept(this);
+    }
+    Expression condition = node.getExpression();
+    if (condition != null) {
+      condition.accept(this);
+    }
+    endStatement();
+    visitConditionally(node.getBody());
+    visitConditionally(node.getUpdaters());
+    return false;
+  }
+
+  @Override
+  public boolean visit(EnhancedForStatement node) {
+    node.getExpression().accept(this);
+    endStatement();
+    visitConditionally(node.getBody());
+    return false;
+  }
+
+  @Override
+  public boolean visit(LabeledStatement node) {
+    // A labeled statement can be exited by a break from anywhere within it.
+    visitConditionally(node.getBody());
+    return false;
+  }
+
+  @Override
+  public boolean visit(TryStatement node) {
+    // An exception may skip any part of the try block, and the catch and finally blocks may run
+    // after an exception before any of their own checks.
+    visitConditionally(node.getResources());
+    visitConditionally(node.getBody());
+    for (CatchClause clause : node.getCatchClauses()) {
+      visitConditionally(clause);
+    }
+    visitConditionally(node.getFinally());
+    return false;
+  }
+
+  @Override
+  public boolean visit(AssertStatement node) {
+    // Assertions may be disabled.
+    visitConditionally(node.getExpression());
+    visitConditionally(node.getMessage());
+    return false;
+  }
+
+  @Override
+  public boolean visit(SwitchStatement node) {
+    node.getExpression().accept(this);
+    endStatement();
+    // A case can be reached by falling through from the previous case, or directly from the
+    // switch, so only what was known before the cases is known at each case label.
+    pushState(new HashSet<>(initializedTypes));
+    Set<TypeElement> switchTypes = new HashSet<>(initializedTypes);
+    for (Statement stmt : node.getStatements()) {
+      if (stmt instanceof SwitchCase) {
+        initializedTypes = new HashSet<>(switchTypes);
+        checkedTypes.clear();
+      }
+      stmt.accept(this);
+    }
+    popState();
+    return false;
+  }
+
+  @Override
+  public boolean visit(SwitchExpression node) {
+    node.getExpression().accept(this);
+    visitConditionally(node.getStatements());
+    return false;
+  }
+
+  @Override
+  public boolean visit(ConditionalExpression node) {
+    node.getExpression().accept(this);
+    visitConditionally(node.getThenExpression());
+    visitConditionally(node.getElseExpression());
+    return false;
+  }
+
+  @Override
+  public boolean visit(InfixExpression node) {
+    InfixExpression.Operator op = node.getOperator();
+    if (op != InfixExpression.Operator.CONDITIONAL_AND
+        && op != InfixExpression.Operator.CONDITIONAL_OR) {
+      return true;
+    }
+    List<Expression> operands = node.getOperands();
+    operands.get(0).accept(this);
+    visitConditionally(operands.subList(1, operands.size()));
+    return false;
+  }
+
+  @Override
+  public boolean visit(LambdaExpression node) {
+    // The body runs when the lambda is called, not when it is created.
+    visitConditionally(node.getBody());
+    return false;
+  }
+
   @Override
   public boolean visit(FieldAccess node) {
     VariableElement var = node.getVariableElement();
@@ -23,7 +23,9 @@ import com.google.devtools.j2objc.ast.Expression;
 import com.google.devtools.j2objc.ast.ExpressionStatement;
 import com.google.devtools.j2objc.ast.FunctionInvocation;
 import com.google.devtools.j2objc.ast.MethodInvocation;
+import com.google.devtools.j2objc.ast.NativeDeclaration;
 import com.google.devtools.j2objc.ast.NativeExpression;
+import com.google.devtools.j2objc.ast.NullLiteral;
 import com.google.devtools.j2objc.ast.NumberLiteral;
 import com.google.devtools.j2objc.ast.SimpleName;
 import com.google.devtools.j2objc.ast.Statement;
@@ -36,11 +38,21 @@ import com.google.devtools.j2objc.ast.TreeUtil;
 import com.google.devtools.j2objc.ast.UnitTreeVisitor;
 import com.google.devtools.j2objc.ast.VariableDeclarationFragment;
 import com.google.devtools.j2objc.ast.VariableDeclarationStatement;
+import com.google.devtools.j2objc.gen.LiteralGenerator;
 import com.google.devtools.j2objc.types.ExecutablePair;
 import com.google.devtools.j2objc.types.FunctionElement;
+import com.google.devtools.j2objc.types.NativeType;
 import com.google.devtools.j2objc.util.TypeUtil;
+import com.google.devtools.j2objc.util.UnicodeUtils;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
@@ -54,6 +66,12 @@ import org.jspecify.annotations.Nullable;
  */
 public class SwitchRewriter extends UnitTreeVisitor {
 
+  private static final NativeType SWITCH_HASHES_TYPE = new NativeType("const uint32_t *");
+  private static final NativeType SWITCH_VALUES_TYPE = new NativeType("NSString * const *");
+
+  // The number of string switch tables declared for each type, used to name the next one.
+  private final Map<TypeElement, Integer> stringSwitchCount = new HashMap<>();
+
   public SwitchRewriter(CompilationUnit unit) {
     super(unit);
   }
@@ -190,32 +208,130 @@ public class SwitchRewriter extends UnitTreeVisitor {
     }
   }
 
-  private @Nullable Expression fixStringValue(Expression expr, List<Statement> statements) {
-    TypeMirror type = expr.getTypeMirror();
-    if (!typeUtil.isString(type)) {
-      return null;
-    }
-    ArrayType arrayType = typeUtil.getArrayType(type);
-    ArrayInitializer arrayInit = new ArrayInitializer(arrayType);
-    int idx = 0;
+  /**
+   * Returns a switch's case label expressions, each with a setter that replaces
+   * it, in the order they appear.
+   */
+  private static List<Map.Entry<Expression, Consumer<Expression>>> getCaseLabels(
+      List<Statement> statements) {
+    List<Map.Entry<Expression, Consumer<Expression>>> labels = new ArrayList<>();
     for (Statement stmt : statements) {
       if (stmt.getKind() == TreeNode.Kind.SWITCH_CASE) {
         SwitchCase caseStmt = (SwitchCase) stmt;
-        if (!caseStmt.isDefault()) {
-          arrayInit.addExpression(TreeUtil.remove(caseStmt.getExpression()));
-          caseStmt.setExpression(NumberLiteral.newIntLiteral(idx++, typeUtil));
+        if (!caseStmt.isDefault() && caseStmt.getExpression() != null) {
+          labels.add(new SimpleImmutableEntry<>(caseStmt.getExpression(), caseStmt::setExpression));
         }
       } else if (stmt.getKind() == TreeNode.Kind.SWITCH_EXPRESSION_CASE) {
         SwitchExpressionCase caseStmt = (SwitchExpressionCase) stmt;
         if (!caseStmt.isDefault()) {
           List<Expression> caseExprs = caseStmt.getExpressions();
           for (int i = 0; i < caseExprs.size(); i++) {
-            arrayInit.addExpression(caseExprs.get(i).copy());
-            caseExprs.set(i, NumberLiteral.newIntLiteral(idx++, typeUtil));
+            int index = i;
+            labels.add(new SimpleImmutableEntry<>(
+                caseExprs.get(i), newExpr -> caseExprs.set(index, newExpr)));
           }
         }
       }
     }
+    return labels;
+  }
+
+  /**
+   * Returns the string value of a case label, or null if it isn't known when
+   * translating or can't be a static initializer.
+   */
+  private static @Nullable String getCaseLabelValue(Expression label) {
+    Object value = label.getConstantValue();
+    if (value == null) {
+      VariableElement var = TreeUtil.getVariableElement(label);
+      value = var != null ? var.getConstantValue() : null;
+    }
+    return value instanceof String && UnicodeUtils.hasValidCppCharacters((String) value)
+        ? (String) value : null;
+  }
+
+  /**
+   * Rewrites a switch on a string to a switch on the index of the matching case
+   * label. The labels are written to static tables sorted by their Java hash
+   * codes, which JreStringSwitchIndex() binary searches, so a switch costs one
+   * hash and usually a single string comparison.
+   */
+  private @Nullable Expression fixStringValue(
+      TreeNode node, Expression expr, List<Statement> statements) {
+    TypeMirror type = expr.getTypeMirror();
+    if (!typeUtil.isString(type)) {
+      return null;
+    }
+    List<Map.Entry<Expression, Consumer<Expression>>> labels = getCaseLabels(statements);
+    List<Map.Entry<String, Consumer<Expression>>> cases = new ArrayList<>();
+    Consumer<Expression> nullCase = null;
+    for (Map.Entry<Expression, Consumer<Expression>> label : labels) {
+      if (label.getKey() instanceof NullLiteral) {
+        nullCase = label.getValue();
+        continue;
+      }
+      String value = getCaseLabelValue(label.getKey());
+      if (value == null) {
+        return fixStringValueWithIndexOf(expr, labels);
+      }
+      cases.add(new SimpleImmutableEntry<>(value, label.getValue()));
+    }
+    // Sorted as unsigned ints, to match the runtime's comparisons.
+    cases.sort(Comparator.comparing(c -> c.getKey().hashCode(), Integer::compareUnsigned));
+
+    String hashesName = "NULL";
+    String valuesName = "NULL";
+    if (!cases.isEmpty()) {
+      TypeElement enclosingType = TreeUtil.getEnclosingTypeElement(node);
+      int tableIndex = stringSwitchCount.merge(enclosingType, 1, Integer::sum) - 1;
+      String prefix = nameTable.getFullName(enclosingType);
+      hashesName = UnicodeUtils.format("%s_switchHashes_%d", prefix, tableIndex);
+      valuesName = UnicodeUtils.format("%s_switchValues_%d", prefix, tableIndex);
+      StringBuilder hashes = new StringBuilder();
+      StringBuilder values = new StringBuilder();
+      for (int i = 0; i < cases.size(); i++) {
+        String value = cases.get(i).getKey();
+        String separator = i > 0 ? ", " : "";
+        hashes.append(separator).append(Integer.toUnsignedString(value.hashCode())).append('u');
+        values.append(separator).append(LiteralGenerator.generateStringLiteral(value));
+        cases.get(i).getValue().accept(NumberLiteral.newIntLiteral(i, typeUtil));
+      }
+      unit.addNativeBlock(NativeDeclaration.newOuterDeclaration(null, UnicodeUtils.format(
+          "static const uint32_t %s[] = { %s };\nstatic NSString * const %s[] = { %s };",
+          hashesName, hashes, valuesName, values)));
+    }
+    int nullIndex = -1;
+    if (nullCase != null) {
+      nullIndex = cases.size();
+      nullCase.accept(NumberLiteral.newIntLiteral(nullIndex, typeUtil));
+    }
+
+    TypeMirror intType = typeUtil.getInt();
+    FunctionElement indexFunc = new FunctionElement("JreStringSwitchIndex", intType, null)
+        .addParameters(type, SWITCH_HASHES_TYPE, SWITCH_VALUES_TYPE, intType, intType);
+    FunctionInvocation invocation = new FunctionInvocation(indexFunc, intType);
+    invocation.addArgument(TreeUtil.remove(expr))
+        .addArgument(new NativeExpression(hashesName, SWITCH_HASHES_TYPE))
+        .addArgument(new NativeExpression(valuesName, SWITCH_VALUES_TYPE))
+        .addArgument(NumberLiteral.newIntLiteral(cases.size(), typeUtil))
+        .addArgument(NumberLiteral.newIntLiteral(nullIndex, typeUtil));
+    return invocation;
+  }
+
+  /**
+   * Rewrites a switch on a string whose case labels can't all be written to a
+   * static table, by searching an array of the labels built at each execution.
+   */
+  private Expression fixStringValueWithIndexOf(
+      Expression expr, List<Map.Entry<Expression, Consumer<Expression>>> labels) {
+    TypeMirror type = expr.getTypeMirror();
+    ArrayType arrayType = typeUtil.getArrayType(type);
+    ArrayInitializer arrayInit = new ArrayInitializer(arrayType);
+    int idx = 0;
+    for (Map.Entry<Expression, Consumer<Expression>> label : labels) {
+      arrayInit.addExpression(label.getKey().copy());
+      label.getValue().accept(NumberLiteral.newIntLiteral(idx++, typeUtil));
+    }
     TypeMirror intType = typeUtil.getInt();
     FunctionElement indexOfFunc = new FunctionElement("JreIndexOfStr", intType, null)
         .addParameters(type, arrayType, intType);
@@ -227,14 +343,14 @@ public class SwitchRewriter extends UnitTreeVisitor {
   }
 
   private void fixStringValue(SwitchStatement node) {
-    Expression expr = fixStringValue(node.getExpression(), node.getStatements());
+    Expression expr = fixStringValue(node, node.getExpression(), node.getStatements());
     if (expr != null) {
       SwitchStatement unused = node.setExpression(expr);
     }
   }
 
   private void fixStringValue(SwitchExpression node) {
-    Expression expr = fixStringValue(node.getExpression(), node.getStatements());
+    Expression expr = fixStringValue(node, node.getExpression(), node.getStatements());
     if (expr != null) {
       SwitchExpression unused = node.setExpression(expr);
     }
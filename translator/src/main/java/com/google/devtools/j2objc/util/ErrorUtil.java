@@ -32,7 +32,8 @@ import javax.tools.DiagnosticListener;
 import javax.tools.JavaFileObject;
 
 /**
- * Provides convenient static error and warning methods.
+ * Provides convenient static error and warning methods. The methods are
+ * synchronized so errors can be reported from parallel translation tasks.
  *
  * @author Tom Ball, Keith Stanger
  */
@@ -50,20 +51,20 @@ public class ErrorUtil implements DiagnosticListener<JavaFileObject> {
   // Ideally this should be set by a command line switch, but for now we tell that by checking
   // the DEVELOPER_DIR environment variable set by Xcode.
   private static final boolean CLANG_STYLE_ERROR_MSG = (null != System.getenv("DEVELOPER_DIR"));
-  private static Pattern pathAndLinePattern = null;
+  private static final Pattern PATH_AND_LINE_PATTERN = Pattern.compile(".+?\\.java:\\d+: ");
 
-  public static void reset() {
+  public static synchronized void reset() {
     errorCount = 0;
     warningCount = 0;
     errorMessages = Lists.newArrayList();
     warningMessages = Lists.newArrayList();
   }
 
-  public static int errorCount() {
+  public static synchronized int errorCount() {
     return errorCount;
   }
 
-  public static int warningCount() {
+  public static synchronized int warningCount() {
     return warningCount;
   }
 
@@ -86,16 +87,23 @@ public class ErrorUtil implements DiagnosticListener<JavaFileObject> {
     });
   }
 
+  /**
+   * Sets the stream errors and warnings are printed to, returning the previous
+   * stream.
+   */
+  public static synchronized PrintStream setErrorStream(PrintStream stream) {
+    PrintStream previous = errorStream;
+    errorStream = stream;
+    return previous;
+  }
+
   public static String getFullMessage(String tag, String message, boolean clangStyle) {
     String fullMessage = null;
     if (clangStyle) {
       // Try to find the file path and line number, and then insert the tag after that,
       // in order to get a message in the following format.
       // <file_path>:<line_number>: error: <detailed_message>
-      if (pathAndLinePattern == null) {
-        pathAndLinePattern = Pattern.compile(".+?\\.java:\\d+: ");
-      }
-      Matcher matcher = pathAndLinePattern.matcher(message);
+      Matcher matcher = PATH_AND_LINE_PATTERN.matcher(message);
       if (matcher.find()) {
         fullMessage = matcher.group(0) + matcher.replaceFirst(tag);
       }
@@ -107,7 +115,8 @@ public class ErrorUtil implements DiagnosticListener<JavaFileObject> {
     return fullMessage;
   }
 
-  public static void parserDiagnostic(Diagnostic<? extends JavaFileObject> diagnostic) {
+  public static synchronized void parserDiagnostic(
+      Diagnostic<? extends JavaFileObject> diagnostic) {
     Kind kind = diagnostic.getKind();
     if (kind == Kind.ERROR) {
       errorMessages.add(diagnostic.getMessage(null));
@@ -129,13 +138,13 @@ public class ErrorUtil implements DiagnosticListener<JavaFileObject> {
   }
 
   // TODO(tball): Consider more ways to associate errors with GenerationUnits to aid debugging.
-  public static void error(String message) {
+  public static synchronized void error(String message) {
     errorMessages.add(message);
     errorStream.println(getFullMessage("error: ", message, CLANG_STYLE_ERROR_MSG));
     errorCount++;
   }
 
-  public static void warning(String message) {
+  public static synchronized void warning(String message) {
     warningMessages.add(message);
     errorStream.println(getFullMessage("warning: ", message, CLANG_STYLE_ERROR_MSG));
     warningCount++;
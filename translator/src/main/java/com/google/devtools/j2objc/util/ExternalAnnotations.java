@@ -18,9 +18,10 @@ import com.google.common.collect.ImmutableList;
 import com.google.devtools.j2objc.types.GeneratedAnnotationMirror;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.lang.model.AnnotatedConstruct;
 import org.checkerframework.afu.scenelib.el.AScene;
 import org.checkerframework.afu.scenelib.io.IndexFileParser;
@@ -38,16 +39,27 @@ public final class ExternalAnnotations {
   private final AScene scene = new AScene();
 
   private static final Map<AnnotatedConstruct, List<GeneratedAnnotationMirror>> annotations =
-      new HashMap<>();
+      new ConcurrentHashMap<>();
 
   public static void add(AnnotatedConstruct construct, GeneratedAnnotationMirror annotation) {
-    annotations.computeIfAbsent(construct, k -> new ArrayList<>()).add(annotation);
+    annotations
+        .computeIfAbsent(construct, k -> Collections.synchronizedList(new ArrayList<>()))
+        .add(annotation);
   }
 
   public static List<GeneratedAnnotationMirror> get(AnnotatedConstruct construct) {
     return annotations.getOrDefault(construct, ImmutableList.of());
   }
 
+  /**
+   * Removes the recorded annotations, which reference the elements of the javac task that found
+   * them. Translations that share a JVM, like a persistent worker's requests, call this before
+   * each one.
+   */
+  public static void reset() {
+    annotations.clear();
+  }
+
   /**
    * {@link com.google.devtools.j2objc.Options} should use this method to process external
    * annotation files.
@@ -18,6 +18,7 @@ import com.google.devtools.j2objc.J2ObjC;
 import com.google.devtools.j2objc.ast.CompilationUnit;
 import com.google.devtools.j2objc.ast.PackageDeclaration;
 import com.google.devtools.j2objc.file.InputFile;
+import com.google.devtools.j2objc.file.JarIndex;
 import com.google.devtools.j2objc.file.JarredInputFile;
 import com.google.devtools.j2objc.file.RegularInputFile;
 import java.io.File;
@@ -27,12 +28,21 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import javax.annotation.Nullable;
@@ -52,6 +62,11 @@ public class FileUtil {
   private File headerOutputDirectory = null;
   private String fileEncoding = System.getProperty("file.encoding", "UTF-8");
   private Charset charset = Charset.forName(fileEncoding);
+  private JarIndex jarIndex = new JarIndex();
+  private boolean ownsJarIndex = true;
+  private boolean skipUnchangedOutputs = false;
+  private final AtomicInteger writtenOutputs = new AtomicInteger();
+  private final AtomicInteger unchangedOutputs = new AtomicInteger();
 
   public void setSourcePathEntries(List<String> sourcePathEntries) {
     this.sourcePathEntries = sourcePathEntries;
@@ -104,6 +119,14 @@ public class FileUtil {
     charset = Charset.forName(fileEncoding);
   }
 
+  /**
+   * Sets whether output files whose contents didn't change are left untouched,
+   * rather than rewritten with the same contents.
+   */
+  public void setSkipUnchangedOutputs(boolean b) {
+    skipUnchangedOutputs = b;
+  }
+
   public String getFileEncoding() {
     return fileEncoding;
   }
@@ -120,6 +143,31 @@ public class FileUtil {
     return tempDirs;
   }
 
+  /**
+   * Returns the index used to read jars on the source and class paths.
+   */
+  public JarIndex getJarIndex() {
+    return jarIndex;
+  }
+
+  /**
+   * Uses an index that is shared with other translations, such as those of a
+   * persistent worker. A shared index isn't closed by {@link #closeJarIndex}.
+   */
+  public void setJarIndex(JarIndex jarIndex) {
+    this.jarIndex = jarIndex;
+    ownsJarIndex = false;
+  }
+
+  /**
+   * Closes the jar index, unless it is shared.
+   */
+  public void closeJarIndex() throws IOException {
+    if (ownsJarIndex) {
+      jarIndex.close();
+    }
+  }
+
   public static String getMainTypeName(InputFile file) {
     String basename = file.getBasename();
     return removeFileSuffix(basename);
@@ -169,7 +217,7 @@ public class FileUtil {
     return findTypeOnPaths(qualifiedName, classPathEntries, ".class");
   }
 
-  private static InputFile findTypeOnPaths(
+  private InputFile findTypeOnPaths(
       String qualifiedName, List<String> paths, String extension) throws IOException {
     String sourceFileName = qualifiedName.replace('.', File.separatorChar) + extension;
     return findFileOnPaths(sourceFileName, paths);
@@ -186,7 +234,7 @@ public class FileUtil {
     return findFileOnPaths(sourceFileName, sourcePathEntries);
   }
 
-  private static InputFile findFileOnPaths(
+  private InputFile findFileOnPaths(
       String sourceFileName, List<String> paths) throws IOException {
     // Zip/jar files always use forward slashes.
     String jarEntryName = sourceFileName.replace(File.separatorChar, '/');
@@ -200,7 +248,7 @@ public class FileUtil {
         }
       } else {
         // Assume it's a jar file
-        JarredInputFile jarFile = new JarredInputFile(pathEntry, jarEntryName);
+        JarredInputFile jarFile = new JarredInputFile(pathEntry, jarEntryName, jarIndex);
         if (jarFile.exists()) {
           return jarFile;
         }
@@ -215,6 +263,63 @@ public class FileUtil {
     }
   }
 
+  /**
+   * Writes a generated file. The contents are written to a temporary file that
+   * is then renamed, so that an interrupted translation never leaves a
+   * truncated output. If unchanged outputs are skipped and the file already has
+   * these contents, it isn't rewritten, so its timestamp doesn't cause native
+   * build tools to recompile it.
+   *
+   * @return true if the file was written
+   */
+  public boolean writeOutputFile(File file, byte[] contents) throws IOException {
+    if (skipUnchangedOutputs && file.length() == contents.length && file.isFile()
+        && Arrays.equals(java.nio.file.Files.readAllBytes(file.toPath()), contents)) {
+      unchangedOutputs.incrementAndGet();
+      return false;
+    }
+    File dir = file.getAbsoluteFile().getParentFile();
+    if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+      throw new IOException("cannot create output directory: " + dir);
+    }
+    // Files.createTempFile() restricts permissions to the owner, so the temporary
+    // file is created with the default permissions instead.
+    Path tmp = new File(dir, "." + file.getName() + "." + UUID.randomUUID() + ".tmp").toPath();
+    try {
+      try (FileChannel channel = FileChannel.open(
+          tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+        ByteBuffer buffer = ByteBuffer.wrap(contents);
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+      }
+      try {
+        java.nio.file.Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        java.nio.file.Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      java.nio.file.Files.deleteIfExists(tmp);
+    }
+    writtenOutputs.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Returns the number of output files written by writeOutputFile().
+   */
+  public int writtenOutputCount() {
+    return writtenOutputs.get();
+  }
+
+  /**
+   * Returns the number of output files that writeOutputFile() left unchanged.
+   */
+  public int unchangedOutputCount() {
+    return unchangedOutputs.get();
+  }
+
   private static InputStream streamForFile(String filename) throws IOException {
     File f = new File(filename);
     if (f.exists()) {
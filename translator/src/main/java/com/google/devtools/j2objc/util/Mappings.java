@@ -66,6 +66,7 @@ public class Mappings {
           .buildOrThrow();
 
   private static final String JRE_MAPPINGS_FILE = "JRE.mappings";
+  private static Properties jreMappings;
 
   private final Map<String, String> classMappings = new HashMap<>();
   private final Map<String, String> methodMappings = new HashMap<>();
@@ -95,8 +96,16 @@ public class Mappings {
   }
 
   public void addJreMappings() throws IOException {
-    InputStream stream = J2ObjC.class.getResourceAsStream(JRE_MAPPINGS_FILE);
-    addMappingsProperties(FileUtil.loadProperties(stream));
+    addMappingsProperties(getJreMappings());
+  }
+
+  // The JRE mappings are only read once per process, since they don't change.
+  private static synchronized Properties getJreMappings() throws IOException {
+    if (jreMappings == null) {
+      InputStream stream = J2ObjC.class.getResourceAsStream(JRE_MAPPINGS_FILE);
+      jreMappings = FileUtil.loadProperties(stream);
+    }
+    return jreMappings;
   }
 
   private void addMappingsProperties(Properties mappings) {
@@ -106,8 +106,9 @@ public class NameTable {
    * The list of predefined types, common primitive typedefs, constants and
    * variables. Loaded from a resource file.
    */
-  private static ImmutableSet<String> reservedNames = loadReservedNames(
+  private static final ImmutableSet<String> DEFAULT_RESERVED_NAMES = loadReservedNames(
       () -> J2ObjC.class.getResourceAsStream(RESERVED_NAMES_FILE));
+  private static ImmutableSet<String> reservedNames = DEFAULT_RESERVED_NAMES;
 
   // Regex pattern for fully-qualified Java class or package names.
   private static final String JAVA_CLASS_NAME_REGEX
@@ -148,6 +149,14 @@ public class NameTable {
     reservedNames = updatedReservedNames.build();
   }
 
+  /**
+   * Removes any names added by {@link #addReservedNames}, so that a translator
+   * that runs more than once in a process doesn't reuse a previous run's names.
+   */
+  public static void resetReservedNames() {
+    reservedNames = DEFAULT_RESERVED_NAMES;
+  }
+
   private static final ImmutableSet<String> badParameterNames = ImmutableSet.of(
       // Objective-C type qualifier keywords.
       "in", "out", "inout", "oneway", "bycopy", "byref");
@@ -23,8 +23,8 @@ import com.strobel.decompiler.languages.java.ast.PrimitiveExpression;
 import com.strobel.decompiler.languages.java.ast.TypeDeclaration;
 import java.io.IOException;
 import java.lang.reflect.GenericSignatureFormatError;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -33,7 +33,8 @@ import java.util.regex.Pattern;
  */
 public class PackageInfoLookup {
 
-  private final Map<String, PackageData> map = new HashMap<>();
+  // Concurrent, since types are generated on worker threads with -j.
+  private final Map<String, PackageData> map = new ConcurrentHashMap<>();
   private final FileUtil fileUtil;
 
   private static final String REFLECTION_SUPPORT_REGEX =
@@ -111,12 +112,7 @@ public class PackageInfoLookup {
   }
 
   private PackageData getPackageData(String packageName) {
-    PackageData result = map.get(packageName);
-    if (result == null) {
-      result = findPackageData(packageName);
-      map.put(packageName, result);
-    }
-    return result;
+    return map.computeIfAbsent(packageName, this::findPackageData);
   }
 
   private PackageData findPackageData(String packageName) {
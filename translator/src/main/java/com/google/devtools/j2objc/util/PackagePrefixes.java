@@ -16,7 +16,6 @@ package com.google.devtools.j2objc.util;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.google.j2objc.annotations.ObjectiveCName;
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -29,6 +28,7 @@ import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.PackageElement;
@@ -54,7 +54,8 @@ import javax.lang.model.element.PackageElement;
 public final class PackagePrefixes {
 
   private final PackageInfoLookup packageLookup;
-  private final Map<String, String> mappedPrefixes = Maps.newHashMap();
+  // Concurrent, since types are generated on worker threads with -j.
+  private final Map<String, String> mappedPrefixes = new ConcurrentHashMap<>();
 
   // A key array is used so that wildcards are checked in declared order.
   // There is one wildcard value for each key, enforced within this class.
@@ -118,10 +119,15 @@ public final class PackagePrefixes {
     }
     String packageName = packageElement.getQualifiedName().toString();
     String prefix = getPrefix(packageName);
+    return prefix != null ? prefix : findPrefix(packageElement, packageName);
+  }
+
+  // Synchronized so that worker threads don't read the package's annotations from javac at once.
+  private synchronized String findPrefix(PackageElement packageElement, String packageName) {
+    String prefix = mappedPrefixes.get(packageName);
     if (prefix != null) {
       return prefix;
     }
-
     prefix = packageLookup.getObjectiveCName(packageName);
     if (prefix == null) {
       AnnotationMirror annotation = ElementUtil.getAnnotation(packageElement, ObjectiveCName.class);
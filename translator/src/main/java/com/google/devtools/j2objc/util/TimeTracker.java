@@ -101,8 +101,11 @@ public class TimeTracker {
 
     @Override
     public void printResults(PrintStream out) {
-      for (String entry : entries) {
-        out.println(entry);
+      // Keep each tracker's entries together when units are translated in parallel.
+      synchronized (out) {
+        for (String entry : entries) {
+          out.println(entry);
+        }
       }
     }
   }
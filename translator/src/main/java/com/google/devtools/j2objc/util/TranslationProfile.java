@@ -0,0 +1,396 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.util;
+
+import com.google.devtools.j2objc.ast.TreeNode;
+import com.google.devtools.j2objc.ast.TreeVisitor;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects the wall time, allocated bytes and tree size of each translation
+ * pass and javac stage, for every unit. The results are written as a Chrome
+ * trace (viewable with chrome://tracing or Perfetto), with per-pass totals,
+ * the slowest units and the passes' counters added as extra top-level fields,
+ * so the file can also be read by scripts tracking the translator's
+ * performance.
+ */
+public class TranslationProfile {
+
+  /** The category of translation passes, which run on the converted tree. */
+  public static final String PASS = "pass";
+  /** The category of javac stages and other work outside the translation passes. */
+  public static final String STAGE = "stage";
+
+  private static final int SLOWEST_UNIT_COUNT = 20;
+  private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+  private final long startNanos = System.nanoTime();
+  private final List<Event> events = new ArrayList<>();
+  private final Map<String, Long> counters = new TreeMap<>();
+
+  /**
+   * Returns a ticker that records each of its ticks in this profile, as well as
+   * passing them to the specified ticker. The size of the tree rooted at
+   * {@code root} is measured after each tick.
+   */
+  public TimeTracker newTicker(String unitName, TreeNode root, TimeTracker delegate) {
+    return new ProfilingTimeTracker(unitName, root, delegate);
+  }
+
+  /**
+   * Starts timing a stage, which is recorded when {@link Stage#end} is called
+   * by the same thread.
+   */
+  public Stage startStage(String name, String unitName) {
+    return new Stage(this, name, unitName);
+  }
+
+  /**
+   * Adds to a named counter, such as the number of checks an optimization
+   * removed. Counters are totaled across all units.
+   */
+  public synchronized void count(String name, long delta) {
+    counters.merge(name, delta, Long::sum);
+  }
+
+  synchronized long getCount(String name) {
+    return counters.getOrDefault(name, 0L);
+  }
+
+  /**
+   * Returns the number of bytes allocated by the current thread, or -1 if the
+   * JVM doesn't support allocation measurement.
+   */
+  private static long currentThreadAllocatedBytes() {
+    if (THREAD_BEAN instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) THREAD_BEAN;
+      if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+
+  private static int countNodes(TreeNode root) {
+    int[] count = new int[1];
+    root.accept(new TreeVisitor() {
+      @Override
+      public boolean preVisit(TreeNode node) {
+        count[0]++;
+        return true;
+      }
+    });
+    return count[0];
+  }
+
+  private synchronized void record(Event event) {
+    events.add(event);
+  }
+
+  /**
+   * Returns the recorded events' totals by pass name, slowest first.
+   */
+  synchronized List<PassSummary> getPassSummaries() {
+    Map<String, PassSummary> summaries = new LinkedHashMap<>();
+    for (Event event : events) {
+      summaries.computeIfAbsent(event.name, k -> new PassSummary(event.name, event.category))
+          .add(event);
+    }
+    List<PassSummary> result = new ArrayList<>(summaries.values());
+    result.sort(Comparator.comparingLong((PassSummary s) -> s.totalNanos).reversed());
+    return result;
+  }
+
+  /**
+   * Writes the profile as a Chrome trace, in its JSON object format.
+   */
+  public synchronized void write(File file) throws IOException {
+    File dir = file.getAbsoluteFile().getParentFile();
+    if (dir != null) {
+      dir.mkdirs();
+    }
+    try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+        PrintWriter out = new PrintWriter(writer)) {
+      out.println("{\"displayTimeUnit\":\"ms\",");
+      out.println("\"traceEvents\":[");
+      for (int i = 0; i < events.size(); i++) {
+        Event event = events.get(i);
+        out.print("{\"name\":" + quote(event.name) + ",\"cat\":" + quote(event.category)
+            + ",\"ph\":\"X\",\"pid\":1,\"tid\":" + event.threadId
+            + ",\"ts\":" + micros(event.startNanos - startNanos)
+            + ",\"dur\":" + micros(event.durationNanos)
+            + ",\"args\":{\"unit\":" + quote(event.unitName));
+        if (event.allocatedBytes >= 0) {
+          out.print(",\"allocatedBytes\":" + event.allocatedBytes);
+        }
+        if (event.nodesAfter >= 0) {
+          out.print(",\"nodesBefore\":" + event.nodesBefore
+              + ",\"nodesAfter\":" + event.nodesAfter);
+        }
+        out.println(i + 1 < events.size() ? "}}," : "}}");
+      }
+      out.println("],");
+
+      out.println("\"passes\":[");
+      List<PassSummary> summaries = getPassSummaries();
+      for (int i = 0; i < summaries.size(); i++) {
+        PassSummary summary = summaries.get(i);
+        out.print("{\"name\":" + quote(summary.name) + ",\"cat\":" + quote(summary.category)
+            + ",\"count\":" + summary.count
+            + ",\"totalMicros\":" + micros(summary.totalNanos)
+            + ",\"allocatedBytes\":" + summary.allocatedBytes
+            + ",\"nodesBefore\":" + summary.nodesBefore
+            + ",\"nodesAfter\":" + summary.nodesAfter
+            + ",\"slowestUnit\":" + quote(summary.slowestUnit)
+            + ",\"slowestMicros\":" + micros(summary.slowestNanos));
+        out.println(i + 1 < summaries.size() ? "}," : "}");
+      }
+      out.println("],");
+
+      out.println("\"slowestUnits\":[");
+      List<Map.Entry<String, Long>> units = getSlowestUnits();
+      for (int i = 0; i < units.size(); i++) {
+        Map.Entry<String, Long> unit = units.get(i);
+        out.print("{\"unit\":" + quote(unit.getKey())
+            + ",\"passMicros\":" + micros(unit.getValue()));
+        out.println(i + 1 < units.size() ? "}," : "}");
+      }
+      out.println("],");
+
+      out.print("\"counters\":{");
+      int i = 0;
+      for (Map.Entry<String, Long> counter : counters.entrySet()) {
+        out.print((i++ > 0 ? "," : "") + quote(counter.getKey()) + ":" + counter.getValue());
+      }
+      out.println("}}");
+    }
+  }
+
+  // Returns the units whose translation passes took longest, with their total pass times.
+  private List<Map.Entry<String, Long>> getSlowestUnits() {
+    Map<String, Long> unitNanos = new LinkedHashMap<>();
+    for (Event event : events) {
+      if (event.category.equals(PASS)) {
+        unitNanos.merge(event.unitName, event.durationNanos, Long::sum);
+      }
+    }
+    List<Map.Entry<String, Long>> units = new ArrayList<>(unitNanos.entrySet());
+    units.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+    return units.subList(0, Math.min(units.size(), SLOWEST_UNIT_COUNT));
+  }
+
+  private static long micros(long nanos) {
+    return nanos / 1000;
+  }
+
+  private static String quote(String s) {
+    StringBuilder sb = new StringBuilder("\"");
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c == '"' || c == '\\') {
+        sb.append('\\').append(c);
+      } else if (c < ' ') {
+        sb.append(String.format("\\u%04x", (int) c));
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.append('"').toString();
+  }
+
+  private static class Event {
+    private final String name;
+    private final String category;
+    private final String unitName;
+    private final long threadId;
+    private final long startNanos;
+    private final long durationNanos;
+    private final long allocatedBytes;
+    private final int nodesBefore;
+    private final int nodesAfter;
+
+    private Event(String name, String category, String unitName, long startNanos,
+        long durationNanos, long allocatedBytes, int nodesBefore, int nodesAfter) {
+      this.name = name;
+      this.category = category;
+      this.unitName = unitName;
+      this.threadId = Thread.currentThread().getId();
+      this.startNanos = startNanos;
+      this.durationNanos = durationNanos;
+      this.allocatedBytes = allocatedBytes;
+      this.nodesBefore = nodesBefore;
+      this.nodesAfter = nodesAfter;
+    }
+  }
+
+  /**
+   * The totals of one pass or stage across all units.
+   */
+  static class PassSummary {
+    final String name;
+    final String category;
+    int count;
+    long totalNanos;
+    long allocatedBytes;
+    long nodesBefore;
+    long nodesAfter;
+    String slowestUnit = "";
+    long slowestNanos;
+
+    private PassSummary(String name, String category) {
+      this.name = name;
+      this.category = category;
+    }
+
+    private void add(Event event) {
+      count++;
+      totalNanos += event.durationNanos;
+      allocatedBytes += Math.max(event.allocatedBytes, 0);
+      nodesBefore += Math.max(event.nodesBefore, 0);
+      nodesAfter += Math.max(event.nodesAfter, 0);
+      if (event.durationNanos >= slowestNanos) {
+        slowestNanos = event.durationNanos;
+        slowestUnit = event.unitName;
+      }
+    }
+  }
+
+  /**
+   * A stage being timed. Stages are recorded with the {@link #STAGE} category.
+   */
+  public static class Stage {
+
+    /** A stage that isn't recorded, for when profiling is disabled. */
+    public static final Stage NONE = new Stage(null, null, null);
+
+    private final TranslationProfile profile;
+    private final String name;
+    private final String unitName;
+    private final long startNanos;
+    private final long startBytes;
+
+    private Stage(TranslationProfile profile, String name, String unitName) {
+      this.profile = profile;
+      this.name = name;
+      this.unitName = unitName;
+      this.startNanos = System.nanoTime();
+      this.startBytes = profile != null ? currentThreadAllocatedBytes() : -1;
+    }
+
+    public void end() {
+      end(null);
+    }
+
+    /**
+     * Records the stage, with the size of the tree it produced.
+     */
+    public void end(TreeNode result) {
+      if (profile == null) {
+        return;
+      }
+      long duration = System.nanoTime() - startNanos;
+      long bytes = startBytes >= 0 ? currentThreadAllocatedBytes() - startBytes : -1;
+      // A stage's tree is new, so there are no nodes before it.
+      int nodesBefore = result != null ? 0 : -1;
+      int nodesAfter = result != null ? countNodes(result) : -1;
+      profile.record(
+          new Event(name, STAGE, unitName, startNanos, duration, bytes, nodesBefore, nodesAfter));
+    }
+  }
+
+  /**
+   * Records each tick as a pass, measuring the time, allocation and change in
+   * tree size since the previous tick at the same level. Ticks at the outer
+   * level, such as the total for all tree mutations, are recorded as stages.
+   */
+  private class ProfilingTimeTracker extends TimeTracker {
+
+    private static final int MAX_LEVELS = 16;
+
+    private final String unitName;
+    private final TreeNode root;
+    private final TimeTracker delegate;
+    private final long[] lastNanos = new long[MAX_LEVELS];
+    private final long[] lastBytes = new long[MAX_LEVELS];
+    private final long[] lastThreads = new long[MAX_LEVELS];
+    private final int[] lastNodes = new int[MAX_LEVELS];
+    private int currentLevel = 0;
+
+    private ProfilingTimeTracker(String unitName, TreeNode root, TimeTracker delegate) {
+      this.unitName = unitName;
+      this.root = root;
+      this.delegate = delegate;
+      mark(countNodes(root));
+    }
+
+    // Measurements that include tree sizes are started after counting nodes, so
+    // the count isn't included in a pass's time or allocation.
+    private void mark(int nodes) {
+      lastNodes[currentLevel] = nodes;
+      lastThreads[currentLevel] = Thread.currentThread().getId();
+      lastBytes[currentLevel] = currentThreadAllocatedBytes();
+      lastNanos[currentLevel] = System.nanoTime();
+    }
+
+    @Override
+    public void tick(String event) {
+      long now = System.nanoTime();
+      long bytes = currentThreadAllocatedBytes();
+      delegate.tick(event);
+      int level = currentLevel;
+      int nodes = countNodes(root);
+      // A tick on another thread, such as a -j worker's, can't be compared with
+      // the allocation count of the thread that started the measurement.
+      long allocated = bytes >= 0 && lastBytes[level] >= 0
+          && lastThreads[level] == Thread.currentThread().getId()
+          ? bytes - lastBytes[level] : -1;
+      record(new Event(event, level > 0 ? PASS : STAGE, unitName, lastNanos[level],
+          now - lastNanos[level], allocated, lastNodes[level], nodes));
+      mark(nodes);
+    }
+
+    @Override
+    public void push() {
+      delegate.push();
+      currentLevel++;
+      mark(countNodes(root));
+    }
+
+    @Override
+    public void pop() {
+      delegate.pop();
+      currentLevel--;
+    }
+
+    @Override
+    public void printResults(PrintStream out) {
+      delegate.printResults(out);
+    }
+  }
+}
@@ -171,6 +171,23 @@ public final class TranslationUtil {
     return false;
   }
 
+  /**
+   * Returns true if the type is a list that inherits its iterator from AbstractList. That
+   * iterator reads the elements with get(int) and fails once the list's modCount changes, so
+   * loops over these lists can be run by index without changing their behavior.
+   */
+  public static boolean iteratesByIndex(TypeElement type) {
+    for (TypeElement t = type; t != null; t = ElementUtil.getSuperclass(t)) {
+      if (ElementUtil.getQualifiedName(t).equals("java.util.AbstractList")) {
+        return true;
+      }
+      if (ElementUtil.findMethod(t, "iterator") != null) {
+        return false;
+      }
+    }
+    return false;
+  }
+
   private ReflectionSupport.Level getReflectionSupportLevelOnPackage(PackageElement node) {
     ReflectionSupport.Level level = getReflectionSupportLevel(
         ElementUtil.getAnnotation(node, ReflectionSupport.class));
@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Tests for {@link PersistentWorker}.
+ */
+public class PersistentWorkerTest extends GenerationTest {
+
+  public void testProcessesRequests() throws IOException {
+    String fooPath = addSourceFile("package foo; public class Foo {}", "foo/Foo.java");
+    String barPath = addSourceFile("package bar; public class Bar { foo.Foo f; }", "bar/Bar.java");
+    String badPath = addSourceFile("package bad; public class Bad { Missing m; }", "bad/Bad.java");
+    String requests = request(1, fooPath) + "\n" + request(2, barPath) + "\n"
+        + request(3, badPath) + "\n";
+
+    String[] responses = runWorker(requests).split("\n");
+    assertEquals(3, responses.length);
+    assertTrue(responses[0].startsWith("{\"exitCode\":0,"));
+    assertTrue(responses[0].endsWith("\"requestId\":1}"));
+    assertTrue(responses[1].startsWith("{\"exitCode\":0,"));
+    assertTrue(responses[1].endsWith("\"requestId\":2}"));
+    assertTrue(responses[2].startsWith("{\"exitCode\":1,"));
+    assertTrue(responses[2].contains("Missing"));
+    assertTrue(responses[2].endsWith("\"requestId\":3}"));
+
+    assertTranslation(getTranslatedFile("foo/Foo.h"), "@interface FooFoo : NSObject");
+    assertTranslation(getTranslatedFile("bar/Bar.h"), "FooFoo *f_;");
+  }
+
+  public void testNullFieldsAreAbsent() throws IOException {
+    String fooPath = addSourceFile("package foo; public class Foo {}", "foo/Foo.java");
+    String requests = request(1, fooPath).replace("\"requestId\":1", "\"requestId\":null")
+        + "\n";
+
+    String[] responses = runWorker(requests).split("\n");
+    assertEquals(1, responses.length);
+    assertTrue(responses[0].startsWith("{\"exitCode\":0,"));
+    assertFalse(responses[0].contains("requestId"));
+  }
+
+  public void testNullArgumentIsRejected() throws IOException {
+    String requests = "{\"arguments\":[null],\"requestId\":1}\n";
+    try {
+      runWorker(requests);
+      fail("null argument accepted");
+    } catch (IOException e) {
+      assertTrue(e.getMessage().contains("null"));
+    }
+  }
+
+    private String runWorker(String requests) throws IOException {
+    PersistentWorker worker = new PersistentWorker(Arrays.asList(
+        PersistentWorker.PERSISTENT_WORKER_FLAG, "-d", getTempDir(), "-q"));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    worker.run(new ByteArrayInputStream(requests.getBytes(UTF_8)),
+        new PrintStream(out, true, "UTF-8"));
+    return out.toString("UTF-8");
+  }
+
+  private String request(int requestId, String path) {
+    String tempDir = getTempDir();
+    return "{\"arguments\":[\"-sourcepath\",\"" + tempDir + "\",\"-classpath\",\"" + tempDir
+        + "\",\"-encoding\",\"UTF-8\",\"" + path + "\"],"
+        + "\"inputs\":[{\"path\":\"" + path + "\",\"digest\":\"\"}],"
+        + "\"requestId\":" + requestId + "}";
+  }
+}
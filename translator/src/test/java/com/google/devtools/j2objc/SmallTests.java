@@ -39,6 +39,7 @@ import com.google.devtools.j2objc.gen.TypeImplementationGeneratorTest;
 import com.google.devtools.j2objc.javac.ClassFileConverterTest;
 import com.google.devtools.j2objc.javac.JavacParserTest;
 import com.google.devtools.j2objc.javac.JavacTreeConverterTest;
+import com.google.devtools.j2objc.pipeline.BatchPartitionerTest;
 import com.google.devtools.j2objc.pipeline.J2ObjCIncompatibleStripperTest;
 import com.google.devtools.j2objc.pipeline.TranslationProcessorTest;
 import com.google.devtools.j2objc.translate.AbstractMethodRewriterTest;
@@ -46,6 +47,7 @@ import com.google.devtools.j2objc.translate.AnnotationRewriterTest;
 import com.google.devtools.j2objc.translate.AnonymousClassConverterTest;
 import com.google.devtools.j2objc.translate.ArrayRewriterTest;
 import com.google.devtools.j2objc.translate.AutoboxerTest;
+import com.google.devtools.j2objc.translate.BoxingEliminatorTest;
 import com.google.devtools.j2objc.translate.CastResolverTest;
 import com.google.devtools.j2objc.translate.ComplexExpressionExtractorTest;
 import com.google.devtools.j2objc.translate.ConstantBranchPrunerTest;
@@ -64,6 +66,7 @@ import com.google.devtools.j2objc.translate.JavaToIOSMethodTranslatorTest;
 import com.google.devtools.j2objc.translate.LambdaTypeElementAdderTest;
 import com.google.devtools.j2objc.translate.LogSiteInjectorTest;
 import com.google.devtools.j2objc.translate.MetadataWriterTest;
+import com.google.devtools.j2objc.translate.MonitorRewriterTest;
 import com.google.devtools.j2objc.translate.NilCheckResolverTest;
 import com.google.devtools.j2objc.translate.NumberMethodRewriterTest;
 import com.google.devtools.j2objc.translate.ObjectiveCAdapterMethodAnnotationTest;
@@ -98,6 +101,7 @@ import com.google.devtools.j2objc.util.NameTableTest;
 import com.google.devtools.j2objc.util.PackageInfoLookupTest;
 import com.google.devtools.j2objc.util.PackagePrefixesTest;
 import com.google.devtools.j2objc.util.ProGuardUsageParserTest;
+import com.google.devtools.j2objc.util.TranslationProfileTest;
 import com.google.devtools.j2objc.util.TranslationUtilTest;
 import com.google.devtools.j2objc.util.UnicodeUtilsTest;
 import junit.framework.Test;
@@ -117,6 +121,8 @@ public class SmallTests {
         ArrayGenericsTest.class,
         ArrayRewriterTest.class,
         AutoboxerTest.class,
+        BoxingEliminatorTest.class,
+        BatchPartitionerTest.class,
         CastResolverTest.class,
         ClassFileConverterTest.class,
         ClassFileTest.class,
@@ -154,6 +160,7 @@ public class SmallTests {
         LiteralGeneratorTest.class,
         LogSiteInjectorTest.class,
         MetadataWriterTest.class,
+        MonitorRewriterTest.class,
         MethodReferenceTest.class,
         NameTableTest.class,
         NilCheckResolverTest.class,
@@ -173,6 +180,7 @@ public class SmallTests {
         PackageInfoLookupTest.class,
         PackageInfoRewriterTest.class,
         PackagePrefixesTest.class,
+        PersistentWorkerTest.class,
         PrimitiveArrayTest.class,
         PrivateDeclarationResolverTest.class,
         ProGuardUsageParserTest.class,
@@ -189,6 +197,7 @@ public class SmallTests {
         TypeImplementationGeneratorTest.class,
         TypeUseAnnotationTest.class,
         TranslationProcessorTest.class,
+        TranslationProfileTest.class,
         TranslationUtilTest.class,
         UnicodeUtilsTest.class,
         UnsequencedExpressionRewriterTest.class,
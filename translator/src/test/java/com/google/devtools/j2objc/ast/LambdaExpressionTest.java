@@ -236,4 +236,36 @@ public class LambdaExpressionTest extends GenerationTest {
             + "compareWithId:c1 withId:c2];",
         "}");
   }
+
+  public void testEnumCachesLambdaCapturingThis() throws IOException {
+    String translation = translateSourceFile(
+        "enum Test { A, B; int n; Runnable get() { return () -> n++; } "
+        + "Runnable getRef() { return this::toString; } }", "Test", "Test.m");
+    String header = getTranslatedFile("Test.h");
+    assertTranslation(header, "volatile_id cache$Lambda$1_;");
+    assertTranslation(header, "volatile_id cache$Lambda$2_;");
+    assertTranslation(translation,
+        "JreVolatileStrongAssign(&cache$Lambda$1_, create_Test_$Lambda$1_initWithTest_(self))");
+    assertTranslation(translation,
+        "JreVolatileStrongAssign(&cache$Lambda$2_, create_Test_$Lambda$2_initWithTest_(self))");
+  }
+
+  public void testClassDoesNotCacheLambdaCapturingThis() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int n; Runnable get() { return () -> n++; } }", "Test", "Test.m");
+    assertNotInTranslation(translation, "cache$Lambda$1");
+    assertTranslation(translation, "return create_Test_$Lambda$1_initWithTest_(self);");
+  }
+
+  // Lambdas that capture anything other than the enum constant are created every time, as are
+  // lambdas within other lambdas.
+  public void testEnumDoesNotCacheLambdaCapturingLocals() throws IOException {
+    String translation = translateSourceFile(
+        "enum Test { A; int n; Runnable get(int i) { return () -> n += i; } "
+        + "Runnable get2() { Runnable r = () -> { Runnable s = () -> n++; }; return r; } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "cache$Lambda$1");
+    assertNotInTranslation(translation, "cache$Lambda$3");
+    assertTranslation(translation, "cache$Lambda$2");
+  }
 }
@@ -648,6 +648,19 @@ public class ObjectiveCImplementationGeneratorTest extends GenerationTest {
         "}");
   }
 
+  public void testPrintsIndexedCountByEnumeratingWithStateForList() throws IOException {
+    String translation = translateSourceFile(
+        "import java.util.AbstractList; "
+        + "class Test extends AbstractList<String> { "
+        + "  public String get(int i) { return null; } public int size() { return 0; } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "- (NSUInteger)countByEnumeratingWithState:(NSFastEnumerationState *)state "
+        + "objects:(__unsafe_unretained id *)stackbuf count:(NSUInteger)len {",
+        "return JreIndexedFastEnumeration(self, &modCount_, state, stackbuf);",
+        "}");
+  }
+
   public void testNoDuplicateCountByEnumeratingWithState() throws IOException {
     String translation = translateSourceFile(
         "import java.util.Iterator; "
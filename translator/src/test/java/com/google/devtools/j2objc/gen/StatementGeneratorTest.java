@@ -2047,7 +2047,7 @@ public class StatementGeneratorTest extends GenerationTest {
               ast,
               "java.lang.String test(  java.lang.String str){",
               "java.lang.String msg;",
-              "switch (JreIndexOfStr(str, {}, 0)) {",
+              "switch (JreStringSwitchIndex(str, NULL, NULL, 0, -1)) {",
               "  case java.lang.String s when s.length() > 10: msg=JreStrcat($$, \"Long string:"
                   + " \", s);",
               "  break;",
@@ -2077,12 +2077,12 @@ public class StatementGeneratorTest extends GenerationTest {
                   .toString();
           assertTranslatedLines(
               translation,
-              "switch (JreIndexOfStr(s, (id[]){ nil, @\"Foo\", @\"Bar\" }, 3)) {",
-              "  case 0:",
+              "switch (JreStringSwitchIndex(s, Test_switchHashes_0, Test_switchValues_0, 2, 2)) {",
+              "  case 2:",
               "  result = @\"oops\";",
               "  break;",
               "  case 1:",
-              "  case 2:",
+              "  case 0:",
               "  result = @\"great\";",
               "  break;",
               "  default:",
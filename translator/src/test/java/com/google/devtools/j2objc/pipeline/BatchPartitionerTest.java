@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.pipeline;
+
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.J2ObjC;
+import com.google.devtools.j2objc.file.RegularInputFile;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link BatchPartitioner}.
+ */
+public class BatchPartitionerTest extends GenerationTest {
+
+  private static final String SOURCE_A = "package a; import b.B; class A { B b; }";
+  private static final String SOURCE_B = "package b; public class B {}";
+  private static final String SOURCE_C = "package c; class C {}";
+  private static final String SOURCE_D = "package a; class D {}";
+  private static final String SOURCE_E = "package e; class E { c.C c; }";
+
+  public void testClustersReferencingFiles() throws IOException {
+    List<ProcessingContext> inputs = addInputs();
+    // Limit partitions to the size of the a and b packages.
+    long limit = (SOURCE_A.length() + SOURCE_B.length() + SOURCE_D.length())
+        * BatchPartitioner.BYTES_PER_SOURCE_BYTE;
+    List<List<ProcessingContext>> partitions =
+        new BatchPartitioner(options.fileUtil(), limit).partition(inputs);
+    assertEquals(2, partitions.size());
+    assertEquals("[a/A.java, b/B.java, a/D.java]", unitNames(partitions.get(0)));
+    assertEquals("[c/C.java, e/E.java]", unitNames(partitions.get(1)));
+  }
+
+  public void testPacksSmallClusters() throws IOException {
+    List<ProcessingContext> inputs = addInputs();
+    List<List<ProcessingContext>> partitions =
+        new BatchPartitioner(options.fileUtil(), Long.MAX_VALUE).partition(inputs);
+    assertEquals(1, partitions.size());
+    assertEquals("[a/A.java, b/B.java, c/C.java, a/D.java, e/E.java]",
+        unitNames(partitions.get(0)));
+  }
+
+  public void testSplitsLargeClusters() throws IOException {
+    List<ProcessingContext> inputs = addInputs();
+    List<List<ProcessingContext>> partitions =
+        new BatchPartitioner(options.fileUtil(), 1).partition(inputs);
+    assertEquals(5, partitions.size());
+    assertEquals("[a/A.java]", unitNames(partitions.get(0)));
+    assertEquals("[b/B.java]", unitNames(partitions.get(1)));
+  }
+
+  public void testSourceRoots() throws IOException {
+    BatchPartitioner partitioner = new BatchPartitioner(options.fileUtil(), Long.MAX_VALUE);
+    partitioner.partition(addInputs());
+    assertEquals(1, partitioner.getSourceRoots().size());
+    assertEquals(new File(getTempDir()).getAbsolutePath(),
+        partitioner.getSourceRoots().iterator().next());
+  }
+
+  public void testPartitionedTranslation() throws IOException {
+    options.setBatchPartitionMemory(1);
+    options.setTranslationThreads(2);
+    // Pad B, so that it doesn't fit in a partition with A.
+    StringBuilder padding = new StringBuilder();
+    for (int i = 0; i < 30000; i++) {
+      padding.append("          \n");
+    }
+    addSourceFile("package a; class A { b.B b; c.C c; }", "a/A.java");
+    addSourceFile("package b; public class B { int foo() { return 42; } }" + padding,
+        "b/B.java");
+    addSourceFile("package c; public class C { String bar() { return null; } }", "c/C.java");
+    GenerationBatch batch = new GenerationBatch(options);
+    for (String name : new String[] { "a/A.java", "b/B.java", "c/C.java" }) {
+      batch.addSource(new RegularInputFile(getTempDir() + "/" + name, name));
+    }
+    TranslationProcessor processor = new TranslationProcessor(J2ObjC.createParser(options), null);
+    processor.processInputs(batch.getInputs());
+    assertNoErrors();
+    assertTranslation(getTranslatedFile("a/A.h"), "BB *b_;");
+    assertTranslation(getTranslatedFile("b/B.h"), "- (jint)foo;");
+    assertTranslation(getTranslatedFile("c/C.h"), "- (NSString *)bar;");
+  }
+
+  private List<ProcessingContext> addInputs() throws IOException {
+    addSourceFile(SOURCE_A, "a/A.java");
+    addSourceFile(SOURCE_B, "b/B.java");
+    addSourceFile(SOURCE_C, "c/C.java");
+    addSourceFile(SOURCE_D, "a/D.java");
+    addSourceFile(SOURCE_E, "e/E.java");
+    GenerationBatch batch = new GenerationBatch(options);
+    String[] names = { "a/A.java", "b/B.java", "c/C.java", "a/D.java", "e/E.java" };
+    for (String name : names) {
+      batch.addSource(new RegularInputFile(getTempDir() + "/" + name, name));
+    }
+    return batch.getInputs();
+  }
+
+  private static String unitNames(List<ProcessingContext> partition) {
+    List<String> names = new ArrayList<>();
+    for (ProcessingContext input : partition) {
+      names.add(input.getFile().getUnitName());
+    }
+    return names.toString();
+  }
+}
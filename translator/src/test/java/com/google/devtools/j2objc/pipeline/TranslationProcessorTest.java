@@ -14,13 +14,20 @@
 
 package com.google.devtools.j2objc.pipeline;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
 import com.google.devtools.j2objc.GenerationTest;
 import com.google.devtools.j2objc.J2ObjC;
+import com.google.devtools.j2objc.file.InputFile;
 import com.google.devtools.j2objc.file.RegularInputFile;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Tests for {@link TranslationProcessor}.
@@ -91,6 +98,176 @@ public class TranslationProcessorTest extends GenerationTest {
     assertFalse(new File(tempDir, "A.m").exists());
   }
 
+  public void testBuildClosurePrepass() throws IOException {
+    options.setBuildClosure(true);
+    File graphFile = new File(tempDir, "closure.dot");
+    options.setBuildClosureGraphFile(graphFile);
+
+    String testFile = addSourceFile(
+        "package foo; import bar.Bar; class Test { Bar b; }", "foo/Test.java");
+    addSourceFile("package bar; public class Bar { Baz z; }", "bar/Bar.java");
+    addSourceFile("package bar; class Baz { qux.Qux q; }", "bar/Baz.java");
+    addSourceFile("package qux; public class Qux {}", "qux/Qux.java");
+    addSourceFile("package qux; public class Unused {}", "qux/Unused.java");
+
+    List<InputFile> closure = new BuildClosureQueue(options)
+        .expandClosure(Collections.singletonList(new RegularInputFile(testFile, "Test.java")), 2);
+    List<String> names = new ArrayList<>();
+    for (InputFile file : closure) {
+      names.add(file.getUnitName());
+    }
+    assertEquals("[bar/Bar.java, bar/Baz.java, qux/Qux.java]", names.toString());
+
+    GenerationBatch batch = new GenerationBatch(options);
+    batch.addSource(new RegularInputFile(testFile, "foo/Test.java"));
+    TranslationProcessor processor = new TranslationProcessor(J2ObjC.createParser(options), null);
+    processor.processInputs(batch.getInputs());
+    assertNoErrors();
+    assertTrue(new File(tempDir, "qux/Qux.h").exists());
+    assertFalse(new File(tempDir, "qux/Unused.h").exists());
+    String graph = Files.asCharSource(graphFile, UTF_8).read();
+    assertTranslation(graph, "\"foo.Test\" -> \"bar.Bar\";");
+    assertTranslation(graph, "\"bar.Bar\" -> \"bar.Baz\";");
+    assertTranslation(graph, "\"bar.Baz\" -> \"qux.Qux\";");
+    assertTranslation(graph, "\"qux.Qux\";");
+  }
+
+  public void testBuildClosureResolvesSimpleNamesLikeJavac() throws IOException {
+    options.setBuildClosure(true);
+
+    // The single-type import hides foo.Bar, and foo.Baz hides qux.Baz.
+    String testFile = addSourceFile(
+        "package foo; import bar.Bar; import bar.Unused; import qux.*; "
+        + "class Test { Bar b; Baz z; }", "foo/Test.java");
+    addSourceFile("package foo; class Bar {}", "foo/Bar.java");
+    addSourceFile("package foo; class Baz {}", "foo/Baz.java");
+    addSourceFile("package bar; public class Bar {}", "bar/Bar.java");
+    addSourceFile("package bar; public class Unused {}", "bar/Unused.java");
+    addSourceFile("package qux; public class Baz {}", "qux/Baz.java");
+
+    List<InputFile> closure = new BuildClosureQueue(options)
+        .expandClosure(Collections.singletonList(new RegularInputFile(testFile, "Test.java")), 1);
+    List<String> names = new ArrayList<>();
+    for (InputFile file : closure) {
+      names.add(file.getUnitName());
+    }
+    assertEquals("[bar/Bar.java, foo/Baz.java]", names.toString());
+  }
+
+  public void testParallelTranslation() throws IOException {
+    options.setTranslationThreads(4);
+
+    String fileA = addSourceFile("class A { B b; int foo() { return b.bar(); } }", "A.java");
+    String fileB = addSourceFile("class B { int bar() { return 42; } }", "B.java");
+    String fileC = addSourceFile("class C extends B { Object o = \"\" + bar(); }", "C.java");
+
+    GenerationBatch batch = new GenerationBatch(options);
+    batch.addSource(new RegularInputFile(fileA, "A.java"));
+    batch.addSource(new RegularInputFile(fileB, "B.java"));
+    batch.addSource(new RegularInputFile(fileC, "C.java"));
+    TranslationProcessor processor = new TranslationProcessor(J2ObjC.createParser(options), null);
+    processor.processInputs(batch.getInputs());
+
+    assertNoErrors();
+    assertTranslation(getTranslatedFile("A.h"), "- (jint)foo;");
+    assertTranslation(getTranslatedFile("B.h"), "- (jint)bar;");
+    assertTranslation(getTranslatedFile("C.h"), "@interface C : B");
+    assertTranslation(getTranslatedFile("C.m"), "JreStrcat");
+  }
+
+  public void testStreamTranslation() throws IOException {
+    String fileA = addSourceFile("class A { B b; void foo() { b.bar(); } }", "A.java");
+    String fileB = addSourceFile("class B { int bar() { return 42; } }", "B.java");
+    String fileC = addSourceFile("class C extends B {}", "C.java");
+
+    TranslationProcessor processor = translate(fileA, fileB, fileC);
+    assertEquals(3, processor.getPeakRetainedUnits());
+
+    options.setStreamTranslation(true);
+    processor = translate(fileA, fileB, fileC);
+    assertEquals(1, processor.getPeakRetainedUnits());
+    assertTranslation(getTranslatedFile("A.h"), "@interface A");
+    assertTranslation(getTranslatedFile("B.h"), "- (jint)bar;");
+    assertTranslation(getTranslatedFile("C.h"), "@interface C : B");
+  }
+
+  private TranslationProcessor translate(String... files) {
+    GenerationBatch batch = new GenerationBatch(options);
+    for (String file : files) {
+      batch.addSource(new RegularInputFile(file, new File(file).getName()));
+    }
+    TranslationProcessor processor = new TranslationProcessor(J2ObjC.createParser(options), null);
+    processor.processInputs(batch.getInputs());
+    assertNoErrors();
+    return processor;
+  }
+
+  public void testTranslationCache() throws IOException {
+    options.setTranslationCacheDir(new File(getTempDir(), "cache"));
+    String fileA = addSourceFile("class A { B b; void foo() { b.bar(); } }", "A.java");
+    String fileB = addSourceFile("class B { int bar() { return 42; } }", "B.java");
+
+    TranslationCache cache = translateWithCache(fileA, fileB);
+    assertEquals(0, cache.hitCount());
+    assertEquals(2, cache.missCount());
+    String header = getTranslatedFile("A.h");
+    String source = getTranslatedFile("A.m");
+
+    // Unchanged sources are restored from the cache.
+    new File(tempDir, "A.h").delete();
+    new File(tempDir, "A.m").delete();
+    cache = translateWithCache(fileA, fileB);
+    assertEquals(2, cache.hitCount());
+    assertEquals(0, cache.missCount());
+    assertEquals(header, getTranslatedFile("A.h"));
+    assertEquals(source, getTranslatedFile("A.m"));
+
+    // Changing B's signature invalidates A's entry, since A references B.
+    addSourceFile("class B { long bar() { return 42; } }", "B.java");
+    cache = translateWithCache(fileA, fileB);
+    assertEquals(0, cache.hitCount());
+    assertEquals(2, cache.missCount());
+  }
+
+  public void testTranslationCacheHashesFinalMethodsReport() throws IOException {
+    options.setTranslationCacheDir(new File(getTempDir(), "cache"));
+    File report = new File(getTempDir(), "final-methods.txt");
+    Files.asCharSink(report, UTF_8).write("A:\n    void foo()\n");
+    options.load(new String[] {"--final-methods-report", report.getPath()});
+    String fileA = addSourceFile("class A { void foo() {} }", "A.java");
+
+    TranslationCache cache = translateWithCache(fileA);
+    assertEquals(0, cache.hitCount());
+    assertEquals(1, cache.missCount());
+    cache = translateWithCache(fileA);
+    assertEquals(1, cache.hitCount());
+    assertEquals(0, cache.missCount());
+
+    // A regenerated report changes which methods are translated as functions.
+    Files.asCharSink(report, UTF_8).write("");
+    cache = translateWithCache(fileA);
+    assertEquals(0, cache.hitCount());
+    assertEquals(1, cache.missCount());
+  }
+
+  public void testTranslationCacheDisabledWithCombinedJars() throws IOException {
+    options.setTranslationCacheDir(new File(getTempDir(), "cache"));
+    options.load(new String[] {"-XcombineJars"});
+    // Inputs from a jar share one generation unit, which can't be restored per input.
+    assertNull(TranslationCache.create(options));
+    assertWarning("--translation-cache is not supported with the specified flags, ignored");
+  }
+
+  public void testStreamTranslationDoesNotChangeCacheKey() throws IOException {
+    options.load(new String[] {"-Xstream-translation", "-use-arc"});
+    assertTrue(options.translationArgs().contains("-use-arc"));
+    assertFalse(options.translationArgs().contains("-Xstream-translation"));
+  }
+
+  private TranslationCache translateWithCache(String... files) {
+    return translate(files).getTranslationCache();
+  }
+
   public void testProcessIncludeCycleWithSegmentedHeaders() throws IOException {
     options.load(new String[] {"--segmented-headers"});
     doProcessIncludeCycle();
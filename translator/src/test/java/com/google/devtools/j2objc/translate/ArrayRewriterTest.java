@@ -120,4 +120,52 @@ public class ArrayRewriterTest extends GenerationTest {
         "[((JavaUtilBase64_Decoder *) nil_chk(val$decoder_)) "
             + "decodeWithByteArray:(IOSByteArray *) nil];");
   }
+
+  public void testInBoundsLoopAccessIsUnchecked() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int test(int[] a) { int sum = 0; "
+        + "for (int i = 0; i < a.length; i++) { sum += a[i]; a[i] = 0; } return sum; } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "for (int32_t i = 0; i < ((IOSIntArray *) nil_chk(a))->size_; i++) {",
+        "sum += IOSIntArray_GetUnchecked(a, i);",
+        "*IOSIntArray_GetRefUnchecked(a, i) = 0;",
+        "}");
+  }
+
+  public void testInBoundsLoopAccessWithCachedLengthIsUnchecked() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int test(Object[] a) { int n = a.length; int count = 0; "
+        + "for (int i = 0; i < n; i++) { if (a[i] != null) { count++; } } return count; } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "for (int32_t i = 0; i < n; i++) {",
+        "if (IOSObjectArray_GetUnchecked(a, i) != nil) {");
+  }
+
+  public void testInBoundsObjectArrayRefIsUnchecked() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { void test(String[] s, Integer[] n) { "
+        + "for (int i = 0; i < s.length; i++) { s[i] += \"x\"; } "
+        + "for (int i = 0; i < n.length; i++) { n[i]++; } } }",
+        "Test", "Test.m");
+    assertTranslation(translation,
+        "JreStrAppendArray(IOSObjectArray_GetRefUnchecked(s, i), \"$\", @\"x\");");
+    assertTranslation(translation,
+        "JreBoxedPostIncrArrayInt(IOSObjectArray_GetRefUnchecked(n, i));");
+  }
+
+  public void testLoopAccessNotProvenInBoundsIsChecked() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { void test(int[] a, int[] b, int start) { "
+        + "for (int i = 0; i < a.length; i++) { b[i] = a[i + 1]; } "
+        + "for (int i = 0; i <= a.length; i++) { a[i] = 0; } "
+        + "for (int i = start; i < a.length; i++) { a[i] = 0; } "
+        + "for (int i = 0; i < a.length; i++) { a[i] = 0; i += 2; } "
+        + "for (int i = 0; i < a.length; i++) { a[i] = 0; a = b; } "
+        + "int n = b.length; b = a; "
+        + "for (int i = 0; i < n; i++) { b[i] = 0; } } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "Unchecked");
+  }
 }
@@ -29,6 +29,13 @@ import java.util.List;
  */
 public class AutoboxerTest extends GenerationTest {
 
+  // These tests verify the Autoboxer's conversions, so keep BoxingEliminator from removing them.
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    options.setEliminateBoxing(false);
+  }
+
   public void testDoNotBoxIntInVarargMethod() throws IOException {
     String source = "public class Test { Test(String s) {} "
         + "int one(String s, int i) { return two(new Test(s), i, 1, 2); }"
@@ -0,0 +1,69 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link BoxingEliminator}.
+ */
+public class BoxingEliminatorTest extends GenerationTest {
+
+  public void testBoxThenUnboxIsRemoved() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { long test(int i, long l) { "
+        + "return Integer.valueOf(i).longValue() + Long.valueOf(l + 1).longValue() * 2; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return (int64_t) i + (l + 1) * 2;");
+    assertNotInTranslation(translation, "valueOf");
+  }
+
+  public void testLocalUsedAsPrimitiveIsUnboxed() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int test(int[] values, int size) { Integer n = size; n++; "
+        + "Integer sum = 0; for (int v : values) { sum += v; } return sum * n; } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "int32_t n = size;",
+        "n++;",
+        "int32_t sum = 0;");
+    assertTranslation(translation, "sum += v;");
+    assertTranslation(translation, "return sum * n;");
+    assertNotInTranslation(translation, "JavaLangInteger");
+  }
+
+  public void testEscapingLocalStaysBoxed() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { Object o; boolean test(Integer other) { "
+        + "Integer a = 1; Integer b = 2; Integer c = 3; Integer d = 4; "
+        + "o = a; String s = \"\" + b; Runnable r = () -> o = c; "
+        + "return d == other; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "JavaLangInteger *a = JavaLangInteger_valueOfWithInt_(1);");
+    assertTranslation(translation, "JavaLangInteger *b = JavaLangInteger_valueOfWithInt_(2);");
+    assertTranslation(translation, "JavaLangInteger *c = JavaLangInteger_valueOfWithInt_(3);");
+    assertTranslation(translation, "JavaLangInteger *d = JavaLangInteger_valueOfWithInt_(4);");
+  }
+
+  public void testBoxingEliminationCanBeDisabled() throws IOException {
+    options.setEliminateBoxing(false);
+    String translation = translateSourceFile(
+        "class Test { int test(int i) { Integer j = i; return j; } }", "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "JavaLangInteger *j = JavaLangInteger_valueOfWithInt_(i);",
+        "return [j intValue];");
+  }
+}
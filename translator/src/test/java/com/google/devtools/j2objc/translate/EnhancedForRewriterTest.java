@@ -102,4 +102,69 @@ public class EnhancedForRewriterTest extends GenerationTest {
         "  break_testLabel2: ;",
         "}");
   }
+
+  public void testIndexedListLoop() throws IOException {
+    String translation = translateSourceFile(
+        "import java.util.AbstractList; import java.util.RandomAccess;"
+        + "class Test { "
+        + "static final class Strings extends AbstractList<String> implements RandomAccess { "
+        + "  public String get(int i) { return null; } public int size() { return 0; } } "
+        + "void test(Strings strings) { for (String s : strings) {} } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "Test_Strings *l__ = strings;",
+        "int32_t m__ = ((Test_Strings *) nil_chk(l__))->modCount_;",
+        "for (int32_t i__ = 0; i__ != [l__ size]; i__++) {",
+        "  if (l__->modCount_ != m__) @throw create_JavaUtilConcurrentModificationException_init();",
+        "  NSString *s = JreRetainedLocalValue([l__ getWithInt:i__]);",
+        "}");
+  }
+
+  // Like AbstractList's iterator, size() is read before each element, so removing the
+  // second-to-last element ends the loop, while removing the last one makes the loop continue
+  // and throw ConcurrentModificationException.
+  public void testIndexedListLoopRemovingElements() throws IOException {
+    String translation = translateSourceFile(
+        "import java.util.AbstractList; import java.util.RandomAccess;"
+        + "class Test { "
+        + "static final class Strings extends AbstractList<String> implements RandomAccess { "
+        + "  public String get(int i) { return null; } public int size() { return 0; } "
+        + "  public String remove(int i) { modCount++; return null; } } "
+        + "void removeSecondToLast(Strings strings) { "
+        + "  for (String s : strings) { if (s == null) { strings.remove(strings.size() - 2); } } } "
+        + "void removeLast(Strings strings) { "
+        + "  for (String s : strings) { if (s == null) { strings.remove(strings.size() - 1); } } } "
+        + "}",
+        "Test", "Test.m");
+    assertOccurrences(translation, "for (int32_t i__ = 0; i__ != [l__ size]; i__++) {", 2);
+    assertOccurrences(translation,
+        "if (l__->modCount_ != m__) @throw create_JavaUtilConcurrentModificationException_init();",
+        2);
+    assertNotInTranslation(translation, "n__");
+  }
+
+  // A subclass could override iterator(), so only final list types are lowered.
+  public void testNonFinalListUsesFastEnumeration() throws IOException {
+    String translation = translateSourceFile(
+        "import java.util.AbstractList; import java.util.RandomAccess;"
+        + "class Test { "
+        + "static class Strings extends AbstractList<String> implements RandomAccess { "
+        + "  public String get(int i) { return null; } public int size() { return 0; } } "
+        + "void test(Strings strings) { for (String s : strings) {} } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "for (NSString * __strong s in strings) {");
+    assertNotInTranslation(translation, "getWithInt:i__");
+  }
+
+  public void testIndexedListLoopNotUsedWhenIteratorOverridden() throws IOException {
+    String translation = translateSourceFile(
+        "import java.util.*;"
+        + "class Test { "
+        + "static final class Strings extends AbstractList<String> implements RandomAccess { "
+        + "  public String get(int i) { return null; } public int size() { return 0; } "
+        + "  public Iterator<String> iterator() { return null; } } "
+        + "void test(Strings strings) { for (String s : strings) {} } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "for (NSString * __strong s in strings) {");
+  }
 }
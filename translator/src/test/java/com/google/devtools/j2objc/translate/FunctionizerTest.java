@@ -16,6 +16,7 @@ package com.google.devtools.j2objc.translate;
 
 import com.google.devtools.j2objc.GenerationTest;
 import com.google.devtools.j2objc.Options.MemoryManagementOption;
+import com.google.devtools.j2objc.util.CodeReferenceMap;
 import java.io.IOException;
 
 /**
@@ -632,6 +633,30 @@ public class FunctionizerTest extends GenerationTest {
          "}");
   }
 
+  // Methods the tree shaker reports as never overridden are called directly from any unit.
+  public void testWholeProgramFinalMethod() throws IOException {
+    options.setFinalMethodsMap(CodeReferenceMap.builder()
+        .addMethod("A", "str", "(Ljava/lang/String;)Ljava/lang/String;")
+        .build());
+    String translation = translateSourceFile(
+        "class A { String str(String msg) { return msg; } String other() { return null; } }",
+        "A", "A.h");
+    assertTranslation(translation, "- (NSString *)strWithNSString:(NSString *)msg;");
+    assertTranslation(translation, "NSString *A_strWithNSString_(A *self, NSString *msg);");
+    translation = getTranslatedFile("A.m");
+    assertNotInTranslation(translation, "static NSString *A_strWithNSString_");
+    assertTranslatedLines(translation,
+        "- (NSString *)strWithNSString:(NSString *)msg {",
+        "return A_strWithNSString_(self, msg);",
+        "}");
+    assertTranslation(translation, "- (NSString *)other {");
+
+    translation = translateSourceFile(
+        "class B { String test(A a) { return a.str(\"x\") + a.other(); } }", "B", "B.m");
+    assertTranslation(translation, "A_strWithNSString_(nil_chk(a), @\"x\")");
+    assertTranslation(translation, " other]");
+  }
+
   public void testDefaultMethod() throws IOException {
     String translation = translateSourceFile(
         "interface A { default String test(String msg) { return msg.toUpperCase(); }}",
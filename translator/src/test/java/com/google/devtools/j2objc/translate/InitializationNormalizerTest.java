@@ -174,7 +174,7 @@ public class InitializationNormalizerTest extends GenerationTest {
     String translation = translateSourceFile(source, "Test", "Test.m");
     assertTranslation(translation, "NSString *Test_foo;");
     assertTranslation(translation,
-        "JreStrongAssign(&Test_foo, JreStrcat(\"$$\", @\"hello1\", "
+        "JreStrongAssign(&Test_foo, JreStrcatStrings(2, @\"hello1\", "
         + "[NSString stringWithCharacters:(unichar[]) { (int) 0xdfff } length:1]));");
   }
 
@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link MonitorRewriter}.
+ */
+public class MonitorRewriterTest extends GenerationTest {
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    options.setMonitorLocks(true);
+  }
+
+  public void testNonThrowingSynchronizedMethod() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int count; synchronized void increment() { count++; } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "- (void)increment {",
+        "  {",
+        "    Test *sync__ = self;",
+        "    JreMonitorEnter(sync__);",
+        "    count_++;",
+        "    JreMonitorExit(sync__);",
+        "  }",
+        "}");
+    assertNotInTranslation(translation, "@synchronized");
+    assertNotInTranslation(translation, "@try");
+  }
+
+  public void testReturnedValueReadBeforeExit() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int count; synchronized int getCount() { return count; } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "Test *sync__ = self;",
+        "JreMonitorEnter(sync__);",
+        "int32_t ret__ = count_;",
+        "JreMonitorExit(sync__);",
+        "return ret__;");
+  }
+
+  public void testThrowingBodyExitsInFinally() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { Object lock = new Object(); "
+        + "void test() { synchronized (lock) { run(); } } void run() {} }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "id sync__ = lock_;",
+        "JreMonitorEnter(sync__);",
+        "@try {",
+        "  [self run];",
+        "}",
+        "@finally {",
+        "  JreMonitorExit(sync__);",
+        "}");
+  }
+
+  // Only a return at the end of the body can be moved after the monitor exit.
+  public void testEarlyReturnExitsInFinally() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int count; "
+        + "synchronized int test(boolean b) { if (b) { return 0; } count++; return count; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "@try {");
+    assertTranslation(translation, "JreMonitorExit(sync__);");
+    assertNotInTranslation(translation, "ret__");
+  }
+
+  public void testStaticSynchronizedMethod() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static synchronized void test() {} }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "IOSClass *sync__ = Test_class_();",
+        "JreMonitorEnter(sync__);",
+        "JreMonitorExit(sync__);");
+  }
+}
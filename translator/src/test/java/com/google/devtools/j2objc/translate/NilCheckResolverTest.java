@@ -14,7 +14,11 @@
 
 package com.google.devtools.j2objc.translate;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.io.Files;
 import com.google.devtools.j2objc.GenerationTest;
+import java.io.File;
 import java.io.IOException;
 
 /**
@@ -355,4 +359,86 @@ public class NilCheckResolverTest extends GenerationTest {
     assertTranslation(translation, "@throw nil_chk(e);");
     assertTranslation(translation, "@throw create_JavaLangRuntimeException_init();");
   }
+
+  public void testInterproceduralStringAndBuilderResults() throws IOException {
+    String source = "class Test { int test(String s) { return s.trim().length(); } "
+        + "String test2(StringBuilder sb) { return sb.append(1).append(2).toString(); } }";
+    String translation = translateSourceFile(source, "Test", "Test.m");
+    assertOccurrences(translation, "nil_chk(", 5);
+    options.setInterproceduralNilChecks(true);
+    translation = translateSourceFile(source, "Test", "Test.m");
+    // Only the parameters need nil_chk's.
+    assertOccurrences(translation, "nil_chk(", 2);
+    assertTranslation(translation, "nil_chk(s)");
+    assertTranslation(translation, "nil_chk(sb)");
+  }
+
+  public void testInterproceduralMethodSummaries() throws IOException {
+    options.setInterproceduralNilChecks(true);
+    String translation = translateSourceFile(
+        "final class Test { int n; Test self() { return this; } "
+        + "private Object create(boolean b) { return b ? new Object() : \"\" + n; } "
+        + "Object maybeNull(boolean b) { return b ? this : null; } "
+        + "int test(boolean b) { return self().self().n + create(b).hashCode() "
+        + "+ maybeNull(b).hashCode(); } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "nil_chk([self self])");
+    assertNotInTranslation(translation, "nil_chk([self createWithBoolean:b])");
+    assertNotInTranslation(translation, "nil_chk(Test_createWithBoolean_(self, b))");
+    assertTranslation(translation, "nil_chk([self maybeNullWithBoolean:b])");
+  }
+
+  public void testInterproceduralOverridableMethodNotSummarized() throws IOException {
+    options.setInterproceduralNilChecks(true);
+    String translation = translateSourceFile(
+        "class Test { int n; Test self() { return this; } int test() { return self().n; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "nil_chk([self self])");
+  }
+
+  public void testInterproceduralNonnullAnnotations() throws IOException {
+    options.setInterproceduralNilChecks(true);
+    String translation = translateSourceFile(
+        "import javax.annotation.Nonnull; "
+        + "abstract class Test { @Nonnull abstract Object get(); "
+        + "int test(@Nonnull Object o) { return get().hashCode() + o.hashCode(); } "
+        + "int test2(@Nonnull Object o, Object p) { o = p; return o.hashCode(); } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "nil_chk([self get])");
+    assertTranslatedLines(translation,
+        "- (int32_t)test2WithId:(id)o",
+        "                withId:(id)p {",
+        "  o = p;",
+        "  return ((int32_t) [nil_chk(o) hash]);");
+    assertOccurrences(translation, "nil_chk(", 1);
+  }
+
+  public void testInterproceduralRemovedChecksInLoopCountedOnce() throws IOException {
+    options.setInterproceduralNilChecks(true);
+    File profileFile = new File(tempDir, "profile.json");
+    options.setProfileFile(profileFile);
+    String path = addSourceFile(
+        "final class Test { int n; Test self() { return this; } "
+        + "int test(int k) { int sum = 0; for (int i = 0; i < k; i++) { "
+        + "for (int j = 0; j < k; j++) { sum += self().n; } } return sum; } }",
+        "Test.java");
+    runPipeline(path);
+    // Both loop bodies are visited more than once, but there is only one removed check.
+    assertEquals(1, options.translationProfile().getCount("NilCheckResolver.nilChecksRemoved"));
+    String profile = Files.asCharSource(profileFile, UTF_8).read();
+    assertTrue(profile.contains("Test.java\":1"));
+  }
+
+  public void testNilChecksInLoopCountedOnce() throws IOException {
+    options.setProfileFile(new File(tempDir, "profile.json"));
+    String path = addSourceFile(
+        "final class Test { int n; Test self() { return this; } "
+        + "int test(int k) { int sum = 0; for (int i = 0; i < k; i++) { "
+        + "for (int j = 0; j < k; j++) { sum += self().n; } } return sum; } }",
+        "Test.java");
+    runPipeline(path);
+    // Both loop bodies are visited more than once, but there is only one check.
+    assertOccurrences(getTranslatedFile("Test.m"), "nil_chk(", 1);
+    assertEquals(1, options.translationProfile().getCount("NilCheckResolver.nilChecks"));
+  }
 }
@@ -235,6 +235,23 @@ public class OperatorRewriterTest extends GenerationTest {
     assertTranslation(translation, "JreStrAppend(&str, \"$I\", @\"bar\", x);");
   }
 
+  public void testStringConcatenationOfStrings() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { String test(String a, String b) { return a + \", \" + b + '.'; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return JreStrcatStrings(4, a, @\", \", b, @\".\");");
+  }
+
+  public void testStringConcatenationFoldsConstants() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static final String P = \"p\"; static final int N = 10; "
+        + "String test(String a, int i) { return a + P + N + '!' + 1.5; } "
+        + "String test2(String a, int i) { return a + N + i; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return JreStrcatStrings(2, a, @\"p10!1.5\");");
+    assertTranslation(translation, "return JreStrcat(\"$$I\", a, @\"10\", i);");
+  }
+
   public void testRetainedWithAnnotation() throws IOException {
     String translation = translateSourceFile(
         "import com.google.j2objc.annotations.RetainedWith;"
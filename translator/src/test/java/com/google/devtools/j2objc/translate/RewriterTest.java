@@ -211,6 +211,28 @@ public class RewriterTest extends GenerationTest {
     assertTranslation(translation, "NSString *s = JreStrcat(\"F$\", 1 + 2.3f, @\"foo\");");
   }
 
+  public void testMergesSequentialStringAppends() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { String test(String a, int b) { "
+        + "String s = \"\"; s += a; s += ':'; s += b; return s; } }", "Test", "Test.m");
+    assertTranslation(translation, "JreStrAppend(&s, \"$CI\", a, ':', b);");
+    assertOccurrences(translation, "JreStrAppend", 1);
+  }
+
+  public void testStringAppendsNotMergedWhenObservable() throws IOException {
+    // The second append reads the variable.
+    String translation = translateSourceFile(
+        "class Test { String test(String a) { String s = \"\"; s += a; s += s; return s; } }",
+        "Test", "Test.m");
+    assertOccurrences(translation, "JreStrAppend", 2);
+    // A catch or finally block could read the variable after the first append.
+    translation = translateSourceFile(
+        "class Test { String s = \"\"; String test(String a) { String s = \"\"; "
+        + "try { s += a; s += a.trim(); } finally { this.s = s; } return s; } }",
+        "Test", "Test.m");
+    assertOccurrences(translation, "JreStrAppend(&s,", 2);
+  }
+
   public void testMethodCollisionWithSuperclassField() throws IOException {
     addSourceFile("class A { protected int i; }", "A.java");
     String translation = translateSourceFile(
@@ -31,7 +31,7 @@ public class StaticVarRewriterTest extends GenerationTest {
         "Test", "Test.m");
     assertTranslatedLines(translation,
         "[nil_chk(((Test *) nil_chk(JreLoadStatic(Test, test)))->obj_) description];",
-        "[nil_chk(((Test *) nil_chk(JreLoadStatic(Test, test)))->obj_) description];");
+        "[nil_chk(((Test *) nil_chk(Test_test))->obj_) description];");
   }
 
   public void testAssignmentToNewObject() throws IOException {
@@ -68,24 +68,26 @@ public class StaticVarRewriterTest extends GenerationTest {
     String translation = translateSourceFile(
         "class Test { static int i = 5; static class Inner { "
         + " static Test getTest() { return null; } "
-        + " static void test() { Test t = new Test(); int a = t.i; int b = getTest().i; "
-        + " int c = getTest().i++; int d = getTest().i = 6; } } }", "Test", "Test.m");
-    assertTranslatedLines(translation,
-        "int32_t a = JreLoadStatic(Test, i);",
-        "int32_t b = (Test_Inner_getTest(), JreLoadStatic(Test, i));",
-        "int32_t c = (*(Test_Inner_getTest(), JreLoadStaticRef(Test, i)))++;",
-        "int32_t d = *(Test_Inner_getTest(), JreLoadStaticRef(Test, i)) = 6;");
+        + " static int a(Test t) { return t.i; } static int b() { return getTest().i; } "
+        + " static int c() { return getTest().i++; } static int d() { return getTest().i = 6; } "
+        + "} }", "Test", "Test.m");
+    assertTranslation(translation, "return JreLoadStatic(Test, i);");
+    assertTranslation(translation, "return (Test_Inner_getTest(), JreLoadStatic(Test, i));");
+    assertTranslation(translation,
+        "return (*(Test_Inner_getTest(), JreLoadStaticRef(Test, i)))++;");
+    assertTranslation(translation,
+        "return *(Test_Inner_getTest(), JreLoadStaticRef(Test, i)) = 6;");
   }
 
   public void testStaticLoadWithArrayAccess() throws IOException {
     String translation = translateSourceFile(
-        "class Test { static class Inner { static int[] ints; } "
+        "class Test { static class Inner { static int[] ints = new int[1]; } "
         + " int test() { Inner.ints[0] = 1; Inner.ints[0] += 2; return Inner.ints[0]; } }",
         "Test", "Test.m");
     assertTranslatedLines(translation,
         "*IOSIntArray_GetRef(nil_chk(JreLoadStatic(Test_Inner, ints)), 0) = 1;",
-        "*IOSIntArray_GetRef(JreLoadStatic(Test_Inner, ints), 0) += 2;",
-        "return IOSIntArray_Get(JreLoadStatic(Test_Inner, ints), 0);");
+        "*IOSIntArray_GetRef(Test_Inner_ints, 0) += 2;",
+        "return IOSIntArray_Get(Test_Inner_ints, 0);");
   }
 
   public void testStaticLoadWithArrayAccessStrictField() throws IOException {
@@ -93,7 +95,7 @@ public class StaticVarRewriterTest extends GenerationTest {
     options.setStrictFieldLoad(true);
     String translation =
         translateSourceFile(
-            "class Test { static class Inner { static int[] ints; } "
+            "class Test { static class Inner { static int[] ints = new int[1]; } "
                 + " int test() { Inner.ints[0] = 1; Inner.ints[0] += 2; return Inner.ints[0]; } }",
             "Test",
             "Test.m");
@@ -101,9 +103,8 @@ public class StaticVarRewriterTest extends GenerationTest {
         translation,
         "*IOSIntArray_GetRef(nil_chk(JreStrictFieldStrongLoad(JreLoadStaticRef(Test_Inner, ints))),"
             + " 0) = 1;",
-        "*IOSIntArray_GetRef(JreStrictFieldStrongLoad(JreLoadStaticRef(Test_Inner, ints)), 0) +="
-            + " 2;",
-        "return IOSIntArray_Get(JreStrictFieldStrongLoad(JreLoadStaticRef(Test_Inner, ints)), 0);");
+        "*IOSIntArray_GetRef(JreStrictFieldStrongLoad(&Test_Inner_ints), 0) += 2;",
+        "return IOSIntArray_Get(JreStrictFieldStrongLoad(&Test_Inner_ints), 0);");
   }
 
   // Verify that Class.CONSTANT_FIELD.CONSTANT translates correctly.
@@ -132,4 +133,81 @@ public class StaticVarRewriterTest extends GenerationTest {
         "- (int32_t)test {",
         "return (JreStrictFieldStrongLoad(JreLoadStaticRef(Foo_BarHolder, BAR)), Bar_N);");
   }
+
+  public void testRepeatedStaticLoadIsNotChecked() throws IOException {
+    addSourceFile("class A { static int i = 1; static int j = 2; }", "A.java");
+    String translation = translateSourceFile(
+        "class Test { int test() { int a = A.i; int b = A.j; return a + b + A.i; } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "int32_t a = JreLoadStatic(A, i);",
+        "int32_t b = A_j;",
+        "return a + b + A_i;");
+  }
+
+  // The operands of a C expression aren't sequenced, so both loads are checked.
+  public void testStaticLoadsInSameStatementAreChecked() throws IOException {
+    addSourceFile("class A { static int i = 1; static int j = 2; }", "A.java");
+    String translation = translateSourceFile(
+        "class Test { int test() { return A.i + A.j; } }", "Test", "Test.m");
+    assertTranslation(translation, "return JreLoadStatic(A, i) + JreLoadStatic(A, j);");
+  }
+
+  public void testConditionalStaticLoadIsNotRelied() throws IOException {
+    addSourceFile("class A { static int i = 1; }", "A.java");
+    String translation = translateSourceFile(
+        "class Test { int test(boolean b) { int a = 0; if (b) { a = A.i; a += A.i; } "
+        + "return b && A.i > 0 ? a : A.i; } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "if (b) {",
+        "a = JreLoadStatic(A, i);",
+        "a += A_i;",
+        "}",
+        "return b && JreLoadStatic(A, i) > 0 ? a : JreLoadStatic(A, i);");
+  }
+
+  public void testStaticLoadBeforeLoopIsNotCheckedInLoop() throws IOException {
+    addSourceFile("class A { static int[] ints = new int[1]; }", "A.java");
+    String translation = translateSourceFile(
+        "class Test { int test() { int sum = 0; "
+        + "for (int i = 0; i < A.ints.length; i++) { sum += A.ints[i]; } "
+        + "return sum; } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "for (int32_t i = 0; i < ((IOSIntArray *) nil_chk(JreLoadStatic(A, ints)))->size_; i++) {",
+        "sum += IOSIntArray_Get(A_ints, i);",
+        "}");
+  }
+
+  public void testSuperclassStaticLoadIsNotChecked() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static int i = 1; static class Sub extends Test { "
+        + "int test() { return Test.i; } } static class Other { "
+        + "int test() { return Test.i; } } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation, "- (int32_t)test {", "return Test_i;");
+    assertTranslatedLines(translation, "- (int32_t)test {", "return JreLoadStatic(Test, i);");
+  }
+
+  public void testSuperclassStaticLoadInStaticCode() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static Object o = new Object(); "
+        + "static class Sub extends Test { static Object test() { return Test.o; } } "
+        + "static class InitSub extends Test { static Object p = new Object(); "
+        + "static Object test() { return Test.o; } } }",
+        "Test", "Test.m");
+    // Sub's initialize function is empty, so it doesn't initialize Test.
+    assertTranslation(translation, "return JreLoadStatic(Test, o);");
+    // Initializing InitSub initializes Test first.
+    assertTranslation(translation, "return Test_o;");
+  }
+
+  public void testStaticLoadOfTypeWithoutInitializerIsNotChecked() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static class Inner { static Object o; } "
+        + "Object test() { return Inner.o; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return Test_Inner_o;");
+  }
 }
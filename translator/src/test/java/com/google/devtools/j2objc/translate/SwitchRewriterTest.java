@@ -131,24 +131,66 @@ public class SwitchRewriterTest extends GenerationTest {
         + "    default: return -1;"
         + "  }}}",
         "Test", "Test.m");
+    // Cases are numbered in the order of their labels' hash codes.
     assertTranslatedLines(translation,
-        "switch (JreIndexOfStr(s, (id[]){ @\"foo\", "
-            + "@\"bar\", Test_constant, Foo_TEST, Bar_TEST }, 5)) {",
-        "  case 0:",
-        "  return 42;",
+        "static const uint32_t Test_switchHashes_0[] = "
+            + "{ 97299u, 101574u, 110251487u, 110251488u, 3231974262u };",
+        "static NSString * const Test_switchValues_0[] = "
+            + "{ @\"bar\", @\"foo\", @\"test1\", @\"test2\", @\"mumble\" };");
+    assertTranslatedLines(translation,
+        "switch (JreStringSwitchIndex(s, Test_switchHashes_0, Test_switchValues_0, 5, -1)) {",
         "  case 1:",
+        "  return 42;",
+        "  case 0:",
         "  return 666;",
-        "  case 2:",
+        "  case 4:",
         "  return -1;",
-        "  case 3:",
+        "  case 2:",
         "  return -2;",
-        "  case 4:",
+        "  case 3:",
         "  return -3;",
         "  default:",
         "  return -1;",
         "}");
   }
 
+  public void testStringSwitchHashCollision() throws IOException {
+    // "Aa" and "BB" have the same hash code, so both are compared.
+    String translation = translateSourceFile(
+        "public class Test { int test(String s) { "
+        + "  switch(s) {"
+        + "    case \"Aa\": return 1;"
+        + "    case \"BB\": return 2;"
+        + "    case \"foo\": return 3;"
+        + "    default: return 0;"
+        + "  }}}",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "static const uint32_t Test_switchHashes_0[] = { 2112u, 2112u, 101574u };",
+        "static NSString * const Test_switchValues_0[] = { @\"Aa\", @\"BB\", @\"foo\" };");
+    assertTranslatedLines(translation,
+        "switch (JreStringSwitchIndex(s, Test_switchHashes_0, Test_switchValues_0, 3, -1)) {",
+        "  case 0:",
+        "  return 1;",
+        "  case 1:",
+        "  return 2;",
+        "  case 2:",
+        "  return 3;");
+  }
+
+  public void testStringSwitchTablesAreNumberedPerType() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { "
+        + "int a(String s) { switch(s) { case \"x\": return 1; default: return 0; }}"
+        + "int b(String s) { switch(s) { case \"y\": return 1; default: return 0; }}}",
+        "Test", "Test.m");
+    assertTranslation(translation,
+        "JreStringSwitchIndex(s, Test_switchHashes_0, Test_switchValues_0, 1, -1)");
+    assertTranslation(translation,
+        "JreStringSwitchIndex(s, Test_switchHashes_1, Test_switchValues_1, 1, -1)");
+    assertNotInTranslation(translation, "JreIndexOfStr");
+  }
+
   /**
    * Verify that when a the last switch case is empty (no statement),
    * an empty statement is added.  Java doesn't require an empty statement
@@ -583,7 +625,8 @@ public class SwitchRewriterTest extends GenerationTest {
                   "Test.m");
           assertTranslatedLines(
               translation,
-              "switch (JreIndexOfStr(component, (id[]){ @\".\", @\"..\" }, 2)) {",
+              "switch (JreStringSwitchIndex(component, "
+                  + "Test_switchHashes_0, Test_switchValues_0, 2, -1)) {",
               "  case 0:",
               "  {",
               "    continue;",
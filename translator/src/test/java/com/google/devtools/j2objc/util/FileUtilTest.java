@@ -14,7 +14,12 @@
 
 package com.google.devtools.j2objc.util;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.io.Files;
 import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.file.InputFile;
+import com.google.devtools.j2objc.file.JarIndex;
 import com.google.devtools.j2objc.file.JarredInputFile;
 import java.io.File;
 import java.io.IOException;
@@ -46,6 +51,58 @@ public class FileUtilTest extends GenerationTest {
     assertTrue(jarEntry.exists());
   }
   
+  // Verify that a jar on the source path is opened once for all lookups.
+  public void testJarIndexReusesOpenJar() throws IOException {
+    File file = new File(getResourceAsFile("example.jar"));
+    FileUtil fileUtil = new FileUtil();
+    fileUtil.appendSourcePath(file.getPath());
+    InputFile source = fileUtil.findFileOnSourcePath("com/google/test/package-info.java");
+    assertNotNull(source);
+    assertNull(fileUtil.findTypeOnSourcePath("com.google.test.Missing"));
+    assertTrue(fileUtil.readFile(source).contains("package com.google.test;"));
+    JarIndex jarIndex = fileUtil.getJarIndex();
+    assertEquals(1, jarIndex.missCount());
+    assertEquals(2, jarIndex.hitCount());
+    jarIndex.close();
+  }
+
+  // Verify that a jar that changed on disk is reopened, and the old one can be closed.
+  public void testJarIndexClosesReplacedJars() throws IOException {
+    File file = new File(tempDir, "example.jar");
+    Files.copy(new File(getResourceAsFile("example.jar")), file);
+    JarIndex jarIndex = new JarIndex();
+    assertTrue(jarIndex.contains(file.getPath(), "com/google/test/package-info.java"));
+    assertTrue(file.setLastModified(file.lastModified() - 10000L));
+    assertTrue(jarIndex.contains(file.getPath(), "com/google/test/package-info.java"));
+    assertEquals(2, jarIndex.missCount());
+    assertEquals(1, jarIndex.replacedJarCount());
+    jarIndex.closeReplacedJars();
+    assertEquals(0, jarIndex.replacedJarCount());
+    assertTrue(jarIndex.contains(file.getPath(), "com/google/test/package-info.java"));
+    assertEquals(1, jarIndex.hitCount());
+    jarIndex.close();
+  }
+
+  // Verify that unchanged outputs are only skipped when requested.
+  public void testWriteOutputFileSkipsUnchanged() throws IOException {
+    File file = new File(tempDir, "out/Test.h");
+    byte[] contents = "@interface Test\n".getBytes(UTF_8);
+    FileUtil fileUtil = new FileUtil();
+    assertTrue(fileUtil.writeOutputFile(file, contents));
+    assertTrue(fileUtil.writeOutputFile(file, contents));
+
+    fileUtil.setSkipUnchangedOutputs(true);
+    assertTrue(file.setLastModified(1000L));
+    assertFalse(fileUtil.writeOutputFile(file, contents));
+    assertEquals(1000L, file.lastModified());
+    assertTrue(fileUtil.writeOutputFile(file, "@interface Test2\n".getBytes(UTF_8)));
+    assertEquals("@interface Test2\n", Files.asCharSource(file, UTF_8).read());
+    assertEquals(3, fileUtil.writtenOutputCount());
+    assertEquals(1, fileUtil.unchangedOutputCount());
+    // No temporary files are left behind.
+    assertEquals(1, file.getParentFile().list().length);
+  }
+
   // Verify that a classes.jar file is extracted from an Android AAR file.
   public void testExtractClassesJarFromAarFile() throws IOException {
     File aarFile = new File(getResourceAsFile("hello.aar"));
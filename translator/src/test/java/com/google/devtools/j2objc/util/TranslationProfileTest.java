@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.io.Files;
+import com.google.devtools.j2objc.GenerationTest;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Tests for {@link TranslationProfile}.
+ */
+public class TranslationProfileTest extends GenerationTest {
+
+  public void testProfilesPassesAndStages() throws IOException {
+    File profileFile = new File(tempDir, "profile.json");
+    options.setProfileFile(profileFile);
+    String path = addSourceFile(
+        "class Test { Integer box(int i) { return i; } }", "Test.java");
+    runPipeline(path);
+
+    List<TranslationProfile.PassSummary> summaries =
+        options.translationProfile().getPassSummaries();
+    TranslationProfile.PassSummary autoboxer = null;
+    boolean hasAnalyze = false;
+    for (TranslationProfile.PassSummary summary : summaries) {
+      if (summary.name.equals("Autoboxer")) {
+        autoboxer = summary;
+      } else if (summary.name.equals("javac analyze")) {
+        hasAnalyze = true;
+        assertEquals(TranslationProfile.STAGE, summary.category);
+      }
+    }
+    assertTrue(hasAnalyze);
+    assertNotNull(autoboxer);
+    assertEquals(TranslationProfile.PASS, autoboxer.category);
+    assertEquals(1, autoboxer.count);
+    assertTrue(autoboxer.slowestUnit.endsWith("Test.java"));
+    // Boxing the return value adds a method invocation.
+    assertTrue(autoboxer.nodesAfter > autoboxer.nodesBefore);
+
+    String profile = Files.asCharSource(profileFile, UTF_8).read();
+    assertTrue(profile.startsWith("{\"displayTimeUnit\":\"ms\","));
+    assertTrue(profile.contains("{\"name\":\"Autoboxer\",\"cat\":\"pass\",\"ph\":\"X\","));
+    assertTrue(profile.contains("\"passes\":["));
+    assertTrue(profile.contains("\"slowestUnits\":["));
+  }
+
+  public void testRecordsCounters() throws IOException {
+    File profileFile = new File(tempDir, "profile.json");
+    options.setProfileFile(profileFile);
+    addSourceFile("class A { static int i = 1; }", "A.java");
+    String path = addSourceFile(
+        "class Test { int test() { int a = A.i; return a + A.i; } }", "Test.java");
+    runPipeline(path);
+
+    TranslationProfile translationProfile = options.translationProfile();
+    assertEquals(2, translationProfile.getCount("StaticVarRewriter.classInitChecks"));
+    assertEquals(1, translationProfile.getCount("StaticVarRewriter.classInitChecksRemoved"));
+    String profile = Files.asCharSource(profileFile, UTF_8).read();
+    assertTrue(profile.contains("\"counters\":{"));
+    assertTrue(profile.contains(
+        "\"StaticVarRewriter.classInitChecks\":2,\"StaticVarRewriter.classInitChecksRemoved\":1"));
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.treeshaker;
+
+import static com.google.devtools.treeshaker.UsedCodeMarker.CLASS_INITIALIZER_NAME;
+import static com.google.devtools.treeshaker.UsedCodeMarker.INITIALIZER_NAME;
+import static com.google.devtools.treeshaker.UsedCodeMarker.SIGNATURE_PREFIX;
+
+import com.google.common.collect.ImmutableList;
+import com.google.devtools.j2objc.util.CodeReferenceMap;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures rapid type analysis of a synthetic program. Its types form a tree of subclasses whose
+ * instance methods override their superclass's, and every member calls members of random types.
+ * The analysis marks the type graph, so each invocation analyses a newly built graph.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RapidTypeAnalyserBenchmark {
+
+  private static final int INSTANCE_METHODS = 40;
+  private static final int STATIC_METHODS = 8;
+  private static final int INVOCATIONS_PER_MEMBER = 3;
+
+  // The class and instance initializers come first, then the instance and static methods.
+  private static final String[] MEMBER_NAMES = new String[INSTANCE_METHODS + STATIC_METHODS + 2];
+
+  static {
+    MEMBER_NAMES[0] = CLASS_INITIALIZER_NAME;
+    MEMBER_NAMES[1] = INITIALIZER_NAME;
+    for (int i = 0; i < INSTANCE_METHODS; i++) {
+      MEMBER_NAMES[2 + i] = "m" + i + SIGNATURE_PREFIX + "()V";
+    }
+    for (int i = 0; i < STATIC_METHODS; i++) {
+      MEMBER_NAMES[2 + INSTANCE_METHODS + i] = "s" + i + SIGNATURE_PREFIX + "()V";
+    }
+  }
+
+  @Param({"100000", "1000000"})
+  public int memberCount;
+
+  private LibraryInfo libraryInfo;
+  private Collection<Type> types;
+
+  @Setup(Level.Trial)
+  public void createLibrary() {
+    libraryInfo = createLibrary(memberCount / MEMBER_NAMES.length, new Random(42));
+  }
+
+  @Setup(Level.Invocation)
+  public void buildTypeGraph() {
+    types = new TypeGraphBuilder(ImmutableList.of(libraryInfo)).getTypes();
+  }
+
+  @Benchmark
+  public CodeReferenceMap analyse() {
+    return RapidTypeAnalyser.analyse(types);
+  }
+
+  /**
+   * Returns a library of types numbered from 1, where type 0 is java.lang.Object. Type n extends
+   * type n / 4, and only type 1 is exported.
+   */
+  private static LibraryInfo createLibrary(int typeCount, Random random) {
+    LibraryInfo.Builder library = LibraryInfo.newBuilder().addTypeMap("java.lang.Object");
+    for (int id = 1; id <= typeCount; id++) {
+      library.addTypeMap("bench.Type" + id);
+    }
+    for (int id = 1; id <= typeCount; id++) {
+      int superClass = id / 4;
+      TypeInfo.Builder type = TypeInfo.newBuilder()
+          .setTypeId(id)
+          .setExtendsType(superClass)
+          .setExported(id == 1);
+      for (int i = 0; i < MEMBER_NAMES.length; i++) {
+        String name = MEMBER_NAMES[i];
+        MemberInfo.Builder member = MemberInfo.newBuilder()
+            .setName(name)
+            .setStatic(i == 0 || i >= 2 + INSTANCE_METHODS)
+            .setConstructor(i == 1)
+            .addReferencedTypes(1 + random.nextInt(typeCount));
+        if (i >= 2 && i < 2 + INSTANCE_METHODS) {
+          member.setOriginalType(superClass).setOriginalMethodName(name);
+        }
+        for (int j = 0; j < INVOCATIONS_PER_MEMBER; j++) {
+          // Class initializers aren't invoked directly.
+          member.addInvokedMethods(MethodInvocation.newBuilder()
+              .setEnclosingType(1 + random.nextInt(typeCount))
+              .setMethod(MEMBER_NAMES[1 + random.nextInt(MEMBER_NAMES.length - 1)]));
+        }
+        type.addMember(member);
+      }
+      library.addType(type);
+    }
+    return library.build();
+  }
+}
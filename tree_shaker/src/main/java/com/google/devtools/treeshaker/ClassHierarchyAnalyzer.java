@@ -17,12 +17,9 @@ package com.google.devtools.treeshaker;
 import static com.google.devtools.treeshaker.UsedCodeMarker.CLASS_INITIALIZER_NAME;
 import static com.google.devtools.treeshaker.UsedCodeMarker.INITIALIZER_NAME;
 import static com.google.devtools.treeshaker.UsedCodeMarker.PSEUDO_CONSTRUCTOR_PREFIX;
-import static com.google.devtools.treeshaker.UsedCodeMarker.SIGNATURE_PREFIX;
 
-import com.google.common.base.Splitter;
 import com.google.devtools.j2objc.util.CodeReferenceMap;
 import java.util.Collection;
-import java.util.List;
 
 final class ClassHierarchyAnalyzer {
   static CodeReferenceMap analyze(Collection<Type> types) {
@@ -42,23 +39,23 @@ final class ClassHierarchyAnalyzer {
             String method = member.getName();
             if (method.startsWith(PSEUDO_CONSTRUCTOR_PREFIX)) {
               // skip interface pseudo-constructors
+              Field.keepReferencedFields(member);
               continue;
             }
-            List<String> components =
-                Splitter.onPattern(SIGNATURE_PREFIX).splitToList(method);
             // TODO(dpo): add better checking for name & signature components.
-            if (components.isEmpty() || components.size() != 2) {
+            if (member.getDescriptor() == null) {
+              Field.keepReferencedFields(member);
               continue;
             }
-            String name = components.get(0);
-            String sig = components.get(1);
-            unusedBuilder.addMethod(type.getName(), name, sig);
+            unusedBuilder.addMethod(type.getName(), member.getMethodName(), member.getDescriptor());
           }
         }
       } else {
         unusedBuilder.addClass(type.getName());
       }
     }
+    // Reported after all members, since an unreported member in any type keeps its fields.
+    Field.addUnusedFields(types, unusedBuilder);
     return unusedBuilder.build();
   }
 
@@ -79,6 +76,7 @@ final class ClassHierarchyAnalyzer {
     member.markLive();
     member.getReferencedMembers().forEach(ClassHierarchyAnalyzer::onMemberReference);
     member.getReferencedTypes().forEach(ClassHierarchyAnalyzer::markTypeLive);
+    Field.keepReferencedFields(member);
   }
 
   private static void traversePolymorphicReference(Type type, String memberName) {
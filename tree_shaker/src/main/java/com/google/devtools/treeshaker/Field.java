@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.devtools.treeshaker;
+
+import com.google.common.collect.Interner;
+import com.google.devtools.j2objc.util.CodeReferenceMap;
+import java.util.Collection;
+
+final class Field {
+  static Field buildFrom(FieldInfo fieldInfo, Type declaringType, Interner<String> interner) {
+    return new Field(interner.intern(fieldInfo.getName()), declaringType, fieldInfo.getExported());
+  }
+
+  /** Adds the fields of live types that no live member references. */
+  static void addUnusedFields(Collection<Type> types, CodeReferenceMap.Builder unusedBuilder) {
+    for (Type type : types) {
+      if (type.isLive()) {
+        for (Field field : type.getFields()) {
+          if (!field.isLive() && !field.isExported()) {
+            unusedBuilder.addField(type.getName(), field.getName());
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Marks the fields that a member reads or writes as live. Written fields are kept even if
+   * nothing reads them, since removing one would also mean removing its assignments.
+   */
+  static void keepReferencedFields(Member member) {
+    member.getReadFields().forEach(Field::markLive);
+    member.getWrittenFields().forEach(Field::markLive);
+  }
+
+  private final String name;
+  private final Type declaringType;
+  private final boolean isExported;
+  private boolean live;
+
+  private Field(String name, Type declaringType, boolean isExported) {
+    this.name = name;
+    this.declaringType = declaringType;
+    this.isExported = isExported;
+  }
+
+  String getName() {
+    return name;
+  }
+
+  Type getDeclaringType() {
+    return declaringType;
+  }
+
+  boolean isExported() {
+    return isExported;
+  }
+
+  boolean isLive() {
+    return live;
+  }
+
+  void markLive() {
+    this.live = true;
+  }
+}
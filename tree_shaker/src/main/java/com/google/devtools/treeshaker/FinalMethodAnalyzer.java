@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.treeshaker;
+
+import static com.google.devtools.treeshaker.UsedCodeMarker.INITIALIZER_NAME;
+import static com.google.devtools.treeshaker.UsedCodeMarker.PSEUDO_CONSTRUCTOR_PREFIX;
+
+import com.google.devtools.j2objc.util.CodeReferenceMap;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Finds the live instance methods that no live or instantiated subtype overrides, once the
+ * program's live code has been marked. Calls to these methods have a single possible target, so
+ * the translator can call their implementing functions directly instead of sending a message.
+ */
+final class FinalMethodAnalyzer {
+
+  static CodeReferenceMap analyze(Collection<Type> types) {
+    CodeReferenceMap.Builder finalBuilder = CodeReferenceMap.builder();
+    for (Type type : types) {
+      // Exported types are API roots, which code outside the program may subclass.
+      if (!type.isLive() || type.isExported()) {
+        continue;
+      }
+      Set<String> overridden = null;
+      for (Member member : type.getMembers()) {
+        if (!member.isLive() || !member.isPolymorphic() || member.isExported()
+            || member.hasUsedByNativeOrReflectionAnnotation()
+            || member.getName().equals(INITIALIZER_NAME)
+            || member.getName().startsWith(PSEUDO_CONSTRUCTOR_PREFIX)) {
+          continue;
+        }
+        if (member.getDescriptor() == null) {
+          continue;
+        }
+        if (overridden == null) {
+          overridden = findOverriddenNames(type);
+        }
+        String name = member.getMethodName();
+        if (!overridden.contains(name)) {
+          finalBuilder.addMethod(type.getName(), name, member.getDescriptor());
+        }
+      }
+    }
+    return finalBuilder.build();
+  }
+
+  /**
+   * Returns the names of the methods declared by subtypes that may run in place of an inherited
+   * method. Overrides are matched by name only, since an override of a generic method can have a
+   * different erased signature than the method it overrides.
+   */
+  private static Set<String> findOverriddenNames(Type type) {
+    Set<String> names = new HashSet<>();
+    Set<Type> visited = new HashSet<>();
+    Deque<Type> worklist = new ArrayDeque<>(type.getImmediateSubtypes());
+    while (!worklist.isEmpty()) {
+      Type subtype = worklist.remove();
+      if (!visited.add(subtype)) {
+        continue;
+      }
+      for (Member member : subtype.getMembers()) {
+        if (member.isPolymorphic() && (member.isLive() || subtype.isInstantiated())) {
+          names.add(member.getMethodName());
+        }
+      }
+      worklist.addAll(subtype.getImmediateSubtypes());
+    }
+    return names;
+  }
+
+  private FinalMethodAnalyzer() {}
+}
@@ -13,12 +13,16 @@
  */
 package com.google.devtools.treeshaker;
 
+import static com.google.devtools.treeshaker.UsedCodeMarker.SIGNATURE_PREFIX;
+
+import com.google.common.collect.Interner;
 import java.util.ArrayList;
 import java.util.List;
 
 final class Member {
-  static Member buildFrom(MemberInfo memberInfo, Type declaringType) {
+  static Member buildFrom(MemberInfo memberInfo, Type declaringType, Interner<String> interner) {
     return new Member(
+        interner,
         memberInfo.getName(),
         declaringType,
         memberInfo.getStatic(),
@@ -38,17 +42,20 @@ final class Member {
   private boolean live;
   private final List<Type> referencedTypes = new ArrayList<>();
   private final List<Member> referencedMembers = new ArrayList<>();
+  private final List<Field> readFields = new ArrayList<>();
+  private final List<Field> writtenFields = new ArrayList<>();
   private Member originalMember;
   private final Annotations annotations;
 
-  private Member(String name, Type declaringType, boolean isStatic, boolean isConstructor,
-      boolean isExported, Annotations annotations) {
-    this.name = name;
+  private Member(Interner<String> interner, String name, Type declaringType, boolean isStatic,
+      boolean isConstructor, boolean isExported, Annotations annotations) {
+    // Members of different types often share names, such as overrides and initializers.
+    this.name = interner.intern(name);
     this.declaringType = declaringType;
     this.isStatic = isStatic;
     this.isConstructor = isConstructor;
     this.isExported = isExported;
-    this.signature = name.substring(0, name.lastIndexOf(')') + 1);
+    this.signature = interner.intern(name.substring(0, name.lastIndexOf(')') + 1));
     this.annotations = annotations;
   }
 
@@ -68,6 +75,23 @@ final class Member {
     return signature;
   }
 
+  // Returns the name part of a "name##descriptor" member name, or the whole name for other names.
+  // The parts are only needed for the members that are reported, so they aren't stored.
+  String getMethodName() {
+    int prefix = name.indexOf(SIGNATURE_PREFIX);
+    return prefix == -1 ? name : name.substring(0, prefix);
+  }
+
+  // Returns the descriptor part of a "name##descriptor" member name, or null for other names.
+  String getDescriptor() {
+    int prefix = name.indexOf(SIGNATURE_PREFIX);
+    if (prefix == -1) {
+      return null;
+    }
+    String descriptor = name.substring(prefix + SIGNATURE_PREFIX.length());
+    return descriptor.contains(SIGNATURE_PREFIX) ? null : descriptor;
+  }
+
   public boolean isConstructor() {
     return isConstructor;
   }
@@ -108,6 +132,22 @@ final class Member {
     referencedMembers.add(referencedMember);
   }
 
+  List<Field> getReadFields() {
+    return readFields;
+  }
+
+  void addReadField(Field field) {
+    readFields.add(field);
+  }
+
+  List<Field> getWrittenFields() {
+    return writtenFields;
+  }
+
+  void addWrittenField(Field field) {
+    writtenFields.add(field);
+  }
+
   Member getOriginalMember() {
     return originalMember;
   }
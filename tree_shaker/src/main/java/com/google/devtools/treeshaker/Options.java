@@ -71,9 +71,13 @@ class Options {
   private boolean stripReflection = false;
   private File treeShakerRoots;
   private File outputFile = new File("tree-shaker-report.txt");
+  private File finalMethodsOutputFile;
   private LibraryInfo summary;
   private String summaryOutputFile;
   private List<LibraryInfo> summaries = Lists.newArrayList();
+  private File summaryCache;
+  private long maxPartitionBytes = 0;
+  private int threads = 1;
 
   // The default source version number if not passed with -source is determined from the system
   // properties of the running java version after parsing the argument list.
@@ -157,6 +161,41 @@ class Options {
     this.summaries = summaries;
   }
 
+  public File getSummaryCache() {
+    return summaryCache;
+  }
+
+  public void setSummaryCache(File summaryCache) {
+    this.summaryCache = summaryCache;
+  }
+
+  // The estimated memory limit of each partition of the sources, or 0 to parse them together.
+  public long maxPartitionBytes() {
+    return maxPartitionBytes;
+  }
+
+  @VisibleForTesting
+  void setMaxPartitionBytes(long maxPartitionBytes) {
+    this.maxPartitionBytes = maxPartitionBytes;
+  }
+
+  public int threads() {
+    return threads;
+  }
+
+  @VisibleForTesting
+  void setThreads(int threads) {
+    this.threads = threads;
+  }
+
+  public File getFinalMethodsOutputFile() {
+    return finalMethodsOutputFile;
+  }
+
+  public void setFinalMethodsOutputFile(File finalMethodsOutputFile) {
+    this.finalMethodsOutputFile = finalMethodsOutputFile;
+  }
+
   public void addSummary(LibraryInfo summary) {
     this.summaries.add(summary);
   }
@@ -280,6 +319,35 @@ class Options {
         options.setSummary(
             LibraryInfo.parseFrom(
                 Files.toByteArray(new File(args[nArg])), ExtensionRegistry.getEmptyRegistry()));
+      } else if (arg.equals("--summary-cache")) {
+        if (++nArg == args.length) {
+          usage("--summary-cache requires an argument");
+        }
+        options.summaryCache = new File(args[nArg]);
+      } else if (arg.equals("--partition-memory")) {
+        if (++nArg == args.length) {
+          usage("--partition-memory requires an argument");
+        }
+        try {
+          options.maxPartitionBytes = Integer.parseInt(args[nArg]) * 1024L * 1024L;
+        } catch (NumberFormatException e) {
+          usage("invalid --partition-memory argument: " + args[nArg]);
+        }
+        if (options.maxPartitionBytes < 0) {
+          usage("invalid --partition-memory argument: " + args[nArg]);
+        }
+      } else if (arg.equals("-j")) {
+        if (++nArg == args.length) {
+          usage("-j requires an argument");
+        }
+        try {
+          options.threads = Integer.parseInt(args[nArg]);
+        } catch (NumberFormatException e) {
+          usage("invalid -j argument: " + args[nArg]);
+        }
+        if (options.threads < 1) {
+          usage("invalid -j argument: " + args[nArg]);
+        }
       } else if (arg.equals("--sourcefilelist") || arg.equals("-s")) {
         if (++nArg == args.length) {
           usage("--sourcefilelist requires an argument");
@@ -295,6 +363,11 @@ class Options {
           usage("--output-file");
         }
         options.outputFile = new File(args[nArg]);
+      } else if (arg.equals("--output-final-methods")) {
+        if (++nArg == args.length) {
+          usage("--output-final-methods");
+        }
+        options.finalMethodsOutputFile = new File(args[nArg]);
       } else if (arg.equals("--output-summary")) {
         if (++nArg == args.length) {
           usage("--output-summary");
@@ -17,27 +17,35 @@ package com.google.devtools.treeshaker;
 import static com.google.devtools.treeshaker.UsedCodeMarker.CLASS_INITIALIZER_NAME;
 import static com.google.devtools.treeshaker.UsedCodeMarker.INITIALIZER_NAME;
 import static com.google.devtools.treeshaker.UsedCodeMarker.PSEUDO_CONSTRUCTOR_PREFIX;
-import static com.google.devtools.treeshaker.UsedCodeMarker.SIGNATURE_PREFIX;
 
-import com.google.common.base.Splitter;
 import com.google.common.flogger.GoogleLogger;
 import com.google.devtools.j2objc.util.CodeReferenceMap;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
-import java.util.Optional;
 
 final class RapidTypeAnalyser {
   private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
 
+  // Marked members and types whose references haven't been visited yet.
+  private final Deque<Member> liveMembers = new ArrayDeque<>();
+  private final Deque<Type> liveTypes = new ArrayDeque<>();
+  private final Deque<Type> instantiatedTypes = new ArrayDeque<>();
+  // Reused by each polymorphic reference; it is empty between traversals.
+  private final Deque<Type> subtypes = new ArrayDeque<>();
+
   static CodeReferenceMap analyse(Collection<Type> types) {
-    types.stream().filter(Type::isExported).forEach(RapidTypeAnalyser::markTypeLive);
+    RapidTypeAnalyser analyser = new RapidTypeAnalyser();
+    types.stream().filter(Type::isExported).forEach(analyser::markTypeLive);
 
     // Go over the entry points to start the traversal.
     types.stream()
         .flatMap(t -> t.getMembers().stream())
         .filter(Member::isExported)
-        .forEach(m -> onMemberReference(m));
+        .forEach(analyser::onMemberReference);
+    analyser.propagate();
 
     CodeReferenceMap.Builder unusedBuilder = CodeReferenceMap.builder();
     List<String> uninstantiated = new ArrayList<>();
@@ -53,17 +61,15 @@ final class RapidTypeAnalyser {
             if (!type.isInstantiated() && method.equals(INITIALIZER_NAME)) {
               // skip unused initializers for uninstantiated types
               // TODO(dpo): investigate how best to remove initializers for uninstantiated classes.
+              Field.keepReferencedFields(member);
               continue;
             }
-            List<String> components =
-                Splitter.onPattern(SIGNATURE_PREFIX).splitToList(method);
             // TODO(dpo): add better checking for name & signature components.
-            if (components.isEmpty() || components.size() != 2) {
+            if (member.getDescriptor() == null) {
+              Field.keepReferencedFields(member);
               continue;
             }
-            String name = components.get(0);
-            String sig = components.get(1);
-            unusedBuilder.addMethod(type.getName(), name, sig);
+            unusedBuilder.addMethod(type.getName(), member.getMethodName(), member.getDescriptor());
           }
         }
         if (!type.isInstantiated()) {
@@ -78,13 +84,15 @@ final class RapidTypeAnalyser {
         unusedBuilder.addClass(type.getName());
       }
     }
+    // Reported after all members, since an unreported member in any type keeps its fields.
+    Field.addUnusedFields(types, unusedBuilder);
     if (!uninstantiated.isEmpty()) {
       logger.atFine().log("Uninstantiated Members: %s", String.join(", ", uninstantiated));
     }
     return unusedBuilder.build();
   }
 
-  private static void onMemberReference(Member member) {
+  private void onMemberReference(Member member) {
     if (member.isPolymorphic()) {
       traversePolymorphicReference(member.getDeclaringType(), member.getSignature());
     } else {
@@ -93,64 +101,83 @@ final class RapidTypeAnalyser {
     markMemberLive(member);
   }
 
-  private static void markMemberLive(Member member) {
+  /**
+   * Drains the worklists. Marking a member or type only sets its flag and queues it; its
+   * references are visited here, so the depth of the call graph doesn't affect the stack depth.
+   */
+  private void propagate() {
+    while (!liveMembers.isEmpty() || !liveTypes.isEmpty() || !instantiatedTypes.isEmpty()) {
+      while (!liveMembers.isEmpty()) {
+        visitLiveMember(liveMembers.remove());
+      }
+      while (!liveTypes.isEmpty()) {
+        visitLiveType(liveTypes.remove());
+      }
+      while (!instantiatedTypes.isEmpty()) {
+        visitInstantiatedType(instantiatedTypes.remove());
+      }
+    }
+  }
+
+  private void markMemberLive(Member member) {
     if (member.isLive()) {
       return;
     }
-
     member.markLive();
+    liveMembers.add(member);
+  }
+
+  private void visitLiveMember(Member member) {
     if (member.isConstructor()) {
       markInstantiated(member.getDeclaringType());
     }
-    member.getReferencedMembers().forEach(RapidTypeAnalyser::onMemberReference);
-    member.getReferencedTypes().forEach(RapidTypeAnalyser::markTypeLive);
+    member.getReferencedMembers().forEach(this::onMemberReference);
+    member.getReferencedTypes().forEach(this::markTypeLive);
+    Field.keepReferencedFields(member);
   }
 
-  private static void markInstantiated(Type type) {
+  private void markInstantiated(Type type) {
     if (type.isInstantiated()) {
       return;
     }
-
     type.instantiate();
+    instantiatedTypes.add(type);
+  }
+
+  private void visitInstantiatedType(Type type) {
     markMemberLive(type.getMemberByName(INITIALIZER_NAME));
-    type.getPotentiallyLiveMembers().forEach(RapidTypeAnalyser::markMemberLive);
-    for (Type iface : type.getSuperInterfaces()) {
-      markInstantiated(iface);
-    }
+    // Members deferred before the type was instantiated; later ones are marked live directly.
+    type.getPotentiallyLiveMembers().forEach(this::markMemberLive);
+    type.getSuperInterfaces().forEach(this::markInstantiated);
   }
 
-  private static void traversePolymorphicReference(Type type, String memberSignature) {
-    Member member = type.getMemberBySignature(memberSignature);
-    if (member == null) {
-      // If no member found, check for a member which original member matches the signature.
-      Optional<Member> matchingMember =
-          type.getMembers().stream()
-              .filter(
-                  candidate ->
-                      candidate.getOriginalMember() != null
-                          && memberSignature.equals(candidate.getOriginalMember().getSignature()))
-              .findFirst();
-      if (matchingMember.isPresent()) {
-        member = matchingMember.get();
+  private void traversePolymorphicReference(Type root, String memberSignature) {
+    Deque<Type> worklist = subtypes;
+    worklist.push(root);
+    while (!worklist.isEmpty()) {
+      Type type = worklist.pop();
+      Member member = type.getMemberBySignature(memberSignature);
+      if (member == null) {
+        // If no member found, check for a member which original member matches the signature.
+        member = type.getMemberByOriginalSignature(memberSignature);
       }
-    }
-    if (member == null) {
-      // No member found in this class. In this case we need to mark the supertype method as
-      // potentially live since it might be an accidental override.
-      markOverriddenMembersPotentiallyLive(type, memberSignature);
-    } else if (member.isPolymorphic()) {
-      if (member.isFullyTraversed()) {
-        return;
+      if (member == null) {
+        // No member found in this class. In this case we need to mark the supertype method as
+        // potentially live since it might be an accidental override.
+        markOverriddenMembersPotentiallyLive(type, memberSignature);
+      } else if (member.isPolymorphic()) {
+        if (member.isFullyTraversed()) {
+          continue;
+        }
+        member.markFullyTraversed();
+        markMemberPotentiallyLive(member);
       }
-      member.markFullyTraversed();
-      markMemberPotentiallyLive(member);
+      // Unfold the overriding chain.
+      type.getImmediateSubtypes().forEach(worklist::push);
     }
-    // Recursively unfold the overriding chain.
-    type.getImmediateSubtypes()
-        .forEach(subtype -> traversePolymorphicReference(subtype, memberSignature));
   }
 
-  private static void markOverriddenMembersPotentiallyLive(Type type, String memberSignature) {
+  private void markOverriddenMembersPotentiallyLive(Type type, String memberSignature) {
     while ((type = type.getSuperClass()) != null) {
       Member member = type.getMemberBySignature(memberSignature);
       if (member != null && member.isPolymorphic()) {
@@ -160,7 +187,7 @@ final class RapidTypeAnalyser {
     }
   }
 
-  private static void markMemberPotentiallyLive(Member member) {
+  private void markMemberPotentiallyLive(Member member) {
     Type declaringType = member.getDeclaringType();
     if (declaringType.isInstantiated()) {
       markMemberLive(member);
@@ -170,34 +197,36 @@ final class RapidTypeAnalyser {
     }
   }
 
-  private static void markTypeLive(Type type) {
+  private void markTypeLive(Type type) {
     if (type.isLive()) {
       return;
     }
-
     type.markLive();
+    liveTypes.add(type);
+  }
+
+  private void visitLiveType(Type type) {
     markMemberLive(type.getMemberByName(CLASS_INITIALIZER_NAME));
 
-    // TODO(tball): remove when dead fields are reported (b/225384453).
+    // Marked even if the type is never instantiated. The instance initializer isn't a method the
+    // translator can remove: its blocks and the initializers of the remaining fields are inlined
+    // into every constructor left in the translation, so what it references has to stay live.
     markMemberLive(type.getMemberByName(INITIALIZER_NAME));
 
-    type.getMembers()
-        .forEach(
-            member -> {
-              // Mark members where the original method is from an external type. Mark members
-              // that have the UsedByNative or UsedByReflection annotations if the type is used.
-              if (member.getOriginalMember() == null
-                  || member.hasUsedByNativeOrReflectionAnnotation()) {
-                markMemberLive(member);
-              }
-            });
+    for (Member member : type.getMembers()) {
+      // Mark members where the original method is from an external type. Mark members
+      // that have the UsedByNative or UsedByReflection annotations if the type is used.
+      if (member.getOriginalMember() == null || member.hasUsedByNativeOrReflectionAnnotation()) {
+        markMemberLive(member);
+      }
+    }
 
     if (type.getSuperClass() != null) {
       markTypeLive(type.getSuperClass());
     }
     // When a type is marked as live, we need to explicitly mark the super interfaces as live since
     // we need markImplementor call (which are not tracked in AST).
-    type.getSuperInterfaces().forEach(RapidTypeAnalyser::markTypeLive);
+    type.getSuperInterfaces().forEach(this::markTypeLive);
   }
 
   private RapidTypeAnalyser() {}
@@ -0,0 +1,224 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.treeshaker;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.protobuf.ExtensionRegistry;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A directory of source file summaries, so that a run only parses the files that changed since
+ * the last one. A file's summary is reused while the file, and the other input files that declare
+ * the types it references directly or through their own references, are unchanged. Supertypes
+ * are referenced, so a change anywhere in a type's hierarchy is found. Options and class files
+ * that affect summaries are part of the options key.
+ */
+final class SummaryCache {
+  private final File dir;
+  private final String optionsKey;
+
+  // Source hashes of the input files, by path, in the order they were given.
+  private final Map<String, String> sourceHashes = new LinkedHashMap<>();
+  // Reused and new summaries, by path.
+  private final Map<String, CachedSummary> entries = new HashMap<>();
+  private final Set<String> newPaths = new HashSet<>();
+
+  /**
+   * @param dir the cache directory
+   * @param optionsKey describes the options that affect summaries, so that they aren't reused
+   *     by runs with different options
+   */
+  SummaryCache(File dir, String optionsKey) {
+    this.dir = dir;
+    this.optionsKey = optionsKey;
+  }
+
+  /** Hashes the input files, and returns the ones that need to be parsed. */
+  List<String> findStaleFiles(List<String> paths) throws IOException {
+    for (String path : paths) {
+      sourceHashes.put(path, Hashing.sha256().newHasher()
+          .putString(optionsKey, UTF_8)
+          .putBytes(Files.toByteArray(new File(path)))
+          .hash()
+          .toString());
+    }
+    List<String> staleFiles = new ArrayList<>();
+    for (String path : paths) {
+      CachedSummary entry = read(path);
+      if (entry != null && isCurrent(path, entry)) {
+        entries.put(path, entry);
+      } else {
+        staleFiles.add(path);
+      }
+    }
+    return staleFiles;
+  }
+
+  private boolean isCurrent(String path, CachedSummary entry) {
+    if (!entry.getSourceHash().equals(sourceHashes.get(path))) {
+      return false;
+    }
+    for (Map.Entry<String, String> dependency : entry.getDependencyHashesMap().entrySet()) {
+      if (!dependency.getValue().equals(sourceHashes.get(dependency.getKey()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Removes the reused summaries of files that declare more than one top-level type, and returns
+   * those files. javac only finds a type on the sourcepath in a file named after it, so a copy of
+   * such a file can't resolve its other types; it has to be parsed with the stale files instead.
+   */
+  List<String> removeFilesWithSecondaryTypes() {
+    List<String> paths = new ArrayList<>();
+    for (String path : sourceHashes.keySet()) {
+      CachedSummary entry = entries.get(path);
+      if (entry != null && countTopLevelTypes(entry) > 1) {
+        paths.add(path);
+      }
+    }
+    paths.forEach(entries::remove);
+    return paths;
+  }
+
+  private static int countTopLevelTypes(CachedSummary entry) {
+    Set<Integer> innerTypes = new HashSet<>();
+    for (TypeInfo type : entry.getSummary().getTypeList()) {
+      innerTypes.addAll(type.getInnerTypesList());
+    }
+    int count = 0;
+    for (TypeInfo type : entry.getSummary().getTypeList()) {
+      if (!innerTypes.contains(type.getTypeId())) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Copies the files with reused summaries to a new directory, at the paths javac expects for
+   * their main types. With the directory on the sourcepath, the stale files can be parsed on
+   * their own.
+   */
+  File copyCurrentSources() throws IOException {
+    File sourceDir = Files.createTempDir();
+    for (Map.Entry<String, CachedSummary> entry : entries.entrySet()) {
+      String relativePath =
+          entry.getValue().getMainType().replace('.', File.separatorChar) + ".java";
+      File copy = new File(sourceDir, relativePath);
+      Files.createParentDirs(copy);
+      Files.copy(new File(entry.getKey()), copy);
+    }
+    return sourceDir;
+  }
+
+  void put(String path, String mainType, LibraryInfo summary) {
+    entries.put(path, CachedSummary.newBuilder()
+        .setSourceHash(sourceHashes.get(path))
+        .setMainType(mainType)
+        .setSummary(summary)
+        .build());
+    newPaths.add(path);
+  }
+
+  /**
+   * Records the dependencies of the new summaries, and writes them to the cache directory. A
+   * summary depends on every input file it reaches through type references, since overrides and
+   * resolved methods can come from any of a referenced type's supertypes.
+   */
+  void write() throws IOException {
+    Map<String, String> pathsByType = new HashMap<>();
+    for (Map.Entry<String, CachedSummary> entry : entries.entrySet()) {
+      LibraryInfo summary = entry.getValue().getSummary();
+      for (TypeInfo type : summary.getTypeList()) {
+        pathsByType.put(summary.getTypeMap(type.getTypeId()), entry.getKey());
+      }
+    }
+    dir.mkdirs();
+    for (String path : newPaths) {
+      CachedSummary.Builder entry = entries.get(path).toBuilder();
+      for (String dependency : findDependencies(path, pathsByType)) {
+        entry.putDependencyHashes(dependency, sourceHashes.get(dependency));
+      }
+      Files.write(entry.build().toByteArray(), getCacheFile(path));
+    }
+  }
+
+  private Set<String> findDependencies(String path, Map<String, String> pathsByType) {
+    Set<String> dependencies = new HashSet<>();
+    Deque<String> worklist = new ArrayDeque<>();
+    worklist.add(path);
+    while (!worklist.isEmpty()) {
+      CachedSummary entry = entries.get(worklist.remove());
+      if (entry == null) {
+        continue;
+      }
+      for (String typeName : entry.getSummary().getTypeMapList()) {
+        String dependency = pathsByType.get(typeName);
+        if (dependency != null && !dependency.equals(path) && dependencies.add(dependency)) {
+          worklist.add(dependency);
+        }
+      }
+    }
+    return dependencies;
+  }
+
+  /** Returns the summaries of the input files, in the order the files were given. */
+  ImmutableList<LibraryInfo> getSummaries() {
+    ImmutableList.Builder<LibraryInfo> summaries = ImmutableList.builder();
+    for (String path : sourceHashes.keySet()) {
+      CachedSummary entry = entries.get(path);
+      // Only the files the parser returned a unit for have summaries.
+      if (entry != null) {
+        summaries.add(entry.getSummary());
+      }
+    }
+    return summaries.build();
+  }
+
+  private CachedSummary read(String path) throws IOException {
+    File file = getCacheFile(path);
+    if (!file.exists()) {
+      return null;
+    }
+    try {
+      return CachedSummary.parseFrom(Files.toByteArray(file), ExtensionRegistry.getEmptyRegistry());
+    } catch (InvalidProtocolBufferException e) {
+      // Treat a damaged entry as missing; it's replaced when the file is parsed.
+      return null;
+    }
+  }
+
+  private File getCacheFile(String path) {
+    return new File(dir, Hashing.sha256().hashString(path, UTF_8) + ".summary");
+  }
+}
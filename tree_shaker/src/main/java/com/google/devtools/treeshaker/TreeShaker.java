@@ -15,23 +15,32 @@
 package com.google.devtools.treeshaker;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Table.Cell;
 import com.google.common.flogger.GoogleLogger;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.TreeUtil;
 import com.google.devtools.j2objc.file.RegularInputFile;
+import com.google.devtools.j2objc.pipeline.BatchPartitioner;
 import com.google.devtools.j2objc.pipeline.GenerationBatch;
+import com.google.devtools.j2objc.pipeline.ProcessingContext;
 import com.google.devtools.j2objc.util.CodeReferenceMap;
 import com.google.devtools.j2objc.util.ErrorUtil;
 import com.google.devtools.j2objc.util.FileUtil;
 import com.google.devtools.j2objc.util.Parser;
 import com.google.devtools.j2objc.util.ProGuardUsageParser;
+import com.google.devtools.j2objc.util.Version;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
@@ -39,7 +48,16 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.jspecify.annotations.Nullable;
@@ -48,8 +66,13 @@ import org.jspecify.annotations.Nullable;
 @SuppressWarnings("FloggerRedundantIsEnabled")
 public class TreeShaker {
   private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+  // The version of the summary format, which is part of each cached summary's key. Increment it
+  // when the summaries that UsedCodeMarker writes change, so older cached summaries aren't read.
+  // 2: fields that are read and written are recorded separately.
+  private static final int SUMMARY_VERSION = 2;
   private final Options options;
   private final com.google.devtools.j2objc.Options j2objcOptions;
+  private Collection<Type> analyzedTypes;
 
   static {
     // Enable assertions in the tree shaker.
@@ -168,24 +191,61 @@ public class TreeShaker {
     if (!unknownMethodReferences.isEmpty()) {
       logger.atWarning().log("Unknown Methods: %s", String.join(", ", unknownMethodReferences));
     }
+    analyzedTypes = tgb.getTypes();
     if (options.useClassHierarchyAnalyzer()) {
-      return ClassHierarchyAnalyzer.analyze(tgb.getTypes());
+      return ClassHierarchyAnalyzer.analyze(analyzedTypes);
     } else {
-      return RapidTypeAnalyser.analyse(tgb.getTypes());
+      return RapidTypeAnalyser.analyse(analyzedTypes);
     }
   }
 
+  /**
+   * Returns the live methods that can be called without dynamic dispatch. Only valid after
+   * {@link #findUnusedCode} has marked the program's live code.
+   */
+  @VisibleForTesting
+  CodeReferenceMap findFinalMethods() {
+    assert analyzedTypes != null : "findUnusedCode() must be called first";
+    return FinalMethodAnalyzer.analyze(analyzedTypes);
+  }
+
+  /** Returns the types of the program, after {@link #findUnusedCode} has analyzed them. */
+  @VisibleForTesting
+  Collection<Type> getAnalyzedTypes() {
+    assert analyzedTypes != null : "findUnusedCode() must be called first";
+    return analyzedTypes;
+  }
+
   private TypeGraphBuilder createTypeGraphBuilder() throws IOException {
+    // The summaries read from files are released once the type graph is built from their marked
+    // copies, so the strings that the graph doesn't intern can be collected.
     if (options.getSummary() != null) {
       LibraryInfo info = options.getSummary();
+      options.setSummary(null);
       LibraryInfo markedInfo = UsedCodeMarker.mark(info, options.getTreeShakerRoots());
       return new TypeGraphBuilder(ImmutableList.of(markedInfo));
     } else if (!options.getSummaries().isEmpty()) {
+    List<LibraryInfo> summaries = options.getSummaries();
+    options.setSummaries(new ArrayList<>());
     ImmutableList<LibraryInfo> markedInfo =
-        options.getSummaries().stream()
+        summaries.stream()
             .map(summary -> UsedCodeMarker.mark(summary, options.getTreeShakerRoots()))
             .collect(toImmutableList());
     return new TypeGraphBuilder(markedInfo);
+    } else if (options.getSummaryCache() != null || options.maxPartitionBytes() > 0) {
+      ImmutableList<LibraryInfo> summaries =
+          options.getSummaryCache() != null
+              ? createCachedLibraryInfos()
+              : createPartitionedLibraryInfos();
+      if (summaries == null) {
+        return null;
+      }
+      CodeReferenceMap rootSet =
+          ProGuardUsageParser.parseDeadCodeFile(options.getTreeShakerRoots());
+      return new TypeGraphBuilder(
+          summaries.stream()
+              .map(summary -> UsedCodeMarker.mark(summary, rootSet))
+              .collect(toImmutableList()));
     } else {
       return new TypeGraphBuilder(ImmutableList.of(createLibraryInfo()));
     }
@@ -221,6 +281,222 @@ public class TreeShaker {
     return context.getLibraryInfo();
   }
 
+  /**
+   * Returns a summary of each source file, only parsing the files whose cached summaries are
+   * missing or out of date. The summaries are unmarked, like the ones read by -summaries.
+   */
+  private @Nullable ImmutableList<LibraryInfo> createCachedLibraryInfos() throws IOException {
+    List<String> sourceFiles = getSourceFiles();
+    if (ErrorUtil.errorCount() > 0) {
+      return null;
+    }
+    SummaryCache cache = new SummaryCache(options.getSummaryCache(), getSummaryOptionsKey());
+    Set<String> staleFiles = new HashSet<>(cache.findStaleFiles(sourceFiles));
+    if (staleFiles.isEmpty()) {
+      return cache.getSummaries();
+    }
+    staleFiles.addAll(cache.removeFilesWithSecondaryTypes());
+    Parser parser = createParser(options);
+    // The unchanged files are only read to resolve the types that the stale files reference.
+    File currentSourceDir = cache.copyCurrentSources();
+    parser.prependSourcepathEntry(currentSourceDir.getPath());
+    List<String> strippedFiles = new ArrayList<>(sourceFiles);
+    File strippedDir = stripIncompatible(strippedFiles, parser);
+    List<String> parsedFiles = new ArrayList<>();
+    // The parser reports each unit by its URI path.
+    Map<String, String> originalPaths = new HashMap<>();
+    for (int i = 0; i < sourceFiles.size(); i++) {
+      if (staleFiles.contains(sourceFiles.get(i))) {
+        parsedFiles.add(strippedFiles.get(i));
+        originalPaths.put(getUriPath(strippedFiles.get(i)), sourceFiles.get(i));
+      }
+    }
+    Parser.Handler handler =
+        new Parser.Handler() {
+          @Override
+          public void handleParsedUnit(String path, CompilationUnit unit) {
+            UsedCodeMarker.Context context = new UsedCodeMarker.Context();
+            new UsedCodeMarker(unit, context).run();
+            cache.put(
+                originalPaths.get(path),
+                TreeUtil.getQualifiedMainTypeName(unit),
+                context.getLibraryInfo());
+          }
+        };
+
+    parser.parseFiles(parsedFiles, handler, options.sourceVersion());
+    FileUtil.deleteTempDir(strippedDir);
+    FileUtil.deleteTempDir(currentSourceDir);
+    parser.close();
+    if (ErrorUtil.errorCount() > 0) {
+      return null;
+    }
+    cache.write();
+    return cache.getSummaries();
+  }
+
+  /**
+   * Summarizes the source files in partitions, each parsed by its own javac task into its own
+   * summary. Up to -j partitions are parsed at once. The summaries are returned in partition
+   * order, so the result doesn't depend on which task finishes first.
+   */
+  private @Nullable ImmutableList<LibraryInfo> createPartitionedLibraryInfos() throws IOException {
+    GenerationBatch batch = new GenerationBatch(j2objcOptions);
+    batch.processFileArgs(options.getSourceFiles());
+    if (ErrorUtil.errorCount() > 0) {
+      return null;
+    }
+    BatchPartitioner partitioner =
+        new BatchPartitioner(j2objcOptions.fileUtil(), options.maxPartitionBytes());
+    List<List<ProcessingContext>> partitions = partitioner.partition(batch.getInputs());
+    // Types in other partitions are resolved from their sources. The stripped copies of all the
+    // partitions' sources are written once, and found before the originals.
+    Set<String> sourceRoots = partitioner.getSourceRoots();
+    List<String> sourceFiles = new ArrayList<>();
+    for (List<ProcessingContext> partition : partitions) {
+      for (ProcessingContext input : partition) {
+        sourceFiles.add(input.getFile().getAbsolutePath());
+      }
+    }
+    File strippedDir;
+    Parser stripParser = createParser(options);
+    try {
+      strippedDir = stripIncompatible(sourceFiles, stripParser);
+    } finally {
+      stripParser.close();
+    }
+    List<List<String>> partitionFiles = new ArrayList<>();
+    int start = 0;
+    for (List<ProcessingContext> partition : partitions) {
+      partitionFiles.add(sourceFiles.subList(start, start + partition.size()));
+      start += partition.size();
+    }
+    try {
+      return summarizePartitions(partitions, partitionFiles, sourceRoots, strippedDir);
+    } finally {
+      FileUtil.deleteTempDir(strippedDir);
+    }
+  }
+
+  private @Nullable ImmutableList<LibraryInfo> summarizePartitions(
+      List<List<ProcessingContext>> partitions,
+      List<List<String>> partitionFiles,
+      Set<String> sourceRoots,
+      @Nullable File strippedDir)
+      throws IOException {
+    ImmutableList.Builder<LibraryInfo> summaries = ImmutableList.builder();
+    int nThreads = Math.min(options.threads(), partitions.size());
+    if (nThreads > 1) {
+      ExecutorService executor = Executors.newFixedThreadPool(
+          nThreads,
+          new ThreadFactoryBuilder()
+              .setNameFormat("tree-shaker-parse-%d")
+              .setDaemon(true)
+              .build());
+      try {
+        List<Future<LibraryInfo>> results = new ArrayList<>();
+        for (List<String> files : partitionFiles) {
+          results.add(
+              executor.submit(() -> summarizePartition(files, sourceRoots, strippedDir)));
+        }
+        for (int i = 0; i < results.size(); i++) {
+          try {
+            summaries.add(results.get(i).get());
+          } catch (ExecutionException e) {
+            ErrorUtil.fatalError(e.getCause(), partitions.get(i).get(0).getOriginalSourcePath());
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ErrorUtil.fatalError(e, partitions.get(i).get(0).getOriginalSourcePath());
+          }
+        }
+      } finally {
+        executor.shutdown();
+      }
+    } else {
+      for (List<String> files : partitionFiles) {
+        summaries.add(summarizePartition(files, sourceRoots, strippedDir));
+      }
+    }
+    if (ErrorUtil.errorCount() > 0) {
+      return null;
+    }
+    return summaries.build();
+  }
+
+  private LibraryInfo summarizePartition(
+      List<String> sourceFiles, Set<String> sourceRoots, @Nullable File strippedDir)
+      throws IOException {
+    Parser parser = createParser(options);
+    if (strippedDir != null) {
+      parser.prependSourcepathEntry(strippedDir.getPath());
+    }
+    for (String root : sourceRoots) {
+      parser.addSourcepathEntry(root);
+    }
+    UsedCodeMarker.Context context = new UsedCodeMarker.Context();
+    parser.parseFiles(
+        sourceFiles,
+        (path, unit) -> new UsedCodeMarker(unit, context).run(),
+        options.sourceVersion());
+    parser.close();
+    return context.getLibraryInfo();
+  }
+
+  private static String getUriPath(String path) {
+    return new File(path).getAbsoluteFile().toURI().getPath();
+  }
+
+  /**
+   * Describes the tool, the options and the class files that change a file's summary. Library
+   * types resolve the summary's method references and overrides, so the JDK and the contents of
+   * the classpath and bootclasspath entries are hashed.
+   */
+  private String getSummaryOptionsKey() throws IOException {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(
+        String.join(
+            ":",
+            Integer.toString(SUMMARY_VERSION),
+            Version.jarVersion(TreeShaker.class),
+            options.sourceVersion().flag(),
+            Boolean.toString(options.stripReflection()),
+            System.getProperty("java.version")),
+        UTF_8);
+    for (String option : options.getPlatformModuleSystemOptions()) {
+      hasher.putString(option, UTF_8);
+    }
+    List<String> entries = new ArrayList<>();
+    entries.addAll(
+        Splitter.on(File.pathSeparatorChar)
+            .omitEmptyStrings()
+            .splitToList(Strings.nullToEmpty(options.getBootclasspath())));
+    entries.addAll(j2objcOptions.fileUtil().getClassPathEntries());
+    for (String entry : entries) {
+      hashClasspathEntry(hasher, new File(entry));
+    }
+    return hasher.hash().toString();
+  }
+
+  // Hashes a jar, or each file in a class directory along with its relative path.
+  private static void hashClasspathEntry(Hasher hasher, File entry) throws IOException {
+    hasher.putString(entry.getPath(), UTF_8);
+    if (entry.isFile()) {
+      hasher.putBytes(Files.asByteSource(entry).hash(Hashing.sha256()).asBytes());
+    } else if (entry.isDirectory()) {
+      List<File> files = new ArrayList<>();
+      Files.fileTraverser().depthFirstPreOrder(entry).forEach(file -> {
+        if (file.isFile()) {
+          files.add(file);
+        }
+      });
+      files.sort(Comparator.comparing(File::getPath));
+      for (File file : files) {
+        hasher.putString(file.getPath(), UTF_8);
+        hasher.putBytes(Files.asByteSource(file).hash(Hashing.sha256()).asBytes());
+      }
+    }
+  }
+
   private List<String> getSourceFiles() {
     GenerationBatch batch = new GenerationBatch(j2objcOptions);
     batch.processFileArgs(options.getSourceFiles());
@@ -229,9 +505,8 @@ public class TreeShaker {
         .collect(Collectors.toList());
   }
 
-  private static void writeToFile(Options options, CodeReferenceMap unused) {
-    try (BufferedWriter writer =
-        Files.newWriter(options.getOutputFile(), Charset.defaultCharset())) {
+  private static void writeToFile(File outputFile, CodeReferenceMap unused) {
+    try (BufferedWriter writer = Files.newWriter(outputFile, Charset.defaultCharset())) {
       writeUnused(
           unused,
           s -> {
@@ -289,6 +564,13 @@ public class TreeShaker {
                         writer.accept("\n");
                       });
             });
+    // ProGuard's field lines also have the field's type, which the usage parser ignores.
+    for (String type : ImmutableSortedSet.copyOf(unused.getReferencedFields().keySet())) {
+      writer.accept(type + ":\n");
+      for (String field : ImmutableSortedSet.copyOf(unused.getReferencedFields().get(type))) {
+        writer.accept("    " + field + "\n");
+      }
+    }
   }
 
   private static int getArgTypes(String type, int offset, StringBuilder result) {
@@ -371,7 +653,10 @@ public class TreeShaker {
       exitOnErrorsOrWarnings(treatWarningsAsErrors);
       CodeReferenceMap unusedCode = shaker.findUnusedCode();
       if (unusedCode != null) {
-        writeToFile(options, unusedCode);
+        writeToFile(options.getOutputFile(), unusedCode);
+        if (options.getFinalMethodsOutputFile() != null) {
+          writeToFile(options.getFinalMethodsOutputFile(), shaker.findFinalMethods());
+        }
       }
     } catch (IOException e) {
       ErrorUtil.error(e.getMessage());
@@ -15,23 +15,30 @@ package com.google.devtools.treeshaker;
 
 import static com.google.common.base.Preconditions.checkState;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Maps;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 final class Type {
-  static Type buildFrom(TypeInfo typeInfo, String name) {
-    return new Type(name, typeInfo.getExported(), typeInfo.getMemberList());
+  static Type buildFrom(TypeInfo typeInfo, String name, Interner<String> interner) {
+    return new Type(
+        name, typeInfo.getExported(), typeInfo.getMemberList(), typeInfo.getFieldList(), interner);
   }
 
   private final String name;
   private final boolean isExported;
-  private final Map<String, Member> membersByName = new LinkedHashMap<>();
-  private final Map<String, Member> membersBySignature = new LinkedHashMap<>();
+  private final Map<String, Member> membersByName;
+  private final Map<String, Member> membersBySignature;
+  private final Map<String, Field> fieldsByName;
+  // Built on first use, once the type graph has set each member's original member.
+  private Map<String, Member> membersByOriginalSignature;
 
   private Type superClass;
   private final List<Type> superInterfaces = new ArrayList<>();
@@ -40,16 +47,24 @@ final class Type {
   private boolean instantiated;
   private final Set<Member> potentiallyLiveMembers = new HashSet<>();
 
-  private Type(String name, boolean isExported, Collection<MemberInfo> members) {
+  private Type(String name, boolean isExported, Collection<MemberInfo> members,
+      Collection<FieldInfo> fields, Interner<String> interner) {
     this.name = name;
     this.isExported = isExported;
+    membersByName = Maps.newLinkedHashMapWithExpectedSize(members.size());
+    membersBySignature = Maps.newHashMapWithExpectedSize(members.size());
     members.forEach(memberInfo -> {
-      Member member = Member.buildFrom(memberInfo, this);
+      Member member = Member.buildFrom(memberInfo, this, interner);
       Member previous = membersByName.put(member.getName(), member);
       Member previousBySignature = membersBySignature.put(member.getSignature(), member);
       checkState(previous == null);
       checkState(previousBySignature == null);
     });
+    fieldsByName = Maps.newLinkedHashMapWithExpectedSize(fields.size());
+    fields.forEach(fieldInfo -> {
+      Field field = Field.buildFrom(fieldInfo, this, interner);
+      checkState(fieldsByName.put(field.getName(), field) == null);
+    });
   }
 
   String getName() {
@@ -68,10 +83,32 @@ final class Type {
     return membersBySignature.get(signature);
   }
 
+  // Returns the first member whose original member has the given signature.
+  Member getMemberByOriginalSignature(String signature) {
+    if (membersByOriginalSignature == null) {
+      Map<String, Member> members = new HashMap<>();
+      for (Member member : getMembers()) {
+        if (member.getOriginalMember() != null) {
+          members.putIfAbsent(member.getOriginalMember().getSignature(), member);
+        }
+      }
+      membersByOriginalSignature = members.isEmpty() ? Collections.emptyMap() : members;
+    }
+    return membersByOriginalSignature.get(signature);
+  }
+
   Collection<Member> getMembers() {
     return membersByName.values();
   }
 
+  Field getFieldByName(String name) {
+    return fieldsByName.get(name);
+  }
+
+  Collection<Field> getFields() {
+    return fieldsByName.values();
+  }
+
   Type getSuperClass() {
     return superClass;
   }
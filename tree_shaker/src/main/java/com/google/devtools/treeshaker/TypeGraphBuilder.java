@@ -14,6 +14,8 @@
 package com.google.devtools.treeshaker;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -30,9 +32,12 @@ class TypeGraphBuilder {
     Map<String, Type> typesByName = new LinkedHashMap<>();
     externalTypeReferences = new HashSet<>();
     unknownMethodReferences = new HashSet<>();
+    // Shares the member name strings that each summary decodes separately.
+    Interner<String> interner = Interners.newStrongInterner();
     for (LibraryInfo libraryInfo : libraryInfos) {
       for (TypeInfo typeInfo : libraryInfo.getTypeList()) {
-        Type type = Type.buildFrom(typeInfo, libraryInfo.getTypeMap(typeInfo.getTypeId()));
+        Type type =
+            Type.buildFrom(typeInfo, libraryInfo.getTypeMap(typeInfo.getTypeId()), interner);
         typesByName.put(
             type.getName(), type); // Type names are fully qualified, no risk of overriding.
       }
@@ -114,7 +119,32 @@ class TypeGraphBuilder {
           }
           member.addReferencedMember(referencedMember);
         }
+
+        for (FieldReference fieldReference : memberInfo.getReadFieldsList()) {
+          Field field = getField(libraryInfo, typesByName, fieldReference);
+          if (field != null) {
+            member.addReadField(field);
+          }
+        }
+        for (FieldReference fieldReference : memberInfo.getWrittenFieldsList()) {
+          Field field = getField(libraryInfo, typesByName, fieldReference);
+          if (field != null) {
+            member.addWrittenField(field);
+          }
+        }
       }
     }
   }
+
+  // Returns null for constants and fields of external types, which aren't tracked.
+  private Field getField(
+      LibraryInfo libraryInfo, Map<String, Type> typesByName, FieldReference fieldReference) {
+    Type enclosingType =
+        typesByName.get(libraryInfo.getTypeMap(fieldReference.getEnclosingType()));
+    if (enclosingType == null) {
+      externalTypeReferences.add(libraryInfo.getTypeMap(fieldReference.getEnclosingType()));
+      return null;
+    }
+    return enclosingType.getFieldByName(fieldReference.getField());
+  }
 }
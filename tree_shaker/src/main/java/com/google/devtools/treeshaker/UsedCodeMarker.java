@@ -22,6 +22,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.devtools.j2objc.ast.Annotation;
 import com.google.devtools.j2objc.ast.AnnotationTypeDeclaration;
+import com.google.devtools.j2objc.ast.Assignment;
 import com.google.devtools.j2objc.ast.CastExpression;
 import com.google.devtools.j2objc.ast.ClassInstanceCreation;
 import com.google.devtools.j2objc.ast.CompilationUnit;
@@ -30,6 +31,7 @@ import com.google.devtools.j2objc.ast.CreationReference;
 import com.google.devtools.j2objc.ast.EnhancedForStatement;
 import com.google.devtools.j2objc.ast.EnumConstantDeclaration;
 import com.google.devtools.j2objc.ast.EnumDeclaration;
+import com.google.devtools.j2objc.ast.Expression;
 import com.google.devtools.j2objc.ast.ExpressionMethodReference;
 import com.google.devtools.j2objc.ast.FieldAccess;
 import com.google.devtools.j2objc.ast.FieldDeclaration;
@@ -40,14 +42,20 @@ import com.google.devtools.j2objc.ast.MarkerAnnotation;
 import com.google.devtools.j2objc.ast.MethodDeclaration;
 import com.google.devtools.j2objc.ast.MethodInvocation;
 import com.google.devtools.j2objc.ast.NormalAnnotation;
+import com.google.devtools.j2objc.ast.NullLiteral;
 import com.google.devtools.j2objc.ast.PackageDeclaration;
+import com.google.devtools.j2objc.ast.ParenthesizedExpression;
+import com.google.devtools.j2objc.ast.PostfixExpression;
+import com.google.devtools.j2objc.ast.PrefixExpression;
 import com.google.devtools.j2objc.ast.PropertyAnnotation;
 import com.google.devtools.j2objc.ast.QualifiedName;
 import com.google.devtools.j2objc.ast.SimpleName;
 import com.google.devtools.j2objc.ast.SimpleType;
 import com.google.devtools.j2objc.ast.SingleMemberAnnotation;
 import com.google.devtools.j2objc.ast.SuperConstructorInvocation;
+import com.google.devtools.j2objc.ast.SuperFieldAccess;
 import com.google.devtools.j2objc.ast.SuperMethodInvocation;
+import com.google.devtools.j2objc.ast.TreeNode;
 import com.google.devtools.j2objc.ast.TreeUtil;
 import com.google.devtools.j2objc.ast.TryStatement;
 import com.google.devtools.j2objc.ast.Type;
@@ -88,16 +96,22 @@ final class UsedCodeMarker extends UnitTreeVisitor {
   static final String SIGNATURE_PREFIX = "##";
   private static final String USED_BY_NATIVE = "UsedByNative";
   private static final String USED_BY_REFLECTION = "UsedByReflection";
+  private static final String OCNI_COMMENT_START = "/*-[";
 
   private final Context context;
   private final boolean isEntryClass;
   private boolean needsReflection;
+  // Native code can use any field of the file's types without a reference in the summary.
+  private final boolean hasNativeCode;
+  private final TypeMirror serializableType;
 
   UsedCodeMarker(CompilationUnit unit, Context context) {
     super(unit);
     this.context = context;
     this.isEntryClass = context.exportedClasses.contains(unit.getMainTypeName());
     this.needsReflection = !options.stripReflection();
+    this.hasNativeCode = unit.getSource().contains(OCNI_COMMENT_START);
+    this.serializableType = typeUtil.resolveJavaType("java.io.Serializable").asType();
   }
 
   @Override
@@ -178,6 +192,7 @@ final class UsedCodeMarker extends UnitTreeVisitor {
 
   @Override
   public boolean visit(FieldDeclaration node) {
+    addField(node);
     if (Modifier.isStatic(node.getModifiers())) {
       pushClinit();
     }
@@ -296,6 +311,12 @@ final class UsedCodeMarker extends UnitTreeVisitor {
     node.getExecutableType().getParameterTypes().forEach(this::addReferencedType);
   }
 
+  @Override
+  public void endVisit(SuperFieldAccess node) {
+    // The field's name isn't a child node, so it isn't visited as a simple name.
+    addFieldReference(node.getVariableElement(), node);
+  }
+
   @Override
   public void endVisit(SuperMethodInvocation node) {
     addMethodInvocation(node.getExecutableElement());
@@ -345,6 +366,9 @@ final class UsedCodeMarker extends UnitTreeVisitor {
     if (var != null) {
       TypeElement declaringClass = ElementUtil.getDeclaringClass(var);
       addReferencedType(declaringClass.asType());
+      if (ElementUtil.isField(var)) {
+        addFieldReference(var, node);
+      }
     }
     return true;
   }
@@ -502,6 +526,85 @@ final class UsedCodeMarker extends UnitTreeVisitor {
     return Annotations.newBuilder().setUsedByNativeOrReflection(usedByNativeOrReflection).build();
   }
 
+  private void addField(FieldDeclaration node) {
+    VariableDeclarationFragment fragment = node.getFragment();
+    VariableElement var = fragment.getVariableElement();
+    if (var.getConstantValue() != null) {
+      // Constants are inlined where they're used, so their declarations are always kept.
+      return;
+    }
+    Expression initializer = fragment.getInitializer();
+    boolean isExported =
+        context.currentTypeInfoScope.peek().getExported()
+            || getAnnotations(var).getUsedByNativeOrReflection()
+            || hasNativeCode
+            || isSerialized(node)
+            || (initializer != null && !isSideEffectFree(initializer));
+    context
+        .currentTypeInfoScope
+        .peek()
+        .addField(FieldInfo.newBuilder().setName(ElementUtil.getName(var)).setExported(isExported));
+  }
+
+  // Serialization reads and writes the instance fields of serializable types by reflection.
+  private boolean isSerialized(FieldDeclaration node) {
+    int modifiers = node.getModifiers();
+    return needsReflection
+        && !Modifier.isStatic(modifiers)
+        && !Modifier.isTransient(modifiers)
+        && typeUtil.isAssignable(
+            ElementUtil.getDeclaringClass(node.getFragment().getVariableElement()).asType(),
+            serializableType);
+  }
+
+  private static boolean isSideEffectFree(Expression initializer) {
+    return initializer.getConstantValue() != null || initializer instanceof NullLiteral;
+  }
+
+  private void addFieldReference(VariableElement field, Expression node) {
+    int declTypeId = getTypeId(elementUtil.getBinaryName(ElementUtil.getDeclaringClass(field)));
+    FieldReference reference =
+        FieldReference.newBuilder()
+            .setField(ElementUtil.getName(field))
+            .setEnclosingType(declTypeId)
+            .build();
+    TreeNode access = getFieldAccess(node);
+    TreeNode parent = access.getParent();
+    boolean isWritten = false;
+    boolean isRead = true;
+    if (parent instanceof Assignment && ((Assignment) parent).getLeftHandSide() == access) {
+      isWritten = true;
+      isRead = ((Assignment) parent).getOperator() != Assignment.Operator.ASSIGN;
+    } else if (parent instanceof PostfixExpression) {
+      isWritten = true;
+    } else if (parent instanceof PrefixExpression) {
+      PrefixExpression.Operator op = ((PrefixExpression) parent).getOperator();
+      isWritten =
+          op == PrefixExpression.Operator.INCREMENT || op == PrefixExpression.Operator.DECREMENT;
+    }
+    if (isRead) {
+      context.readFieldsScope.peek().add(reference);
+    }
+    if (isWritten) {
+      context.writtenFieldsScope.peek().add(reference);
+    }
+  }
+
+  // Returns the expression whose value is the field: a field's name is part of a qualified name or
+  // field access, and the access may be parenthesized.
+  private static TreeNode getFieldAccess(Expression node) {
+    TreeNode access = node;
+    TreeNode parent = access.getParent();
+    if ((parent instanceof FieldAccess && ((FieldAccess) parent).getName() == access)
+        || (parent instanceof QualifiedName && ((QualifiedName) parent).getName() == access)) {
+      access = parent;
+    }
+    while (access.getParent() instanceof ParenthesizedExpression) {
+      access = access.getParent();
+    }
+    return access;
+  }
+
   private void startTypeScope(
       String typeName, String superName, List<String> interfaces, boolean isExported) {
     Integer id = getTypeId(typeName);
@@ -528,6 +631,8 @@ final class UsedCodeMarker extends UnitTreeVisitor {
             .setStatic(true)
             .setExported(isExported));
     context.clinitReferencedTypesScope.push(new HashSet<>());
+    context.clinitReadFieldsScope.push(new HashSet<>());
+    context.clinitWrittenFieldsScope.push(new HashSet<>());
   }
 
   private void endTypeScope() {
@@ -538,6 +643,8 @@ final class UsedCodeMarker extends UnitTreeVisitor {
     for (Integer typeId : context.clinitReferencedTypesScope.pop()) {
       clinit.addReferencedTypes(typeId);
     }
+    clinit.addAllReadFields(context.clinitReadFieldsScope.pop());
+    clinit.addAllWrittenFields(context.clinitWrittenFieldsScope.pop());
     context.currentTypeInfoScope.peek().addMember(clinit.build());
     TypeInfo ti = context.currentTypeInfoScope.pop().build();
     context.currentTypeNameScope.pop();
@@ -548,6 +655,8 @@ final class UsedCodeMarker extends UnitTreeVisitor {
   private void startMethodScope(MemberInfo.Builder member) {
     context.memberScope.push(member);
     context.referencedTypesScope.push(new HashSet<>());
+    context.readFieldsScope.push(new HashSet<>());
+    context.writtenFieldsScope.push(new HashSet<>());
   }
 
   private void startMethodDeclaration(
@@ -627,17 +736,23 @@ final class UsedCodeMarker extends UnitTreeVisitor {
     for (Integer typeId : context.referencedTypesScope.pop()) {
       member.addReferencedTypes(typeId);
     }
+    member.addAllReadFields(context.readFieldsScope.pop());
+    member.addAllWrittenFields(context.writtenFieldsScope.pop());
     context.currentTypeInfoScope.peek().addMember(member.build());
   }
 
   private void pushClinit() {
     context.memberScope.push(context.clinitMemberScope.peek());
     context.referencedTypesScope.push(context.clinitReferencedTypesScope.peek());
+    context.readFieldsScope.push(context.clinitReadFieldsScope.peek());
+    context.writtenFieldsScope.push(context.clinitWrittenFieldsScope.peek());
   }
 
   private void popClinit() {
     context.memberScope.pop();
     context.referencedTypesScope.pop();
+    context.readFieldsScope.pop();
+    context.writtenFieldsScope.pop();
   }
 
   private static ImmutableSet<String> getExportedClasses(CodeReferenceMap rootSet) {
@@ -673,11 +788,15 @@ final class UsedCodeMarker extends UnitTreeVisitor {
       TypeInfo.Builder typeBuilder = type.toBuilder();
       if (markedClasses.contains(typeMap.get(type.getTypeId()))) {
         // Set type as exported.
-        typeBuilder.setExported(true).clearMember();
+        typeBuilder.setExported(true).clearMember().clearField();
         for (MemberInfo member : type.getMemberList()) {
           // Set each method of the type as exported.
           typeBuilder.addMember(member.toBuilder().setExported(true).build());
         }
+        // Set each field of the type as exported.
+        for (FieldInfo field : type.getFieldList()) {
+          typeBuilder.addField(field.toBuilder().setExported(true).build());
+        }
         // Add inner types that need to be exported to a list.
         nextMarkedClasses.addAll(
             type.getInnerTypesList().stream().map(typeMap::get).collect(toImmutableList()));
@@ -733,7 +852,10 @@ final class UsedCodeMarker extends UnitTreeVisitor {
   }
 
   static LibraryInfo mark(LibraryInfo summary, File roots) {
-    CodeReferenceMap rootSet = ProGuardUsageParser.parseDeadCodeFile(roots);
+    return mark(summary, ProGuardUsageParser.parseDeadCodeFile(roots));
+  }
+
+  static LibraryInfo mark(LibraryInfo summary, CodeReferenceMap rootSet) {
     return markEntryClasses(
         summary, getExportedClasses(rootSet), UsedCodeMarker.getExportedMethods(rootSet));
   }
@@ -759,10 +881,14 @@ final class UsedCodeMarker extends UnitTreeVisitor {
     // Scope containing data for the current method being processed.
     private final Deque<MemberInfo.Builder> memberScope = new ArrayDeque<>();
     private final Deque<Set<Integer>> referencedTypesScope = new ArrayDeque<>();
+    private final Deque<Set<FieldReference>> readFieldsScope = new ArrayDeque<>();
+    private final Deque<Set<FieldReference>> writtenFieldsScope = new ArrayDeque<>();
 
     // Scope containing data for the current class initializer.
     private final Deque<MemberInfo.Builder> clinitMemberScope = new ArrayDeque<>();
     private final Deque<Set<Integer>> clinitReferencedTypesScope = new ArrayDeque<>();
+    private final Deque<Set<FieldReference>> clinitReadFieldsScope = new ArrayDeque<>();
+    private final Deque<Set<FieldReference>> clinitWrittenFieldsScope = new ArrayDeque<>();
 
     Context(CodeReferenceMap rootSet) {
       exportedMethods = getExportedMethods(rootSet);
@@ -15,6 +15,7 @@
 package com.google.devtools.treeshaker;
 
 import static com.google.common.base.StandardSystemProperty.JAVA_CLASS_PATH;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.truth.Truth.assertThat;
 
 import com.google.common.base.CharMatcher;
@@ -29,6 +30,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import junit.framework.TestCase;
 
@@ -40,6 +42,9 @@ public class TreeShakerTest extends TestCase {
 
   File tempDir;
   File treeShakerRoots;
+  File summaryCache;
+  long maxPartitionBytes;
+  int threads;
   List<String> inputFiles;
 
   static {
@@ -51,6 +56,9 @@ public class TreeShakerTest extends TestCase {
   protected void setUp() throws IOException {
     tempDir = createTempDir();
     treeShakerRoots = null;
+    summaryCache = null;
+    maxPartitionBytes = 0;
+    threads = 1;
     inputFiles = new ArrayList<>();
   }
 
@@ -64,12 +72,28 @@ public class TreeShakerTest extends TestCase {
   }
 
   private CodeReferenceMap findUnusedCode(boolean stripReflection) throws IOException {
+    return findUnusedCode(newTreeShaker(stripReflection));
+  }
+
+  private CodeReferenceMap findFinalMethods() throws IOException {
+    TreeShaker shaker = newTreeShaker(false);
+    findUnusedCode(shaker);
+    return shaker.findFinalMethods();
+  }
+
+  private TreeShaker newTreeShaker(boolean stripReflection) throws IOException {
     Options options = new Options();
     options.setClasspath(System.getProperty(JAVA_CLASS_PATH.value()));
     options.setTreeShakerRoots(treeShakerRoots);
     options.setSourceFiles(inputFiles);
     options.setStripReflection(stripReflection);
-    TreeShaker shaker = new TreeShaker(options);
+    options.setSummaryCache(summaryCache);
+    options.setMaxPartitionBytes(maxPartitionBytes);
+    options.setThreads(threads);
+    return new TreeShaker(options);
+  }
+
+  private static CodeReferenceMap findUnusedCode(TreeShaker shaker) throws IOException {
     CodeReferenceMap unused = shaker.findUnusedCode();
     if (ErrorUtil.errorCount() > 0) {
       fail("TreeShaker failed with errors:\n" + Joiner.on("\n").join(ErrorUtil.getErrorMessages()));
@@ -343,6 +367,37 @@ public class TreeShakerTest extends TestCase {
     assertThat(getUnusedMethods(unused)).containsExactly(getMethodName("p.A", "A", "()V"));
   }
 
+  public void testFinalMethods() throws IOException {
+    addTreeShakerRootsFile("p.A:\n    main()");
+    addSourceFile(
+        "A.java",
+        "package p; class A { static void main() {"
+            + " B<String> b = new C(); b.b(); b.c(); b.d(\"\"); }}");
+    addSourceFile(
+        "B.java", "package p; class B<T> { void b() {} void c() {} void d(T t) {} void e() {} }");
+    addSourceFile(
+        "C.java", "package p; class C extends B<String> { void c() {} void d(String s) {} }");
+    CodeReferenceMap finalMethods = findFinalMethods();
+
+    // B.c and B.d are overridden, and B.e isn't live.
+    assertThat(getUnusedClasses(finalMethods)).isEmpty();
+    assertThat(getUnusedMethods(finalMethods))
+        .containsExactly(
+            getMethodName("p.B", "b", "()V"),
+            getMethodName("p.C", "c", "()V"),
+            getMethodName("p.C", "d", "(Ljava/lang/String;)V"));
+  }
+
+  public void testFinalMethodsSkipsUninstantiatedOverrides() throws IOException {
+    addTreeShakerRootsFile("p.A:\n    main()");
+    addSourceFile("A.java", "package p; class A { static void main() { new B().b(); }}");
+    addSourceFile("B.java", "package p; class B { void b() {} }");
+    addSourceFile("C.java", "package p; class C extends B { void b() {} }");
+    CodeReferenceMap finalMethods = findFinalMethods();
+
+    assertThat(getUnusedMethods(finalMethods)).containsExactly(getMethodName("p.B", "b", "()V"));
+  }
+
   public void testSuperMethodInvocation() throws IOException {
     addTreeShakerRootsFile("p.A:\n    main()");
     addSourceFile("A.java", "package p; class A { static void main() { new C().b(); } }");
@@ -1905,6 +1960,216 @@ public class TreeShakerTest extends TestCase {
     assertThat(output).isEmpty();
   }
 
+  public void testUnusedFields() throws IOException {
+    addTreeShakerRootsFile("A:\n    main()");
+    addSourceFile(
+        "A.java",
+        "class A {\n"
+            + "  static final int CONSTANT = 1;\n"
+            + "  static int read;\n"
+            + "  static int unused;\n"
+            + "  static int usedByUnusedMethod;\n"
+            + "  static Object created = new Object();\n"
+            + "  static void main() { read += CONSTANT; }\n"
+            + "  static void unused() { usedByUnusedMethod++; }\n"
+            + "}\n");
+
+    CodeReferenceMap unused = findUnusedCode();
+    assertThat(unused.getReferencedFields())
+        .containsExactly("A", "unused", "A", "usedByUnusedMethod");
+    assertThat(writeUnused(unused)).endsWith("A:\n    unused\n    usedByUnusedMethod\n");
+  }
+
+  public void testFieldReferences() throws IOException {
+    addTreeShakerRootsFile("A:\n    main()");
+    addSourceFile(
+        "A.java",
+        "class A extends B {\n"
+            + "  int fromInner;\n"
+            + "  static void main() { new A().run(); }\n"
+            + "  void run() { super.fromSuper = 1; new Inner(); }\n"
+            + "  class Inner { Inner() { fromInner = 1; } }\n"
+            + "}\n");
+    addSourceFile("B.java", "class B { int fromSuper; }");
+
+    assertThat(findUnusedCode().getReferencedFields()).isEmpty();
+  }
+
+  public void testFieldReadsAndWrites() throws IOException {
+    addTreeShakerRootsFile("A:\n    main()");
+    addSourceFile(
+        "A.java",
+        "class A {\n"
+            + "  static int read;\n"
+            + "  static int written;\n"
+            + "  static int updated;\n"
+            + "  static int incremented;\n"
+            + "  int instance;\n"
+            + "  static void main() {\n"
+            + "    written = read;\n"
+            + "    updated += 1;\n"
+            + "    ++incremented;\n"
+            + "    (new A().instance) = -read;\n"
+            + "  }\n"
+            + "}\n");
+    TreeShaker shaker = newTreeShaker(false);
+    // Fields that are only written are still live.
+    assertThat(findUnusedCode(shaker).getReferencedFields()).isEmpty();
+
+    Member main = null;
+    for (Type type : shaker.getAnalyzedTypes()) {
+      if (type.getName().equals("A")) {
+        main = type.getMemberByName("main##()V");
+      }
+    }
+    assertThat(getFieldNames(main.getReadFields()))
+        .containsExactly("read", "updated", "incremented");
+    assertThat(getFieldNames(main.getWrittenFields()))
+        .containsExactly("written", "updated", "incremented", "instance");
+  }
+
+  public void testFieldsUsedWithoutReferences() throws IOException {
+    addTreeShakerRootsFile("A:\n    main()");
+    addSourceFile(
+        "UsedByReflection.java",
+        "package com.google.j2objc.annotations;\n"
+            + "import static java.lang.annotation.ElementType.*;\n"
+            + "import java.lang.annotation.Target;\n"
+            + "@Target({TYPE, METHOD, CONSTRUCTOR, FIELD})\n"
+            + "public @interface UsedByReflection {}");
+    addSourceFile(
+        "A.java",
+        "import com.google.j2objc.annotations.UsedByReflection;\n"
+            + "class A {\n"
+            + "  @UsedByReflection static int annotated;\n"
+            + "  static void main() { new B(); new C(); }\n"
+            + "}\n");
+    addSourceFile(
+        "B.java", "class B implements java.io.Serializable { int serialized; transient int unused; }");
+    addSourceFile("C.java", "class C { int used; native void run() /*-[ self->used_ = 1; ]-*/; }");
+
+    assertThat(findUnusedCode().getReferencedFields()).containsExactly("B", "unused");
+    assertThat(findUnusedCode(true).getReferencedFields())
+        .containsExactly("B", "serialized", "B", "unused");
+  }
+
+  public void testSummaryCache() throws IOException {
+    summaryCache = new File(tempDir, "cache");
+    addTreeShakerRootsFile("p.A:\n    main()");
+    addSourceFile("A.java", "package p; class A { static void main() { new B().b(\"\"); } }");
+    addSourceFile("B.java", "package p; class B { void b(String s) {} }");
+    addSourceFile("C.java", "package p; class C { void c(String s) {} }");
+    CodeReferenceMap unused = findUnusedCode();
+
+    assertThat(getUnusedClasses(unused)).containsExactly("p.C");
+    assertThat(getUnusedMethods(unused)).containsExactly(getMethodName("p.A", "A", "()V"));
+    assertThat(summaryCache.list()).hasLength(3);
+    setCacheFilesModified(0);
+
+    // No file changed, so every summary is read from the cache and none is written.
+    unused = findUnusedCode();
+    assertThat(getUnusedClasses(unused)).containsExactly("p.C");
+    assertThat(getUnusedMethods(unused)).containsExactly(getMethodName("p.A", "A", "()V"));
+    assertThat(getCacheFilesModified()).containsExactly(0L);
+  }
+
+  public void testSummaryCacheReparsesTransitiveDependents() throws IOException {
+    summaryCache = new File(tempDir, "cache");
+    addTreeShakerRootsFile("p.A:\n    main()");
+    addSourceFile(
+        "A.java", "package p; class A extends B { static void main() { new A().c(); } void c() {} }");
+    addSourceFile("B.java", "package p; class B extends C {}");
+    addSourceFile("C.java", "package p; class C {}");
+    findUnusedCode();
+    setCacheFilesModified(0);
+
+    // A.c() now overrides C.c(), so A's summary changes although A only references B.
+    writeSourceFile("C.java", "package p; class C { void c() {} }");
+    CodeReferenceMap unused = findUnusedCode();
+
+    assertThat(getCacheFilesModified()).doesNotContain(0L);
+    assertThat(getUnusedClasses(unused)).isEmpty();
+  }
+
+  public void testSummaryCacheReparsesChangedFiles() throws IOException {
+    summaryCache = new File(tempDir, "cache");
+    addTreeShakerRootsFile("p.A:\n    main()");
+    addSourceFile("A.java", "package p; class A { static void main() { new B().b(\"\"); } }");
+    addSourceFile("B.java", "package p; class B { void b(String s) {} }");
+    addSourceFile("C.java", "package p; class C { void c(String s) {} }");
+    findUnusedCode();
+
+    // A references B, so both are parsed again; C is only read to resolve B's reference.
+    writeSourceFile("B.java", "package p; class B { void b(String s) { new C().c(s); } }");
+    CodeReferenceMap unused = findUnusedCode();
+
+    assertThat(getUnusedClasses(unused)).isEmpty();
+    assertThat(getUnusedMethods(unused)).containsExactly(getMethodName("p.A", "A", "()V"));
+  }
+
+  public void testSummaryCacheReparsesFilesWithSecondaryTypes() throws IOException {
+    summaryCache = new File(tempDir, "cache");
+    addTreeShakerRootsFile("p.A:\n    main()");
+    addSourceFile("A.java", "package p; class A { static void main() { new B().b(\"\"); } }");
+    addSourceFile("B.java", "package p; class B { void b(String s) {} } class D { void d() {} }");
+    findUnusedCode();
+
+    // D can't be found on the sourcepath in a file named B.java, so B.java is parsed again.
+    writeSourceFile(
+        "A.java", "package p; class A { static void main() { new B().b(\"\"); new D().d(); } }");
+    CodeReferenceMap unused = findUnusedCode();
+
+    assertThat(getUnusedClasses(unused)).isEmpty();
+    assertThat(getUnusedMethods(unused)).containsExactly(getMethodName("p.A", "A", "()V"));
+  }
+
+  public void testPartitionedSummaries() throws IOException {
+    // Each package is parsed by its own task, and resolves the others from the sourcepath.
+    maxPartitionBytes = 1;
+    threads = 2;
+    addTreeShakerRootsFile("p.A:\n    main()");
+    addSourceFile("p/A.java", "package p; class A { static void main() { new q.B().b(\"\"); } }");
+    addSourceFile("q/B.java", "package q; public class B { public void b(String s) {} }");
+    addSourceFile("r/C.java", "package r; class C { void c(String s) {} }");
+    CodeReferenceMap unused = findUnusedCode();
+
+    assertThat(getUnusedClasses(unused)).containsExactly("r.C");
+    assertThat(getUnusedMethods(unused)).containsExactly(getMethodName("p.A", "A", "()V"));
+  }
+
+  public void testPartitionedSummariesResolveStrippedSources() throws IOException {
+    // B is resolved from the sourcepath by A's partition, so it must be found stripped there too.
+    maxPartitionBytes = 1;
+    threads = 2;
+    addTreeShakerRootsFile("p.A:\n    main()");
+    addSourceFile("p/A.java", "package p; class A { static void main() { new q.B().b(\"\"); } }");
+    addSourceFile(
+        "q/B.java",
+        "package q;\n"
+            + "import com.google.j2objc.annotations.J2ObjCIncompatible;\n"
+            + "import non.existent.Garbage;\n"
+            + "public class B {\n"
+            + "  public void b(String s) {}\n"
+            + "  @J2ObjCIncompatible public Garbage g() { return null; }\n"
+            + "}\n");
+    CodeReferenceMap unused = findUnusedCode();
+
+    assertThat(getUnusedClasses(unused)).isEmpty();
+    assertThat(getUnusedMethods(unused)).containsExactly(getMethodName("p.A", "A", "()V"));
+  }
+
+  private void setCacheFilesModified(long time) {
+    for (File file : summaryCache.listFiles()) {
+      assertTrue(file.setLastModified(time));
+    }
+  }
+
+  private ImmutableSet<Long> getCacheFilesModified() {
+    return Arrays.stream(summaryCache.listFiles())
+        .map(File::lastModified)
+        .collect(toImmutableSet());
+  }
+
   private static String writeUnused(CodeReferenceMap unused) {
     StringBuilder result = new StringBuilder();
     TreeShaker.writeUnused(unused, result::append);
@@ -1921,6 +2186,10 @@ public class TreeShakerTest extends TestCase {
     return UsedCodeMarker.getQualifiedMethodName(type, name, signature);
   }
 
+  private static ImmutableSet<String> getFieldNames(List<Field> fields) {
+    return fields.stream().map(Field::getName).collect(toImmutableSet());
+  }
+
   private static ImmutableSet<String> getUnusedClasses(CodeReferenceMap unused) {
     return unused.getReferencedClasses();
   }
@@ -1947,6 +2216,10 @@ public class TreeShakerTest extends TestCase {
   }
 
   private void addSourceFile(String fileName, String... sources) throws IOException {
+    inputFiles.add(writeSourceFile(fileName, sources).getAbsolutePath());
+  }
+
+  private File writeSourceFile(String fileName, String... sources) throws IOException {
     File file = new File(tempDir, fileName);
     file.getParentFile().mkdirs();
     StringBuilder source = new StringBuilder();
@@ -1954,7 +2227,7 @@ public class TreeShakerTest extends TestCase {
       source.append(s);
     }
     Files.asCharSink(file, Charset.defaultCharset()).write(source);
-    inputFiles.add(file.getAbsolutePath());
+    return file;
   }
 
   private File createTempDir() throws IOException {